@@ -0,0 +1,82 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of tokenizing a query with a new token stream, and with the reused token stream of the
+ * thread. The {@code gc.alloc.rate.norm} column of the GC profiler is the number of bytes
+ * allocated per query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalyzerBenchmark {
+
+  @Param({Lucene.HU_ROOTS, Lucene.NO_TRANS, Lucene.HU_TRANS})
+  private String field;
+
+  private Analyzer analyzer;
+
+  private String query;
+
+  @Setup
+  public void setUp() {
+    analyzer = PerFieldAnalyzer.getInstance(Lucene.VERSION);
+    query = SyntheticDictionary.form(12345);
+  }
+
+  /**
+   * Tokenize the query with a new token stream.
+   *
+   * @param blackhole consumes the tokens
+   * @throws IOException if the token stream throws an exception
+   */
+  @Benchmark
+  public void tokenStream(Blackhole blackhole) throws IOException {
+    consume(analyzer.tokenStream(field, new StringReader(query)), blackhole);
+  }
+
+  /**
+   * Tokenize the query with the reused token stream of the thread.
+   *
+   * @param blackhole consumes the tokens
+   * @throws IOException if the token stream throws an exception
+   */
+  @Benchmark
+  public void reusableTokenStream(Blackhole blackhole) throws IOException {
+    consume(analyzer.reusableTokenStream(field, new StringReader(query)), blackhole);
+  }
+
+  private static void consume(TokenStream tokenStream, Blackhole blackhole) throws IOException {
+    CharTermAttribute attribute = tokenStream.getAttribute(CharTermAttribute.class);
+    tokenStream.reset();
+    while (tokenStream.incrementToken()) {
+      blackhole.consume(attribute.length());
+    }
+    tokenStream.end();
+    tokenStream.close();
+  }
+
+}
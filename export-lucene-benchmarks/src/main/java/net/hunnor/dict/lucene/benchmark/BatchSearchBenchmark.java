@@ -0,0 +1,148 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.searcher.LuceneSearcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to look up a list of words, as when glossing a text, with a call of
+ * {@link LuceneSearcher#search(String, Language, int)} for each word, and with one call of
+ * {@link LuceneSearcher#searchBatch(List, Language, int, ExecutorService)}. The words are
+ * headwords, inflected forms and translations, and frequent words are repeated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchSearchBenchmark {
+
+  /**
+   * The ways of looking up the words.
+   */
+  public enum Lookup {
+
+    /**
+     * Search for each word.
+     */
+    LOOP,
+
+    /**
+     * Search for all words in one batch on the calling thread.
+     */
+    BATCH,
+
+    /**
+     * Search for all words in one batch, split between two threads.
+     */
+    BATCH_PARALLEL
+
+  }
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"1000", "10000"})
+  private int words;
+
+  @Param({"LOOP", "BATCH", "BATCH_PARALLEL"})
+  private Lookup lookup;
+
+  @Param({"20"})
+  private int max;
+
+  private SyntheticIndex syntheticIndex;
+
+  private LuceneSearcher searcher;
+
+  private ExecutorService executorService;
+
+  private List<String> text;
+
+  /**
+   * Build the index, open the searcher, and generate the words.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void open() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.build(entries);
+    searcher = LuceneSearcher.getInstance();
+    searcher.open(syntheticIndex.getIndexDir());
+    if (lookup == Lookup.BATCH_PARALLEL) {
+      executorService = Executors.newFixedThreadPool(2);
+    }
+    Random random = new Random(0);
+    int vocabulary = SyntheticDictionary.vocabularySize(entries) / 10;
+    text = new ArrayList<>(words);
+    for (int i = 0; i < words; i++) {
+      double rank = Math.pow(random.nextDouble(), 2);
+      switch (i % 3) {
+        case 0:
+          text.add(SyntheticDictionary.root((int) (rank * entries)));
+          break;
+        case 1:
+          text.add(SyntheticDictionary.form((int) (rank * entries)));
+          break;
+        default:
+          text.add(SyntheticDictionary.translation((int) (rank * vocabulary)));
+          break;
+      }
+    }
+  }
+
+  /**
+   * Close the searcher and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    if (executorService != null) {
+      executorService.shutdown();
+    }
+    searcher.close();
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Look up all words.
+   *
+   * @return the entries of each word
+   * @throws IOException if the index cannot be searched
+   */
+  @Benchmark
+  public List<List<Entry>> search() throws IOException {
+    if (lookup == Lookup.LOOP) {
+      List<List<Entry>> results = new ArrayList<>(text.size());
+      for (String word : text) {
+        results.add(searcher.search(word, Language.HU, max));
+      }
+      return results;
+    }
+    return searcher.searchBatch(text, Language.HU, max, executorService);
+  }
+
+}
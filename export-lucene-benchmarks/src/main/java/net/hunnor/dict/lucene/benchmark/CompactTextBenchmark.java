@@ -0,0 +1,96 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import net.hunnor.dict.lucene.indexer.StaxParser;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.text.CompactText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to turn the stored text of one entry of a synthetic export into its HTML, by decoding the
+ * UTF-8 bytes of the {@code text} field, and by decoding the {@link CompactText} of the
+ * {@code text_compact} field. The size of the index with each field is printed by
+ * {@link CompactTextReport}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompactTextBenchmark {
+
+  @Param({"10000"})
+  private int entries;
+
+  private byte[][] html;
+
+  private byte[][] compact;
+
+  private int next;
+
+  /**
+   * Parse the export and encode the texts of its entries.
+   *
+   * @throws IOException if the export cannot be written
+   * @throws XMLStreamException if the export cannot be parsed
+   */
+  @Setup(Level.Trial)
+  public void encode() throws IOException, XMLStreamException {
+    SyntheticIndex syntheticIndex = new SyntheticIndex();
+    List<String> texts = new ArrayList<>();
+    try {
+      File export = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+      StaxParser staxParser = new StaxParser();
+      staxParser.openFile(export.getAbsolutePath());
+      while (staxParser.hasNext()) {
+        Entry entry = staxParser.next();
+        if (entry != null) {
+          texts.add(entry.getText());
+        }
+      }
+      staxParser.closeFile();
+    } finally {
+      syntheticIndex.delete();
+    }
+    html = new byte[texts.size()][];
+    compact = new byte[texts.size()][];
+    for (int i = 0; i < texts.size(); i++) {
+      html[i] = texts.get(i).getBytes(StandardCharsets.UTF_8);
+      compact[i] = CompactText.encode(texts.get(i));
+    }
+  }
+
+  @Benchmark
+  public String html() {
+    return new String(html[nextIndex()], StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public String compact() {
+    return CompactText.decode(compact[nextIndex()]);
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % html.length;
+    return next;
+  }
+
+}
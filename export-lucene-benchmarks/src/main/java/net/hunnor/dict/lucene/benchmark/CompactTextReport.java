@@ -0,0 +1,66 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import net.hunnor.dict.lucene.indexer.Service;
+import net.hunnor.dict.lucene.model.Language;
+
+/**
+ * Compares the size of the stored fields and of the whole main index with the text of the
+ * entries stored as HTML, and as {@link net.hunnor.dict.lucene.text.CompactText}. The decoding
+ * cost of the texts is measured by {@link CompactTextBenchmark}.
+ */
+public final class CompactTextReport {
+
+  private CompactTextReport() {
+  }
+
+  /**
+   * Print the report.
+   *
+   * @param args the numbers of entries per language, 100000 by default
+   * @throws IOException if an index cannot be built
+   */
+  public static void main(String[] args) throws IOException {
+    PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8.name());
+    out.println(String.format(Locale.ROOT, "%-10s %-8s %14s %14s",
+        "entries", "text", "stored bytes", "index bytes"));
+    String[] entries = args.length > 0 ? args : new String[] {"100000"};
+    for (String argument : entries) {
+      int count = Integer.parseInt(argument);
+      report(out, count, false);
+      report(out, count, true);
+    }
+  }
+
+  private static void report(PrintStream out, int entries, boolean compactText)
+      throws IOException {
+    SyntheticIndex syntheticIndex = new SyntheticIndex();
+    try {
+      File huFile = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+      File noFile = syntheticIndex.export(SyntheticIndex.NO_SEED, entries);
+      String indexDir = syntheticIndex.getIndexDir().getAbsolutePath();
+      Service service = new Service();
+      service.setCompactText(compactText);
+      // One segment, so that the stored fields are in a single file
+      service.setMaxSegments(1);
+      service.indexFile(huFile.getAbsolutePath(), Language.HU, indexDir);
+      service.indexFile(noFile.getAbsolutePath(), Language.NO, indexDir);
+      long stored = 0;
+      for (File file : syntheticIndex.getIndexDir().listFiles()) {
+        if (file.getName().endsWith(".fdt")) {
+          stored += file.length();
+        }
+      }
+      long index = SyntheticIndex.size(syntheticIndex.getIndexDir());
+      out.println(String.format(Locale.ROOT, "%-10d %-8s %14d %14d",
+          entries, compactText ? "compact" : "html", stored, index));
+    } finally {
+      syntheticIndex.delete();
+    }
+  }
+
+}
@@ -0,0 +1,95 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.benchmark.LuceneSearcherBenchmark.Tier;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.searcher.DirectoryType;
+import net.hunnor.dict.lucene.searcher.LuceneSearcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency distribution of {@link LuceneSearcher#search(String, Language, int)} with the index
+ * opened by each {@link DirectoryType}. The {@code p0.50} and {@code p0.99} rows are the median
+ * and tail latencies.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DirectoryBenchmark {
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"ROOTS", "FULL_TEXT"})
+  private Tier tier;
+
+  @Param({"NIOFS", "MMAP", "PRELOADED"})
+  private DirectoryType directoryType;
+
+  @Param({"20"})
+  private int max;
+
+  private SyntheticIndex syntheticIndex;
+
+  private LuceneSearcher searcher;
+
+  private String[] queries;
+
+  private int next;
+
+  /**
+   * Build the index and open the searcher.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void open() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.build(entries);
+    searcher = LuceneSearcher.getInstance();
+    searcher.setDirectoryType(directoryType);
+    searcher.open(syntheticIndex.getIndexDir());
+    queries = LuceneSearcherBenchmark.queries(tier, entries);
+  }
+
+  /**
+   * Close the searcher and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    searcher.close();
+    searcher.setDirectoryType(DirectoryType.NIOFS);
+    syntheticIndex.delete();
+  }
+
+  @Benchmark
+  public List<Entry> search() throws IOException {
+    return searcher.search(queries[nextIndex()], Language.HU, max);
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % queries.length;
+    return next;
+  }
+
+}
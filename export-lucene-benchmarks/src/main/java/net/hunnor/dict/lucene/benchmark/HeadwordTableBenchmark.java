@@ -0,0 +1,172 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.analyzer.FoldingAnalyzer;
+import net.hunnor.dict.lucene.benchmark.LuceneSearcherBenchmark.Tier;
+import net.hunnor.dict.lucene.constants.Lucene;
+import net.hunnor.dict.lucene.headword.HeadwordTableReader;
+import net.hunnor.dict.lucene.headword.HeadwordTableWriter;
+import net.hunnor.dict.lucene.indexer.Service;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.searcher.LuceneSearcher;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of exact headword queries with and without the headword table. {@code search} is the
+ * whole search through {@link LuceneSearcher}, with the stored fields of the results, and
+ * {@code lookup} only finds the sorted document numbers of a folded root, from the table, or
+ * with a sorted term query on the roots field. The size of the table and the time to write it
+ * are printed at the end of the trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeadwordTableBenchmark {
+
+  private static final Sort ENTRY_ORDER = new Sort(new SortField(Lucene.SORT, SortField.STRING));
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"false", "true"})
+  private boolean headwordTable;
+
+  @Param({"20"})
+  private int max;
+
+  private SyntheticIndex syntheticIndex;
+
+  private LuceneSearcher searcher;
+
+  private IndexReader indexReader;
+
+  private IndexSearcher indexSearcher;
+
+  private HeadwordTableReader table;
+
+  private String report;
+
+  private String[] queries;
+
+  private String[] tokens;
+
+  private int next;
+
+  /**
+   * Build the index, with the headword table if enabled, and open the searchers.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void open() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    Service service = new Service();
+    service.setHeadwordTable(headwordTable);
+    syntheticIndex.build(entries, service);
+    searcher = LuceneSearcher.getInstance();
+    searcher.open(syntheticIndex.getIndexDir());
+    indexReader = IndexReader.open(new NIOFSDirectory(syntheticIndex.getIndexDir()));
+    indexSearcher = new IndexSearcher(indexReader);
+    if (headwordTable) {
+      // Written again to time the table alone
+      File file = new File(syntheticIndex.getIndexDir(), HeadwordTableWriter.FILE_NAME);
+      long start = System.nanoTime();
+      HeadwordTableWriter.write(indexReader, null, file);
+      long time = (System.nanoTime() - start) / 1_000_000;
+      table = HeadwordTableReader.open(file);
+      report = "Headword table: " + table.size() + " keys, " + file.length() + " bytes, written in "
+          + time + " ms";
+    }
+    queries = LuceneSearcherBenchmark.queries(Tier.ROOTS, entries);
+    tokens = new String[queries.length];
+    FoldingAnalyzer analyzer = new FoldingAnalyzer(Lucene.VERSION);
+    for (int i = 0; i < queries.length; i++) {
+      TokenStream tokenStream =
+          analyzer.reusableTokenStream(Lucene.HU_ROOTS, new StringReader(queries[i]));
+      CharTermAttribute attribute = tokenStream.getAttribute(CharTermAttribute.class);
+      tokenStream.reset();
+      tokenStream.incrementToken();
+      tokens[i] = attribute.toString();
+      tokenStream.end();
+      tokenStream.close();
+    }
+  }
+
+  /**
+   * Close the searchers and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    if (report != null) {
+      System.out.println(report);
+    }
+    indexSearcher.close();
+    indexReader.close();
+    searcher.close();
+    syntheticIndex.delete();
+  }
+
+  @Benchmark
+  public List<Entry> search() throws IOException {
+    return searcher.search(queries[nextIndex()], Language.HU, max);
+  }
+
+  /**
+   * Find the documents of a folded root in the entry order.
+   *
+   * @return the document numbers
+   * @throws IOException if the index cannot be searched
+   */
+  @Benchmark
+  public int[] lookup() throws IOException {
+    String token = tokens[nextIndex()];
+    if (table != null) {
+      return table.documents(Language.HU, token, max);
+    }
+    ScoreDoc[] scoreDocs = indexSearcher.search(
+        new TermQuery(new Term(Lucene.HU_ROOTS, token)), max, ENTRY_ORDER).scoreDocs;
+    int[] documents = new int[scoreDocs.length];
+    for (int i = 0; i < documents.length; i++) {
+      documents[i] = scoreDocs[i].doc;
+    }
+    return documents;
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % queries.length;
+    return next;
+  }
+
+}
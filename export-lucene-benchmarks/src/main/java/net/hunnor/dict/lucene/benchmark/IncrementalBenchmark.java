@@ -0,0 +1,141 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import net.hunnor.dict.lucene.indexer.Service;
+import net.hunnor.dict.lucene.model.Language;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to bring the index up to date with an export in which a few entries were edited, by
+ * rebuilding the index from scratch, and by an incremental run over the index of the previous
+ * export.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IncrementalBenchmark {
+
+  /**
+   * The ways of updating the index.
+   */
+  public enum Update {
+
+    /**
+     * Delete the index and index the whole export.
+     */
+    FULL,
+
+    /**
+     * Only write the changed entries into the index of the previous export.
+     */
+    INCREMENTAL
+
+  }
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"500"})
+  private int edits;
+
+  @Param({"FULL", "INCREMENTAL"})
+  private Update update;
+
+  private SyntheticIndex syntheticIndex;
+
+  private File previousDir;
+
+  private File editedFile;
+
+  /**
+   * Write the exports, and index the previous export.
+   *
+   * @throws IOException if the exports cannot be written
+   */
+  @Setup(Level.Trial)
+  public void build() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    final File previousFile = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+    editedFile = syntheticIndex.getDirectory().resolve("edited.xml").toFile();
+    new SyntheticDictionary(SyntheticIndex.HU_SEED, edits).write(editedFile, entries);
+    previousDir = syntheticIndex.getDirectory().resolve("previous").toFile();
+    service().indexFile(previousFile.getAbsolutePath(), Language.HU,
+        previousDir.getAbsolutePath());
+  }
+
+  /**
+   * Restore the index of the previous export, or delete it for a full rebuild.
+   *
+   * @throws IOException if the index cannot be copied
+   */
+  @Setup(Level.Invocation)
+  public void restore() throws IOException {
+    Path indexDir = syntheticIndex.getIndexDir().toPath();
+    if (Files.exists(indexDir)) {
+      try (Stream<Path> paths = Files.walk(indexDir)) {
+        for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+          Files.delete(path);
+        }
+      }
+    }
+    if (update == Update.INCREMENTAL) {
+      Files.createDirectories(indexDir);
+      try (Stream<Path> paths = Files.list(previousDir.toPath())) {
+        for (Path path : (Iterable<Path>) paths::iterator) {
+          Files.copy(path, indexDir.resolve(path.getFileName()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Delete the exports and indexes.
+   *
+   * @throws IOException if the files cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Index the edited export.
+   *
+   * @return the service
+   */
+  @Benchmark
+  public Service indexFile() {
+    Service service = service();
+    service.indexFile(editedFile.getAbsolutePath(), Language.HU,
+        syntheticIndex.getIndexDir().getAbsolutePath());
+    return service;
+  }
+
+  private Service service() {
+    Service service = new Service();
+    service.setIncremental(update == Update.INCREMENTAL);
+    return service;
+  }
+
+}
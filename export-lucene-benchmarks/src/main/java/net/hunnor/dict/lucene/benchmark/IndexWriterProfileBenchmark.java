@@ -0,0 +1,101 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import net.hunnor.dict.lucene.indexer.IndexWriterProfile;
+import net.hunnor.dict.lucene.indexer.Service;
+import net.hunnor.dict.lucene.model.Language;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to build the main index of a synthetic export from scratch with each
+ * {@link IndexWriterProfile}, with and without merging the index down to one segment at the end.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexWriterProfileBenchmark {
+
+  @Param({"1000000"})
+  private int entries;
+
+  @Param({"DEFAULT", "BULK"})
+  private IndexWriterProfile profile;
+
+  @Param({"0", "1"})
+  private int maxSegments;
+
+  private SyntheticIndex syntheticIndex;
+
+  private File export;
+
+  /**
+   * Generate the export.
+   *
+   * @throws IOException if the export cannot be written
+   */
+  @Setup(Level.Trial)
+  public void generate() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    export = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+  }
+
+  /**
+   * Delete the index of the previous invocation.
+   *
+   * @throws IOException if the index cannot be deleted
+   */
+  @Setup(Level.Invocation)
+  public void clean() throws IOException {
+    Path indexDir = syntheticIndex.getIndexDir().toPath();
+    if (Files.exists(indexDir)) {
+      try (Stream<Path> paths = Files.walk(indexDir)) {
+        for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+          Files.delete(path);
+        }
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Index the export.
+   *
+   * @return the service
+   */
+  @Benchmark
+  public Service indexFile() {
+    Service service = new Service();
+    service.setIndexWriterProfile(profile);
+    service.setCreate(true);
+    service.setMaxSegments(maxSegments);
+    service.indexFile(export.getAbsolutePath(), Language.HU,
+        syntheticIndex.getIndexDir().getAbsolutePath());
+    return service;
+  }
+
+}
@@ -0,0 +1,164 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.stream.XMLStreamException;
+import net.hunnor.dict.lucene.indexer.InputStrategy;
+import net.hunnor.dict.lucene.indexer.StaxParser;
+import net.hunnor.dict.lucene.model.Entry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to read a synthetic export with each {@link InputStrategy}, plain and gzipped, with the
+ * export in the page cache and after dropping the page cache. {@code read} only drains the
+ * stream in the 8 KB reads of a StAX reader, {@code parse} parses the entries with
+ * {@link StaxParser}.
+ *
+ * <p>Dropping the page cache writes to {@code /proc/sys/vm/drop_caches}, which needs root on
+ * Linux. The cold runs fail elsewhere.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InputBenchmark {
+
+  /**
+   * The state of the page cache before each read.
+   */
+  public enum Cache {
+
+    /**
+     * The export is in the page cache.
+     */
+    WARM,
+
+    /**
+     * The page cache is dropped before each read.
+     */
+    COLD
+
+  }
+
+  private static final Path DROP_CACHES = Paths.get("/proc/sys/vm/drop_caches");
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"STREAM", "BUFFERED", "CHANNEL", "MAPPED"})
+  private InputStrategy strategy;
+
+  @Param({"false", "true"})
+  private boolean gzip;
+
+  @Param({"WARM", "COLD"})
+  private Cache cache;
+
+  private SyntheticIndex syntheticIndex;
+
+  private File export;
+
+  /**
+   * Generate the export, and write it to the disk.
+   *
+   * @throws IOException if the export cannot be written
+   */
+  @Setup(Level.Trial)
+  public void generate() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    export = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+    if (gzip) {
+      File gzipped = new File(export.getPath() + ".gz");
+      try (OutputStream stream = new GZIPOutputStream(Files.newOutputStream(gzipped.toPath()))) {
+        Files.copy(export.toPath(), stream);
+      }
+      export = gzipped;
+    }
+    try (FileChannel channel = FileChannel.open(export.toPath(), StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+  }
+
+  /**
+   * Drop the page cache for the cold runs.
+   *
+   * @throws IOException if the page cache cannot be dropped
+   */
+  @Setup(Level.Invocation)
+  public void dropCaches() throws IOException {
+    if (cache == Cache.COLD) {
+      Files.write(DROP_CACHES, "1".getBytes(StandardCharsets.US_ASCII));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Read all bytes of the export.
+   *
+   * @return the number of bytes
+   * @throws IOException if the export cannot be read
+   */
+  @Benchmark
+  public long read() throws IOException {
+    long count = 0;
+    byte[] buffer = new byte[8192];
+    try (InputStream stream = strategy.open(export.getAbsolutePath())) {
+      int read;
+      while ((read = stream.read(buffer, 0, buffer.length)) >= 0) {
+        count += read;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Parse all entries of the export.
+   *
+   * @return the number of entries
+   * @throws XMLStreamException if the export cannot be parsed
+   */
+  @Benchmark
+  public int parse() throws XMLStreamException {
+    StaxParser staxParser = new StaxParser();
+    staxParser.setInputStrategy(strategy);
+    int count = 0;
+    staxParser.openFile(export.getAbsolutePath());
+    while (staxParser.hasNext()) {
+      Entry entry = staxParser.next();
+      if (entry != null) {
+        count++;
+      }
+    }
+    staxParser.closeFile();
+    return count;
+  }
+
+}
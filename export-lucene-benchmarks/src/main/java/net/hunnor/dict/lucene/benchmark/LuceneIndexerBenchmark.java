@@ -0,0 +1,113 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import net.hunnor.dict.lucene.indexer.LuceneIndexer;
+import net.hunnor.dict.lucene.indexer.StaxParser;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import org.apache.lucene.document.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Entries per second converted to Lucene documents, and written to an index on disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LuceneIndexerBenchmark {
+
+  @Param({"10000"})
+  private int entries;
+
+  private SyntheticIndex syntheticIndex;
+
+  private List<Entry> parsed;
+
+  private int next;
+
+  private LuceneIndexer luceneIndexer;
+
+  /**
+   * Parse a synthetic export into memory.
+   *
+   * @throws IOException if the export cannot be written
+   * @throws XMLStreamException if the export cannot be parsed
+   */
+  @Setup(Level.Trial)
+  public void parse() throws IOException, XMLStreamException {
+    syntheticIndex = new SyntheticIndex();
+    File export = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+    parsed = new ArrayList<>();
+    StaxParser staxParser = new StaxParser();
+    staxParser.openFile(export.getAbsolutePath());
+    while (staxParser.hasNext()) {
+      Entry entry = staxParser.next();
+      if (entry != null) {
+        entry.setLang(Language.HU);
+        parsed.add(entry);
+      }
+    }
+    staxParser.closeFile();
+  }
+
+  /**
+   * Open a writer on an empty index.
+   *
+   * @throws IOException if the writer cannot be opened
+   */
+  @Setup(Level.Iteration)
+  public void open() throws IOException {
+    luceneIndexer = new LuceneIndexer();
+    luceneIndexer.setIndexDir(
+        new File(syntheticIndex.getDirectory().toFile(), "index-" + System.nanoTime())
+            .getAbsolutePath());
+    luceneIndexer.openIndexWriter();
+  }
+
+  @TearDown(Level.Iteration)
+  public void close() throws IOException {
+    luceneIndexer.closeIndexWriter();
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    syntheticIndex.delete();
+  }
+
+  @Benchmark
+  public Document toLuceneDocument() {
+    return luceneIndexer.toLuceneDocument(nextEntry());
+  }
+
+  @Benchmark
+  public void write() throws IOException {
+    luceneIndexer.write(nextEntry());
+  }
+
+  private Entry nextEntry() {
+    Entry entry = parsed.get(next);
+    next = (next + 1) % parsed.size();
+    return entry;
+  }
+
+}
@@ -0,0 +1,144 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.searcher.LuceneSearcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of {@link LuceneSearcher#search(String, Language, int)} on a synthetic index, with
+ * queries answered by each of the fallback tiers. The FORMS and FULL_TEXT tiers are misses on the
+ * roots, and compare the sequential fallback with the single-pass search. The
+ * {@code COMPLETION_ONLY} layout leaves the suggestion documents out of the index. The
+ * {@code gc.alloc.rate.norm} column of the GC profiler is the number of bytes allocated per
+ * query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LuceneSearcherBenchmark {
+
+  private static final int QUERIES = 1024;
+
+  /**
+   * The search tier a query is answered by.
+   */
+  public enum Tier {
+
+    ROOTS,
+
+    FORMS,
+
+    FULL_TEXT
+
+  }
+
+  @Param({"10000"})
+  private int entries;
+
+  @Param({"ROOTS", "FORMS", "FULL_TEXT"})
+  private Tier tier;
+
+  @Param({"20"})
+  private int max;
+
+  @Param({"false", "true"})
+  private boolean singlePass;
+
+  @Param({"DOCUMENTS"})
+  private SuggestionLayout layout;
+
+  private SyntheticIndex syntheticIndex;
+
+  private LuceneSearcher searcher;
+
+  private String[] queries;
+
+  private int next;
+
+  /**
+   * Build the index and open the searcher.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void open() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.build(entries, layout.service());
+    searcher = LuceneSearcher.getInstance();
+    searcher.open(syntheticIndex.getIndexDir());
+    searcher.setSinglePass(singlePass);
+    searcher.openSpellChecker(syntheticIndex.getSpellingDir());
+    queries = queries(tier, entries);
+  }
+
+  /**
+   * Close the searcher and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    searcher.setSinglePass(false);
+    searcher.close();
+    searcher.closeSpellChecker();
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Queries answered by a search tier, for an index built by {@link SyntheticIndex}.
+   *
+   * @param tier the tier to answer the queries
+   * @param entries the number of entries in the index
+   * @return the queries
+   */
+  public static String[] queries(Tier tier, int entries) {
+    Random random = new Random(0);
+    String[] queries = new String[QUERIES];
+    int vocabulary = SyntheticDictionary.vocabularySize(entries) / 10;
+    for (int i = 0; i < QUERIES; i++) {
+      switch (tier) {
+        case ROOTS:
+          queries[i] = SyntheticDictionary.root(random.nextInt(entries));
+          break;
+        case FORMS:
+          queries[i] = SyntheticDictionary.form(random.nextInt(entries));
+          break;
+        default:
+          queries[i] = SyntheticDictionary.translation(random.nextInt(vocabulary));
+          break;
+      }
+    }
+    return queries;
+  }
+
+  @Benchmark
+  public List<Entry> search() throws IOException {
+    return searcher.search(queries[nextIndex()], Language.HU, max);
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % QUERIES;
+    return next;
+  }
+
+}
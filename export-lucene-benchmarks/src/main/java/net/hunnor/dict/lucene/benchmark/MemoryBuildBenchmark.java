@@ -0,0 +1,81 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.indexer.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to build the main and spelling indexes of both languages on the disk, and in memory with
+ * a copy to the disk at the end.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MemoryBuildBenchmark {
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"0", "1024"})
+  private int memoryBudget;
+
+  private SyntheticIndex syntheticIndex;
+
+  /**
+   * Generate the exports, so that only indexing is timed.
+   *
+   * @throws IOException if the exports cannot be written
+   */
+  @Setup(Level.Trial)
+  public void generate() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+    syntheticIndex.export(SyntheticIndex.NO_SEED, entries);
+  }
+
+  /**
+   * Delete the indexes of the previous invocation.
+   *
+   * @throws IOException if the indexes cannot be deleted
+   */
+  @Setup(Level.Invocation)
+  public void clean() throws IOException {
+    syntheticIndex.deleteIndexes();
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Build the indexes.
+   *
+   * @return the service
+   * @throws IOException if the exports cannot be read
+   */
+  @Benchmark
+  public Service build() throws IOException {
+    Service service = new Service();
+    service.setMemoryBudget(memoryBudget);
+    syntheticIndex.build(entries, service);
+    return service;
+  }
+
+}
@@ -0,0 +1,83 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import net.hunnor.dict.lucene.indexer.ParallelStaxParser;
+import net.hunnor.dict.lucene.indexer.StaxParser;
+import net.hunnor.dict.lucene.model.Entry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to parse all entries of a synthetic export with {@link StaxParser} on one thread, and
+ * with {@link ParallelStaxParser} on several threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelParserBenchmark {
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"1", "2", "4"})
+  private int threads;
+
+  private SyntheticIndex syntheticIndex;
+
+  private File export;
+
+  /**
+   * Generate the export.
+   *
+   * @throws IOException if the export cannot be written
+   */
+  @Setup(Level.Trial)
+  public void generate() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    export = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Parse all entries of the export.
+   *
+   * @return the number of entries
+   * @throws XMLStreamException if the export cannot be parsed
+   */
+  @Benchmark
+  public int parse() throws XMLStreamException {
+    StaxParser staxParser = threads > 1 ? new ParallelStaxParser(threads) : new StaxParser();
+    int count = 0;
+    staxParser.openFile(export.getAbsolutePath());
+    while (staxParser.hasNext()) {
+      Entry entry = staxParser.next();
+      if (entry != null) {
+        count++;
+      }
+    }
+    staxParser.closeFile();
+    return count;
+  }
+
+}
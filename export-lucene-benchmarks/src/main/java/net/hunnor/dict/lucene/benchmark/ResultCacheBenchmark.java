@@ -0,0 +1,107 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.searcher.LruResultCache;
+import net.hunnor.dict.lucene.searcher.LuceneSearcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Search latency on a skewed stream of headword queries, without a result cache and with an
+ * {@link LruResultCache} of {@code cacheEntries} queries. The rank of the headword of a query is
+ * the number of entries times a uniform random number raised to the power of {@code skew}, so
+ * that a small part of the headwords gets most of the queries. The hit ratio of the cache is
+ * printed at the end of the trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultCacheBenchmark {
+
+  private static final int QUERIES = 1 << 16;
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"4"})
+  private double skew;
+
+  @Param({"0", "10000"})
+  private int cacheEntries;
+
+  @Param({"20"})
+  private int max;
+
+  private SyntheticIndex syntheticIndex;
+
+  private LuceneSearcher searcher;
+
+  private LruResultCache cache;
+
+  private String[] queries;
+
+  private int next;
+
+  /**
+   * Build the index, open the searcher, and generate the queries.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void open() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.build(entries);
+    searcher = LuceneSearcher.getInstance();
+    searcher.open(syntheticIndex.getIndexDir());
+    if (cacheEntries > 0) {
+      cache = new LruResultCache(cacheEntries, 64L << 20);
+      searcher.setResultCache(cache);
+    }
+    Random random = new Random(0);
+    queries = new String[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      queries[i] = SyntheticDictionary.root((int) (Math.pow(random.nextDouble(), skew) * entries));
+    }
+  }
+
+  /**
+   * Close the searcher and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    if (cache != null) {
+      System.out.println(cache);
+      searcher.setResultCache(null);
+    }
+    searcher.close();
+    syntheticIndex.delete();
+  }
+
+  @Benchmark
+  public List<Entry> search() throws IOException {
+    next = (next + 1) % queries.length;
+    return searcher.search(queries[next], Language.HU, max);
+  }
+
+}
@@ -0,0 +1,148 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.FieldSelectorResult;
+import org.apache.lucene.document.MapFieldSelector;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of loading the stored fields of a page of search results, with all stored fields, with
+ * only the fields of the result model, and with the text loaded lazily and never read. The
+ * {@code gc.alloc.rate.norm} column of the GC profiler is the number of bytes allocated per page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultPageBenchmark {
+
+  /**
+   * The stored fields loaded for a result.
+   */
+  public enum Fields {
+
+    ALL,
+
+    SELECTED,
+
+    LAZY
+
+  }
+
+  @Param({"10000"})
+  private int entries;
+
+  @Param({"10", "50", "200"})
+  private int page;
+
+  @Param({"ALL", "SELECTED", "LAZY"})
+  private Fields fields;
+
+  private SyntheticIndex syntheticIndex;
+
+  private IndexReader indexReader;
+
+  private FieldSelector fieldSelector;
+
+  private int[] docs;
+
+  private int next;
+
+  /**
+   * Build the index, and collect the documents of the Hungarian entries in sort order.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void open() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.build(entries);
+    indexReader = IndexReader.open(new NIOFSDirectory(syntheticIndex.getIndexDir()));
+    try (IndexSearcher indexSearcher = new IndexSearcher(indexReader)) {
+      ScoreDoc[] scoreDocs = indexSearcher.search(new TermQuery(new Term(Lucene.LANG, "hu")),
+          entries, new Sort(new SortField(Lucene.SORT, SortField.STRING))).scoreDocs;
+      docs = new int[scoreDocs.length];
+      for (int i = 0; i < scoreDocs.length; i++) {
+        docs[i] = scoreDocs[i].doc;
+      }
+    }
+    switch (fields) {
+      case SELECTED:
+        fieldSelector = new MapFieldSelector(Lucene.ID, Lucene.LANG, Lucene.TEXT);
+        break;
+      case LAZY:
+        Map<String, FieldSelectorResult> results = new HashMap<>();
+        results.put(Lucene.ID, FieldSelectorResult.LOAD);
+        results.put(Lucene.LANG, FieldSelectorResult.LOAD);
+        results.put(Lucene.TEXT, FieldSelectorResult.LAZY_LOAD);
+        fieldSelector = new MapFieldSelector(results);
+        break;
+      default:
+        fieldSelector = null;
+        break;
+    }
+  }
+
+  /**
+   * Close the reader and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    indexReader.close();
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Load the fields of the result model for a page of results. The lazily loaded text is not
+   * read, as in a result list that only shows the headwords.
+   *
+   * @param blackhole consumes the fields
+   * @throws IOException if the stored fields cannot be read
+   */
+  @Benchmark
+  public void loadPage(Blackhole blackhole) throws IOException {
+    int start = next;
+    next = (next + page) % (docs.length - page);
+    for (int i = start; i < start + page; i++) {
+      Document document = fieldSelector == null
+          ? indexReader.document(docs[i]) : indexReader.document(docs[i], fieldSelector);
+      blackhole.consume(document.get(Lucene.ID));
+      blackhole.consume(document.get(Lucene.LANG));
+      if (fields != Fields.LAZY) {
+        blackhole.consume(document.get(Lucene.TEXT));
+      }
+    }
+  }
+
+}
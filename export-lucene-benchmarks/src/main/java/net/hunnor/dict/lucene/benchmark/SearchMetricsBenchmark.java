@@ -0,0 +1,115 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.benchmark.LuceneSearcherBenchmark.Tier;
+import net.hunnor.dict.lucene.indexer.Service;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.searcher.LatencyHistogram;
+import net.hunnor.dict.lucene.searcher.LuceneSearcher;
+import net.hunnor.dict.lucene.searcher.SearchMethod;
+import net.hunnor.dict.lucene.searcher.SearchMetricsRegistry;
+import net.hunnor.dict.lucene.searcher.SearchTier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Search latency without search metrics and with a {@link SearchMetricsRegistry}, for queries
+ * answered by each tier. The percentiles of the registry are printed at the end of the trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchMetricsBenchmark {
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"ROOTS", "FULL_TEXT"})
+  private Tier tier;
+
+  @Param({"false", "true"})
+  private boolean metrics;
+
+  @Param({"20"})
+  private int max;
+
+  private SyntheticIndex syntheticIndex;
+
+  private LuceneSearcher searcher;
+
+  private SearchMetricsRegistry registry;
+
+  private String[] queries;
+
+  private int next;
+
+  /**
+   * Build the index, and open the searcher with or without a registry.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void open() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.build(entries, new Service());
+    searcher = LuceneSearcher.getInstance();
+    searcher.open(syntheticIndex.getIndexDir());
+    registry = metrics ? new SearchMetricsRegistry() : null;
+    searcher.setSearchMetrics(registry);
+    queries = LuceneSearcherBenchmark.queries(tier, entries);
+  }
+
+  /**
+   * Print the percentiles of the registry, close the searcher and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    if (registry != null) {
+      System.out.println("search: " + percentiles(registry, null));
+      for (SearchTier searchTier : SearchTier.values()) {
+        if (registry.getLatencies(searchTier).getCount() > 0) {
+          System.out.println(searchTier.getKey() + ": " + percentiles(registry, searchTier)
+              + ", fall-throughs " + registry.getFallThroughs(searchTier));
+        }
+      }
+    }
+    searcher.setSearchMetrics(null);
+    searcher.close();
+    syntheticIndex.delete();
+  }
+
+  @Benchmark
+  public List<Entry> search() throws IOException {
+    next = (next + 1) % queries.length;
+    return searcher.search(queries[next], Language.HU, max);
+  }
+
+  private static String percentiles(SearchMetricsRegistry registry, SearchTier searchTier) {
+    LatencyHistogram histogram = searchTier == null
+        ? registry.getLatencies(SearchMethod.SEARCH) : registry.getLatencies(searchTier);
+    return String.format(Locale.ROOT, "%d calls, p50 %.1f us, p99 %.1f us, max %.1f us",
+        histogram.getCount(), histogram.getValueAtPercentile(50) / 1000.0,
+        histogram.getValueAtPercentile(99) / 1000.0, histogram.getMax() / 1000.0);
+  }
+
+}
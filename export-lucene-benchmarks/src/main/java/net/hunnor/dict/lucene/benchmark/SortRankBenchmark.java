@@ -0,0 +1,124 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.benchmark.LuceneSearcherBenchmark.Tier;
+import net.hunnor.dict.lucene.indexer.Service;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.searcher.LuceneSearcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Search latency with the results sorted by the terms of the sort field, and by the ranks of the
+ * sort rank file. {@code firstQuery} is the first query after the index is opened, which loads
+ * the terms of the sort field into the field cache, and {@code search} the following queries.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SortRankBenchmark {
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"ROOTS", "FULL_TEXT"})
+  private Tier tier;
+
+  @Param({"false", "true"})
+  private boolean sortRanks;
+
+  @Param({"20"})
+  private int max;
+
+  private SyntheticIndex syntheticIndex;
+
+  private LuceneSearcher searcher;
+
+  private String[] queries;
+
+  private int next;
+
+  /**
+   * Reopens the index before each first query.
+   */
+  @State(Scope.Thread)
+  public static class Reopened {
+
+    @Setup(Level.Invocation)
+    public void reopen(SortRankBenchmark benchmark) throws IOException {
+      benchmark.searcher.close();
+      benchmark.searcher.open(benchmark.syntheticIndex.getIndexDir());
+    }
+
+  }
+
+  /**
+   * Build the index, with the sort rank file if enabled, and open the searcher.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void open() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    Service service = new Service();
+    service.setSortRanks(sortRanks);
+    syntheticIndex.build(entries, service);
+    searcher = LuceneSearcher.getInstance();
+    searcher.open(syntheticIndex.getIndexDir());
+    queries = LuceneSearcherBenchmark.queries(tier, entries);
+  }
+
+  /**
+   * Close the searcher and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    searcher.close();
+    syntheticIndex.delete();
+  }
+
+  /**
+   * The first query on a newly opened index.
+   *
+   * @param reopened the state reopening the index
+   * @return the results
+   * @throws IOException if the index cannot be searched
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 5)
+  @Measurement(iterations = 20)
+  public List<Entry> firstQuery(Reopened reopened) throws IOException {
+    return searcher.search(queries[nextIndex()], Language.HU, max);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @Warmup(iterations = 3, time = 2)
+  @Measurement(iterations = 5, time = 2)
+  public List<Entry> search() throws IOException {
+    return searcher.search(queries[nextIndex()], Language.HU, max);
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % queries.length;
+    return next;
+  }
+
+}
@@ -0,0 +1,95 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.indexer.LuceneIndexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to build the spelling index from a synthetic main index, with the dictionaries indexed
+ * one after the other, and with the words split between several threads.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpellingBenchmark {
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"1", "2", "4"})
+  private int threads;
+
+  private SyntheticIndex syntheticIndex;
+
+  private File spellingDir;
+
+  private int run;
+
+  /**
+   * Build the main index.
+   *
+   * @throws IOException if the index cannot be built
+   */
+  @Setup(Level.Trial)
+  public void build() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.build(entries);
+  }
+
+  /**
+   * Choose a new directory for the spelling index, so that every run builds it from scratch.
+   */
+  @Setup(Level.Invocation)
+  public void newSpellingDir() {
+    run++;
+    spellingDir = syntheticIndex.getDirectory().resolve("spelling-" + run).toFile();
+  }
+
+  /**
+   * Delete the indexes.
+   *
+   * @throws IOException if the indexes cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Build the spelling index.
+   *
+   * @return the indexer
+   * @throws IOException when thrown by Lucene
+   */
+  @Benchmark
+  public LuceneIndexer createSuggestions() throws IOException {
+    LuceneIndexer luceneIndexer = new LuceneIndexer();
+    luceneIndexer.setIndexDir(syntheticIndex.getIndexDir().getAbsolutePath());
+    luceneIndexer.setSpellingDir(spellingDir.getAbsolutePath());
+    luceneIndexer.setSpellingThreads(threads);
+    luceneIndexer.openIndexReader();
+    luceneIndexer.openSpellChecker();
+    luceneIndexer.createSuggestions();
+    luceneIndexer.closeSpellChecker();
+    luceneIndexer.closeIndexReader();
+    return luceneIndexer;
+  }
+
+}
@@ -0,0 +1,140 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import net.hunnor.dict.lucene.indexer.StaxParser;
+import net.hunnor.dict.lucene.model.Entry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StAX events per second over a whole synthetic export, read with the bare stream reader, and
+ * turned into entries by {@link StaxParser}. The difference is the cost of the parser on top of
+ * the XML reader. Each operation reads the whole export, the {@code events} counter is the rate
+ * of the events read.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StaxEventsBenchmark {
+
+  @Param({"100000"})
+  private int entries;
+
+  private SyntheticIndex syntheticIndex;
+
+  private File export;
+
+  private long eventsPerExport;
+
+  /**
+   * The number of events read.
+   */
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Events {
+
+    public long events;
+
+    @Setup(Level.Iteration)
+    public void clean() {
+      events = 0;
+    }
+
+  }
+
+  /**
+   * Generate the export and count its events.
+   *
+   * @throws IOException if the export cannot be written
+   * @throws XMLStreamException if the export cannot be parsed
+   */
+  @Setup(Level.Trial)
+  public void generate() throws IOException, XMLStreamException {
+    syntheticIndex = new SyntheticIndex();
+    export = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+    Events events = new Events();
+    raw(events);
+    eventsPerExport = events.events;
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Read the events of the export with the stream reader, and the names of the elements.
+   *
+   * @param events the event counter
+   * @return the number of events
+   * @throws IOException if the export cannot be read
+   * @throws XMLStreamException if the export cannot be parsed
+   */
+  @Benchmark
+  public long raw(Events events) throws IOException, XMLStreamException {
+    long count = 0;
+    XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+    xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    try (InputStream stream = Files.newInputStream(export.toPath())) {
+      XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(stream);
+      while (reader.hasNext()) {
+        int eventType = reader.next();
+        if (eventType == XMLStreamConstants.START_ELEMENT
+            || eventType == XMLStreamConstants.END_ELEMENT) {
+          count += reader.getLocalName().length();
+        }
+        events.events++;
+      }
+      reader.close();
+    }
+    return count;
+  }
+
+  /**
+   * Parse all entries of the export.
+   *
+   * @param events the event counter
+   * @return the number of entries
+   * @throws XMLStreamException if the export cannot be parsed
+   */
+  @Benchmark
+  public int parser(Events events) throws XMLStreamException {
+    int count = 0;
+    StaxParser staxParser = new StaxParser();
+    staxParser.openFile(export.getAbsolutePath());
+    while (staxParser.hasNext()) {
+      Entry entry = staxParser.next();
+      if (entry != null) {
+        count++;
+      }
+    }
+    staxParser.closeFile();
+    events.events += eventsPerExport;
+    return count;
+  }
+
+}
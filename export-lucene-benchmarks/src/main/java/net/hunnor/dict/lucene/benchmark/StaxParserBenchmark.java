@@ -0,0 +1,87 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import net.hunnor.dict.lucene.indexer.StaxParser;
+import net.hunnor.dict.lucene.model.Entry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Entries per second returned by {@link StaxParser#next()} over a synthetic export.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StaxParserBenchmark {
+
+  @Param({"100000"})
+  private int entries;
+
+  private SyntheticIndex syntheticIndex;
+
+  private File export;
+
+  private StaxParser staxParser;
+
+  /**
+   * Generate the export.
+   *
+   * @throws IOException if the export cannot be written
+   */
+  @Setup(Level.Trial)
+  public void generate() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    export = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+  }
+
+  @Setup(Level.Iteration)
+  public void open() {
+    staxParser = new StaxParser();
+    staxParser.openFile(export.getAbsolutePath());
+  }
+
+  @TearDown(Level.Iteration)
+  public void close() {
+    staxParser.closeFile();
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Parse the next entry, starting over at the end of the export.
+   *
+   * @return the parsed entry
+   * @throws XMLStreamException if the export cannot be parsed
+   */
+  @Benchmark
+  public Entry next() throws XMLStreamException {
+    Entry entry = staxParser.hasNext() ? staxParser.next() : null;
+    if (entry == null) {
+      staxParser.closeFile();
+      open();
+      entry = staxParser.next();
+    }
+    return entry;
+  }
+
+}
@@ -0,0 +1,46 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import net.hunnor.dict.lucene.indexer.Service;
+
+/**
+ * The ways the suggestions can be stored with the index.
+ */
+public enum SuggestionLayout {
+
+  /**
+   * A document with a suggestion field for each root, searched with a wildcard query.
+   */
+  DOCUMENTS(true, false),
+
+  /**
+   * The suggestion documents, and the completion file the searcher answers suggestions from.
+   */
+  COMPLETION(true, true),
+
+  /**
+   * Only the completion file, the index only contains the entries.
+   */
+  COMPLETION_ONLY(false, true);
+
+  private final boolean suggestionDocuments;
+
+  private final boolean completion;
+
+  SuggestionLayout(boolean suggestionDocuments, boolean completion) {
+    this.suggestionDocuments = suggestionDocuments;
+    this.completion = completion;
+  }
+
+  /**
+   * Create a service that indexes with this layout.
+   *
+   * @return the configured service
+   */
+  public Service service() {
+    Service service = new Service();
+    service.setSuggestionDocuments(suggestionDocuments);
+    service.setCompletion(completion);
+    return service;
+  }
+
+}
@@ -0,0 +1,68 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import net.hunnor.dict.lucene.completion.CompletionWriter;
+import net.hunnor.dict.lucene.model.Language;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.NIOFSDirectory;
+
+/**
+ * Compares the size and build time of the index with each {@link SuggestionLayout}. The search
+ * and suggestion latencies of the layouts are measured by {@link LuceneSearcherBenchmark} and
+ * {@link SuggestionsBenchmark} with the {@code layout} parameter.
+ */
+public final class SuggestionLayoutReport {
+
+  private SuggestionLayoutReport() {
+  }
+
+  /**
+   * Print the report.
+   *
+   * @param args the numbers of entries per language, 100000 by default
+   * @throws IOException if an index cannot be built
+   */
+  public static void main(String[] args) throws IOException {
+    PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8.name());
+    out.println(String.format(Locale.ROOT, "%-10s %-16s %10s %12s %12s %10s",
+        "entries", "layout", "documents", "index bytes", "completion", "build ms"));
+    String[] entries = args.length > 0 ? args : new String[] {"100000"};
+    for (String argument : entries) {
+      int count = Integer.parseInt(argument);
+      for (SuggestionLayout layout : SuggestionLayout.values()) {
+        report(out, count, layout);
+      }
+    }
+  }
+
+  private static void report(PrintStream out, int entries, SuggestionLayout layout)
+      throws IOException {
+    SyntheticIndex syntheticIndex = new SyntheticIndex();
+    try {
+      File huFile = syntheticIndex.export(SyntheticIndex.HU_SEED, entries);
+      File noFile = syntheticIndex.export(SyntheticIndex.NO_SEED, entries);
+      String indexDir = syntheticIndex.getIndexDir().getAbsolutePath();
+      long start = System.nanoTime();
+      layout.service().indexFile(huFile.getAbsolutePath(), Language.HU, indexDir);
+      layout.service().indexFile(noFile.getAbsolutePath(), Language.NO, indexDir);
+      long millis = (System.nanoTime() - start) / 1_000_000;
+      File completionFile = new File(indexDir, CompletionWriter.FILE_NAME);
+      long completion = completionFile.length();
+      long index = SyntheticIndex.size(syntheticIndex.getIndexDir()) - completion;
+      int documents;
+      try (IndexReader indexReader = IndexReader.open(
+          new NIOFSDirectory(syntheticIndex.getIndexDir()))) {
+        documents = indexReader.maxDoc();
+      }
+      out.println(String.format(Locale.ROOT, "%-10d %-16s %10d %12d %12d %10d",
+          entries, layout, documents, index, completion, millis));
+    } finally {
+      syntheticIndex.delete();
+    }
+  }
+
+}
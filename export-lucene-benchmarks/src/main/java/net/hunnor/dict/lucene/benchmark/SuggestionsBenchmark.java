@@ -0,0 +1,105 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.searcher.LuceneSearcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of the type-ahead and the spelling suggestions on a synthetic index, with the
+ * suggestions stored in each {@link SuggestionLayout}. With a completion file, the type-ahead is
+ * answered from it instead of the suggestion field of the index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestionsBenchmark {
+
+  private static final int QUERIES = 1024;
+
+  @Param({"10000"})
+  private int entries;
+
+  @Param({"20"})
+  private int max;
+
+  @Param({"DOCUMENTS", "COMPLETION", "COMPLETION_ONLY"})
+  private SuggestionLayout layout;
+
+  private SyntheticIndex syntheticIndex;
+
+  private LuceneSearcher searcher;
+
+  private String[] prefixes;
+
+  private String[] misspellings;
+
+  private int next;
+
+  /**
+   * Build the index and open the searcher.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void open() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.build(entries, layout.service());
+    searcher = LuceneSearcher.getInstance();
+    searcher.open(syntheticIndex.getIndexDir());
+    searcher.openSpellChecker(syntheticIndex.getSpellingDir());
+    Random random = new Random(0);
+    prefixes = new String[QUERIES];
+    misspellings = new String[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      String root = SyntheticDictionary.root(random.nextInt(entries));
+      prefixes[i] = root.substring(0, 4);
+      misspellings[i] = root.substring(0, root.length() - 1) + "x";
+    }
+  }
+
+  /**
+   * Close the searcher and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    searcher.close();
+    searcher.closeSpellChecker();
+    syntheticIndex.delete();
+  }
+
+  @Benchmark
+  public List<String> suggestions() throws IOException {
+    return searcher.suggestions(prefixes[nextIndex()], max);
+  }
+
+  @Benchmark
+  public List<String> spellingSuggestions() throws IOException {
+    return searcher.spellingSuggestions(misspellings[nextIndex()], 5);
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % QUERIES;
+    return next;
+  }
+
+}
@@ -0,0 +1,221 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Generates dictionary exports with the element shapes of the HunNor XML exports.
+ *
+ * <p>The output only depends on the seed and the number of entries, so runs with the same
+ * parameters are comparable. Entry {@code i} always has the root {@link #root(int)} and the
+ * inflected form {@link #form(int)}, and translations are drawn from a skewed vocabulary of
+ * {@link #translation(int)} words, so benchmarks can pick queries that hit a given search tier.
+ */
+public class SyntheticDictionary {
+
+  private static final String[] ROOT_SYLLABLES = {
+    "ba", "be", "bi", "bo", "da", "de", "fa", "fé", "ga", "gö", "ha", "hå", "ka", "ké", "la",
+    "lø", "ma", "mó", "na", "nő", "pa", "pæ", "ra", "rú", "sa", "sí", "ta", "tü", "va", "vű"};
+
+  private static final String[] TRANSLATION_SYLLABLES = {
+    "ar", "el", "is", "ok", "un", "ás", "ér", "ød", "ål", "ót"};
+
+  private static final String[] SUFFIXES = {"nak", "ben", "ért", "ene", "ról", "hoz"};
+
+  private static final String[] POS = {"fn", "ige", "mn", "hsz"};
+
+  private static final String[] LABELS = {"biz", "átv", "jog", "müsz", "rég"};
+
+  private static final int ENTRIES_PER_GROUP = 100;
+
+  private final long seed;
+
+  private final int edits;
+
+  public SyntheticDictionary(long seed) {
+    this(seed, 0);
+  }
+
+  /**
+   * Create a generator for an edited version of the dictionary of a seed. The edited entries
+   * are spread evenly, and have an additional translation. All other entries are the same as
+   * without edits.
+   *
+   * @param seed the seed of the generator
+   * @param edits the number of edited entries
+   */
+  public SyntheticDictionary(long seed, int edits) {
+    this.seed = seed;
+    this.edits = edits;
+  }
+
+  /**
+   * The primary root of the entry with the given index. Roots are unique, and never equal to
+   * a form or a translation.
+   *
+   * @param index the index of the entry
+   * @return the root of the entry
+   */
+  public static String root(int index) {
+    StringBuilder stringBuilder = new StringBuilder();
+    int rest = index;
+    for (int i = 0; i < 3 || rest > 0; i++) {
+      stringBuilder.insert(0, ROOT_SYLLABLES[rest % ROOT_SYLLABLES.length]);
+      rest /= ROOT_SYLLABLES.length;
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * An inflected form of the entry with the given index, which is not a root of any entry.
+   *
+   * @param index the index of the entry
+   * @return an inflected form of the entry
+   */
+  public static String form(int index) {
+    return root(index) + SUFFIXES[index % SUFFIXES.length];
+  }
+
+  /**
+   * A word of the translation vocabulary. Lower ranks are used by more entries.
+   *
+   * @param rank the rank of the word in the vocabulary
+   * @return the translation word
+   */
+  public static String translation(int rank) {
+    StringBuilder stringBuilder = new StringBuilder();
+    int rest = rank;
+    for (int i = 0; i < 3 || rest > 0; i++) {
+      stringBuilder.insert(0, TRANSLATION_SYLLABLES[rest % TRANSLATION_SYLLABLES.length]);
+      rest /= TRANSLATION_SYLLABLES.length;
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * The size of the translation vocabulary for a dictionary with the given number of entries.
+   *
+   * @param entries the number of entries
+   * @return the number of distinct translation words
+   */
+  public static int vocabularySize(int entries) {
+    return Math.max(100, entries / 4);
+  }
+
+  /**
+   * Write a dictionary export to a file.
+   *
+   * @param file the file to write
+   * @param entries the number of entries to write
+   * @throws IOException if the file cannot be written
+   */
+  public void write(File file, int entries) throws IOException {
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+        Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8), 1 << 16)) {
+      write(writer, entries);
+    }
+  }
+
+  /**
+   * Write a dictionary export.
+   *
+   * @param writer the writer to write to
+   * @param entries the number of entries to write
+   * @throws IOException if the writer throws an exception
+   */
+  public void write(Writer writer, int entries) throws IOException {
+    Random random = new Random(seed);
+    int vocabulary = vocabularySize(entries);
+    int editInterval = edits > 0 ? Math.max(1, entries / edits) : 0;
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    writer.write("<hnDict updated=\"2001-01-01\" xmlns=\"http://dict.hunnor.net\">\n");
+    for (int i = 0; i < entries; i++) {
+      if (i % ENTRIES_PER_GROUP == 0) {
+        if (i > 0) {
+          writer.write("\t</entryGrp>\n");
+        }
+        writer.write("\t<entryGrp head=\"" + (i / ENTRIES_PER_GROUP) + "\">\n");
+      }
+      writeEntry(writer, random, i, vocabulary, editInterval > 0 && i % editInterval == 0);
+    }
+    if (entries > 0) {
+      writer.write("\t</entryGrp>\n");
+    }
+    writer.write("</hnDict>\n");
+  }
+
+  private void writeEntry(Writer writer, Random random, int index, int vocabulary,
+      boolean edited) throws IOException {
+    writer.write("\t\t<entry id=\"" + (index + 1) + "\">\n");
+    writer.write("\t\t\t<formGrp>\n");
+    writer.write("\t\t\t\t<form primary=\"yes\">\n");
+    writer.write("\t\t\t\t\t<orth n=\"0\">" + root(index) + "</orth>\n");
+    writer.write("\t\t\t\t\t<pos>" + POS[random.nextInt(POS.length)] + "</pos>\n");
+    if (random.nextInt(3) == 0) {
+      writer.write("\t\t\t\t\t<inflCode type=\"suff\">-" + SUFFIXES[random.nextInt(
+          SUFFIXES.length)] + "</inflCode>\n");
+    }
+    writer.write("\t\t\t\t\t<inflPar>\n");
+    writer.write("\t\t\t\t\t\t<inflSeq form=\"0-0\">" + form(index) + "</inflSeq>\n");
+    if (random.nextBoolean()) {
+      writer.write("\t\t\t\t\t\t<inflSeq form=\"0-1\">" + root(index)
+          + SUFFIXES[random.nextInt(SUFFIXES.length)] + "</inflSeq>\n");
+    }
+    writer.write("\t\t\t\t\t</inflPar>\n");
+    writer.write("\t\t\t\t</form>\n");
+    if (random.nextInt(5) == 0) {
+      writer.write("\t\t\t\t<form primary=\"no\">\n");
+      writer.write("\t\t\t\t\t<orth n=\"0\">" + root(index) + "a</orth>\n");
+      writer.write("\t\t\t\t</form>\n");
+    }
+    writer.write("\t\t\t</formGrp>\n");
+    int senseGrps = random.nextInt(4) == 0 ? 2 : 1;
+    for (int i = 0; i < senseGrps; i++) {
+      writer.write("\t\t\t<senseGrp>\n");
+      int senses = 1 + random.nextInt(3);
+      for (int j = 0; j < senses; j++) {
+        writeSense(writer, random, index, vocabulary);
+      }
+      writer.write("\t\t\t</senseGrp>\n");
+    }
+    if (edited) {
+      writer.write("\t\t\t<senseGrp>\n\t\t\t\t<sense>\n");
+      writer.write("\t\t\t\t\t<trans>" + translation(index) + "</trans>\n");
+      writer.write("\t\t\t\t</sense>\n\t\t\t</senseGrp>\n");
+    }
+    writer.write("\t\t</entry>\n");
+  }
+
+  private void writeSense(Writer writer, Random random, int index, int vocabulary)
+      throws IOException {
+    writer.write("\t\t\t\t<sense>\n");
+    if (random.nextInt(4) == 0) {
+      writer.write("\t\t\t\t\t<lbl>" + LABELS[random.nextInt(LABELS.length)] + "</lbl>\n");
+    }
+    int trans = 1 + random.nextInt(3);
+    for (int i = 0; i < trans; i++) {
+      writer.write("\t\t\t\t\t<trans>" + translation(skewed(random, vocabulary)) + "</trans>\n");
+    }
+    if (random.nextInt(3) == 0) {
+      writer.write("\t\t\t\t\t<eg>\n");
+      writer.write("\t\t\t\t\t\t<q>" + form(index) + " " + root(random.nextInt(index + 1))
+          + "</q>\n");
+      writer.write("\t\t\t\t\t\t<trans>" + translation(skewed(random, vocabulary)) + " "
+          + translation(skewed(random, vocabulary)) + "</trans>\n");
+      writer.write("\t\t\t\t\t</eg>\n");
+    }
+    writer.write("\t\t\t\t</sense>\n");
+  }
+
+  private static int skewed(Random random, int vocabulary) {
+    double value = random.nextDouble();
+    return (int) (vocabulary * value * value * value);
+  }
+
+}
@@ -0,0 +1,135 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import net.hunnor.dict.lucene.indexer.Service;
+import net.hunnor.dict.lucene.model.Language;
+
+/**
+ * A main and a spelling index built from a Hungarian and a Norwegian synthetic export, in a
+ * temporary directory.
+ */
+public class SyntheticIndex {
+
+  public static final long HU_SEED = 1L;
+
+  public static final long NO_SEED = 2L;
+
+  private final Path directory;
+
+  private final File indexDir;
+
+  private final File spellingDir;
+
+  /**
+   * Create the temporary directory for the exports and indexes.
+   *
+   * @throws IOException if the directory cannot be created
+   */
+  public SyntheticIndex() throws IOException {
+    directory = Files.createTempDirectory("export-lucene-benchmark");
+    indexDir = directory.resolve("index").toFile();
+    spellingDir = directory.resolve("spelling").toFile();
+  }
+
+  /**
+   * Generate the exports and index them with the default settings.
+   *
+   * @param entries the number of entries per language
+   * @throws IOException if the exports cannot be written
+   */
+  public void build(int entries) throws IOException {
+    build(entries, new Service());
+  }
+
+  /**
+   * Generate the exports and index them with a configured service.
+   *
+   * @param entries the number of entries per language
+   * @param service the service to index the exports with
+   * @throws IOException if the exports cannot be written
+   */
+  public void build(int entries, Service service) throws IOException {
+    File huFile = export(HU_SEED, entries);
+    File noFile = export(NO_SEED, entries);
+    service.indexFile(huFile.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    service.indexFile(noFile.getAbsolutePath(), Language.NO, indexDir.getAbsolutePath());
+    service.indexSuggestions(indexDir.getAbsolutePath(), spellingDir.getAbsolutePath());
+  }
+
+  /**
+   * Write a synthetic export into the temporary directory.
+   *
+   * @param seed the seed of the generator
+   * @param entries the number of entries
+   * @return the export file
+   * @throws IOException if the export cannot be written
+   */
+  public File export(long seed, int entries) throws IOException {
+    File file = directory.resolve("export-" + seed + "-" + entries + ".xml").toFile();
+    if (!file.isFile()) {
+      new SyntheticDictionary(seed).write(file, entries);
+    }
+    return file;
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public File getIndexDir() {
+    return indexDir;
+  }
+
+  public File getSpellingDir() {
+    return spellingDir;
+  }
+
+  /**
+   * The total size of the files in a directory.
+   *
+   * @param file the directory
+   * @return the size in bytes
+   * @throws IOException if the directory cannot be listed
+   */
+  public static long size(File file) throws IOException {
+    try (Stream<Path> paths = Files.walk(file.toPath())) {
+      return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+    }
+  }
+
+  /**
+   * Delete the temporary directory with all the exports and indexes.
+   *
+   * @throws IOException if a file cannot be deleted
+   */
+  public void delete() throws IOException {
+    deleteTree(directory);
+  }
+
+  /**
+   * Delete the main and spelling indexes, and keep the exports.
+   *
+   * @throws IOException if a file cannot be deleted
+   */
+  public void deleteIndexes() throws IOException {
+    deleteTree(indexDir.toPath());
+    deleteTree(spellingDir.toPath());
+  }
+
+  private static void deleteTree(Path root) throws IOException {
+    if (!Files.exists(root)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(root)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+}
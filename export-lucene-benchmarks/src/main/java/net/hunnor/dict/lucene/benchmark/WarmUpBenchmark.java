@@ -0,0 +1,172 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import net.hunnor.dict.lucene.benchmark.LuceneSearcherBenchmark.Tier;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.searcher.LuceneSearcher;
+import net.hunnor.dict.lucene.searcher.WarmUpStep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to open the index with each warm-up of the searcher, and latency of the first query
+ * after the index is opened. The warm-up queries are different from the measured queries.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WarmUpBenchmark {
+
+  /**
+   * The warm-up steps of the searcher.
+   */
+  public enum Steps {
+
+    NONE(EnumSet.noneOf(WarmUpStep.class)),
+
+    FIELD_CACHES(EnumSet.of(WarmUpStep.FIELD_CACHES)),
+
+    ALL(EnumSet.allOf(WarmUpStep.class));
+
+    private final Set<WarmUpStep> steps;
+
+    Steps(Set<WarmUpStep> steps) {
+      this.steps = steps;
+    }
+
+  }
+
+  private static final int WARM_UP_QUERIES = 100;
+
+  @Param({"100000"})
+  private int entries;
+
+  @Param({"ROOTS", "FULL_TEXT"})
+  private Tier tier;
+
+  @Param({"NONE", "FIELD_CACHES", "ALL"})
+  private Steps steps;
+
+  @Param({"20"})
+  private int max;
+
+  private SyntheticIndex syntheticIndex;
+
+  private LuceneSearcher searcher;
+
+  private String[] queries;
+
+  private int next;
+
+  /**
+   * Closes the index before it is opened.
+   */
+  @State(Scope.Thread)
+  public static class Closed {
+
+    @Setup(Level.Invocation)
+    public void close(WarmUpBenchmark benchmark) throws IOException {
+      benchmark.searcher.close();
+    }
+
+  }
+
+  /**
+   * Reopens the index before each first query.
+   */
+  @State(Scope.Thread)
+  public static class Reopened {
+
+    @Setup(Level.Invocation)
+    public void reopen(WarmUpBenchmark benchmark) throws IOException {
+      benchmark.searcher.close();
+      benchmark.searcher.open(benchmark.syntheticIndex.getIndexDir());
+    }
+
+  }
+
+  /**
+   * Build the index, write the warm-up queries, and open the searcher.
+   *
+   * @throws IOException if the index cannot be built or opened
+   */
+  @Setup(Level.Trial)
+  public void build() throws IOException {
+    syntheticIndex = new SyntheticIndex();
+    syntheticIndex.build(entries);
+    List<String> warmUpQueries = new ArrayList<>();
+    for (int i = 0; i < WARM_UP_QUERIES; i++) {
+      warmUpQueries.add(SyntheticDictionary.root(i));
+      warmUpQueries.add(SyntheticDictionary.translation(i));
+    }
+    File file = syntheticIndex.getDirectory().resolve("warm-up.txt").toFile();
+    Files.write(file.toPath(), warmUpQueries);
+    searcher = LuceneSearcher.getInstance();
+    searcher.setWarmUp(steps.steps);
+    searcher.setWarmUpQueries(file);
+    searcher.open(syntheticIndex.getIndexDir());
+    queries = LuceneSearcherBenchmark.queries(tier, entries);
+  }
+
+  /**
+   * Close the searcher and delete the index.
+   *
+   * @throws IOException if the index cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void close() throws IOException {
+    searcher.close();
+    searcher.setWarmUp(EnumSet.noneOf(WarmUpStep.class));
+    searcher.setWarmUpQueries(null);
+    syntheticIndex.delete();
+  }
+
+  /**
+   * Open the index, with the warm-up.
+   *
+   * @param closed the state closing the index
+   * @return the searcher
+   * @throws IOException if the index cannot be opened
+   */
+  @Benchmark
+  public LuceneSearcher open(Closed closed) throws IOException {
+    searcher.open(syntheticIndex.getIndexDir());
+    return searcher;
+  }
+
+  /**
+   * The first query on a newly opened index.
+   *
+   * @param reopened the state reopening the index
+   * @return the results
+   * @throws IOException if the index cannot be searched
+   */
+  @Benchmark
+  public List<Entry> firstQuery(Reopened reopened) throws IOException {
+    next = (next + 1) % queries.length;
+    return searcher.search(queries[next], Language.HU, max);
+  }
+
+}
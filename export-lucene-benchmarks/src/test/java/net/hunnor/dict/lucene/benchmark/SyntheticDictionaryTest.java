@@ -0,0 +1,63 @@
+package net.hunnor.dict.lucene.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+import javax.xml.stream.XMLStreamException;
+import net.hunnor.dict.lucene.indexer.StaxParser;
+import net.hunnor.dict.lucene.model.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SyntheticDictionaryTest {
+
+  @Test
+  void testDeterministic() throws IOException {
+    StringWriter first = new StringWriter();
+    new SyntheticDictionary(1L).write(first, 500);
+    StringWriter second = new StringWriter();
+    new SyntheticDictionary(1L).write(second, 500);
+    StringWriter other = new StringWriter();
+    new SyntheticDictionary(2L).write(other, 500);
+    assertEquals(first.toString(), second.toString());
+    assertNotEquals(first.toString(), other.toString());
+  }
+
+  @Test
+  void testWordsAreDistinct() {
+    Set<String> roots = new HashSet<>();
+    for (int i = 0; i < 30000; i++) {
+      roots.add(SyntheticDictionary.root(i));
+    }
+    assertEquals(30000, roots.size());
+    assertTrue(!roots.contains(SyntheticDictionary.form(1)));
+    assertTrue(!roots.contains(SyntheticDictionary.translation(1)));
+  }
+
+  @Test
+  void testParse(@TempDir File tempDir) throws IOException, XMLStreamException {
+    File file = new File(tempDir, "export.xml");
+    new SyntheticDictionary(1L).write(file, 250);
+    StaxParser staxParser = new StaxParser();
+    staxParser.openFile(file.getAbsolutePath());
+    int count = 0;
+    while (staxParser.hasNext()) {
+      Entry entry = staxParser.next();
+      if (entry != null) {
+        assertEquals(String.valueOf(count + 1), entry.getId());
+        assertTrue(entry.getRoots().contains(SyntheticDictionary.root(count)));
+        assertTrue(entry.getForms().contains(SyntheticDictionary.form(count)));
+        count++;
+      }
+    }
+    staxParser.closeFile();
+    assertEquals(250, count);
+  }
+
+}
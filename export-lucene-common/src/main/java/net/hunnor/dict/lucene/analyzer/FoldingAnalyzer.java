@@ -2,14 +2,14 @@ package net.hunnor.dict.lucene.analyzer;
 
 import java.io.Reader;
 import org.apache.lucene.analysis.ASCIIFoldingFilter;
-import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.ReusableAnalyzerBase;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.standard.StandardFilter;
 import org.apache.lucene.analysis.standard.StandardTokenizer;
 import org.apache.lucene.util.Version;
 
-public final class FoldingAnalyzer extends Analyzer {
+public final class FoldingAnalyzer extends ReusableAnalyzerBase {
 
   private Version version;
 
@@ -18,12 +18,12 @@ public final class FoldingAnalyzer extends Analyzer {
   }
 
   @Override
-  public TokenStream tokenStream(String field, Reader reader) {
-    TokenStream result = new StandardTokenizer(version, reader);
-    result = new StandardFilter(version, result);
+  protected TokenStreamComponents createComponents(String field, Reader reader) {
+    StandardTokenizer source = new StandardTokenizer(version, reader);
+    TokenStream result = new StandardFilter(version, source);
     result = new LowerCaseFilter(version, result);
     result = new ASCIIFoldingFilter(result);
-    return result;
+    return new TokenStreamComponents(source, result);
   }
 
 }
@@ -1,14 +1,14 @@
 package net.hunnor.dict.lucene.analyzer;
 
 import java.io.Reader;
-import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.ReusableAnalyzerBase;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.standard.StandardFilter;
 import org.apache.lucene.analysis.standard.StandardTokenizer;
 import org.apache.lucene.util.Version;
 
-public final class LowercaseAnalyzer extends Analyzer {
+public final class LowercaseAnalyzer extends ReusableAnalyzerBase {
 
   private Version version;
 
@@ -17,11 +17,11 @@ public final class LowercaseAnalyzer extends Analyzer {
   }
 
   @Override
-  public TokenStream tokenStream(String field, Reader reader) {
-    TokenStream result = new StandardTokenizer(version, reader);
-    result = new StandardFilter(version, result);
+  protected TokenStreamComponents createComponents(String field, Reader reader) {
+    StandardTokenizer source = new StandardTokenizer(version, reader);
+    TokenStream result = new StandardFilter(version, source);
     result = new LowerCaseFilter(version, result);
-    return result;
+    return new TokenStreamComponents(source, result);
   }
 
 }
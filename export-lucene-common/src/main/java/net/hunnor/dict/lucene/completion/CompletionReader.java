@@ -0,0 +1,270 @@
+package net.hunnor.dict.lucene.completion;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.lucene.index.IndexReader;
+
+/**
+ * Answers prefix queries from a completion file written by {@link CompletionWriter}.
+ *
+ * <p>The file is memory-mapped and searched in place, so the reader only keeps the buffer views
+ * on the heap. The results are the same as searching the suggestion field of the index the file
+ * was written from with a prefix query for every token of the query, sorted by the field and
+ * without duplicates. The reader can be used by many threads at once.
+ */
+public final class CompletionReader {
+
+  private final long indexVersion;
+
+  private final int documents;
+
+  private final int headwords;
+
+  private final int keys;
+
+  private final IntBuffer headwordOffsets;
+
+  private final CharBuffer headwordChars;
+
+  private final IntBuffer foldedOffsets;
+
+  private final CharBuffer foldedChars;
+
+  private final IntBuffer keyOffsets;
+
+  private final CharBuffer keyChars;
+
+  private final IntBuffer keyHeadwords;
+
+  private CompletionReader(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 28 || buffer.getInt() != CompletionWriter.MAGIC) {
+      throw new IOException("Not a completion file");
+    }
+    int version = buffer.getInt();
+    if (version != CompletionWriter.VERSION) {
+      throw new IOException("Unsupported completion file version: " + version);
+    }
+    indexVersion = buffer.getLong();
+    documents = buffer.getInt();
+    headwords = buffer.getInt();
+    keys = buffer.getInt();
+    try {
+      headwordOffsets = ints(buffer, headwords + 1);
+      headwordChars = chars(buffer, headwordOffsets.get(headwords));
+      foldedOffsets = ints(buffer, headwords + 1);
+      foldedChars = chars(buffer, foldedOffsets.get(headwords));
+      keyOffsets = ints(buffer, keys + 1);
+      keyChars = chars(buffer, keyOffsets.get(keys));
+      keyHeadwords = ints(buffer, keys);
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | ArithmeticException ex) {
+      throw new IOException("Truncated completion file", ex);
+    }
+  }
+
+  /**
+   * Map a completion file.
+   *
+   * @param file the completion file
+   * @return a reader of the file
+   * @throws IOException if the file cannot be read, or is not a completion file
+   */
+  public static CompletionReader open(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new CompletionReader(buffer);
+    }
+  }
+
+  /**
+   * The version of the index the file was written from.
+   *
+   * @return the index version
+   */
+  public long getIndexVersion() {
+    return indexVersion;
+  }
+
+  /**
+   * The number of headwords in the file, counting a headword as many times as it was added.
+   *
+   * @return the number of headwords
+   */
+  public int size() {
+    return headwords;
+  }
+
+  /**
+   * Whether the file was written from the index of a reader.
+   *
+   * @param indexReader the index reader
+   * @return true if the headwords are the suggestions of the index
+   */
+  public boolean matches(IndexReader indexReader) {
+    return indexReader.getVersion() == indexVersion && indexReader.maxDoc() == documents;
+  }
+
+  /**
+   * Return the headwords that have a token starting with each token of the query, in
+   * suggestion order. Like a search of the suggestion field, the first {@code max} matches are
+   * taken before the duplicates are removed, so fewer headwords may be returned.
+   *
+   * @param query the user query
+   * @param max the maximum number of matches to take
+   * @return the matching headwords
+   */
+  public List<String> complete(String query, int max) {
+    List<String> tokens = Folding.tokens(query);
+    if (tokens.isEmpty() || max < 1) {
+      return new ArrayList<>();
+    }
+    // The longest token selects the fewest keys, the other tokens are checked on the headwords
+    String prefix = tokens.get(0);
+    for (String token : tokens) {
+      if (token.length() > prefix.length()) {
+        prefix = token;
+      }
+    }
+    int[] best = new int[max];
+    int count = 0;
+    for (int key = lowerBound(prefix); key < keys && startsWith(key, prefix); key++) {
+      int headword = keyHeadwords.get(key);
+      if (count == max && headword >= best[count - 1]) {
+        continue;
+      }
+      int position = binarySearch(best, count, headword);
+      if (position >= 0 || (tokens.size() > 1 && !hasTokens(headword, tokens))) {
+        continue;
+      }
+      position = -position - 1;
+      int moved = Math.min(count, max - 1) - position;
+      System.arraycopy(best, position, best, position + 1, moved);
+      best[position] = headword;
+      count = Math.min(count + 1, max);
+    }
+    Set<String> results = new LinkedHashSet<>();
+    for (int i = 0; i < count; i++) {
+      results.add(string(headwordChars, headwordOffsets, best[i]));
+    }
+    return new ArrayList<>(results);
+  }
+
+  private int lowerBound(String prefix) {
+    int low = 0;
+    int high = keys;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (compare(middle, prefix) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int compare(int key, String prefix) {
+    int start = keyOffsets.get(key);
+    int length = keyOffsets.get(key + 1) - start;
+    int common = Math.min(length, prefix.length());
+    for (int i = 0; i < common; i++) {
+      int result = Character.compare(keyChars.get(start + i), prefix.charAt(i));
+      if (result != 0) {
+        return result;
+      }
+    }
+    return length - prefix.length();
+  }
+
+  private boolean startsWith(int key, String prefix) {
+    int start = keyOffsets.get(key);
+    if (keyOffsets.get(key + 1) - start < prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (keyChars.get(start + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean hasTokens(int headword, List<String> tokens) {
+    int start = foldedOffsets.get(headword);
+    int end = foldedOffsets.get(headword + 1);
+    for (String token : tokens) {
+      boolean found = false;
+      for (int i = start; i < end && !found; i++) {
+        if (i == start || foldedChars.get(i - 1) == ' ') {
+          found = regionStartsWith(foldedChars, i, end, token);
+        }
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean regionStartsWith(CharBuffer chars, int start, int end, String prefix) {
+    if (end - start < prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (chars.get(start + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int binarySearch(int[] array, int length, int value) {
+    int low = 0;
+    int high = length - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (array[middle] < value) {
+        low = middle + 1;
+      } else if (array[middle] > value) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private static String string(CharBuffer chars, IntBuffer offsets, int index) {
+    int start = offsets.get(index);
+    int end = offsets.get(index + 1);
+    char[] value = new char[end - start];
+    for (int i = 0; i < value.length; i++) {
+      value[i] = chars.get(start + i);
+    }
+    return new String(value);
+  }
+
+  private static IntBuffer ints(ByteBuffer buffer, int count) {
+    ByteBuffer slice = buffer.slice();
+    slice.limit(Math.multiplyExact(count, 4));
+    buffer.position(buffer.position() + slice.limit());
+    return slice.asIntBuffer();
+  }
+
+  private static CharBuffer chars(ByteBuffer buffer, int count) {
+    ByteBuffer slice = buffer.slice();
+    slice.limit(Math.multiplyExact(count, 2));
+    buffer.position(buffer.position() + slice.limit());
+    return slice.asCharBuffer();
+  }
+
+}
@@ -0,0 +1,215 @@
+package net.hunnor.dict.lucene.completion;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
+import org.apache.lucene.index.IndexReader;
+
+/**
+ * Collects the headwords of the dictionary, and writes them to a completion file that can be
+ * searched by prefix with {@link CompletionReader}.
+ *
+ * <p>The file contains the headwords in the order of the suggestion field of the index: sorted
+ * by their last folded token, which is the term a string sort on the analyzed field uses, and
+ * in index order for the same token. Headwords added more than once are kept, so that a query
+ * truncated to its first results returns the same headwords as the suggestion field. A sorted
+ * array of keys, one for each folded token of each headword, points to the headwords. The file
+ * is only valid for the version of the index it was written from. The format is:
+ *
+ * <pre>
+ * int magic, int version
+ * long index version, int documents
+ * int headwords, int keys
+ * int[headwords + 1] headword offsets, char[] headwords
+ * int[headwords + 1] folded offsets, char[] folded headwords
+ * int[keys + 1] key offsets, char[] keys
+ * int[keys] headword of each key
+ * </pre>
+ */
+public class CompletionWriter {
+
+  public static final String FILE_NAME = "completion.bin";
+
+  static final int MAGIC = 0x484e4331;
+
+  static final int VERSION = 2;
+
+  private static final FieldSelector FIELDS =
+      new MapFieldSelector(Lucene.SUGGESTION, Lucene.HU_ROOTS, Lucene.NO_ROOTS);
+
+  private final List<String> headwords = new ArrayList<>();
+
+  /**
+   * Add a headword after the headwords added before.
+   *
+   * @param headword the headword as displayed to the user
+   */
+  public void add(String headword) {
+    if (headword != null) {
+      headwords.add(headword);
+    }
+  }
+
+  public int size() {
+    return headwords.size();
+  }
+
+  /**
+   * Write the completion file of an index. The headwords are the values of the suggestion
+   * documents in index order. An index without suggestion documents is read as if it had them:
+   * the roots of each entry are taken in the order the indexer adds its suggestion documents.
+   *
+   * @param indexReader a reader of the index
+   * @param file the completion file
+   * @throws IOException if the index cannot be read, or the file cannot be written
+   */
+  public static void write(IndexReader indexReader, File file) throws IOException {
+    CompletionWriter suggestions = new CompletionWriter();
+    CompletionWriter roots = new CompletionWriter();
+    for (int i = 0; i < indexReader.maxDoc(); i++) {
+      if (!indexReader.isDeleted(i)) {
+        Document document = indexReader.document(i, FIELDS);
+        suggestions.add(document.get(Lucene.SUGGESTION));
+        for (String root : document.getValues(Lucene.HU_ROOTS)) {
+          roots.add(root);
+        }
+        for (String root : document.getValues(Lucene.NO_ROOTS)) {
+          roots.add(root);
+        }
+      }
+    }
+    CompletionWriter completionWriter = suggestions.size() > 0 ? suggestions : roots;
+    completionWriter.write(file, indexReader.getVersion(), indexReader.maxDoc());
+  }
+
+  /**
+   * Write the completion file. The file is written next to the target first, and moved in place
+   * when it is complete, so readers never see a partial file.
+   *
+   * @param file the completion file
+   * @param indexVersion the version of the index the headwords were read from
+   * @param documents the number of documents of the index, including deleted documents
+   * @throws IOException if the file cannot be written
+   */
+  public void write(File file, long indexVersion, int documents) throws IOException {
+
+    String[] folded = new String[headwords.size()];
+    String[] last = new String[folded.length];
+    Integer[] order = new Integer[folded.length];
+    for (int i = 0; i < folded.length; i++) {
+      List<String> tokens = Folding.tokens(headwords.get(i));
+      folded[i] = String.join(" ", tokens);
+      last[i] = "";
+      for (String token : tokens) {
+        if (token.compareTo(last[i]) > 0) {
+          last[i] = token;
+        }
+      }
+      order[i] = i;
+    }
+    // The sort is stable, headwords with the same last token stay in the order they were added
+    Arrays.sort(order, (a, b) -> last[a].compareTo(last[b]));
+    String[] sorted = new String[order.length];
+    String[] sortedFolded = new String[order.length];
+    for (int i = 0; i < order.length; i++) {
+      sorted[i] = headwords.get(order[i]);
+      sortedFolded[i] = folded[order[i]];
+    }
+
+    List<Key> keys = new ArrayList<>();
+    for (int i = 0; i < sorted.length; i++) {
+      Set<String> tokens = new LinkedHashSet<>(Folding.tokens(sorted[i]));
+      for (String token : tokens) {
+        keys.add(new Key(token, i));
+      }
+    }
+    keys.sort((a, b) -> {
+      int result = a.token.compareTo(b.token);
+      return result == 0 ? Integer.compare(a.headword, b.headword) : result;
+    });
+
+    String[] tokens = new String[keys.size()];
+    for (int i = 0; i < tokens.length; i++) {
+      tokens[i] = keys.get(i).token;
+    }
+
+    long size = 28L + strings(sorted) + strings(sortedFolded) + strings(tokens)
+        + 4L * tokens.length;
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Completion file too large: " + size + " bytes");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(indexVersion).putInt(documents)
+        .putInt(sorted.length).putInt(tokens.length);
+    putStrings(buffer, sorted);
+    putStrings(buffer, sortedFolded);
+    putStrings(buffer, tokens);
+    for (Key key : keys) {
+      buffer.putInt(key.headword);
+    }
+    buffer.flip();
+
+    Path target = file.toPath();
+    Path temporary = target.resolveSibling(file.getName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+  }
+
+  private static long strings(String[] strings) {
+    long size = 4L * (strings.length + 1);
+    for (String string : strings) {
+      size += 2L * string.length();
+    }
+    return size;
+  }
+
+  private static void putStrings(ByteBuffer buffer, String[] strings) {
+    int offset = 0;
+    buffer.putInt(offset);
+    for (String string : strings) {
+      offset += string.length();
+      buffer.putInt(offset);
+    }
+    for (String string : strings) {
+      for (int i = 0; i < string.length(); i++) {
+        buffer.putChar(string.charAt(i));
+      }
+    }
+  }
+
+  private static final class Key {
+
+    private final String token;
+
+    private final int headword;
+
+    private Key(String token, int headword) {
+      this.token = token;
+      this.headword = headword;
+    }
+
+  }
+
+}
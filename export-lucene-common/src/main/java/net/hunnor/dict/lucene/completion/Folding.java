@@ -0,0 +1,43 @@
+package net.hunnor.dict.lucene.completion;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.hunnor.dict.lucene.analyzer.FoldingAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+/**
+ * Splits headwords and queries into tokens the same way as the suggestion field of the index.
+ */
+final class Folding {
+
+  private static final Analyzer ANALYZER = new FoldingAnalyzer(Lucene.VERSION);
+
+  private Folding() {
+  }
+
+  static List<String> tokens(String text) {
+    List<String> tokens = new ArrayList<>();
+    try {
+      TokenStream tokenStream =
+          ANALYZER.reusableTokenStream(Lucene.SUGGESTION, new StringReader(text));
+      CharTermAttribute attribute = tokenStream.getAttribute(CharTermAttribute.class);
+      tokenStream.reset();
+      while (tokenStream.incrementToken()) {
+        tokens.add(attribute.toString());
+      }
+      tokenStream.end();
+      tokenStream.close();
+    } catch (IOException ex) {
+      // Not thrown when reading from a string
+      throw new UncheckedIOException(ex);
+    }
+    return tokens;
+  }
+
+}
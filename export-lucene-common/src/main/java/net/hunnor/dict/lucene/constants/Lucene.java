@@ -14,6 +14,8 @@ public class Lucene {
 
   public static final String TEXT = "text";
 
+  public static final String TEXT_COMPACT = "text_compact";
+
   public static final String HU_ROOTS = "hu_roots";
 
   public static final String NO_ROOTS = "no_roots";
@@ -40,6 +42,10 @@ public class Lucene {
 
   public static final String SUGGESTION = "suggestion";
 
+  public static final String KEY = "key";
+
+  public static final String HASH = "hash";
+
   private Lucene() {
   }
 
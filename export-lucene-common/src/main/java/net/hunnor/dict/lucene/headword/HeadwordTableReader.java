@@ -0,0 +1,244 @@
+package net.hunnor.dict.lucene.headword;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import net.hunnor.dict.lucene.model.Language;
+import org.apache.lucene.index.IndexReader;
+
+/**
+ * Finds the documents of a roots term in a headword table written by {@link HeadwordTableWriter}.
+ *
+ * <p>The file is memory-mapped and searched in place, so the reader only keeps the buffer views
+ * on the heap. A lookup hashes the term, compares the terms of the keys in its slots, and reads
+ * the documents of the key, which are already in the entry order. The documents are the same
+ * as the results of a sorted search for the term in the roots field of the index the file was
+ * written from. The reader can be used by many threads at once.
+ */
+public final class HeadwordTableReader {
+
+  private static final int[] NO_DOCUMENTS = new int[0];
+
+  private final long indexVersion;
+
+  private final int documents;
+
+  private final boolean ranked;
+
+  private final int slots;
+
+  private final int keys;
+
+  private final IntBuffer table;
+
+  private final IntBuffer keyLanguages;
+
+  private final IntBuffer keyOffsets;
+
+  private final IntBuffer postingOffsets;
+
+  private final IntBuffer postingOrders;
+
+  private final IntBuffer postingDocuments;
+
+  private final CharBuffer keyChars;
+
+  private HeadwordTableReader(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < HeadwordTableWriter.HEADER_LENGTH
+        || buffer.getInt() != HeadwordTableWriter.MAGIC) {
+      throw new IOException("Not a headword table file");
+    }
+    int version = buffer.getInt();
+    if (version != HeadwordTableWriter.VERSION) {
+      throw new IOException("Unsupported headword table file version: " + version);
+    }
+    indexVersion = buffer.getLong();
+    documents = buffer.getInt();
+    ranked = (buffer.getInt() & HeadwordTableWriter.RANKED) != 0;
+    slots = buffer.getInt();
+    keys = buffer.getInt();
+    if (slots < 2 || Integer.bitCount(slots) != 1 || keys < 0 || keys >= slots) {
+      throw new IOException("Corrupt headword table file");
+    }
+    try {
+      table = ints(buffer, slots);
+      keyLanguages = ints(buffer, keys);
+      keyOffsets = ints(buffer, keys + 1);
+      postingOffsets = ints(buffer, keys + 1);
+      postingOrders = ints(buffer, postingOffsets.get(keys));
+      postingDocuments = ints(buffer, postingOffsets.get(keys));
+      keyChars = chars(buffer, keyOffsets.get(keys));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | ArithmeticException ex) {
+      throw new IOException("Truncated headword table file", ex);
+    }
+  }
+
+  /**
+   * Map a headword table file.
+   *
+   * @param file the headword table file
+   * @return a reader of the file
+   * @throws IOException if the file cannot be read, or is not a headword table file
+   */
+  public static HeadwordTableReader open(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new HeadwordTableReader(buffer);
+    }
+  }
+
+  /**
+   * The version of the index the file was written from.
+   *
+   * @return the index version
+   */
+  public long getIndexVersion() {
+    return indexVersion;
+  }
+
+  /**
+   * The number of keys in the file, the distinct terms of the roots fields of each language.
+   *
+   * @return the number of keys
+   */
+  public int size() {
+    return keys;
+  }
+
+  /**
+   * Whether the documents are in the order of a sort rank file, rather than the order of the
+   * terms of the sort field.
+   *
+   * @return true if the file was written with the sort ranks of the index
+   */
+  public boolean isRanked() {
+    return ranked;
+  }
+
+  /**
+   * Whether the file is of the documents of an index reader. The documents of another version
+   * of the index are other documents.
+   *
+   * @param indexReader the top level reader of an index
+   * @return true if the reader is of the version and size the file was written from
+   */
+  public boolean matches(IndexReader indexReader) {
+    return indexReader.getVersion() == indexVersion && indexReader.maxDoc() == documents;
+  }
+
+  /**
+   * The documents with a term in the roots field of a language.
+   *
+   * @param language the language of the roots field
+   * @param term the term, a folded token of a root
+   * @param max the maximum number of documents to return
+   * @return the document numbers in the entry order, empty if no root has the term
+   */
+  public int[] documents(Language language, String term, int max) {
+    int key = find(language.ordinal(), term);
+    if (key < 0 || max < 1) {
+      return NO_DOCUMENTS;
+    }
+    int start = postingOffsets.get(key);
+    int[] result = new int[Math.min(max, postingOffsets.get(key + 1) - start)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = postingDocuments.get(start + i);
+    }
+    return result;
+  }
+
+  /**
+   * The documents with a term in the roots field of any language.
+   *
+   * @param term the term, a folded token of a root
+   * @param max the maximum number of documents to return
+   * @return the document numbers in the entry order, empty if no root has the term
+   */
+  public int[] documents(String term, int max) {
+    Language[] languages = Language.values();
+    int[] starts = new int[languages.length];
+    int[] ends = new int[languages.length];
+    for (Language language : languages) {
+      int key = find(language.ordinal(), term);
+      if (key >= 0) {
+        starts[language.ordinal()] = postingOffsets.get(key);
+        ends[language.ordinal()] = postingOffsets.get(key + 1);
+      }
+    }
+    int[] result = new int[Math.max(0, max)];
+    int count = 0;
+    while (count < result.length) {
+      // The documents of each language are merged by their position in the entry order
+      int next = -1;
+      for (int i = 0; i < starts.length; i++) {
+        if (starts[i] < ends[i] && (next < 0
+            || postingOrders.get(starts[i]) < postingOrders.get(starts[next]))) {
+          next = i;
+        }
+      }
+      if (next < 0) {
+        break;
+      }
+      result[count++] = postingDocuments.get(starts[next]++);
+    }
+    return count == result.length ? result : Arrays.copyOf(result, count);
+  }
+
+  private int find(int language, String term) {
+    int slot = hash(language, term) & (slots - 1);
+    int key;
+    while ((key = table.get(slot) - 1) >= 0) {
+      if (keyLanguages.get(key) == language && equals(key, term)) {
+        return key;
+      }
+      slot = (slot + 1) & (slots - 1);
+    }
+    return -1;
+  }
+
+  private boolean equals(int key, String term) {
+    int start = keyOffsets.get(key);
+    if (keyOffsets.get(key + 1) - start != term.length()) {
+      return false;
+    }
+    for (int i = 0; i < term.length(); i++) {
+      if (keyChars.get(start + i) != term.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The hash of the language and the term of a key.
+   *
+   * @param language the ordinal of the language
+   * @param term the term
+   * @return the hash, with the high bits mixed into the low bits used for the slots
+   */
+  static int hash(int language, String term) {
+    int hash = 31 * language + term.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  private static IntBuffer ints(ByteBuffer buffer, int count) {
+    ByteBuffer slice = buffer.slice();
+    slice.limit(Math.multiplyExact(count, 4));
+    buffer.position(buffer.position() + slice.limit());
+    return slice.asIntBuffer();
+  }
+
+  private static CharBuffer chars(ByteBuffer buffer, int count) {
+    ByteBuffer slice = buffer.slice();
+    slice.limit(Math.multiplyExact(count, 2));
+    buffer.position(buffer.position() + slice.limit());
+    return slice.asCharBuffer();
+  }
+
+}
@@ -0,0 +1,262 @@
+package net.hunnor.dict.lucene.headword;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.hunnor.dict.lucene.constants.Lucene;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.sort.SortRankReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.index.TermEnum;
+
+/**
+ * Writes the headword table of an index, read by {@link HeadwordTableReader}: the documents of
+ * each term of the roots fields, in the order of the results of a search.
+ *
+ * <p>The terms are the folded tokens of the roots, as indexed, and the table is a hash table of
+ * the language and the term of each key with linear probing. The documents of a key are stored
+ * with their position in the entry order, the order of the sort rank file if the table is
+ * written with one, otherwise the order of the terms of the sort field. Documents in the same
+ * place of the order follow each other by document number, as in the results of a sorted
+ * search. The documents are stored by document number, so the file is only valid for the
+ * version of the index it was written from. The format is:
+ *
+ * <pre>
+ * int magic, int version
+ * long index version, int documents
+ * int flags, int slots, int keys
+ * int[slots] key of each slot plus one, 0 for an empty slot
+ * int[keys] language of each key
+ * int[keys + 1] offset of the term of each key in the term chars
+ * int[keys + 1] offset of the documents of each key in the documents
+ * int[documents of all keys] position of each document in the entry order
+ * int[documents of all keys] document number of each document
+ * char[] term chars
+ * </pre>
+ */
+public final class HeadwordTableWriter {
+
+  public static final String FILE_NAME = "headwords.bin";
+
+  static final int MAGIC = 0x484e4831;
+
+  static final int VERSION = 1;
+
+  static final int HEADER_LENGTH = 36;
+
+  static final int RANKED = 1;
+
+  private HeadwordTableWriter() {
+  }
+
+  /**
+   * Write the headword table of an index. The file is written next to the target first, and
+   * moved in place when it is complete, so readers never see a partial file.
+   *
+   * @param indexReader a reader of the index
+   * @param sortRanks the sort ranks of the index to order the documents by, or null to order
+   *     them by the terms of the sort field
+   * @param file the headword table file
+   * @return the number of keys of the table
+   * @throws IOException if the index cannot be read, or the file cannot be written
+   */
+  public static int write(IndexReader indexReader, SortRankReader sortRanks, File file)
+      throws IOException {
+
+    int[] order = order(indexReader, sortRanks);
+    List<Integer> languages = new ArrayList<>();
+    List<String> terms = new ArrayList<>();
+    List<int[]> postings = new ArrayList<>();
+    long postingCount = 0;
+    for (Language language : Language.values()) {
+      String field = field(language);
+      TermEnum termEnum = indexReader.terms(new Term(field, ""));
+      TermDocs termDocs = indexReader.termDocs();
+      try {
+        do {
+          Term term = termEnum.term();
+          if (term == null || !field.equals(term.field())) {
+            break;
+          }
+          int[] documents = documents(termDocs, term, order);
+          if (documents.length > 0) {
+            languages.add(language.ordinal());
+            terms.add(term.text());
+            postings.add(documents);
+            postingCount += documents.length;
+          }
+        } while (termEnum.next());
+      } finally {
+        termDocs.close();
+        termEnum.close();
+      }
+    }
+
+    int keys = terms.size();
+    int slots = 2;
+    while (slots < 2L * keys) {
+      slots <<= 1;
+    }
+    long chars = 0;
+    for (String term : terms) {
+      chars += term.length();
+    }
+    long size = HEADER_LENGTH + 4L * slots + 4L * keys + 8L * (keys + 1) + 8L * postingCount
+        + 2L * chars;
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Headword table too large: " + size + " bytes");
+    }
+
+    int[] table = new int[slots];
+    for (int key = 0; key < keys; key++) {
+      int slot = HeadwordTableReader.hash(languages.get(key), terms.get(key)) & (slots - 1);
+      while (table[slot] != 0) {
+        slot = (slot + 1) & (slots - 1);
+      }
+      table[slot] = key + 1;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(indexReader.getVersion())
+        .putInt(indexReader.maxDoc()).putInt(sortRanks == null ? 0 : RANKED).putInt(slots)
+        .putInt(keys);
+    for (int slot : table) {
+      buffer.putInt(slot);
+    }
+    for (int language : languages) {
+      buffer.putInt(language);
+    }
+    int offset = 0;
+    buffer.putInt(offset);
+    for (String term : terms) {
+      offset += term.length();
+      buffer.putInt(offset);
+    }
+    offset = 0;
+    buffer.putInt(offset);
+    for (int[] documents : postings) {
+      offset += documents.length;
+      buffer.putInt(offset);
+    }
+    for (int[] documents : postings) {
+      for (int document : documents) {
+        buffer.putInt(order[document]);
+      }
+    }
+    for (int[] documents : postings) {
+      for (int document : documents) {
+        buffer.putInt(document);
+      }
+    }
+    for (String term : terms) {
+      for (int i = 0; i < term.length(); i++) {
+        buffer.putChar(term.charAt(i));
+      }
+    }
+    buffer.flip();
+
+    Path target = file.toPath();
+    Path temporary = target.resolveSibling(file.getName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    return keys;
+
+  }
+
+  /**
+   * The roots field of a language.
+   *
+   * @param language the language
+   * @return the roots field
+   */
+  static String field(Language language) {
+    return Language.HU.equals(language) ? Lucene.HU_ROOTS : Lucene.NO_ROOTS;
+  }
+
+  /**
+   * The position of each live document of an index in the entry order. The documents are
+   * ordered by their sort rank, or by the last term of the sort field as the field cache of a
+   * string sort, with the documents without a term first. Documents in the same place follow
+   * each other by document number.
+   *
+   * @param indexReader a reader of the index
+   * @param sortRanks the sort ranks of the index, or null to order by the terms
+   * @return the positions by document number, deleted documents have no position
+   * @throws IOException if the index cannot be read
+   */
+  static int[] order(IndexReader indexReader, SortRankReader sortRanks) throws IOException {
+    int maxDoc = indexReader.maxDoc();
+    long[] values = new long[maxDoc];
+    if (sortRanks != null) {
+      for (int i = 0; i < maxDoc; i++) {
+        values[i] = sortRanks.rank(i);
+      }
+    } else {
+      TermEnum termEnum = indexReader.terms(new Term(Lucene.SORT, ""));
+      TermDocs termDocs = indexReader.termDocs();
+      try {
+        int ordinal = 0;
+        do {
+          Term term = termEnum.term();
+          if (term == null || !Lucene.SORT.equals(term.field())) {
+            break;
+          }
+          ordinal++;
+          termDocs.seek(termEnum);
+          while (termDocs.next()) {
+            values[termDocs.doc()] = ordinal;
+          }
+        } while (termEnum.next());
+      } finally {
+        termDocs.close();
+        termEnum.close();
+      }
+    }
+    long[] sorted = new long[maxDoc];
+    int count = 0;
+    for (int i = 0; i < maxDoc; i++) {
+      if (!indexReader.isDeleted(i)) {
+        sorted[count++] = values[i] << 32 | i;
+      }
+    }
+    Arrays.sort(sorted, 0, count);
+    int[] order = new int[maxDoc];
+    Arrays.fill(order, -1);
+    for (int i = 0; i < count; i++) {
+      order[(int) sorted[i]] = i;
+    }
+    return order;
+  }
+
+  private static int[] documents(TermDocs termDocs, Term term, int[] order) throws IOException {
+    List<Integer> documents = new ArrayList<>();
+    termDocs.seek(term);
+    while (termDocs.next()) {
+      documents.add(termDocs.doc());
+    }
+    documents.sort((a, b) -> Integer.compare(order[a], order[b]));
+    int[] result = new int[documents.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = documents.get(i);
+    }
+    return result;
+  }
+
+}
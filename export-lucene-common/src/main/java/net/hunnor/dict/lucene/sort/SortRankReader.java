@@ -0,0 +1,91 @@
+package net.hunnor.dict.lucene.sort;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import org.apache.lucene.index.IndexReader;
+
+/**
+ * Reads the ranks of the documents from a sort rank file written by {@link SortRankWriter}.
+ *
+ * <p>The ranks are read into an array, so that comparing two documents costs two array reads.
+ * The reader can be used by many threads at once.
+ */
+public final class SortRankReader implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long indexVersion;
+
+  private final int[] ranks;
+
+  private SortRankReader(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 20 || buffer.getInt() != SortRankWriter.MAGIC) {
+      throw new IOException("Not a sort rank file");
+    }
+    int version = buffer.getInt();
+    if (version != SortRankWriter.VERSION) {
+      throw new IOException("Unsupported sort rank file version: " + version);
+    }
+    indexVersion = buffer.getLong();
+    int documents = buffer.getInt();
+    if (documents < 0 || buffer.remaining() < 4L * documents) {
+      throw new IOException("Truncated sort rank file");
+    }
+    ranks = new int[documents];
+    buffer.asIntBuffer().get(ranks);
+  }
+
+  /**
+   * Read a sort rank file.
+   *
+   * @param file the sort rank file
+   * @return a reader of the file
+   * @throws IOException if the file cannot be read, or is not a sort rank file
+   */
+  public static SortRankReader open(File file) throws IOException {
+    return new SortRankReader(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+  }
+
+  /**
+   * The version of the index the file was written from.
+   *
+   * @return the index version
+   */
+  public long getIndexVersion() {
+    return indexVersion;
+  }
+
+  /**
+   * The number of documents in the file.
+   *
+   * @return the number of documents
+   */
+  public int size() {
+    return ranks.length;
+  }
+
+  /**
+   * Whether the ranks are those of the documents of an index reader. The ranks of another
+   * version of the index belong to other documents.
+   *
+   * @param indexReader the top level reader of an index
+   * @return true if the reader is of the version and size the file was written from
+   */
+  public boolean matches(IndexReader indexReader) {
+    return indexReader.getVersion() == indexVersion && indexReader.maxDoc() == size();
+  }
+
+  /**
+   * The rank of a document. Documents with a lower rank come first.
+   *
+   * @param document the document number in the index
+   * @return the rank of the document
+   */
+  public int rank(int document) {
+    return ranks[document];
+  }
+
+}
@@ -0,0 +1,129 @@
+package net.hunnor.dict.lucene.sort;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
+import org.apache.lucene.index.IndexReader;
+
+/**
+ * Writes the sort rank file of an index, the position of each document in the alphabetical
+ * order of the headwords, read by {@link SortRankReader}.
+ *
+ * <p>The headwords are compared by the collation keys of the language of their entry, so that
+ * the Hungarian and Norwegian entries are each in the order of their alphabet. The keys of two
+ * languages cannot be compared, so the Hungarian entries are ranked first, then the Norwegian
+ * entries, then the entries of any other language. Documents with the same headword have the
+ * same rank, and documents without a headword, such as the suggestion
+ * documents, are ranked after all entries. The ranks are stored by document number, so the file
+ * is only valid for the version of the index it was written from. The format is:
+ *
+ * <pre>
+ * int magic, int version
+ * long index version, int documents
+ * int[documents] rank of each document
+ * </pre>
+ */
+public final class SortRankWriter {
+
+  public static final String FILE_NAME = "sort.bin";
+
+  static final int MAGIC = 0x484e5331;
+
+  static final int VERSION = 2;
+
+  static final int UNRANKED = Integer.MAX_VALUE;
+
+  private static final FieldSelector FIELDS = new MapFieldSelector(Lucene.LANG, Lucene.SORT);
+
+  private SortRankWriter() {
+  }
+
+  /**
+   * Write the sort rank file of an index. The file is written next to the target first, and
+   * moved in place when it is complete, so readers never see a partial file.
+   *
+   * @param indexReader a reader of the index
+   * @param file the sort rank file
+   * @throws IOException if the index cannot be read, or the file cannot be written
+   */
+  public static void write(IndexReader indexReader, File file) throws IOException {
+    int[] ranks = ranks(indexReader);
+    ByteBuffer buffer = ByteBuffer.allocate(20 + 4 * ranks.length);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(indexReader.getVersion()).putInt(ranks.length);
+    buffer.asIntBuffer().put(ranks);
+    buffer.position(buffer.limit());
+    buffer.flip();
+
+    Path target = file.toPath();
+    Path temporary = target.resolveSibling(file.getName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * The rank of each document of an index.
+   *
+   * @param indexReader a reader of the index
+   * @return the ranks by document number
+   * @throws IOException if the index cannot be read
+   */
+  static int[] ranks(IndexReader indexReader) throws IOException {
+    int[] ranks = new int[indexReader.maxDoc()];
+    Arrays.fill(ranks, UNRANKED);
+    CollationKey[] keys = new CollationKey[ranks.length];
+    int[] languages = new int[ranks.length];
+    Collator[] collators = {Collator.getInstance(new Locale("hu")),
+        Collator.getInstance(new Locale("no")), Collator.getInstance(Locale.ROOT)};
+    int count = 0;
+    Integer[] documents = new Integer[ranks.length];
+    for (int i = 0; i < ranks.length; i++) {
+      if (indexReader.isDeleted(i)) {
+        continue;
+      }
+      Document document = indexReader.document(i, FIELDS);
+      String sort = document.get(Lucene.SORT);
+      if (sort != null) {
+        String lang = document.get(Lucene.LANG);
+        languages[i] = "hu".equals(lang) ? 0 : "no".equals(lang) ? 1 : 2;
+        keys[i] = collators[languages[i]].getCollationKey(sort);
+        documents[count++] = i;
+      }
+    }
+    // Keys of different collators do not compare, so the languages are ranked one after another
+    Arrays.sort(documents, 0, count, Comparator.<Integer>comparingInt(
+        document -> languages[document]).thenComparing(document -> keys[document]));
+    int rank = -1;
+    for (int i = 0; i < count; i++) {
+      int document = documents[i];
+      int previous = i == 0 ? -1 : documents[i - 1];
+      if (previous == -1 || languages[document] != languages[previous]
+          || keys[document].compareTo(keys[previous]) != 0) {
+        rank = i;
+      }
+      ranks[document] = rank;
+    }
+    return ranks;
+  }
+
+}
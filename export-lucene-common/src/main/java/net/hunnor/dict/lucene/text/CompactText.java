@@ -0,0 +1,244 @@
+package net.hunnor.dict.lucene.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary form of the HTML text of an entry. The tags written by the indexer are
+ * replaced by one byte opcodes, and the text between the tags is stored once per entry in a
+ * string table, so repeated runs such as the space after a sense number take one byte each. The
+ * strings of the table are decoded from UTF-8 in one block. The decoded text is the same string
+ * as the encoded one, including any markup that is not one of the tags. The format is:
+ *
+ * <pre>
+ * byte version
+ * vint strings, vint[strings] length of each string in chars
+ * vint bytes, byte[bytes] the strings one after the other in UTF-8
+ * vint[] opcodes, a tag below {@link #TAGS}, or TAGS + the index of a string
+ * </pre>
+ */
+public final class CompactText {
+
+  static final int VERSION = 1;
+
+  /**
+   * The tags written by the indexer, each encoded as its index.
+   */
+  static final String[] TAGS = {"<b>", "</b>", "<i>", "</i>", "<br/>", "<small>", "</small>"};
+
+  private CompactText() {
+  }
+
+  /**
+   * Encode a text.
+   *
+   * @param text the HTML text of an entry
+   * @return the encoded text
+   */
+  public static byte[] encode(String text) {
+    Map<String, Integer> indexes = new HashMap<>();
+    StringBuilder table = new StringBuilder();
+    List<Integer> lengths = new ArrayList<>();
+    List<Integer> opcodes = new ArrayList<>();
+    int start = 0;
+    int position = text.indexOf('<');
+    while (position >= 0) {
+      int tag = tagAt(text, position);
+      if (tag >= 0) {
+        if (position > start) {
+          String string = text.substring(start, position);
+          opcodes.add(TAGS.length + index(string, indexes, table, lengths));
+        }
+        opcodes.add(tag);
+        start = position + TAGS[tag].length();
+        position = text.indexOf('<', start);
+      } else {
+        position = text.indexOf('<', position + 1);
+      }
+    }
+    if (start < text.length()) {
+      opcodes.add(TAGS.length + index(text.substring(start), indexes, table, lengths));
+    }
+    byte[] strings = table.toString().getBytes(StandardCharsets.UTF_8);
+    int length = 1 + vintLength(lengths.size()) + vintLength(strings.length) + strings.length;
+    for (int stringLength : lengths) {
+      length += vintLength(stringLength);
+    }
+    for (int opcode : opcodes) {
+      length += vintLength(opcode);
+    }
+    byte[] bytes = new byte[length];
+    bytes[0] = VERSION;
+    int offset = writeVint(bytes, 1, lengths.size());
+    for (int stringLength : lengths) {
+      offset = writeVint(bytes, offset, stringLength);
+    }
+    offset = writeVint(bytes, offset, strings.length);
+    System.arraycopy(strings, 0, bytes, offset, strings.length);
+    offset += strings.length;
+    for (int opcode : opcodes) {
+      offset = writeVint(bytes, offset, opcode);
+    }
+    return bytes;
+  }
+
+  /**
+   * Decode a text.
+   *
+   * @param bytes the encoded text
+   * @return the HTML text
+   */
+  public static String decode(byte[] bytes) {
+    return decode(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Decode a text from a part of an array, as returned by the binary stored fields of the index.
+   *
+   * @param bytes the array
+   * @param offset the start of the encoded text
+   * @param length the length of the encoded text
+   * @return the HTML text
+   * @throws IllegalArgumentException if the bytes are not an encoded text
+   */
+  public static String decode(byte[] bytes, int offset, int length) {
+    if (length < 1 || bytes[offset] != VERSION) {
+      throw new IllegalArgumentException("Not a compact text");
+    }
+    Input input = new Input(bytes, offset + 1, offset + length);
+    int[] offsets = new int[input.readVint() + 1];
+    for (int i = 1; i < offsets.length; i++) {
+      offsets[i] = offsets[i - 1] + input.readVint();
+    }
+    String table = input.readString(input.readVint());
+    if (table.length() != offsets[offsets.length - 1]) {
+      throw new IllegalArgumentException("Invalid string table in compact text");
+    }
+    // The opcodes are read twice, to size the text and to fill it
+    int opcodes = input.position();
+    int textLength = 0;
+    while (input.remaining() > 0) {
+      int opcode = input.readVint();
+      if (opcode < TAGS.length) {
+        textLength += TAGS[opcode].length();
+      } else if (opcode - TAGS.length < offsets.length - 1) {
+        int string = opcode - TAGS.length;
+        textLength += offsets[string + 1] - offsets[string];
+      } else {
+        throw new IllegalArgumentException("Invalid opcode in compact text: " + opcode);
+      }
+    }
+    char[] text = new char[textLength];
+    int position = 0;
+    input.seek(opcodes);
+    while (input.remaining() > 0) {
+      int opcode = input.readVint();
+      if (opcode < TAGS.length) {
+        String tag = TAGS[opcode];
+        tag.getChars(0, tag.length(), text, position);
+        position += tag.length();
+      } else {
+        int string = opcode - TAGS.length;
+        table.getChars(offsets[string], offsets[string + 1], text, position);
+        position += offsets[string + 1] - offsets[string];
+      }
+    }
+    return new String(text);
+  }
+
+  private static int tagAt(String text, int position) {
+    for (int i = 0; i < TAGS.length; i++) {
+      if (text.startsWith(TAGS[i], position)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int index(String string, Map<String, Integer> indexes, StringBuilder table,
+      List<Integer> lengths) {
+    Integer index = indexes.get(string);
+    if (index == null) {
+      index = lengths.size();
+      indexes.put(string, index);
+      table.append(string);
+      lengths.add(string.length());
+    }
+    return index;
+  }
+
+  private static int vintLength(int value) {
+    int length = 1;
+    for (int rest = value >>> 7; rest != 0; rest >>>= 7) {
+      length++;
+    }
+    return length;
+  }
+
+  private static int writeVint(byte[] bytes, int offset, int value) {
+    int position = offset;
+    int rest = value;
+    while ((rest & ~0x7f) != 0) {
+      bytes[position++] = (byte) ((rest & 0x7f) | 0x80);
+      rest >>>= 7;
+    }
+    bytes[position++] = (byte) rest;
+    return position;
+  }
+
+  private static final class Input {
+
+    private final byte[] bytes;
+
+    private final int end;
+
+    private int position;
+
+    Input(byte[] bytes, int position, int end) {
+      this.bytes = bytes;
+      this.position = position;
+      this.end = end;
+    }
+
+    int position() {
+      return position;
+    }
+
+    void seek(int position) {
+      this.position = position;
+    }
+
+    int remaining() {
+      return end - position;
+    }
+
+    int readVint() {
+      int value = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        if (position >= end) {
+          throw new IllegalArgumentException("Truncated compact text");
+        }
+        byte b = bytes[position++];
+        value |= (b & 0x7f) << shift;
+        if (b >= 0 && value >= 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Invalid vint in compact text");
+    }
+
+    String readString(int length) {
+      if (length > remaining()) {
+        throw new IllegalArgumentException("Truncated compact text");
+      }
+      String string = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return string;
+    }
+
+  }
+
+}
@@ -1,10 +1,14 @@
 package net.hunnor.dict.lucene.analyzer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import net.hunnor.dict.lucene.constants.Lucene;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
@@ -36,4 +40,30 @@ class LowercaseAnalyzerTest {
 
   }
 
+  @Test
+  void reusableTokenStreamTest() throws IOException {
+
+    Analyzer analyzer = new LowercaseAnalyzer(Lucene.VERSION);
+    TokenStream first = analyzer.reusableTokenStream(Lucene.ID, new StringReader("x y"));
+    assertEquals(Arrays.asList("x", "y"), tokens(first));
+    TokenStream second = analyzer.reusableTokenStream(Lucene.ID, new StringReader("ÅSE Æble"));
+    assertSame(first, second);
+    assertEquals(Arrays.asList("åse", "æble"), tokens(second));
+
+    analyzer.close();
+
+  }
+
+  private static List<String> tokens(TokenStream stream) throws IOException {
+    List<String> tokens = new ArrayList<>();
+    CharTermAttribute attribute = stream.getAttribute(CharTermAttribute.class);
+    stream.reset();
+    while (stream.incrementToken()) {
+      tokens.add(attribute.toString());
+    }
+    stream.end();
+    stream.close();
+    return tokens;
+  }
+
 }
@@ -0,0 +1,92 @@
+package net.hunnor.dict.lucene.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompletionReaderTest {
+
+  @Test
+  void testComplete(@TempDir File tempDir) throws IOException {
+    CompletionReader completionReader = completionReader(tempDir,
+        "ház", "haza", "hazug", "kis ház", "Hål", "bil", "ház");
+    assertEquals(7, completionReader.size());
+    assertEquals(Arrays.asList("ház", "haza", "hazug", "kis ház"),
+        completionReader.complete("haz", 10));
+    // Both "ház" count towards the maximum
+    assertEquals(Collections.singletonList("ház"), completionReader.complete("HÁZ", 2));
+    assertEquals(Arrays.asList("ház", "haza"), completionReader.complete("HÁZ", 3));
+    assertEquals(Collections.singletonList("Hål"), completionReader.complete("h", 1));
+    assertEquals(Arrays.asList("Hål", "ház", "haza", "hazug", "kis ház"),
+        completionReader.complete("h", 10));
+    assertEquals(Collections.singletonList("kis ház"), completionReader.complete("ha ki", 10));
+    assertEquals(Collections.singletonList("kis ház"), completionReader.complete("kis h", 10));
+    assertEquals(Collections.emptyList(), completionReader.complete("kis b", 10));
+    assertEquals(Collections.emptyList(), completionReader.complete("x", 10));
+    assertEquals(Collections.emptyList(), completionReader.complete("zzz", 10));
+    assertEquals(Collections.emptyList(), completionReader.complete(" ", 10));
+    assertEquals(Collections.emptyList(), completionReader.complete("haz", 0));
+  }
+
+  @Test
+  void testOrder(@TempDir File tempDir) throws IOException {
+    CompletionReader completionReader =
+        completionReader(tempDir, "zebra", "alma zebra", "alma");
+    // Sorted by the last token, and in the order added for the same token
+    assertEquals(Arrays.asList("zebra", "alma zebra"), completionReader.complete("z", 10));
+    assertEquals(Arrays.asList("alma", "alma zebra"), completionReader.complete("a", 10));
+    assertEquals(Collections.singletonList("alma"), completionReader.complete("a", 1));
+  }
+
+  @Test
+  void testEmpty(@TempDir File tempDir) throws IOException {
+    CompletionReader completionReader = completionReader(tempDir);
+    assertEquals(0, completionReader.size());
+    assertTrue(completionReader.complete("a", 10).isEmpty());
+  }
+
+  @Test
+  void testInvalidFile(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "invalid");
+    Files.write(file.toPath(), new byte[] {1, 2, 3});
+    assertThrows(IOException.class, () -> CompletionReader.open(file));
+  }
+
+  @Test
+  void testUnsupportedVersion(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "old");
+    Files.write(file.toPath(), ByteBuffer.allocate(28)
+        .putInt(CompletionWriter.MAGIC).putInt(1).array());
+    assertThrows(IOException.class, () -> CompletionReader.open(file));
+  }
+
+  @Test
+  void testTruncatedFile(@TempDir File tempDir) throws IOException {
+    completionReader(tempDir, "abc", "abd");
+    File file = new File(tempDir, CompletionWriter.FILE_NAME);
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 4));
+    assertThrows(IOException.class, () -> CompletionReader.open(file));
+  }
+
+  private static CompletionReader completionReader(File directory, String... headwords)
+      throws IOException {
+    CompletionWriter completionWriter = new CompletionWriter();
+    for (String headword : headwords) {
+      completionWriter.add(headword);
+    }
+    File file = new File(directory, CompletionWriter.FILE_NAME);
+    completionWriter.write(file, 1, 0);
+    return CompletionReader.open(file);
+  }
+
+}
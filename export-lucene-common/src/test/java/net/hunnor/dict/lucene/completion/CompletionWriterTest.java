@@ -0,0 +1,90 @@
+package net.hunnor.dict.lucene.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompletionWriterTest {
+
+  @Test
+  void testAdd() {
+    CompletionWriter completionWriter = new CompletionWriter();
+    completionWriter.add("a");
+    completionWriter.add("b");
+    completionWriter.add("a");
+    completionWriter.add(null);
+    assertEquals(3, completionWriter.size());
+  }
+
+  @Test
+  void testWrite(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, CompletionWriter.FILE_NAME);
+    CompletionWriter completionWriter = new CompletionWriter();
+    completionWriter.add("b");
+    completionWriter.add("a");
+    completionWriter.write(file, 1, 0);
+    completionWriter.add("c");
+    completionWriter.write(file, 2, 0);
+    CompletionReader completionReader = CompletionReader.open(file);
+    assertEquals(3, completionReader.size());
+    assertEquals(2, completionReader.getIndexVersion());
+    assertTrue(file.isFile());
+    assertEquals(1, tempDir.listFiles().length);
+  }
+
+  @Test
+  void testWriteIndex(@TempDir File tempDir) throws IOException {
+    Directory directory = new RAMDirectory();
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+      indexWriter.addDocument(document(Lucene.HU_ROOTS, "kerek"));
+      indexWriter.addDocument(document(Lucene.SUGGESTION, "kert"));
+      indexWriter.addDocument(document(Lucene.SUGGESTION, "kerek"));
+    }
+    File file = new File(tempDir, CompletionWriter.FILE_NAME);
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      CompletionWriter.write(indexReader, file);
+      CompletionReader completionReader = CompletionReader.open(file);
+      assertTrue(completionReader.matches(indexReader));
+      // Only the suggestion documents, the roots are read when there are none
+      assertEquals(2, completionReader.size());
+      assertEquals(Arrays.asList("kerek", "kert"), completionReader.complete("ker", 10));
+    }
+    try (IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig(
+        Lucene.VERSION, PerFieldAnalyzer.getInstance(Lucene.VERSION)))) {
+      indexWriter.deleteAll();
+      indexWriter.addDocument(document(Lucene.NO_ROOTS, "kort"));
+      indexWriter.addDocument(document(Lucene.HU_ROOTS, "kert"));
+    }
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      assertFalse(CompletionReader.open(file).matches(indexReader));
+      CompletionWriter.write(indexReader, file);
+      CompletionReader completionReader = CompletionReader.open(file);
+      assertTrue(completionReader.matches(indexReader));
+      assertEquals(Arrays.asList("kert", "kort"), completionReader.complete("k", 10));
+    }
+  }
+
+  private static Document document(String field, String value) {
+    Document document = new Document();
+    document.add(new Field(field, value, Field.Store.YES, Field.Index.ANALYZED));
+    return document;
+  }
+
+}
@@ -0,0 +1,128 @@
+package net.hunnor.dict.lucene.headword;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.sort.SortRankReader;
+import net.hunnor.dict.lucene.sort.SortRankWriter;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HeadwordTableReaderTest {
+
+  @Test
+  void testDocuments(@TempDir File tempDir) throws IOException {
+    Directory directory = HeadwordTableWriterTest.index("no", "is", "is", "hu", "is", "is",
+        "no", "is bre", "isbre", "hu", "is", "is", "hu", "jég", "jeg");
+    HeadwordTableReader headwords = write(directory, tempDir, false);
+    assertEquals(4, headwords.size());
+    assertArrayEquals(new int[] {1, 3}, headwords.documents(Language.HU, "is", 10));
+    assertArrayEquals(new int[] {1}, headwords.documents(Language.HU, "is", 1));
+    assertArrayEquals(new int[0], headwords.documents(Language.HU, "is", 0));
+    assertArrayEquals(new int[] {0, 2}, headwords.documents(Language.NO, "is", 10));
+    assertArrayEquals(new int[] {4}, headwords.documents(Language.HU, "jeg", 10));
+    assertArrayEquals(new int[0], headwords.documents(Language.HU, "jég", 10));
+    assertArrayEquals(new int[0], headwords.documents(Language.NO, "jeg", 10));
+  }
+
+  @Test
+  void testDocumentsOfAllLanguages(@TempDir File tempDir) throws IOException {
+    Directory directory = HeadwordTableWriterTest.index("no", "is", "is", "hu", "is", "is",
+        "no", "is bre", "isbre", "hu", "is", "is", "hu", "jég", "jeg");
+    HeadwordTableReader headwords = write(directory, tempDir, false);
+    // Merged by the sort terms, is before isbre
+    assertArrayEquals(new int[] {0, 1, 3, 2}, headwords.documents("is", 10));
+    assertArrayEquals(new int[] {0, 1}, headwords.documents("is", 2));
+    assertArrayEquals(new int[] {4}, headwords.documents("jeg", 10));
+    assertArrayEquals(new int[0], headwords.documents("fa", 10));
+  }
+
+  @Test
+  void testRanked(@TempDir File tempDir) throws IOException {
+    Directory directory = HeadwordTableWriterTest.index("hu", "cukor", "cukor", "hu", "cukor",
+        "csak");
+    HeadwordTableReader headwords = write(directory, tempDir, true);
+    assertTrue(headwords.isRanked());
+    assertArrayEquals(new int[] {0, 1}, headwords.documents(Language.HU, "cukor", 10));
+    headwords = write(directory, tempDir, false);
+    assertFalse(headwords.isRanked());
+    assertArrayEquals(new int[] {1, 0}, headwords.documents(Language.HU, "cukor", 10));
+  }
+
+  @Test
+  void testMatches(@TempDir File tempDir) throws IOException {
+    Directory directory = HeadwordTableWriterTest.index("hu", "a", "a");
+    HeadwordTableReader headwords = write(directory, tempDir, false);
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+      indexWriter.addDocument(new Document());
+    }
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      assertFalse(headwords.matches(indexReader));
+    }
+  }
+
+  @Test
+  void testEmpty(@TempDir File tempDir) throws IOException {
+    HeadwordTableReader headwords =
+        write(HeadwordTableWriterTest.index(), tempDir, false);
+    assertEquals(0, headwords.size());
+    assertArrayEquals(new int[0], headwords.documents(Language.HU, "a", 10));
+    assertArrayEquals(new int[0], headwords.documents("a", 10));
+  }
+
+  @Test
+  void testInvalid(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, HeadwordTableWriter.FILE_NAME);
+    Files.write(file.toPath(), new byte[40]);
+    assertThrows(IOException.class, () -> HeadwordTableReader.open(file));
+    write(file, HeadwordTableWriter.MAGIC, 2, 2, 0);
+    assertThrows(IOException.class, () -> HeadwordTableReader.open(file));
+    write(file, HeadwordTableWriter.MAGIC, HeadwordTableWriter.VERSION, 3, 0);
+    assertThrows(IOException.class, () -> HeadwordTableReader.open(file));
+    write(file, HeadwordTableWriter.MAGIC, HeadwordTableWriter.VERSION, 2, 2);
+    assertThrows(IOException.class, () -> HeadwordTableReader.open(file));
+    write(file, HeadwordTableWriter.MAGIC, HeadwordTableWriter.VERSION, 4, 1);
+    assertThrows(IOException.class, () -> HeadwordTableReader.open(file));
+  }
+
+  private static HeadwordTableReader write(Directory directory, File tempDir, boolean ranked)
+      throws IOException {
+    File file = new File(tempDir, HeadwordTableWriter.FILE_NAME);
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      SortRankReader sortRanks = null;
+      if (ranked) {
+        File ranks = new File(tempDir, SortRankWriter.FILE_NAME);
+        SortRankWriter.write(indexReader, ranks);
+        sortRanks = SortRankReader.open(ranks);
+      }
+      HeadwordTableWriter.write(indexReader, sortRanks, file);
+    }
+    return HeadwordTableReader.open(file);
+  }
+
+  private static void write(File file, int magic, int version, int slots, int keys)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HeadwordTableWriter.HEADER_LENGTH + 4);
+    buffer.putInt(magic).putInt(version).putLong(0).putInt(0).putInt(0).putInt(slots)
+        .putInt(keys);
+    Files.write(file.toPath(), buffer.array());
+  }
+
+}
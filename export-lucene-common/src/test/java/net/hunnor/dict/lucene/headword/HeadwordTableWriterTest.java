@@ -0,0 +1,160 @@
+package net.hunnor.dict.lucene.headword;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.sort.SortRankReader;
+import net.hunnor.dict.lucene.sort.SortRankWriter;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HeadwordTableWriterTest {
+
+  @Test
+  void testOrder() throws IOException {
+    Directory directory = index("hu", "b", "b", "hu", "a", null, "hu", "c", "a", "hu", "d", "b");
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      // No sort term first, then by term and document number
+      assertArrayEquals(new int[] {2, 0, 1, 3}, HeadwordTableWriter.order(indexReader, null));
+    }
+  }
+
+  @Test
+  void testRankedOrder(@TempDir File tempDir) throws IOException {
+    Directory directory = index("hu", "b", "cs", "hu", "a", "d", "hu", "c", "c");
+    File file = new File(tempDir, SortRankWriter.FILE_NAME);
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      SortRankWriter.write(indexReader, file);
+      // Hungarian cs after c, unlike the terms
+      assertArrayEquals(new int[] {1, 2, 0},
+          HeadwordTableWriter.order(indexReader, SortRankReader.open(file)));
+    }
+  }
+
+  @Test
+  void testDeleted() throws IOException {
+    Directory directory = index("hu", "b", "b", "hu", "a", "a", "hu", "c", "c");
+    delete(directory, "1");
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      assertArrayEquals(new int[] {0, -1, 1}, HeadwordTableWriter.order(indexReader, null));
+    }
+  }
+
+  @Test
+  void testWrite(@TempDir File tempDir) throws IOException {
+    Directory directory = index("hu", "alma fa", "alma", "no", "eple", "eple", "hu", "alma",
+        "alma", "no", "tre", "tre", "hu", "körte", "korte");
+    File file = new File(tempDir, HeadwordTableWriter.FILE_NAME);
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      assertEquals(5, HeadwordTableWriter.write(indexReader, null, file));
+      assertFalse(new File(tempDir, HeadwordTableWriter.FILE_NAME + ".tmp").exists());
+      HeadwordTableReader headwords = HeadwordTableReader.open(file);
+      assertEquals(indexReader.getVersion(), headwords.getIndexVersion());
+      assertTrue(headwords.matches(indexReader));
+      assertFalse(headwords.isRanked());
+      assertEquals(5, headwords.size());
+      assertArrayEquals(new int[] {0, 2}, headwords.documents(Language.HU, "alma", 10));
+      assertArrayEquals(new int[] {4}, headwords.documents(Language.HU, "korte", 10));
+      assertArrayEquals(new int[0], headwords.documents(Language.NO, "alma", 10));
+    }
+  }
+
+  @Test
+  void testSameAsSearch(@TempDir File tempDir) throws IOException {
+    Directory directory = index("hu", "a b", "e", "no", "a", "c", "hu", "b", "b", "hu", "a",
+        null, "no", "b c", "a", "hu", "a c", "d");
+    add(directory, "hu", "a", "a", "no", "c", "b", "hu", "b d", "a");
+    add(directory, "hu", "a", "f", "no", "a", "a");
+    delete(directory, "2");
+    File file = new File(tempDir, HeadwordTableWriter.FILE_NAME);
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      assertTrue(indexReader.getSequentialSubReaders().length > 1);
+      HeadwordTableWriter.write(indexReader, null, file);
+      HeadwordTableReader headwords = HeadwordTableReader.open(file);
+      IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+      Sort sort = new Sort(new SortField(Lucene.SORT, SortField.STRING));
+      for (String term : new String[] {"a", "b", "c", "d", "x"}) {
+        for (Language language : Language.values()) {
+          TermQuery query = new TermQuery(new Term(HeadwordTableWriter.field(language), term));
+          assertArrayEquals(documents(indexSearcher.search(query, 3, sort).scoreDocs),
+              headwords.documents(language, term, 3));
+        }
+      }
+    }
+  }
+
+  private static int[] documents(ScoreDoc[] scoreDocs) {
+    int[] documents = new int[scoreDocs.length];
+    for (int i = 0; i < documents.length; i++) {
+      documents[i] = scoreDocs[i].doc;
+    }
+    return documents;
+  }
+
+  /**
+   * An index with a document for each language, roots and headword triple.
+   *
+   * @param values the language, the roots and the headword of each document, null for no
+   *     headword
+   * @return the directory of the index
+   * @throws IOException if the index cannot be written
+   */
+  static Directory index(String... values) throws IOException {
+    Directory directory = new RAMDirectory();
+    add(directory, values);
+    return directory;
+  }
+
+  private static void add(Directory directory, String... values) throws IOException {
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+      int id = indexWriter.maxDoc();
+      for (int i = 0; i < values.length; i += 3) {
+        Document document = new Document();
+        document.add(new Field(Lucene.ID, String.valueOf(id++), Field.Store.YES,
+            Field.Index.NOT_ANALYZED));
+        document.add(
+            new Field(Lucene.LANG, values[i], Field.Store.YES, Field.Index.NOT_ANALYZED));
+        Language language = Language.valueOf(values[i].toUpperCase(Locale.ROOT));
+        String field = HeadwordTableWriter.field(language);
+        document.add(new Field(field, values[i + 1], Field.Store.YES, Field.Index.ANALYZED));
+        if (values[i + 2] != null) {
+          document.add(
+              new Field(Lucene.SORT, values[i + 2], Field.Store.YES, Field.Index.ANALYZED));
+        }
+        indexWriter.addDocument(document);
+      }
+    }
+  }
+
+  private static void delete(Directory directory, String id) throws IOException {
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+      indexWriter.deleteDocuments(new Term(Lucene.ID, id));
+    }
+  }
+
+}
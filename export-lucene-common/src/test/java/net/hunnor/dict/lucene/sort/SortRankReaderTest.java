@@ -0,0 +1,65 @@
+package net.hunnor.dict.lucene.sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SortRankReaderTest {
+
+  @Test
+  void testMatches(@TempDir File tempDir) throws IOException {
+    Directory directory = SortRankWriterTest.index("hu", "b", "hu", "a");
+    File file = new File(tempDir, SortRankWriter.FILE_NAME);
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      SortRankWriter.write(indexReader, file);
+    }
+    SortRankReader sortRanks = SortRankReader.open(file);
+    assertEquals(2, sortRanks.size());
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+      indexWriter.addDocument(new Document());
+    }
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      assertFalse(sortRanks.matches(indexReader));
+    }
+  }
+
+  @Test
+  void testInvalid(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, SortRankWriter.FILE_NAME);
+    Files.write(file.toPath(), new byte[24]);
+    assertThrows(IOException.class, () -> SortRankReader.open(file));
+    write(file, SortRankWriter.MAGIC, SortRankWriter.VERSION + 1, 0);
+    assertThrows(IOException.class, () -> SortRankReader.open(file));
+    write(file, SortRankWriter.MAGIC, SortRankWriter.VERSION, 2);
+    assertThrows(IOException.class, () -> SortRankReader.open(file));
+    write(file, SortRankWriter.MAGIC, SortRankWriter.VERSION, -1);
+    assertThrows(IOException.class, () -> SortRankReader.open(file));
+    write(file, SortRankWriter.MAGIC, SortRankWriter.VERSION, 1);
+    assertTrue(SortRankReader.open(file).size() == 1);
+  }
+
+  private static void write(File file, int magic, int version, int documents)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(24);
+    buffer.putInt(magic).putInt(version).putLong(0).putInt(documents);
+    Files.write(file.toPath(), buffer.array());
+  }
+
+}
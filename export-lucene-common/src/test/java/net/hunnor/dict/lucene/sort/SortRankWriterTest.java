@@ -0,0 +1,104 @@
+package net.hunnor.dict.lucene.sort;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SortRankWriterTest {
+
+  @Test
+  void testRanks() throws IOException {
+    Directory directory = index("hu", "dal", "hu", "csak", "hu", "cukor", null, null,
+        "no", "zebra", "no", "aal", "hu", "Cukor", "hu", "cukor", "no", "ære");
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      // Hungarian cs after c, Norwegian aa as å after æ, and the same key for the same word
+      assertArrayEquals(new int[] {4, 3, 0, SortRankWriter.UNRANKED, 5, 7, 2, 0, 6},
+          SortRankWriter.ranks(indexReader));
+    }
+  }
+
+  @Test
+  void testLanguageOrder() throws IOException {
+    Directory directory = index("no", "a", "xx", "a", "hu", "b", null, null, "no", "b");
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      // Hungarian first, then Norwegian, then other languages, whatever the headwords
+      assertArrayEquals(new int[] {1, 3, 0, SortRankWriter.UNRANKED, 2},
+          SortRankWriter.ranks(indexReader));
+    }
+  }
+
+  @Test
+  void testDeleted() throws IOException {
+    Directory directory = index("hu", "b", "hu", "a", "hu", "c");
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+      indexWriter.deleteDocuments(new Term(Lucene.ID, "1"));
+    }
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      assertArrayEquals(new int[] {0, SortRankWriter.UNRANKED, 1},
+          SortRankWriter.ranks(indexReader));
+    }
+  }
+
+  @Test
+  void testWrite(@TempDir File tempDir) throws IOException {
+    Directory directory = index("hu", "b", "hu", "a");
+    File file = new File(tempDir, SortRankWriter.FILE_NAME);
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      SortRankWriter.write(indexReader, file);
+      assertEquals(28, file.length());
+      assertFalse(new File(tempDir, SortRankWriter.FILE_NAME + ".tmp").exists());
+      SortRankReader sortRanks = SortRankReader.open(file);
+      assertEquals(indexReader.getVersion(), sortRanks.getIndexVersion());
+      assertTrue(sortRanks.matches(indexReader));
+      assertEquals(1, sortRanks.rank(0));
+      assertEquals(0, sortRanks.rank(1));
+    }
+  }
+
+  /**
+   * An index with a document for each language and headword pair.
+   *
+   * @param values the language and the headword of each document, null for no field
+   * @return the directory of the index
+   * @throws IOException if the index cannot be written
+   */
+  static Directory index(String... values) throws IOException {
+    Directory directory = new RAMDirectory();
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+      for (int i = 0; i < values.length; i += 2) {
+        Document document = new Document();
+        document.add(new Field(Lucene.ID, String.valueOf(i / 2), Field.Store.YES,
+            Field.Index.NOT_ANALYZED));
+        if (values[i] != null) {
+          document.add(
+              new Field(Lucene.LANG, values[i], Field.Store.YES, Field.Index.NOT_ANALYZED));
+          document.add(
+              new Field(Lucene.SORT, values[i + 1], Field.Store.YES, Field.Index.ANALYZED));
+        }
+        indexWriter.addDocument(document);
+      }
+    }
+    return directory;
+  }
+
+}
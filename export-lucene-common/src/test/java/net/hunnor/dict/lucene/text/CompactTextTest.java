@@ -0,0 +1,74 @@
+package net.hunnor.dict.lucene.text;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class CompactTextTest {
+
+  private static final String TEXT = "<b>alma</b> fn<br/><b>I</b> <b>1</b> apple; <i>fig</i>"
+      + " <b>2</b> <b>almafa</b> apple tree<br/><small>alma, almát</small>";
+
+  @Test
+  void testRoundTrip() {
+    String[] texts = {TEXT, "", "plain", "<b>", "<b></b><br/>", "a < b <bb> </i", "<small",
+        "árvíztűrő tükörfúrógép ÆØÅ æøå", "😀<i>😀</i>"};
+    for (String text : texts) {
+      assertEquals(text, CompactText.decode(CompactText.encode(text)), text);
+    }
+  }
+
+  @Test
+  void testSize() {
+    byte[] bytes = CompactText.encode(TEXT);
+    assertTrue(bytes.length < TEXT.getBytes(StandardCharsets.UTF_8).length);
+  }
+
+  @Test
+  void testStringTable() {
+    byte[] bytes = CompactText.encode("<b>a</b> <b>b</b> <b>a</b> ");
+    assertArrayEquals(new byte[] {CompactText.VERSION, 3, 1, 1, 1, 3, 'a', ' ', 'b',
+        0, 7, 1, 8, 0, 9, 1, 8, 0, 7, 1, 8}, bytes);
+  }
+
+  @Test
+  void testDecodeOffset() {
+    byte[] encoded = CompactText.encode(TEXT);
+    byte[] bytes = new byte[encoded.length + 4];
+    System.arraycopy(encoded, 0, bytes, 2, encoded.length);
+    assertEquals(TEXT, CompactText.decode(bytes, 2, encoded.length));
+  }
+
+  @Test
+  void testLongText() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      text.append("<b>").append(i).append("</b> ").append("x".repeat(i));
+    }
+    assertEquals(text.toString(), CompactText.decode(CompactText.encode(text.toString())));
+  }
+
+  @Test
+  void testInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> CompactText.decode(new byte[0]));
+    assertThrows(IllegalArgumentException.class,
+        () -> CompactText.decode("text".getBytes(StandardCharsets.UTF_8)));
+    byte[] bytes = CompactText.encode(TEXT);
+    assertThrows(IllegalArgumentException.class,
+        () -> CompactText.decode(bytes, 0, bytes.length / 2));
+    assertThrows(IllegalArgumentException.class,
+        () -> CompactText.decode(new byte[] {CompactText.VERSION, 0, 0, 7}));
+    assertThrows(IllegalArgumentException.class,
+        () -> CompactText.decode(new byte[] {CompactText.VERSION, 1, 2, 1, 'a', 7}));
+    assertThrows(IllegalArgumentException.class,
+        () -> CompactText.decode(new byte[] {CompactText.VERSION, (byte) 0x80}));
+    assertThrows(IllegalArgumentException.class, () -> CompactText.decode(
+        new byte[] {CompactText.VERSION, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+            (byte) 0xff, 0}));
+  }
+
+}
@@ -1,7 +1,11 @@
 package net.hunnor.dict.lucene;
 
+import java.io.File;
+import net.hunnor.dict.lucene.indexer.IndexWriterProfile;
+import net.hunnor.dict.lucene.indexer.InputStrategy;
 import net.hunnor.dict.lucene.indexer.Service;
 import net.hunnor.dict.lucene.model.Language;
+import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Task;
 
 public class AntTask extends Task {
@@ -14,6 +18,38 @@ public class AntTask extends Task {
 
   private String spelling;
 
+  private int workers = 1;
+
+  private int queueSize = 1024;
+
+  private boolean completion;
+
+  private boolean suggestionDocuments = true;
+
+  private boolean compactText;
+
+  private boolean sortRanks;
+
+  private boolean headwordTable;
+
+  private int spellingThreads = 1;
+
+  private int parserThreads = 1;
+
+  private String input = InputStrategy.BUFFERED.name();
+
+  private boolean incremental;
+
+  private String profile = IndexWriterProfile.DEFAULT.name();
+
+  private String report;
+
+  private boolean create;
+
+  private int maxSegments;
+
+  private int memoryBudget;
+
   public String getLanguage() {
     return language;
   }
@@ -46,15 +82,170 @@ public class AntTask extends Task {
     this.spelling = spelling;
   }
 
+  public int getWorkers() {
+    return workers;
+  }
+
+  public void setWorkers(int workers) {
+    this.workers = workers;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public boolean isCompletion() {
+    return completion;
+  }
+
+  public void setCompletion(boolean completion) {
+    this.completion = completion;
+  }
+
+  public boolean isSuggestionDocuments() {
+    return suggestionDocuments;
+  }
+
+  public void setSuggestionDocuments(boolean suggestionDocuments) {
+    this.suggestionDocuments = suggestionDocuments;
+  }
+
+  public boolean isCompactText() {
+    return compactText;
+  }
+
+  public void setCompactText(boolean compactText) {
+    this.compactText = compactText;
+  }
+
+  public boolean isSortRanks() {
+    return sortRanks;
+  }
+
+  public void setSortRanks(boolean sortRanks) {
+    this.sortRanks = sortRanks;
+  }
+
+  public boolean isHeadwordTable() {
+    return headwordTable;
+  }
+
+  public void setHeadwordTable(boolean headwordTable) {
+    this.headwordTable = headwordTable;
+  }
+
+  public int getSpellingThreads() {
+    return spellingThreads;
+  }
+
+  public void setSpellingThreads(int spellingThreads) {
+    this.spellingThreads = spellingThreads;
+  }
+
+  public int getParserThreads() {
+    return parserThreads;
+  }
+
+  public void setParserThreads(int parserThreads) {
+    this.parserThreads = parserThreads;
+  }
+
+  public String getInput() {
+    return input;
+  }
+
+  public void setInput(String input) {
+    this.input = input;
+  }
+
+  public boolean isIncremental() {
+    return incremental;
+  }
+
+  public void setIncremental(boolean incremental) {
+    this.incremental = incremental;
+  }
+
+  public String getProfile() {
+    return profile;
+  }
+
+  public void setProfile(String profile) {
+    this.profile = profile;
+  }
+
+  public boolean isCreate() {
+    return create;
+  }
+
+  public void setCreate(boolean create) {
+    this.create = create;
+  }
+
+  public int getMaxSegments() {
+    return maxSegments;
+  }
+
+  public void setMaxSegments(int maxSegments) {
+    this.maxSegments = maxSegments;
+  }
+
+  public int getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  public void setMemoryBudget(int memoryBudget) {
+    this.memoryBudget = memoryBudget;
+  }
+
+  public String getReport() {
+    return report;
+  }
+
+  public void setReport(String report) {
+    this.report = report;
+  }
+
   /**
-   * The method executed by Ant.
+   * The method executed by Ant. The spelling index is not built if indexing the source fails.
+   *
+   * @throws BuildException if indexing the source fails
    */
   @Override
   public void execute() {
 
     Service service = new Service();
+    service.setWorkers(workers);
+    service.setQueueSize(queueSize);
+    service.setCompletion(completion);
+    service.setSuggestionDocuments(suggestionDocuments);
+    service.setCompactText(compactText);
+    service.setSortRanks(sortRanks);
+    service.setHeadwordTable(headwordTable);
+    service.setSpellingThreads(spellingThreads);
+    service.setParserThreads(parserThreads);
+    service.setInputStrategy(InputStrategy.valueOf(input));
+    service.setIncremental(incremental);
+    service.setIndexWriterProfile(IndexWriterProfile.valueOf(profile));
+    service.setCreate(create);
+    service.setMaxSegments(maxSegments);
+    service.setMemoryBudget(memoryBudget);
+    if (report != null) {
+      service.setReportFile(new File(report));
+    }
 
     service.indexFile(source, Language.valueOf(language), main);
+    if (service.getFailure() != null) {
+      throw new BuildException("Indexing " + source + " failed: "
+          + service.getFailure().getMessage(), service.getFailure());
+    }
+    if (service.getChanges() != null) {
+      log(service.getChanges().toString());
+    }
     service.indexSuggestions(main, spelling);
 
   }
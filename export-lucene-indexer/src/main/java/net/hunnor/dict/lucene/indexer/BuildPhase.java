@@ -0,0 +1,57 @@
+package net.hunnor.dict.lucene.indexer;
+
+/**
+ * The phases of building the indexes timed in a {@link BuildReport}.
+ */
+public enum BuildPhase {
+
+  /**
+   * Reading the entries from the export. With more than one parser thread, the time the indexer
+   * waits for the parsed chunks.
+   */
+  PARSE("parse"),
+
+  /**
+   * Building the Lucene documents of the entries, summed over the threads writing them.
+   */
+  DOCUMENT("document"),
+
+  /**
+   * Adding the documents to the index writer, including the flushes and merges it runs on the
+   * writing threads, summed over the threads writing them.
+   */
+  WRITE("write"),
+
+  /**
+   * Deleting the removed entries of an incremental run, merging down to the maximum number of
+   * segments, committing, and copying an index built in memory to the disk.
+   */
+  CLOSE("close"),
+
+  COMPLETION("completion"),
+
+  SORT_RANKS("sortRanks"),
+
+  HEADWORD_TABLE("headwordTable"),
+
+  /**
+   * Building the spelling index from the main index.
+   */
+  SPELLING("spelling");
+
+  private final String key;
+
+  BuildPhase(String key) {
+    this.key = key;
+  }
+
+  /**
+   * The name of the phase in the JSON report.
+   *
+   * @return the name
+   */
+  public String getKey() {
+    return key;
+  }
+
+}
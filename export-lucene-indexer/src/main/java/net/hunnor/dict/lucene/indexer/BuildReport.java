@@ -0,0 +1,516 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermEnum;
+import org.apache.lucene.store.NIOFSDirectory;
+
+/**
+ * The measurements of building the indexes from an export: the time of each phase, the number
+ * of entries, documents, flushes and merges, the peak heap, and the size of the main and
+ * spelling indexes by field. The report is written as a JSON file, so that the builds of
+ * different exports can be compared.
+ *
+ * <p>The phases that run for each entry are timed on each writing thread, with the CPU time of
+ * the thread, and are summed over the threads. The other phases are timed once, with the CPU
+ * time of the whole process, which includes the merge threads and the garbage collector. The
+ * peak heap is the sum of the peaks of the heap memory pools since the run started, an upper
+ * bound of the peak of the whole heap. Lucene does not keep the size of each field, so the
+ * fields are described by their number of terms and postings, and the size of the index by the
+ * size of each type of index file.
+ */
+public class BuildReport {
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private static final Timer NO_TIMER = new Timer(null, false);
+
+  private final AtomicLongArray wallNanos = new AtomicLongArray(BuildPhase.values().length);
+
+  private final AtomicLongArray cpuNanos = new AtomicLongArray(BuildPhase.values().length);
+
+  private final AtomicInteger entries = new AtomicInteger();
+
+  private final AtomicInteger documents = new AtomicInteger();
+
+  private final AtomicInteger flushes = new AtomicInteger();
+
+  private final AtomicInteger merges = new AtomicInteger();
+
+  private final AtomicLong mergeNanos = new AtomicLong();
+
+  private String file;
+
+  private String language;
+
+  private long bytesRead;
+
+  private long uncompressedBytes;
+
+  private long startNanos;
+
+  private long startCpuNanos;
+
+  private long totalNanos;
+
+  private long totalCpuNanos;
+
+  private long peakHeapBytes;
+
+  private IndexStats index;
+
+  private IndexStats spelling;
+
+  /**
+   * Start timing a phase on the current thread.
+   *
+   * @param report the report to record the phases in, or null to time nothing
+   * @param processCpu true to measure the CPU time of the process, false of the thread
+   * @return the timer
+   */
+  static Timer start(BuildReport report, boolean processCpu) {
+    return report == null ? NO_TIMER : new Timer(report, processCpu);
+  }
+
+  /**
+   * Measures the time of consecutive phases on a thread.
+   */
+  static final class Timer {
+
+    private final BuildReport report;
+
+    private final boolean processCpu;
+
+    private long wall;
+
+    private long cpu;
+
+    private Timer(BuildReport report, boolean processCpu) {
+      this.report = report;
+      this.processCpu = processCpu;
+      restart();
+    }
+
+    /**
+     * Record the time since the timer was started, restarted or last recorded as a phase.
+     *
+     * @param phase the phase
+     */
+    void lap(BuildPhase phase) {
+      if (report != null) {
+        long nowWall = System.nanoTime();
+        long nowCpu = cpuTime(processCpu);
+        report.add(phase, nowWall - wall, nowCpu - cpu);
+        wall = nowWall;
+        cpu = nowCpu;
+      }
+    }
+
+    /**
+     * Start timing again, without recording the time since the last phase.
+     */
+    void restart() {
+      if (report != null) {
+        wall = System.nanoTime();
+        cpu = cpuTime(processCpu);
+      }
+    }
+
+  }
+
+  /**
+   * Start the run on an export: reset the peaks of the heap pools and start the clocks.
+   *
+   * @param file the export
+   * @param language the language of the export
+   * @throws IOException if the size of the export cannot be read
+   */
+  void begin(String file, String language) throws IOException {
+    this.file = file;
+    this.language = language;
+    File export = new File(file);
+    bytesRead = export.length();
+    uncompressedBytes = Compression.uncompressedSize(export);
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+    startNanos = System.nanoTime();
+    startCpuNanos = cpuTime(true);
+  }
+
+  /**
+   * End the run on the export: stop the clocks and read the peak of the heap.
+   */
+  void end() {
+    totalNanos = System.nanoTime() - startNanos;
+    totalCpuNanos = cpuTime(true) - startCpuNanos;
+    updatePeakHeap();
+  }
+
+  void updatePeakHeap() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    peakHeapBytes = Math.max(peakHeapBytes, peak);
+  }
+
+  void add(BuildPhase phase, long wall, long cpu) {
+    wallNanos.addAndGet(phase.ordinal(), wall);
+    cpuNanos.addAndGet(phase.ordinal(), cpu);
+  }
+
+  void entry(int entryDocuments) {
+    entries.incrementAndGet();
+    documents.addAndGet(entryDocuments);
+  }
+
+  void flushed() {
+    flushes.incrementAndGet();
+  }
+
+  void merged(long nanos) {
+    merges.incrementAndGet();
+    mergeNanos.addAndGet(nanos);
+  }
+
+  void setIndex(IndexStats index) {
+    this.index = index;
+  }
+
+  void setSpelling(IndexStats spelling) {
+    this.spelling = spelling;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public int getEntries() {
+    return entries.get();
+  }
+
+  public int getDocuments() {
+    return documents.get();
+  }
+
+  public int getFlushes() {
+    return flushes.get();
+  }
+
+  public int getMerges() {
+    return merges.get();
+  }
+
+  public long getMergeMillis() {
+    return mergeNanos.get() / 1_000_000;
+  }
+
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  public long getUncompressedBytes() {
+    return uncompressedBytes;
+  }
+
+  public long getPeakHeapBytes() {
+    return peakHeapBytes;
+  }
+
+  /**
+   * The wall time of the run on the export, from parsing the first entry to writing the files
+   * next to the index. Building the spelling index is not included.
+   *
+   * @return the time in milliseconds
+   */
+  public long getWallMillis() {
+    return totalNanos / 1_000_000;
+  }
+
+  public long getWallMillis(BuildPhase phase) {
+    return wallNanos.get(phase.ordinal()) / 1_000_000;
+  }
+
+  public long getCpuMillis() {
+    return totalCpuNanos / 1_000_000;
+  }
+
+  public long getCpuMillis(BuildPhase phase) {
+    return cpuNanos.get(phase.ordinal()) / 1_000_000;
+  }
+
+  /**
+   * The number of entries indexed per second of the run on the export.
+   *
+   * @return the rate, 0 if the run has not ended
+   */
+  public double getEntriesPerSecond() {
+    return totalNanos > 0 ? entries.get() * 1e9 / totalNanos : 0;
+  }
+
+  /**
+   * The main index after the run.
+   *
+   * @return the index, or null if it was not read
+   */
+  public IndexStats getIndex() {
+    return index;
+  }
+
+  /**
+   * The spelling index after it was built.
+   *
+   * @return the spelling index, or null if it was not built
+   */
+  public IndexStats getSpelling() {
+    return spelling;
+  }
+
+  /**
+   * Write the report as JSON. The file is written next to the target first, and moved in place
+   * when it is complete.
+   *
+   * @param target the report file
+   * @throws IOException if the file cannot be written
+   */
+  public void write(File target) throws IOException {
+    Path path = target.toPath();
+    Path temporary = path.resolveSibling(target.getName() + ".tmp");
+    Files.write(temporary, toJson().getBytes(StandardCharsets.UTF_8));
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * The report as a JSON object. Times are in milliseconds and sizes in bytes.
+   *
+   * @return the JSON text
+   */
+  public String toJson() {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n");
+    json.append("  \"file\": ").append(string(file)).append(",\n");
+    json.append("  \"language\": ").append(string(language)).append(",\n");
+    json.append("  \"entries\": ").append(getEntries()).append(",\n");
+    json.append("  \"documents\": ").append(getDocuments()).append(",\n");
+    json.append("  \"entriesPerSecond\": ")
+        .append(String.format(Locale.ROOT, "%.1f", getEntriesPerSecond())).append(",\n");
+    json.append("  \"bytesRead\": ").append(bytesRead).append(",\n");
+    json.append("  \"uncompressedBytes\": ").append(uncompressedBytes).append(",\n");
+    json.append("  \"wallMillis\": ").append(getWallMillis()).append(",\n");
+    json.append("  \"cpuMillis\": ").append(getCpuMillis()).append(",\n");
+    json.append("  \"peakHeapBytes\": ").append(peakHeapBytes).append(",\n");
+    json.append("  \"flushes\": ").append(getFlushes()).append(",\n");
+    json.append("  \"merges\": ").append(getMerges()).append(",\n");
+    json.append("  \"mergeMillis\": ").append(getMergeMillis()).append(",\n");
+    json.append("  \"phases\": {");
+    String separator = "\n";
+    for (BuildPhase phase : BuildPhase.values()) {
+      json.append(separator).append("    ").append(string(phase.getKey()))
+          .append(": {\"wallMillis\": ").append(getWallMillis(phase))
+          .append(", \"cpuMillis\": ").append(getCpuMillis(phase)).append('}');
+      separator = ",\n";
+    }
+    json.append("\n  },\n");
+    json.append("  \"index\": ");
+    appendIndex(json, index);
+    json.append(",\n  \"spelling\": ");
+    appendIndex(json, spelling);
+    json.append("\n}\n");
+    return json.toString();
+  }
+
+  private static void appendIndex(StringBuilder json, IndexStats stats) {
+    if (stats == null) {
+      json.append("null");
+      return;
+    }
+    json.append("{\n    \"bytes\": ").append(stats.getBytes())
+        .append(",\n    \"segments\": ").append(stats.getSegments())
+        .append(",\n    \"files\": {");
+    String separator = "";
+    for (Map.Entry<String, Long> file : stats.getFiles().entrySet()) {
+      json.append(separator).append(string(file.getKey())).append(": ").append(file.getValue());
+      separator = ", ";
+    }
+    json.append("},\n    \"fields\": {");
+    separator = "\n";
+    for (String field : stats.getFields()) {
+      json.append(separator).append("      ").append(string(field))
+          .append(": {\"terms\": ").append(stats.getTerms(field))
+          .append(", \"postings\": ").append(stats.getPostings(field)).append('}');
+      separator = ",\n";
+    }
+    json.append(stats.getFields().isEmpty() ? "}" : "\n    }").append("\n  }");
+  }
+
+  static String string(String value) {
+    if (value == null) {
+      return "null";
+    }
+    StringBuilder json = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c == '\n') {
+        json.append("\\n");
+      } else if (c == '\t') {
+        json.append("\\t");
+      } else if (c < 0x20) {
+        json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+    return json.append('"').toString();
+  }
+
+  /**
+   * The CPU time of the process or of the current thread.
+   *
+   * @param process true for the process, false for the thread
+   * @return the time in nanoseconds, 0 if the JVM does not measure it
+   */
+  static long cpuTime(boolean process) {
+    if (process) {
+      OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+      return os instanceof com.sun.management.OperatingSystemMXBean
+          ? ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime() : 0;
+    }
+    return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+  }
+
+  /**
+   * The size of an index by type of file, and the number of terms and postings of each field.
+   */
+  public static final class IndexStats {
+
+    private final long bytes;
+
+    private final int segments;
+
+    private final Map<String, Long> files;
+
+    private final Map<String, long[]> fields;
+
+    private IndexStats(long bytes, int segments, Map<String, Long> files,
+        Map<String, long[]> fields) {
+      this.bytes = bytes;
+      this.segments = segments;
+      this.files = Collections.unmodifiableMap(files);
+      this.fields = fields;
+    }
+
+    /**
+     * Read the statistics of the index in a directory.
+     *
+     * @param directory the index directory
+     * @return the statistics
+     * @throws IOException if the index cannot be read
+     */
+    static IndexStats of(File directory) throws IOException {
+      Map<String, Long> files = new TreeMap<>();
+      long bytes = 0;
+      File[] list = directory.listFiles();
+      if (list != null) {
+        for (File file : list) {
+          if (file.isFile()) {
+            String name = file.getName();
+            int dot = name.lastIndexOf('.');
+            String type = name.startsWith("segments") ? "segments"
+                : dot >= 0 ? name.substring(dot + 1) : name;
+            files.merge(type, file.length(), Long::sum);
+            bytes += file.length();
+          }
+        }
+      }
+      Map<String, long[]> fields = new TreeMap<>();
+      int segments;
+      try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(directory))) {
+        IndexReader[] subReaders = indexReader.getSequentialSubReaders();
+        segments = subReaders == null ? 1 : subReaders.length;
+        TermEnum termEnum = indexReader.terms();
+        try {
+          while (termEnum.next()) {
+            Term term = termEnum.term();
+            long[] counts = fields.computeIfAbsent(term.field(), field -> new long[2]);
+            counts[0]++;
+            counts[1] += termEnum.docFreq();
+          }
+        } finally {
+          termEnum.close();
+        }
+      }
+      return new IndexStats(bytes, segments, files, fields);
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    public int getSegments() {
+      return segments;
+    }
+
+    /**
+     * The size of the files of each type, by the extension of the file names.
+     *
+     * @return the sizes in bytes
+     */
+    public Map<String, Long> getFiles() {
+      return files;
+    }
+
+    public Set<String> getFields() {
+      return Collections.unmodifiableSet(fields.keySet());
+    }
+
+    public long getTerms(String field) {
+      long[] counts = fields.get(field);
+      return counts == null ? 0 : counts[0];
+    }
+
+    /**
+     * The number of postings of a field, the sum of the document frequencies of its terms. The
+     * frequencies include deleted documents until their segments are merged.
+     *
+     * @param field the field
+     * @return the number of postings
+     */
+    public long getPostings(String field) {
+      long[] counts = fields.get(field);
+      return counts == null ? 0 : counts[1];
+    }
+
+  }
+
+}
@@ -0,0 +1,62 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a file channel through a direct buffer, so the channel reads straight into native memory
+ * without the temporary buffer a heap buffer needs.
+ */
+final class ChannelInputStream extends InputStream {
+
+  private final FileChannel channel;
+
+  private final ByteBuffer buffer;
+
+  ChannelInputStream(FileChannel channel, int bufferSize) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    buffer.flip();
+  }
+
+  @Override
+  public int read() throws IOException {
+    return fill() ? buffer.get() & 0xff : -1;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int count = Math.min(length, buffer.remaining());
+    buffer.get(bytes, offset, count);
+    return count;
+  }
+
+  private boolean fill() throws IOException {
+    if (buffer.hasRemaining()) {
+      return true;
+    }
+    buffer.clear();
+    int count = channel.read(buffer);
+    buffer.flip();
+    return count > 0;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+}
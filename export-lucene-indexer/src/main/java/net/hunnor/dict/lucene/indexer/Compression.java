@@ -0,0 +1,115 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.RandomAccessFile;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The compression formats of an export, detected from the magic bytes at the start of the file.
+ */
+enum Compression {
+
+  NONE(new byte[0]),
+
+  GZIP(new byte[] {0x1f, (byte) 0x8b}),
+
+  ZSTD(new byte[] {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd});
+
+  /**
+   * The number of bytes read to detect the format.
+   */
+  static final int HEADER_LENGTH = 4;
+
+  private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+  private final byte[] magic;
+
+  Compression(byte[] magic) {
+    this.magic = magic;
+  }
+
+  /**
+   * The format of a file from its first bytes.
+   *
+   * @param header the first bytes of the file
+   * @param length the number of bytes in the header, less than its size for short files
+   * @return the format, {@link #NONE} if the file is not compressed
+   */
+  static Compression of(byte[] header, int length) {
+    for (Compression compression : values()) {
+      if (compression != NONE && compression.matches(header, length)) {
+        return compression;
+      }
+    }
+    return NONE;
+  }
+
+  private boolean matches(byte[] header, int length) {
+    if (length < magic.length) {
+      return false;
+    }
+    for (int i = 0; i < magic.length; i++) {
+      if (header[i] != magic[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The size of the content of a file. The size of a gzipped file is read from its trailer,
+   * which holds the size modulo 4 GB, so the size of the file is used if it is larger.
+   *
+   * @param file the file
+   * @return the size of the decompressed content in bytes, 0 if the file does not exist
+   * @throws IOException if the file cannot be read
+   */
+  static long uncompressedSize(File file) throws IOException {
+    if (!file.isFile()) {
+      return 0;
+    }
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+      byte[] header = new byte[HEADER_LENGTH];
+      int length = (int) Math.min(HEADER_LENGTH, randomAccessFile.length());
+      randomAccessFile.readFully(header, 0, length);
+      if (of(header, length) != GZIP || randomAccessFile.length() < HEADER_LENGTH) {
+        return randomAccessFile.length();
+      }
+      randomAccessFile.seek(randomAccessFile.length() - HEADER_LENGTH);
+      long size = Integer.reverseBytes(randomAccessFile.readInt()) & 0xffffffffL;
+      return Math.max(size, randomAccessFile.length());
+    }
+  }
+
+  /**
+   * Wrap a stream into a decompressing stream if its content is compressed.
+   *
+   * @param stream the stream of the file
+   * @return a stream of the decompressed content
+   * @throws IOException if the stream cannot be read, or its format is not supported
+   */
+  static InputStream decompress(InputStream stream) throws IOException {
+    PushbackInputStream pushbackStream = new PushbackInputStream(stream, HEADER_LENGTH);
+    byte[] header = new byte[HEADER_LENGTH];
+    int length = 0;
+    int count = 0;
+    while (length < HEADER_LENGTH && count >= 0) {
+      count = pushbackStream.read(header, length, HEADER_LENGTH - length);
+      length += Math.max(count, 0);
+    }
+    pushbackStream.unread(header, 0, length);
+    switch (of(header, length)) {
+      case GZIP:
+        return new GZIPInputStream(pushbackStream, GZIP_BUFFER_SIZE);
+      case ZSTD:
+        throw new IOException("Zstandard-compressed exports are not supported, "
+            + "decompress the export or compress it with gzip");
+      default:
+        return pushbackStream;
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The elements of the XML export handled by {@link StaxParser}, with the separators written
+ * between the text of consecutive elements of a sense.
+ */
+public enum Element {
+
+  ENTRY(StaxParser.ENTRY, false),
+
+  FORM_GRP(StaxParser.FORM_GRP, false),
+
+  FORM(StaxParser.FORM, false),
+
+  ORTH(StaxParser.ORTH, true),
+
+  POS(StaxParser.POS, true),
+
+  INFL_CODE(StaxParser.INFL_CODE, false),
+
+  INFL_PAR(StaxParser.INFL_PAR, false),
+
+  INFL_SEQ(StaxParser.INFL_SEQ, true),
+
+  SENSE_GRP(StaxParser.SENSE_GRP, false),
+
+  SENSE(StaxParser.SENSE, false),
+
+  LBL(StaxParser.LBL, true),
+
+  EG(StaxParser.EG, false),
+
+  Q(StaxParser.Q, true),
+
+  TRANS(StaxParser.TRANS, true),
+
+  /**
+   * Any other element.
+   */
+  OTHER(null, false);
+
+  private static final Map<String, Element> ELEMENTS = new HashMap<>();
+
+  private static final String[][] GLUES = new String[values().length][values().length];
+
+  static {
+    for (Element element : values()) {
+      if (element.localName != null) {
+        ELEMENTS.put(element.localName, element);
+      }
+    }
+    glue(TRANS, LBL, ", ");
+    glue(LBL, LBL, " ");
+    glue(EG, LBL, "; ");
+    glue(TRANS, EG, "; ");
+    glue(EG, EG, "; ");
+    glue(LBL, EG, " ");
+    glue(TRANS, TRANS, ", ");
+    glue(LBL, TRANS, " ");
+    glue(EG, TRANS, "; ");
+  }
+
+  private final String localName;
+
+  private final boolean text;
+
+  Element(String localName, boolean text) {
+    this.localName = localName;
+    this.text = text;
+  }
+
+  /**
+   * The element with a local name. Stream readers return the names from their symbol table, so
+   * the hash code of a name is computed once and the lookup ends with an identity comparison.
+   *
+   * @param localName the local name of the element
+   * @return the element, or {@link #OTHER}
+   */
+  public static Element of(String localName) {
+    Element element = ELEMENTS.get(localName);
+    return element == null ? OTHER : element;
+  }
+
+  /**
+   * The separator written before the text of an element that follows another element.
+   *
+   * @param previous the previous element, or null at the start of the entry
+   * @param element the element
+   * @return the separator, empty if the elements are not separated
+   */
+  public static String glue(Element previous, Element element) {
+    if (previous == null) {
+      return "";
+    }
+    String glue = GLUES[previous.ordinal()][element.ordinal()];
+    return glue == null ? "" : glue;
+  }
+
+  private static void glue(Element previous, Element element, String glue) {
+    GLUES[previous.ordinal()][element.ordinal()] = glue;
+  }
+
+  /**
+   * Whether the text content of the element is collected.
+   *
+   * @return true for the elements with text content
+   */
+  public boolean isText() {
+    return text;
+  }
+
+}
@@ -0,0 +1,77 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Set;
+import net.hunnor.dict.lucene.model.Entry;
+
+/**
+ * A digest of the indexed content of an entry, stored with the entry to find the entries that
+ * changed since the previous indexing run.
+ */
+final class EntryHash {
+
+  private static final int LENGTH = 12;
+
+  private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  });
+
+  private EntryHash() {
+  }
+
+  /**
+   * The digest of the fields of an entry that are written to the index, except the language.
+   * The order of the roots, forms and translations does not change the digest.
+   *
+   * @param entry the entry
+   * @return the digest as a Base64 string
+   */
+  static String of(Entry entry) {
+    MessageDigest digest = DIGEST.get();
+    update(digest, entry.getId());
+    update(digest, entry.getRoots());
+    update(digest, entry.getForms());
+    update(digest, entry.getTrans());
+    update(digest, entry.getQuote());
+    update(digest, entry.getQuoteTrans());
+    update(digest, entry.getSort());
+    update(digest, entry.getText());
+    byte[] hash = Arrays.copyOf(digest.digest(), LENGTH);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+  }
+
+  private static void update(MessageDigest digest, Set<String> values) {
+    String[] sorted = values.toArray(new String[0]);
+    Arrays.sort(sorted);
+    update(digest, sorted.length);
+    for (String value : sorted) {
+      update(digest, value);
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    if (value == null) {
+      update(digest, -1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      update(digest, bytes.length);
+      digest.update(bytes);
+    }
+  }
+
+  private static void update(MessageDigest digest, int value) {
+    digest.update((byte) (value >>> 24));
+    digest.update((byte) (value >>> 16));
+    digest.update((byte) (value >>> 8));
+    digest.update((byte) value);
+  }
+
+}
@@ -0,0 +1,105 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The number of entries added, updated, deleted and left unchanged by an incremental indexing
+ * run, and the time spent on its steps.
+ */
+public class IndexChanges {
+
+  private final AtomicInteger added = new AtomicInteger();
+
+  private final AtomicInteger updated = new AtomicInteger();
+
+  private final AtomicInteger deleted = new AtomicInteger();
+
+  private final AtomicInteger unchanged = new AtomicInteger();
+
+  private long readMillis;
+
+  private long writeMillis;
+
+  private long commitMillis;
+
+  public int getAdded() {
+    return added.get();
+  }
+
+  public int getUpdated() {
+    return updated.get();
+  }
+
+  public int getDeleted() {
+    return deleted.get();
+  }
+
+  public int getUnchanged() {
+    return unchanged.get();
+  }
+
+  /**
+   * The time spent reading the keys and hashes of the entries already in the index.
+   *
+   * @return the time in milliseconds
+   */
+  public long getReadMillis() {
+    return readMillis;
+  }
+
+  /**
+   * The time spent parsing the export, and adding, updating and deleting the entries.
+   *
+   * @return the time in milliseconds
+   */
+  public long getWriteMillis() {
+    return writeMillis;
+  }
+
+  /**
+   * The time spent committing the changes and closing the index writer.
+   *
+   * @return the time in milliseconds
+   */
+  public long getCommitMillis() {
+    return commitMillis;
+  }
+
+  void added() {
+    added.incrementAndGet();
+  }
+
+  void updated() {
+    updated.incrementAndGet();
+  }
+
+  void deleted() {
+    deleted.incrementAndGet();
+  }
+
+  void unchanged() {
+    unchanged.incrementAndGet();
+  }
+
+  void setReadMillis(long readMillis) {
+    this.readMillis = readMillis;
+  }
+
+  void setWriteMillis(long writeMillis) {
+    this.writeMillis = writeMillis;
+  }
+
+  void setCommitMillis(long commitMillis) {
+    this.commitMillis = commitMillis;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT,
+        "%d added, %d updated, %d deleted, %d unchanged (read %d ms, write %d ms, commit %d ms)",
+        getAdded(), getUpdated(), getDeleted(), getUnchanged(),
+        readMillis, writeMillis, commitMillis);
+  }
+
+}
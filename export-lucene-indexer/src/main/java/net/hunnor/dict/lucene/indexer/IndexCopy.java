@@ -0,0 +1,144 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.lucene.index.IndexFileNameFilter;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.Lock;
+import org.apache.lucene.store.LockObtainFailedException;
+import org.apache.lucene.store.RAMDirectory;
+
+/**
+ * Copies an index built in memory to its directory on the disk.
+ */
+final class IndexCopy {
+
+  private IndexCopy() {
+  }
+
+  /**
+   * Open an empty directory in memory to build the index of a directory in. Unless the index is
+   * created, the memory directory starts with a copy of the index of the directory. A created
+   * index starts with the segments file of the index of the directory only, so that the index
+   * writer continues its generations and segment names, and {@link #copy(Directory, Directory)}
+   * never overwrites a file of the index being replaced.
+   *
+   * @param target the directory of the index
+   * @param create true if the index is created
+   * @return the directory to build the index in
+   * @throws IOException if the index of the directory cannot be read
+   */
+  static RAMDirectory open(Directory target, boolean create) throws IOException {
+    if (!IndexReader.indexExists(target)) {
+      return new RAMDirectory();
+    }
+    if (!create) {
+      return new RAMDirectory(target);
+    }
+    RAMDirectory directory = new RAMDirectory();
+    String segmentsFile = SegmentInfos.getLastCommitSegmentsFileName(target);
+    target.copy(directory, segmentsFile, segmentsFile);
+    return directory;
+  }
+
+  /**
+   * Replace the index in a directory with a copy of an index built in a directory opened with
+   * {@link #open(Directory, boolean)}. The files of the copied index that are not in the index of
+   * the directory are copied and synced first, then the segments file is published, and the
+   * index files of the directory that are not in the copied index are deleted last. Readers of
+   * the directory see the old index until the segments file is published, and the old index is
+   * left as it was if the copy fails before. Other files in the directory are kept. The directory
+   * is locked for writing while it is copied.
+   *
+   * @param source the index to copy
+   * @param target the directory to copy the index into
+   * @return the number of bytes copied
+   * @throws IOException if the directory is locked, the index was not built from the index of
+   *     the directory, or the index cannot be copied
+   */
+  static long copy(Directory source, Directory target) throws IOException {
+    Lock lock = target.makeLock(IndexWriter.WRITE_LOCK_NAME);
+    if (!lock.obtain()) {
+      throw new LockObtainFailedException("Index locked for write: " + lock);
+    }
+    try {
+      Set<String> sourceFiles = new HashSet<>(Arrays.asList(source.listAll()));
+      sourceFiles.remove(IndexWriter.WRITE_LOCK_NAME);
+      Set<String> liveFiles = new HashSet<>();
+      if (IndexReader.indexExists(target)) {
+        long generation = SegmentInfos.getLastCommitGeneration(target);
+        if (SegmentInfos.getLastCommitGeneration(source) <= generation) {
+          throw new IOException("Index not built from the index of the directory: " + target);
+        }
+        SegmentInfos segmentInfos = new SegmentInfos();
+        segmentInfos.read(target);
+        liveFiles.addAll(segmentInfos.files(target, true));
+      }
+      List<String> files = new ArrayList<>();
+      String segmentsFile = null;
+      for (String file : sourceFiles) {
+        if (IndexFileNames.SEGMENTS_GEN.equals(file)) {
+          continue;
+        } else if (file.startsWith(IndexFileNames.SEGMENTS)) {
+          segmentsFile = file;
+        } else if (!liveFiles.contains(file)) {
+          files.add(file);
+        } else if (source.fileLength(file) != target.fileLength(file)) {
+          throw new IOException("Index file differs from the file of the directory: " + file);
+        }
+      }
+      long bytes = 0;
+      for (String file : files) {
+        source.copy(target, file, file);
+        bytes += source.fileLength(file);
+      }
+      target.sync(files);
+      // Readers find the new index by the segments file, the generation file is only a hint
+      for (String file : new String[] {segmentsFile, IndexFileNames.SEGMENTS_GEN}) {
+        if (file != null && sourceFiles.contains(file)) {
+          source.copy(target, file, file);
+          target.sync(Collections.singleton(file));
+          bytes += source.fileLength(file);
+        }
+      }
+      IndexFileNameFilter filter = IndexFileNameFilter.getFilter();
+      for (String file : target.listAll()) {
+        if (!sourceFiles.contains(file) && !IndexWriter.WRITE_LOCK_NAME.equals(file)
+            && filter.accept(null, file)) {
+          target.deleteFile(file);
+        }
+      }
+      return bytes;
+    } finally {
+      lock.release();
+    }
+  }
+
+  /**
+   * The size of the files in a directory.
+   *
+   * @param directory the directory
+   * @return the size of the files in bytes, 0 if the directory does not exist
+   */
+  static long size(File directory) {
+    File[] files = directory.listFiles();
+    long size = 0;
+    if (files != null) {
+      for (File file : files) {
+        size += file.length();
+      }
+    }
+    return size;
+  }
+
+}
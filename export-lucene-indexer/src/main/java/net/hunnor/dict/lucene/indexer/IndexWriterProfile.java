@@ -0,0 +1,59 @@
+package net.hunnor.dict.lucene.indexer;
+
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.TieredMergePolicy;
+
+/**
+ * The settings of the index writer of the main index.
+ */
+public enum IndexWriterProfile {
+
+  /**
+   * The defaults of Lucene: a 16 MB RAM buffer, the tiered merge policy with compound files, and
+   * merge threads for half of the processors, up to 3.
+   */
+  DEFAULT {
+    @Override
+    void apply(IndexWriterConfig indexWriterConfig) {
+      // Keep the defaults
+    }
+  },
+
+  /**
+   * Settings for building a whole index in one run: a 256 MB RAM buffer, so fewer and larger
+   * segments are flushed, 20 segments merged at once, no compound files, and a merge thread for
+   * each processor, up to 4.
+   */
+  BULK {
+    @Override
+    void apply(IndexWriterConfig indexWriterConfig) {
+      indexWriterConfig.setRAMBufferSizeMB(BULK_RAM_BUFFER_MB);
+      TieredMergePolicy mergePolicy = new TieredMergePolicy();
+      mergePolicy.setSegmentsPerTier(BULK_SEGMENTS_PER_TIER);
+      mergePolicy.setMaxMergeAtOnce(BULK_SEGMENTS_PER_TIER);
+      mergePolicy.setUseCompoundFile(false);
+      indexWriterConfig.setMergePolicy(mergePolicy);
+      int threads = Math.max(1,
+          Math.min(BULK_MERGE_THREADS, Runtime.getRuntime().availableProcessors()));
+      ConcurrentMergeScheduler mergeScheduler = new ConcurrentMergeScheduler();
+      mergeScheduler.setMaxMergeCount(threads + 2);
+      mergeScheduler.setMaxThreadCount(threads);
+      indexWriterConfig.setMergeScheduler(mergeScheduler);
+    }
+  };
+
+  static final double BULK_RAM_BUFFER_MB = 256;
+
+  static final int BULK_SEGMENTS_PER_TIER = 20;
+
+  static final int BULK_MERGE_THREADS = 4;
+
+  /**
+   * Apply the settings to a writer configuration.
+   *
+   * @param indexWriterConfig the configuration
+   */
+  abstract void apply(IndexWriterConfig indexWriterConfig);
+
+}
@@ -0,0 +1,149 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import net.hunnor.dict.lucene.model.Entry;
+
+/**
+ * Hands parsed entries over to a pool of workers that build and add the Lucene documents.
+ *
+ * <p>The queue between the parser and the workers is bounded, so the parser blocks when the
+ * workers fall behind and memory use stays proportional to the queue size.
+ *
+ * <p>With more than one worker, the documents are added in the order the workers take them,
+ * not in the order of the export, and the order changes from run to run. Results with equal sort
+ * keys are returned in document order, so their order can differ between two builds of the same
+ * export. A single worker keeps the order of the export.
+ */
+public class IndexingPipeline {
+
+  private static final Entry END = new Entry();
+
+  private final LuceneIndexer luceneIndexer;
+
+  private final int workers;
+
+  private final BlockingQueue<Entry> queue;
+
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  private final ExecutorService executorService;
+
+  /**
+   * Create a pipeline writing to an indexer with an open index writer.
+   *
+   * @param luceneIndexer the indexer to write the entries with
+   * @param workers the number of worker threads
+   * @param queueSize the maximum number of entries waiting for a worker
+   */
+  public IndexingPipeline(LuceneIndexer luceneIndexer, int workers, int queueSize) {
+    if (workers < 1 || queueSize < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.luceneIndexer = luceneIndexer;
+    this.workers = workers;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    AtomicInteger counter = new AtomicInteger();
+    this.executorService = Executors.newFixedThreadPool(workers, runnable -> {
+      Thread thread = new Thread(runnable, "indexer-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Start the worker threads.
+   */
+  public void start() {
+    for (int i = 0; i < workers; i++) {
+      executorService.execute(this::work);
+    }
+  }
+
+  /**
+   * Queue an entry for indexing, waiting for free space in the queue if necessary.
+   *
+   * @param entry the entry to index
+   * @throws IOException if a worker failed, or the thread was interrupted while waiting
+   * @throws Error if a worker failed with an error
+   */
+  public void put(Entry entry) throws IOException {
+    checkFailure();
+    try {
+      queue.put(entry);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(ex.getMessage());
+    }
+  }
+
+  /**
+   * Wait for the workers to index all queued entries, and stop them.
+   *
+   * @throws IOException if a worker failed, or the thread was interrupted while waiting
+   * @throws Error if a worker failed with an error
+   */
+  public void finish() throws IOException {
+    try {
+      for (int i = 0; i < workers; i++) {
+        queue.put(END);
+      }
+      executorService.shutdown();
+      while (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+        checkFailure();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(ex.getMessage());
+    } finally {
+      executorService.shutdownNow();
+    }
+    checkFailure();
+  }
+
+  /**
+   * Stop the workers without waiting for the queued entries.
+   */
+  public void abort() {
+    executorService.shutdownNow();
+  }
+
+  private void work() {
+    try {
+      Entry entry = queue.take();
+      while (entry != END) {
+        // After a failure the queue is still drained, so that the parser never blocks. Errors
+        // are caught too, a worker that dies would leave the parser waiting for free space.
+        if (failure.get() == null) {
+          try {
+            luceneIndexer.write(entry);
+          } catch (Throwable ex) {
+            failure.compareAndSet(null, ex);
+          }
+        }
+        entry = queue.take();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    Throwable ex = failure.get();
+    if (ex instanceof IOException) {
+      throw (IOException) ex;
+    } else if (ex instanceof Error) {
+      throw (Error) ex;
+    } else if (ex != null) {
+      throw new IOException(ex);
+    }
+  }
+
+}
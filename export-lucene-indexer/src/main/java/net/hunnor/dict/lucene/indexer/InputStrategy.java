@@ -0,0 +1,89 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The ways {@link StaxParser} reads an export. Exports compressed with gzip are decompressed
+ * while they are read, whatever the strategy.
+ */
+public enum InputStrategy {
+
+  /**
+   * An unbuffered file stream, read in the block size chosen by the StAX implementation.
+   */
+  STREAM {
+    @Override
+    InputStream read(Path file) throws IOException {
+      return new FileInputStream(file.toFile());
+    }
+  },
+
+  /**
+   * A file stream read into a heap buffer of {@value #BUFFER_SIZE} bytes.
+   */
+  BUFFERED {
+    @Override
+    InputStream read(Path file) throws IOException {
+      return new BufferedInputStream(new FileInputStream(file.toFile()), BUFFER_SIZE);
+    }
+  },
+
+  /**
+   * A file channel read into a direct buffer of {@value #BUFFER_SIZE} bytes.
+   */
+  CHANNEL {
+    @Override
+    InputStream read(Path file) throws IOException {
+      return new ChannelInputStream(FileChannel.open(file, StandardOpenOption.READ), BUFFER_SIZE);
+    }
+  },
+
+  /**
+   * The whole file mapped into memory, for files up to 2 GB. The mapping is released when the
+   * stream is garbage collected.
+   */
+  MAPPED {
+    @Override
+    InputStream read(Path file) throws IOException {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        if (channel.size() > Integer.MAX_VALUE) {
+          throw new IOException("File too large to map: " + file);
+        }
+        return new ByteBufferInputStream(
+            channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      }
+    }
+  };
+
+  /**
+   * The size of the buffers of the buffered strategies.
+   */
+  public static final int BUFFER_SIZE = 1 << 20;
+
+  /**
+   * Open an export, decompressing it if it is compressed.
+   *
+   * @param file the file to open
+   * @return a stream of the content of the file
+   * @throws IOException if the file cannot be opened, or its compression is not supported
+   */
+  public InputStream open(String file) throws IOException {
+    InputStream stream = read(Paths.get(file));
+    try {
+      return Compression.decompress(stream);
+    } catch (IOException ex) {
+      stream.close();
+      throw ex;
+    }
+  }
+
+  abstract InputStream read(Path file) throws IOException;
+
+}
@@ -2,24 +2,45 @@ package net.hunnor.dict.lucene.indexer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.completion.CompletionWriter;
 import net.hunnor.dict.lucene.constants.Lucene;
+import net.hunnor.dict.lucene.headword.HeadwordTableWriter;
 import net.hunnor.dict.lucene.model.Entry;
 import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.sort.SortRankReader;
+import net.hunnor.dict.lucene.sort.SortRankWriter;
+import net.hunnor.dict.lucene.text.CompactText;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.spell.Dictionary;
 import org.apache.lucene.search.spell.LuceneDictionary;
 import org.apache.lucene.search.spell.SpellChecker;
+import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.NIOFSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class LuceneIndexer {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(LuceneIndexer.class);
+
+  private static final double MEGABYTE = 1 << 20;
+
   private String indexDir;
 
   private String spellingDir;
@@ -28,8 +49,38 @@ public class LuceneIndexer {
 
   private IndexWriter indexWriter;
 
+  private Directory indexTarget;
+
+  private Directory spellingDirectory;
+
+  private Directory spellingTarget;
+
   private SpellChecker spellChecker;
 
+  private int spellingThreads = 1;
+
+  private boolean suggestionDocuments = true;
+
+  private boolean compactText;
+
+  private IndexWriterProfile indexWriterProfile = IndexWriterProfile.DEFAULT;
+
+  private boolean create;
+
+  private int maxSegments;
+
+  private long memoryBudget;
+
+  private BuildReport report;
+
+  private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+  private final Set<String> keys = ConcurrentHashMap.newKeySet();
+
+  private IndexChanges changes;
+
+  private long changesStart;
+
   public String getIndexDir() {
     return indexDir;
   }
@@ -46,6 +97,112 @@ public class LuceneIndexer {
     this.spellingDir = spellingDir;
   }
 
+  public int getSpellingThreads() {
+    return spellingThreads;
+  }
+
+  /**
+   * Build the spelling index with several threads. With one thread, the dictionaries are
+   * indexed one after the other by the spell checker.
+   *
+   * @param spellingThreads the number of threads building the spelling index
+   */
+  public void setSpellingThreads(int spellingThreads) {
+    this.spellingThreads = spellingThreads;
+  }
+
+  public boolean isSuggestionDocuments() {
+    return suggestionDocuments;
+  }
+
+  /**
+   * Add a document with a suggestion field for each root of the written entries. Without them,
+   * suggestions are only available from the completion file.
+   *
+   * @param suggestionDocuments true to add the suggestion documents
+   */
+  public void setSuggestionDocuments(boolean suggestionDocuments) {
+    this.suggestionDocuments = suggestionDocuments;
+  }
+
+  public boolean isCompactText() {
+    return compactText;
+  }
+
+  /**
+   * Store the text of the entries in the compact binary form of {@link CompactText}, in the
+   * {@code text_compact} field instead of the {@code text} field.
+   *
+   * @param compactText true to store the compact text
+   */
+  public void setCompactText(boolean compactText) {
+    this.compactText = compactText;
+  }
+
+  public IndexWriterProfile getIndexWriterProfile() {
+    return indexWriterProfile;
+  }
+
+  public void setIndexWriterProfile(IndexWriterProfile indexWriterProfile) {
+    this.indexWriterProfile = indexWriterProfile;
+  }
+
+  public boolean isCreate() {
+    return create;
+  }
+
+  /**
+   * Open the index writer in create mode, replacing the index in the index directory. Otherwise
+   * the writer appends to the index if there is one.
+   *
+   * @param create true to replace the index
+   */
+  public void setCreate(boolean create) {
+    this.create = create;
+  }
+
+  public int getMaxSegments() {
+    return maxSegments;
+  }
+
+  /**
+   * Merge the index down to a number of segments when the index writer is closed.
+   *
+   * @param maxSegments the maximum number of segments, 0 to leave merging to the merge policy
+   */
+  public void setMaxSegments(int maxSegments) {
+    this.maxSegments = maxSegments;
+  }
+
+  public long getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  /**
+   * Build the indexes in memory and copy them to their directories when they are closed, if
+   * they are estimated to fit into a memory budget. The budget is capped at half of the maximum
+   * heap size. Indexes that do not fit are built in their directories.
+   *
+   * @param memoryBudget the memory budget in bytes, 0 to always build on the disk
+   */
+  public void setMemoryBudget(long memoryBudget) {
+    this.memoryBudget = memoryBudget;
+  }
+
+  public BuildReport getReport() {
+    return report;
+  }
+
+  /**
+   * Record the time of building and adding the documents, and the flushes and merges of the
+   * index writers opened from now on, in a build report.
+   *
+   * @param report the report, or null to record nothing
+   */
+  public void setReport(BuildReport report) {
+    this.report = report;
+  }
+
   /**
    * Opens the Lucene index reader.
    *
@@ -68,40 +225,111 @@ public class LuceneIndexer {
   }
 
   /**
-   * Opens the Lucene index writer.
+   * Opens the Lucene index writer with the settings of the index writer profile.
    *
    * @throws IOException when thrown by Lucene
    */
   public void openIndexWriter() throws IOException {
+    openIndexWriter(0);
+  }
+
+  /**
+   * Opens the Lucene index writer with the settings of the index writer profile. With a memory
+   * budget, the index is built in memory if the existing index, twice the size of the export,
+   * room for the merges, and the RAM buffer of the writer fit into the budget.
+   *
+   * @param exportSize the size of the export to index in bytes
+   * @throws IOException when thrown by Lucene
+   */
+  public void openIndexWriter(long exportSize) throws IOException {
     File file = new File(indexDir);
     Analyzer analyzer = PerFieldAnalyzer.getInstance(Lucene.VERSION);
     IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION, analyzer);
-    indexWriter = new IndexWriter(new NIOFSDirectory(file), indexWriterConfig);
+    indexWriterProfile.apply(indexWriterConfig);
+    indexWriterConfig.setOpenMode(create ? OpenMode.CREATE : OpenMode.CREATE_OR_APPEND);
+    Directory directory = new NIOFSDirectory(file);
+    long estimate = (create ? 0 : IndexCopy.size(file)) + 2 * exportSize
+        + (long) (Math.max(0, indexWriterConfig.getRAMBufferSizeMB()) * MEGABYTE);
+    if (fitsInMemory(estimate)) {
+      indexTarget = directory;
+      directory = IndexCopy.open(indexTarget, create);
+    } else if (memoryBudget > 0) {
+      LOGGER.info("Index of about {} bytes over the memory budget, building on disk: {}",
+          estimate, indexDir);
+    }
+    indexWriter = report == null ? new IndexWriter(directory, indexWriterConfig)
+        : new ReportingIndexWriter(directory, indexWriterConfig, report);
+  }
+
+  private boolean fitsInMemory(long estimate) {
+    return memoryBudget > 0
+        && estimate <= Math.min(memoryBudget, Runtime.getRuntime().maxMemory() / 2);
   }
 
   /**
-   * Closes the Lucene index writer.
+   * Closes the Lucene index writer, after merging the index down to the maximum number of
+   * segments if it is set. An index built in memory is copied to the index directory.
    *
    * @throws IOException when thrown by Lucene
    */
   public void closeIndexWriter() throws IOException {
-    if (indexWriter != null) {
-      indexWriter.close();
+    IndexWriter writer = indexWriter;
+    if (writer != null) {
+      if (maxSegments > 0) {
+        writer.forceMerge(maxSegments);
+      }
+      Directory directory = writer.getDirectory();
+      writer.close();
+      indexWriter = null;
+      if (indexTarget != null) {
+        copyToDisk(directory, indexTarget);
+        indexTarget = null;
+      }
     }
   }
 
   /**
-   * Opens the Lucene spell checker.
+   * Closes the Lucene index writer after a failed run, without committing the documents added
+   * since it was opened. The index is not merged, and an index built in memory is not copied to
+   * the index directory, so the index in the directory is left as it was.
+   *
+   * @throws IOException when thrown by Lucene
+   */
+  public void rollbackIndexWriter() throws IOException {
+    final IndexWriter writer = indexWriter;
+    indexWriter = null;
+    indexTarget = null;
+    hashes.clear();
+    keys.clear();
+    changes = null;
+    if (writer != null) {
+      writer.rollback();
+    }
+  }
+
+  /**
+   * Opens the Lucene spell checker. With a memory budget, the spelling index is built in memory
+   * if the existing spelling index and the main index fit into the budget.
    *
    * @throws IOException when thrown by Lucene
    */
   public void openSpellChecker() throws IOException {
     File file = new File(spellingDir);
-    spellChecker = new SpellChecker(new NIOFSDirectory(file));
+    spellingDirectory = new NIOFSDirectory(file);
+    long estimate = IndexCopy.size(file);
+    if (indexDir != null) {
+      estimate += IndexCopy.size(new File(indexDir));
+    }
+    if (fitsInMemory(estimate)) {
+      spellingTarget = spellingDirectory;
+      spellingDirectory = IndexCopy.open(spellingTarget, false);
+    }
+    spellChecker = new SpellChecker(spellingDirectory);
   }
 
   /**
-   * Closes the Lucene spell checker.
+   * Closes the Lucene spell checker, and copies a spelling index built in memory to the
+   * spelling directory.
    *
    * @throws IOException when thrown by Lucene
    */
@@ -109,6 +337,20 @@ public class LuceneIndexer {
     if (spellChecker != null) {
       spellChecker.close();
     }
+    if (spellingTarget != null) {
+      copyToDisk(spellingDirectory, spellingTarget);
+      spellingDirectory = spellingTarget;
+      spellingTarget = null;
+    }
+  }
+
+  private static void copyToDisk(Directory memoryDirectory, Directory directory)
+      throws IOException {
+    long start = System.nanoTime();
+    long bytes = IndexCopy.copy(memoryDirectory, directory);
+    memoryDirectory.close();
+    LOGGER.info("Copied {} bytes from memory to {} in {} ms", bytes, directory,
+        (System.nanoTime() - start) / 1_000_000);
   }
 
   /**
@@ -117,7 +359,11 @@ public class LuceneIndexer {
    * @throws IOException when thrown by Lucene
    */
   public void createSuggestions() throws IOException {
-    if (spellChecker != null) {
+    if (spellChecker != null && spellingThreads > 1) {
+      SpellingBuilder spellingBuilder = new SpellingBuilder(spellingThreads);
+      spellingBuilder.build(spellChecker, spellingDirectory, indexReader,
+          Lucene.HU_ROOTS_LC, Lucene.NO_ROOTS_LC);
+    } else if (spellChecker != null) {
       Dictionary hungarianDictionary = new LuceneDictionary(indexReader, Lucene.HU_ROOTS_LC);
       Dictionary norwegianDictionary = new LuceneDictionary(indexReader, Lucene.NO_ROOTS_LC);
       Analyzer analyzer = PerFieldAnalyzer.getInstance(Lucene.VERSION);
@@ -129,25 +375,194 @@ public class LuceneIndexer {
   }
 
   /**
-   * Writes a single model object to the index.
+   * Create the completion file of the suggestions in the main index directory, from the
+   * suggestion documents of the index, or from the roots of the entries if it has none.
+   *
+   * @throws IOException when thrown by Lucene, or if the file cannot be written
+   */
+  public void createCompletion() throws IOException {
+    if (indexReader != null) {
+      CompletionWriter.write(indexReader, new File(indexDir, CompletionWriter.FILE_NAME));
+    }
+  }
+
+  /**
+   * Create the sort rank file in the main index directory, with the rank of each document of
+   * the index in the alphabetical order of the headwords.
+   *
+   * @throws IOException when thrown by Lucene, or if the file cannot be written
+   */
+  public void createSortRanks() throws IOException {
+    if (indexReader != null) {
+      SortRankWriter.write(indexReader, new File(indexDir, SortRankWriter.FILE_NAME));
+    }
+  }
+
+  /**
+   * Create the headword table in the main index directory, with the documents of each term of
+   * the roots fields of the index. The documents are in the order of the sort rank file if the
+   * directory has one of the same version of the index, as the searcher sorts by it then.
+   *
+   * @throws IOException when thrown by Lucene, or if the file cannot be written
+   */
+  public void createHeadwordTable() throws IOException {
+    if (indexReader != null) {
+      long start = System.nanoTime();
+      File ranksFile = new File(indexDir, SortRankWriter.FILE_NAME);
+      SortRankReader sortRanks = ranksFile.isFile() ? SortRankReader.open(ranksFile) : null;
+      if (sortRanks != null && !sortRanks.matches(indexReader)) {
+        sortRanks = null;
+      }
+      File file = new File(indexDir, HeadwordTableWriter.FILE_NAME);
+      int keys = HeadwordTableWriter.write(indexReader, sortRanks, file);
+      long time = (System.nanoTime() - start) / 1_000_000;
+      LOGGER.info("Wrote headword table of {} keys, {} bytes in {} ms: {}", keys, file.length(),
+          time, file);
+    }
+  }
+
+  /**
+   * Start an incremental indexing run for a language. The keys and hashes of the entries of the
+   * language already in the index are read with the open index writer. Until
+   * {@link #endChanges()}, written entries are only added if their key is new, and replace the
+   * previous documents of the key if their hash differs.
+   *
+   * <p>Entries are keyed on their language and id, or on their hash if they have no id. Only
+   * entries written in an incremental run have a key. Entries of the language indexed without
+   * a key could not be replaced, and would be duplicated by the run, so the run is refused.
+   *
+   * @param language the language of the entries written in this run
+   * @throws IOException when thrown by Lucene, or if the index has entries of the language
+   *     indexed without a key
+   */
+  public void beginChanges(Language language) throws IOException {
+    if (indexWriter != null) {
+      final long start = System.nanoTime();
+      hashes.clear();
+      keys.clear();
+      FieldSelector fieldSelector = new MapFieldSelector(Lucene.KEY, Lucene.HASH, Lucene.LANG);
+      try (IndexReader reader = IndexReader.open(indexWriter, false)) {
+        for (int i = 0; i < reader.maxDoc(); i++) {
+          if (!reader.isDeleted(i)) {
+            Document document = reader.document(i, fieldSelector);
+            String key = document.get(Lucene.KEY);
+            String hash = document.get(Lucene.HASH);
+            if (key == null && language.name().equalsIgnoreCase(document.get(Lucene.LANG))) {
+              hashes.clear();
+              throw new IOException("The index has " + language + " entries indexed without"
+                  + " the incremental option, rebuild it incrementally from an empty directory");
+            }
+            if (key != null && hash != null && isKeyOf(key, language)
+                && hashes.put(key, hash) != null) {
+              // Duplicate keys are replaced by the entries of this run
+              hashes.put(key, "");
+            }
+          }
+        }
+      }
+      changes = new IndexChanges();
+      changes.setReadMillis((System.nanoTime() - start) / 1_000_000);
+      changesStart = System.nanoTime();
+    }
+  }
+
+  /**
+   * Finish an incremental indexing run, and delete the entries of the language that were not
+   * written in the run. The changes are committed when the index writer is closed.
+   *
+   * @return the changes of the run, or null if no run was started
+   * @throws IOException when thrown by Lucene
+   */
+  public IndexChanges endChanges() throws IOException {
+    IndexChanges result = changes;
+    IndexWriter writer = indexWriter;
+    if (result != null && writer != null) {
+      for (String key : hashes.keySet()) {
+        writer.deleteDocuments(new Term(Lucene.KEY, key));
+        result.deleted();
+      }
+      result.setWriteMillis((System.nanoTime() - changesStart) / 1_000_000);
+      hashes.clear();
+      keys.clear();
+      changes = null;
+    }
+    return result;
+  }
+
+  /**
+   * Writes a single model object to the index. Can be called from several threads at once.
    *
    * @param indexObject the model object to index
    * @throws IOException when thrown by Lucene
    */
   public void write(Entry indexObject) throws IOException {
+    BuildReport buildReport = report;
+    BuildReport.Timer timer = BuildReport.start(buildReport, false);
     Document luceneDocument = toLuceneDocument(indexObject);
-    if (indexWriter != null) {
-      indexWriter.addDocument(luceneDocument);
-      for (String root : indexObject.getRoots()) {
-        Document suggestion = new Document();
-        suggestion.add(
-            new Field(Lucene.SUGGESTION, root, Field.Store.YES, Field.Index.ANALYZED));
-        indexWriter.addDocument(suggestion);
+    IndexWriter writer = indexWriter;
+    if (writer != null) {
+      List<Document> documents = new ArrayList<>();
+      documents.add(luceneDocument);
+      if (suggestionDocuments) {
+        for (String root : indexObject.getRoots()) {
+          Document suggestion = new Document();
+          suggestion.add(
+              new Field(Lucene.SUGGESTION, root, Field.Store.YES, Field.Index.ANALYZED));
+          documents.add(suggestion);
+        }
+      }
+      timer.lap(BuildPhase.DOCUMENT);
+      IndexChanges indexChanges = changes;
+      if (indexChanges != null) {
+        writeChanges(writer, indexObject, documents, indexChanges);
+      } else {
+        for (Document document : documents) {
+          writer.addDocument(document);
+        }
+      }
+      timer.lap(BuildPhase.WRITE);
+      if (buildReport != null) {
+        buildReport.entry(documents.size());
       }
     }
   }
 
-  private Document toLuceneDocument(Entry entry) {
+  private void writeChanges(IndexWriter writer, Entry entry, List<Document> documents,
+      IndexChanges indexChanges) throws IOException {
+    String hash = EntryHash.of(entry);
+    String key = entry.getId() != null
+        ? entry.getLang() + ":" + entry.getId()
+        : entry.getLang() + "#" + hash;
+    documents.get(0).add(new Field(Lucene.KEY, key, Field.Store.YES, Field.Index.NOT_ANALYZED));
+    documents.get(0).add(new Field(Lucene.HASH, hash, Field.Store.YES, Field.Index.NO));
+    for (Document suggestion : documents.subList(1, documents.size())) {
+      suggestion.add(new Field(Lucene.KEY, key, Field.Store.NO, Field.Index.NOT_ANALYZED));
+    }
+    String previous = keys.add(key) ? hashes.remove(key) : null;
+    if (previous == null) {
+      writer.addDocuments(documents);
+      indexChanges.added();
+    } else if (previous.equals(hash)) {
+      indexChanges.unchanged();
+    } else {
+      writer.updateDocuments(new Term(Lucene.KEY, key), documents);
+      indexChanges.updated();
+    }
+  }
+
+  private static boolean isKeyOf(String key, Language language) {
+    String name = language.name();
+    return key.length() > name.length() && key.startsWith(name)
+        && (key.charAt(name.length()) == ':' || key.charAt(name.length()) == '#');
+  }
+
+  /**
+   * Convert an entry to the Lucene document that {@link #write(Entry)} adds to the index.
+   *
+   * @param entry the entry to convert
+   * @return the document of the entry
+   */
+  public Document toLuceneDocument(Entry entry) {
 
     String rootsField = Lucene.HU_ROOTS;
     String rootsLcField = Lucene.HU_ROOTS_LC;
@@ -199,7 +614,9 @@ public class LuceneIndexer {
       document.add(new Field(Lucene.SORT, entry.getSort(), Field.Store.YES, Field.Index.ANALYZED));
     }
 
-    if (entry.getText() != null) {
+    if (entry.getText() != null && compactText) {
+      document.add(new Field(Lucene.TEXT_COMPACT, CompactText.encode(entry.getText())));
+    } else if (entry.getText() != null) {
       document.add(
           new Field(Lucene.TEXT, entry.getText(), Field.Store.YES, Field.Index.NOT_ANALYZED));
     }
@@ -0,0 +1,340 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import net.hunnor.dict.lucene.model.Entry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses an export with a pool of threads, returning the entries in the order of the file.
+ *
+ * <p>The export is memory-mapped and split into chunks of about the same size at the start of
+ * an entry element. Each chunk is wrapped into a root and an entry group element, and parsed by
+ * a separate stream reader. The export must be UTF-8, and {@code <entry} must not occur in
+ * comments or CDATA sections. A few more chunks than threads are parsed ahead of the entries
+ * returned by {@link #next()}, so memory use depends on the chunk size, not on the export.
+ *
+ * <p>The input strategy of the parser is not used, the export is always mapped. A compressed
+ * export cannot be split, it is parsed on the calling thread as by {@link StaxParser}. An export
+ * larger than 2 GB cannot be mapped into one buffer, and fails the run instead of being parsed
+ * on one thread.
+ *
+ * <p>The speedup with more threads has only been measured on a single CPU, where more threads
+ * are slower. The scaling on a multi-core machine is unverified.
+ */
+public class ParallelStaxParser extends StaxParser {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelStaxParser.class);
+
+  static final int CHUNK_SIZE = 1 << 20;
+
+  private static final byte[] ENTRY_START = "<entry".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] ENTRY_END = "</entry>".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] PREFIX = "<chunk><entryGrp>".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] SUFFIX = "</entryGrp></chunk>".getBytes(StandardCharsets.US_ASCII);
+
+  private final int threads;
+
+  private final int chunkSize;
+
+  private final XMLInputFactory inputFactory = newInputFactory();
+
+  private final Deque<Future<List<Entry>>> window = new ArrayDeque<>();
+
+  private ExecutorService executorService;
+
+  private ByteBuffer buffer;
+
+  private int position = -1;
+
+  private int end;
+
+  private Iterator<Entry> entries = Collections.emptyIterator();
+
+  private boolean sequential;
+
+  private XMLStreamException failure;
+
+  /**
+   * Create a parser.
+   *
+   * @param threads the number of chunks parsed at the same time
+   */
+  public ParallelStaxParser(int threads) {
+    this(threads, CHUNK_SIZE);
+  }
+
+  ParallelStaxParser(int threads, int chunkSize) {
+    if (threads < 1 || chunkSize < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.threads = threads;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Map an XML file, and start parsing the first chunks. A compressed file is opened for
+   * parsing on the calling thread. If the file is too large to map, {@link #hasNext()} and
+   * {@link #next()} throw an exception.
+   *
+   * @param file the file to open
+   */
+  @Override
+  public void openFile(String file) {
+    MappedByteBuffer mappedBuffer;
+    try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        failure = new XMLStreamException("File too large to map: " + file);
+        return;
+      }
+      mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException ex) {
+      LOGGER.error(ex.getMessage(), ex);
+      return;
+    }
+    if (isCompressed(mappedBuffer)) {
+      LOGGER.info("Compressed file, parsing on one thread: {}", file);
+      sequential = true;
+      super.openFile(file);
+      return;
+    }
+    buffer = mappedBuffer;
+    position = nextEntry(buffer, 0);
+    end = lastEntryEnd(buffer);
+    AtomicInteger counter = new AtomicInteger();
+    executorService = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "parser-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    while (window.size() < threads * 2 && submit()) {
+      // Fill the window
+    }
+  }
+
+  /**
+   * Stop parsing, and release the mapped file.
+   */
+  @Override
+  public void closeFile() {
+    if (sequential) {
+      sequential = false;
+      super.closeFile();
+      return;
+    }
+    for (Future<List<Entry>> future : window) {
+      future.cancel(true);
+    }
+    window.clear();
+    if (executorService != null) {
+      executorService.shutdownNow();
+      executorService = null;
+    }
+    entries = Collections.emptyIterator();
+    buffer = null;
+    position = -1;
+    failure = null;
+  }
+
+  @Override
+  public boolean hasNext() throws XMLStreamException {
+    if (sequential) {
+      return super.hasNext();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return entries.hasNext() || !window.isEmpty();
+  }
+
+  /**
+   * Returns the next entry of the file, waiting for its chunk to be parsed if necessary.
+   *
+   * @return the next entry, or null at the end of the file
+   * @throws XMLStreamException if the file is too large to map, a chunk cannot be parsed, or
+   *     the thread is interrupted
+   */
+  @Override
+  public Entry next() throws XMLStreamException {
+    if (sequential) {
+      return super.next();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    while (!entries.hasNext() && !window.isEmpty()) {
+      Future<List<Entry>> future = window.poll();
+      try {
+        entries = future.get().iterator();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new XMLStreamException(ex);
+      } catch (ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        throw cause instanceof XMLStreamException
+            ? (XMLStreamException) cause : new XMLStreamException(cause);
+      }
+      submit();
+    }
+    return entries.hasNext() ? entries.next() : null;
+  }
+
+  private boolean submit() {
+    if (position < 0 || position >= end) {
+      return false;
+    }
+    int from = position;
+    int next = from + chunkSize < end ? nextEntry(buffer, from + chunkSize) : -1;
+    int to = next < 0 || next > end ? end : next;
+    position = to < end ? to : -1;
+    ByteBuffer chunk = buffer.duplicate();
+    chunk.limit(to);
+    chunk.position(from);
+    ByteBuffer slice = chunk.slice();
+    window.add(executorService.submit(() -> parse(slice)));
+    return true;
+  }
+
+  private List<Entry> parse(ByteBuffer chunk) throws XMLStreamException {
+    InputStream stream = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+        new ByteArrayInputStream(PREFIX),
+        new ByteBufferInputStream(chunk),
+        new ByteArrayInputStream(SUFFIX))));
+    XMLStreamReader reader;
+    // The factory is shared by the threads, and not documented to be thread-safe
+    synchronized (inputFactory) {
+      reader = inputFactory.createXMLStreamReader(stream, "UTF-8");
+    }
+    StaxParser staxParser = new StaxParser();
+    staxParser.setReader(reader);
+    List<Entry> chunkEntries = new ArrayList<>();
+    while (staxParser.hasNext()) {
+      Entry entry = staxParser.next();
+      if (entry != null) {
+        chunkEntries.add(entry);
+      }
+    }
+    reader.close();
+    return chunkEntries;
+  }
+
+  private static boolean isCompressed(ByteBuffer buffer) {
+    byte[] header = new byte[Math.min(Compression.HEADER_LENGTH, buffer.limit())];
+    buffer.duplicate().get(header);
+    return Compression.of(header, header.length) != Compression.NONE;
+  }
+
+  /**
+   * The position of the first entry start tag at or after a position.
+   *
+   * @param buffer the file
+   * @param from the position to search from
+   * @return the position of the tag, or -1 if there is no entry after the position
+   */
+  static int nextEntry(ByteBuffer buffer, int from) {
+    int limit = buffer.limit() - ENTRY_START.length;
+    for (int i = from; i < limit; i++) {
+      if (isEntryStart(buffer, i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The position after the last entry element, after its end tag, or after its start tag if it
+   * is an empty element. Only the markup closing the entry groups and the root follows it.
+   *
+   * @param buffer the file
+   * @return the position after the element, the end of the file if the last entry is not
+   *     closed, or 0 if there is no entry
+   */
+  static int lastEntryEnd(ByteBuffer buffer) {
+    int start = -1;
+    for (int i = buffer.limit() - ENTRY_START.length - 1; i >= 0 && start < 0; i--) {
+      if (isEntryStart(buffer, i)) {
+        start = i;
+      }
+    }
+    if (start < 0) {
+      return 0;
+    }
+    int tagEnd = startTagEnd(buffer, start + ENTRY_START.length);
+    if (tagEnd < 0) {
+      return buffer.limit();
+    }
+    if (buffer.get(tagEnd - 1) == '/') {
+      return tagEnd + 1;
+    }
+    for (int i = tagEnd; i <= buffer.limit() - ENTRY_END.length; i++) {
+      if (matches(buffer, i, ENTRY_END)) {
+        return i + ENTRY_END.length;
+      }
+    }
+    return buffer.limit();
+  }
+
+  private static boolean isEntryStart(ByteBuffer buffer, int position) {
+    if (!matches(buffer, position, ENTRY_START)) {
+      return false;
+    }
+    byte next = buffer.get(position + ENTRY_START.length);
+    return next == ' ' || next == '>' || next == '/' || next == '\t' || next == '\n'
+        || next == '\r';
+  }
+
+  /**
+   * The position of the {@code >} closing a start tag, skipping quoted attribute values.
+   */
+  private static int startTagEnd(ByteBuffer buffer, int from) {
+    byte quote = 0;
+    for (int i = from; i < buffer.limit(); i++) {
+      byte current = buffer.get(i);
+      if (quote != 0) {
+        quote = current == quote ? 0 : quote;
+      } else if (current == '"' || current == '\'') {
+        quote = current;
+      } else if (current == '>') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean matches(ByteBuffer buffer, int position, byte[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      if (buffer.get(position + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -4,7 +4,7 @@ import net.hunnor.dict.lucene.model.Entry;
 
 public final class ParserState {
 
-  private String previous;
+  private Element previous;
 
   private Entry entry;
 
@@ -36,11 +36,33 @@ public final class ParserState {
 
   private StringBuilder egBuffer = new StringBuilder();
 
-  public String getPrevious() {
+  /**
+   * Clear the state for the next entry, keeping the buffers and their capacity.
+   */
+  public void reset() {
+    previous = null;
+    entry = null;
+    entryComplete = false;
+    text.setLength(0);
+    collectText = false;
+    characters.setLength(0);
+    formBuffer.setLength(0);
+    primaryForm = false;
+    inflParBuffer.setLength(0);
+    inflSeqBuffer.setLength(0);
+    senseGrpBuffer.setLength(0);
+    senseGrpCount = 0;
+    senseBuffer.setLength(0);
+    senseCount = 0;
+    eg = false;
+    egBuffer.setLength(0);
+  }
+
+  public Element getPrevious() {
     return previous;
   }
 
-  public void setPrevious(final String previous) {
+  public void setPrevious(final Element previous) {
     this.previous = previous;
   }
 
@@ -0,0 +1,59 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.io.IOException;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.store.Directory;
+
+/**
+ * An index writer that counts the segments it flushes, and counts and times its merges in a
+ * build report.
+ */
+class ReportingIndexWriter extends IndexWriter {
+
+  private final BuildReport report;
+
+  private boolean closing;
+
+  ReportingIndexWriter(Directory directory, IndexWriterConfig indexWriterConfig,
+      BuildReport report) throws IOException {
+    super(directory, indexWriterConfig);
+    this.report = report;
+  }
+
+  /**
+   * Count a flush that writes a new segment. A commit flushes too, but without buffered
+   * documents it writes no segment.
+   */
+  @Override
+  protected void doBeforeFlush() throws IOException {
+    super.doBeforeFlush();
+    if (!closing && numRamDocs() > 0) {
+      report.flushed();
+    }
+  }
+
+  /**
+   * Close the writer, counting the flush of the buffered documents before the writer refuses
+   * to tell how many there are.
+   */
+  @Override
+  public void close(boolean waitForMerges) throws IOException {
+    if (!closing) {
+      closing = true;
+      if (numRamDocs() > 0) {
+        report.flushed();
+      }
+    }
+    super.close(waitForMerges);
+  }
+
+  @Override
+  public void merge(MergePolicy.OneMerge merge) throws IOException {
+    long start = System.nanoTime();
+    super.merge(merge);
+    report.merged(System.nanoTime() - start);
+  }
+
+}
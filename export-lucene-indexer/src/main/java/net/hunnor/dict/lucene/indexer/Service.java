@@ -1,5 +1,6 @@
 package net.hunnor.dict.lucene.indexer;
 
+import java.io.File;
 import java.io.IOException;
 import javax.xml.stream.XMLStreamException;
 import net.hunnor.dict.lucene.model.Entry;
@@ -11,10 +12,50 @@ public class Service {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Service.class);
 
+  private static final long MEGABYTE = 1L << 20;
+
   private StaxParser staxParser;
 
   private LuceneIndexer luceneIndexer;
 
+  private int workers = 1;
+
+  private int queueSize = 1024;
+
+  private boolean completion;
+
+  private boolean suggestionDocuments = true;
+
+  private boolean compactText;
+
+  private boolean sortRanks;
+
+  private boolean headwordTable;
+
+  private int spellingThreads = 1;
+
+  private int parserThreads = 1;
+
+  private InputStrategy inputStrategy = InputStrategy.BUFFERED;
+
+  private boolean incremental;
+
+  private File reportFile;
+
+  private BuildReport report;
+
+  private IndexWriterProfile indexWriterProfile = IndexWriterProfile.DEFAULT;
+
+  private boolean create;
+
+  private int maxSegments;
+
+  private int memoryBudget;
+
+  private IndexChanges changes;
+
+  private Exception failure;
+
   public void setParser(StaxParser staxParser) {
     this.staxParser = staxParser;
   }
@@ -23,8 +64,194 @@ public class Service {
     this.luceneIndexer = luceneIndexer;
   }
 
+  public int getWorkers() {
+    return workers;
+  }
+
+  public void setWorkers(int workers) {
+    this.workers = workers;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public boolean isCompletion() {
+    return completion;
+  }
+
+  public void setCompletion(boolean completion) {
+    this.completion = completion;
+  }
+
+  public boolean isSuggestionDocuments() {
+    return suggestionDocuments;
+  }
+
+  public void setSuggestionDocuments(boolean suggestionDocuments) {
+    this.suggestionDocuments = suggestionDocuments;
+  }
+
+  public boolean isCompactText() {
+    return compactText;
+  }
+
+  public void setCompactText(boolean compactText) {
+    this.compactText = compactText;
+  }
+
+  public boolean isSortRanks() {
+    return sortRanks;
+  }
+
+  public void setSortRanks(boolean sortRanks) {
+    this.sortRanks = sortRanks;
+  }
+
+  public boolean isHeadwordTable() {
+    return headwordTable;
+  }
+
+  public void setHeadwordTable(boolean headwordTable) {
+    this.headwordTable = headwordTable;
+  }
+
+  public int getSpellingThreads() {
+    return spellingThreads;
+  }
+
+  public void setSpellingThreads(int spellingThreads) {
+    this.spellingThreads = spellingThreads;
+  }
+
+  public int getParserThreads() {
+    return parserThreads;
+  }
+
+  public void setParserThreads(int parserThreads) {
+    this.parserThreads = parserThreads;
+  }
+
+  public InputStrategy getInputStrategy() {
+    return inputStrategy;
+  }
+
+  public void setInputStrategy(InputStrategy inputStrategy) {
+    this.inputStrategy = inputStrategy;
+  }
+
+  public boolean isIncremental() {
+    return incremental;
+  }
+
+  public void setIncremental(boolean incremental) {
+    this.incremental = incremental;
+  }
+
+  public IndexWriterProfile getIndexWriterProfile() {
+    return indexWriterProfile;
+  }
+
+  public void setIndexWriterProfile(IndexWriterProfile indexWriterProfile) {
+    this.indexWriterProfile = indexWriterProfile;
+  }
+
+  public boolean isCreate() {
+    return create;
+  }
+
+  public void setCreate(boolean create) {
+    this.create = create;
+  }
+
+  public int getMaxSegments() {
+    return maxSegments;
+  }
+
+  public void setMaxSegments(int maxSegments) {
+    this.maxSegments = maxSegments;
+  }
+
+  public int getMemoryBudget() {
+    return memoryBudget;
+  }
+
   /**
-   * Create the main index.
+   * Build the indexes in memory and copy them to their directories at the end, if they fit.
+   *
+   * @param memoryBudget the memory budget in megabytes, 0 to build the indexes on the disk
+   */
+  public void setMemoryBudget(int memoryBudget) {
+    this.memoryBudget = memoryBudget;
+  }
+
+  public File getReportFile() {
+    return reportFile;
+  }
+
+  /**
+   * Write a JSON build report after indexing a file, and again after building the spelling
+   * index from it. An existing report is replaced.
+   *
+   * @param reportFile the report file, or null to write no report
+   */
+  public void setReportFile(File reportFile) {
+    this.reportFile = reportFile;
+  }
+
+  /**
+   * The build report of the last indexing run, with the spelling index if it was built after
+   * the run.
+   *
+   * @return the report, or null if no report file is set
+   */
+  public BuildReport getReport() {
+    return report;
+  }
+
+  /**
+   * The changes of the last incremental indexing run.
+   *
+   * @return the changes, or null if the last run was not incremental or failed
+   */
+  public IndexChanges getChanges() {
+    return changes;
+  }
+
+  /**
+   * The failure of the last indexing run. The failure is logged, and the index writer is rolled
+   * back.
+   *
+   * @return the exception the run failed with, or null if the last run succeeded
+   */
+  public Exception getFailure() {
+    return failure;
+  }
+
+  /**
+   * Create the main index. With more than one worker, entries are parsed on the calling thread
+   * and written to the index by a pool of worker threads. If completion is enabled, or the
+   * suggestion documents are disabled, the completion file of the suggestions is rebuilt from
+   * the whole index at the end, and so is the sort rank file if it is enabled. With more than
+   * one parser thread, the file is split into chunks that are parsed at the same time, and the
+   * entries are indexed in the order of the file.
+   * Otherwise the file is read with the input strategy, and decompressed if it is gzipped.
+   * The index writer is configured by the writer profile. In create mode the index in the
+   * directory is replaced, and with a maximum number of segments the index is merged down to
+   * them before the writer is closed. With a memory budget, the index is built in memory if it
+   * fits, and copied to the directory at the end. With a report file, the phases of the run are
+   * timed, and the report is written at the end.
+   *
+   * <p>In incremental mode, only the entries that are new or changed since the previous
+   * incremental run are written, and the entries of the language that are no longer in the file
+   * are deleted.
+   *
+   * <p>If the run fails, the index writer is rolled back without merging, the index in the
+   * directory is left as it was, and the failure is returned by {@link #getFailure()}.
    *
    * @param file the file to index
    * @param lang the language to index the file as
@@ -32,10 +259,19 @@ public class Service {
    */
   public void indexFile(String file, Language lang, String indexDir) {
 
+    changes = null;
+    failure = null;
+    report = reportFile == null ? null : new BuildReport();
+
     try {
 
+      if (report != null) {
+        report.begin(file, lang.name());
+      }
+
       if (staxParser == null) {
-        staxParser = new StaxParser();
+        staxParser = parserThreads > 1 ? new ParallelStaxParser(parserThreads) : new StaxParser();
+        staxParser.setInputStrategy(inputStrategy);
       }
       staxParser.openFile(file);
 
@@ -43,26 +279,120 @@ public class Service {
         luceneIndexer = new LuceneIndexer();
       }
       luceneIndexer.setIndexDir(indexDir);
-      luceneIndexer.openIndexWriter();
+      luceneIndexer.setSuggestionDocuments(suggestionDocuments);
+      luceneIndexer.setCompactText(compactText);
+      luceneIndexer.setIndexWriterProfile(indexWriterProfile);
+      luceneIndexer.setCreate(create);
+      luceneIndexer.setMaxSegments(maxSegments);
+      luceneIndexer.setMemoryBudget(memoryBudget * MEGABYTE);
+      luceneIndexer.setReport(report);
+      luceneIndexer.openIndexWriter(Compression.uncompressedSize(new File(file)));
+      if (incremental) {
+        luceneIndexer.beginChanges(lang);
+      }
 
-      while (staxParser.hasNext()) {
-        Entry entry = staxParser.next();
-        if (entry != null) {
-          entry.setLang(lang);
-          luceneIndexer.write(entry);
-        }
+      if (workers > 1) {
+        indexEntriesPipelined(lang);
+      } else {
+        indexEntries(lang);
       }
 
       staxParser.closeFile();
 
+      BuildReport.Timer timer = BuildReport.start(report, true);
+      IndexChanges indexChanges = luceneIndexer.endChanges();
+      long start = System.nanoTime();
       luceneIndexer.closeIndexWriter();
+      timer.lap(BuildPhase.CLOSE);
+      if (indexChanges != null) {
+        indexChanges.setCommitMillis((System.nanoTime() - start) / 1_000_000);
+        LOGGER.info("{}: {}", lang, indexChanges);
+        changes = indexChanges;
+      }
+
+      if (completion || !suggestionDocuments) {
+        timer.restart();
+        luceneIndexer.openIndexReader();
+        luceneIndexer.createCompletion();
+        luceneIndexer.closeIndexReader();
+        timer.lap(BuildPhase.COMPLETION);
+      }
+
+      if (sortRanks) {
+        timer.restart();
+        luceneIndexer.openIndexReader();
+        luceneIndexer.createSortRanks();
+        luceneIndexer.closeIndexReader();
+        timer.lap(BuildPhase.SORT_RANKS);
+      }
+
+      if (headwordTable) {
+        timer.restart();
+        luceneIndexer.openIndexReader();
+        luceneIndexer.createHeadwordTable();
+        luceneIndexer.closeIndexReader();
+        timer.lap(BuildPhase.HEADWORD_TABLE);
+      }
+
+      if (report != null) {
+        report.end();
+        report.setIndex(BuildReport.IndexStats.of(new File(indexDir)));
+        report.write(reportFile);
+        LOGGER.info("{} entries at {} entries/s, report written to {}", report.getEntries(),
+            Math.round(report.getEntriesPerSecond()), reportFile);
+      }
 
     } catch (IOException | XMLStreamException ex) {
       LOGGER.error(ex.getMessage(), ex);
+      failure = ex;
+      rollback();
     }
 
   }
 
+  private void rollback() {
+    if (luceneIndexer != null) {
+      try {
+        luceneIndexer.rollbackIndexWriter();
+      } catch (IOException ex) {
+        LOGGER.error(ex.getMessage(), ex);
+      }
+    }
+  }
+
+  private void indexEntries(Language lang) throws IOException, XMLStreamException {
+    BuildReport.Timer timer = BuildReport.start(report, false);
+    while (staxParser.hasNext()) {
+      Entry entry = staxParser.next();
+      timer.lap(BuildPhase.PARSE);
+      if (entry != null) {
+        entry.setLang(lang);
+        luceneIndexer.write(entry);
+        timer.restart();
+      }
+    }
+  }
+
+  private void indexEntriesPipelined(Language lang) throws IOException, XMLStreamException {
+    IndexingPipeline pipeline = new IndexingPipeline(luceneIndexer, workers, queueSize);
+    pipeline.start();
+    BuildReport.Timer timer = BuildReport.start(report, false);
+    try {
+      while (staxParser.hasNext()) {
+        Entry entry = staxParser.next();
+        timer.lap(BuildPhase.PARSE);
+        if (entry != null) {
+          entry.setLang(lang);
+          pipeline.put(entry);
+          timer.restart();
+        }
+      }
+      pipeline.finish();
+    } finally {
+      pipeline.abort();
+    }
+  }
+
   /**
    * Create the spell checking index from the main index.
    *
@@ -71,17 +401,34 @@ public class Service {
    */
   public void indexSuggestions(String indexDir, String spellcheckDir) {
 
+    if (reportFile == null) {
+      report = null;
+    } else if (report == null) {
+      report = new BuildReport();
+    }
+
     try {
 
+      final BuildReport.Timer timer = BuildReport.start(report, true);
+
       luceneIndexer.setIndexDir(indexDir);
       luceneIndexer.openIndexReader();
       luceneIndexer.setSpellingDir(spellcheckDir);
+      luceneIndexer.setSpellingThreads(spellingThreads);
+      luceneIndexer.setMemoryBudget(memoryBudget * MEGABYTE);
       luceneIndexer.openSpellChecker();
 
       luceneIndexer.createSuggestions();
 
       luceneIndexer.closeSpellChecker();
       luceneIndexer.closeIndexReader();
+      timer.lap(BuildPhase.SPELLING);
+
+      if (report != null) {
+        report.updatePeakHeap();
+        report.setSpelling(BuildReport.IndexStats.of(new File(spellcheckDir)));
+        report.write(reportFile);
+      }
 
     } catch (IOException ex) {
       LOGGER.error(ex.getMessage(), ex);
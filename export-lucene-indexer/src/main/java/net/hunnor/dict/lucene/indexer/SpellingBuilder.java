@@ -0,0 +1,155 @@
+package net.hunnor.dict.lucene.indexer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.spell.LuceneDictionary;
+import org.apache.lucene.search.spell.SpellChecker;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+
+/**
+ * Builds the spelling index from several dictionaries with a pool of threads.
+ *
+ * <p>The words of the dictionaries are collected in order without duplicates, and the words
+ * that are already in the spelling index are left out, the same as when the dictionaries are
+ * indexed one after the other. The words are split into chunks, the n-gram documents of each
+ * chunk are built in memory by a separate {@link SpellChecker}, and the chunks are added to the
+ * spelling index in order.
+ */
+public class SpellingBuilder {
+
+  private final int threads;
+
+  /**
+   * Create a builder.
+   *
+   * @param threads the number of chunks built at the same time
+   */
+  public SpellingBuilder(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * Add the terms of fields of the main index to the spelling index.
+   *
+   * @param spellChecker the spell checker of the spelling index
+   * @param spellingDirectory the directory of the spelling index
+   * @param indexReader the reader of the main index
+   * @param fields the fields to take the words from, in order
+   * @throws IOException when thrown by Lucene, or if the thread is interrupted
+   */
+  public void build(SpellChecker spellChecker, Directory spellingDirectory,
+      IndexReader indexReader, String... fields) throws IOException {
+
+    Set<String> words = new LinkedHashSet<>();
+    for (String field : fields) {
+      BytesRefIterator iterator = new LuceneDictionary(indexReader, field).getWordsIterator();
+      for (BytesRef word = iterator.next(); word != null; word = iterator.next()) {
+        words.add(word.utf8ToString());
+      }
+    }
+    List<String> missing = new ArrayList<>();
+    for (String word : words) {
+      if (!spellChecker.exist(word)) {
+        missing.add(word);
+      }
+    }
+    if (missing.isEmpty()) {
+      return;
+    }
+
+    int chunks = Math.min(threads, missing.size());
+    AtomicInteger counter = new AtomicInteger();
+    ExecutorService executorService = Executors.newFixedThreadPool(chunks, runnable -> {
+      Thread thread = new Thread(runnable, "spelling-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    Directory[] directories = new Directory[chunks];
+    try {
+      List<Future<Directory>> futures = new ArrayList<>();
+      for (int i = 0; i < chunks; i++) {
+        List<String> chunk = missing.subList(
+            (int) ((long) missing.size() * i / chunks),
+            (int) ((long) missing.size() * (i + 1) / chunks));
+        futures.add(executorService.submit(() -> buildChunk(chunk)));
+      }
+      for (int i = 0; i < chunks; i++) {
+        directories[i] = futures.get(i).get();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(ex.getMessage());
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter = new IndexWriter(spellingDirectory, indexWriterConfig)) {
+      indexWriter.addIndexes(directories);
+    }
+    for (Directory directory : directories) {
+      directory.close();
+    }
+    // Reopen the searcher of the spell checker on the merged index
+    spellChecker.setSpellIndex(spellingDirectory);
+
+  }
+
+  private static Directory buildChunk(List<String> words) throws IOException {
+    RAMDirectory directory = new RAMDirectory();
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (SpellChecker chunk = new SpellChecker(directory)) {
+      chunk.indexDictionary(() -> new WordIterator(words), indexWriterConfig, false);
+    }
+    return directory;
+  }
+
+  private static final class WordIterator implements BytesRefIterator {
+
+    private final List<String> words;
+
+    private int next;
+
+    private WordIterator(List<String> words) {
+      this.words = words;
+    }
+
+    @Override
+    public BytesRef next() {
+      return next < words.size() ? new BytesRef(words.get(next++)) : null;
+    }
+
+    @Override
+    public Comparator<BytesRef> getComparator() {
+      return null;
+    }
+
+  }
+
+}
@@ -1,11 +1,7 @@
 package net.hunnor.dict.lucene.indexer;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.io.InputStream;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
@@ -46,36 +42,15 @@ public class StaxParser {
 
   public static final String TRANS = "trans";
 
-  private FileInputStream stream;
+  private InputStream stream;
 
   private XMLStreamReader reader;
 
-  private static Map<String, String> glues;
+  private InputStrategy inputStrategy = InputStrategy.BUFFERED;
 
-  private static Set<String> textNodes;
+  private final ParserState parserState = new ParserState();
 
-  static {
-    glues = new HashMap<>();
-    glues.put(TRANS + "2" + LBL, ", ");
-    glues.put(LBL + "2" + LBL, " ");
-    glues.put(EG + "2" + LBL, "; ");
-    glues.put(TRANS + "2" + EG, "; ");
-    glues.put(EG + "2" + EG, "; ");
-    glues.put(LBL + "2" + EG, " ");
-    glues.put(TRANS + "2" + TRANS, ", ");
-    glues.put(LBL + "2" + TRANS, " ");
-    glues.put(EG + "2" + TRANS, "; ");
-
-    textNodes = new HashSet<>();
-    textNodes.add(ORTH);
-    textNodes.add(POS);
-    textNodes.add(INFL_SEQ);
-    textNodes.add(TRANS);
-    textNodes.add(LBL);
-    textNodes.add(Q);
-  }
-
-  public void setStream(FileInputStream stream) {
+  public void setStream(InputStream stream) {
     this.stream = stream;
   }
 
@@ -83,27 +58,40 @@ public class StaxParser {
     this.reader = reader;
   }
 
+  public InputStrategy getInputStrategy() {
+    return inputStrategy;
+  }
+
+  public void setInputStrategy(InputStrategy inputStrategy) {
+    this.inputStrategy = inputStrategy;
+  }
+
   /**
-   * Open a stream from an XML file.
+   * Open a stream from an XML file with the input strategy of the parser. Files compressed with
+   * gzip are decompressed.
    *
    * @param file the file to open
    */
   public void openFile(String file) {
     try {
       if (stream == null) {
-        stream = new FileInputStream(file);
+        stream = inputStrategy.open(file);
       }
       if (reader == null) {
-        XMLInputFactory xmlInputFactory2 = XMLInputFactory.newInstance();
-        xmlInputFactory2.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-        xmlInputFactory2.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
-        reader = xmlInputFactory2.createXMLStreamReader(stream);
+        reader = newInputFactory().createXMLStreamReader(stream);
       }
     } catch (IOException | XMLStreamException ex) {
       LOGGER.error(ex.getMessage(), ex);
     }
   }
 
+  static XMLInputFactory newInputFactory() {
+    XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+    xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    return xmlInputFactory;
+  }
+
   /**
    * Close the stream of the XML file.
    *
@@ -116,6 +104,10 @@ public class StaxParser {
       stream.close();
     } catch (IOException | XMLStreamException ex) {
       LOGGER.error(ex.getMessage(), ex);
+    } finally {
+      // Allow the parser to open the next file
+      reader = null;
+      stream = null;
     }
   }
 
@@ -125,26 +117,27 @@ public class StaxParser {
 
   /**
    * Returns the next entry from the stream, or null if the stream end before an entry can be
-   * constructed.
+   * constructed. The parser state and its buffers are reused for every entry.
    *
    * @return an Entry with data from the stream, or null
    * @throws XMLStreamException if an error occurs while reading from the stream
    */
   public Entry next() throws XMLStreamException {
-    ParserState parserState = new ParserState();
+    parserState.reset();
     while (reader.hasNext() && !parserState.isEntryComplete()) {
       int eventType = reader.next();
       switch (eventType) {
         case XMLStreamConstants.START_ELEMENT:
-          processStartElement(reader.getLocalName(), parserState);
+          processStartElement(Element.of(reader.getLocalName()), parserState);
           break;
         case XMLStreamConstants.CHARACTERS:
           if (parserState.isCollectText()) {
-            parserState.getCharacters().append(reader.getText());
+            parserState.getCharacters().append(
+                reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
           }
           break;
         case XMLStreamConstants.END_ELEMENT:
-          processEndElement(reader.getLocalName(), parserState);
+          processEndElement(Element.of(reader.getLocalName()), parserState);
           break;
         default:
           break;
@@ -153,85 +146,120 @@ public class StaxParser {
     return parserState.getEntry();
   }
 
-  private void processStartElement(String element, ParserState parserState) {
-    processEntryStart(element, parserState);
-    processFormGrpStart(element, parserState);
-    processFormStart(element, parserState);
-    processInflCodeStart(element, parserState);
-    processInflParStart(element, parserState);
-    processSenseGrpStart(element, parserState);
-    processSenseStart(element, parserState);
-    processEgStart(element, parserState);
-    processStart(element, parserState);
-  }
-
-  private void processEndElement(String element, ParserState parserState) {
-    processEntryEnd(element, parserState);
-    processFormEnd(element, parserState);
-    processOrthEnd(element, parserState);
-    processPosEnd(element, parserState);
-    processInflCodeEnd(element, parserState);
-    processInflParEnd(element, parserState);
-    processInflSeqEnd(element, parserState);
-    processSenseGrpEnd(element, parserState);
-    processSenseEnd(element, parserState);
-    processTransEnd(element, parserState);
-    processLblEnd(element, parserState);
-    processEgEnd(element, parserState);
-    processQEnd(element, parserState);
-    processEnd(element, parserState);
-  }
-
-  private void processEntryStart(String element, ParserState parserState) {
-    if (!ENTRY.equals(element)) {
-      return;
+  private void processStartElement(Element element, ParserState parserState) {
+    switch (element) {
+      case ENTRY:
+        processEntryStart(parserState);
+        break;
+      case FORM_GRP:
+        processFormGrpStart(parserState);
+        break;
+      case FORM:
+        processFormStart(parserState);
+        break;
+      case INFL_CODE:
+        processInflCodeStart(parserState);
+        break;
+      case INFL_PAR:
+        processInflParStart(parserState);
+        break;
+      case SENSE_GRP:
+        processSenseGrpStart(parserState);
+        break;
+      case SENSE:
+        processSenseStart(parserState);
+        break;
+      case EG:
+        processEgStart(parserState);
+        break;
+      default:
+        break;
+    }
+    if (element.isText()) {
+      parserState.setCollectText(true);
+    }
+  }
+
+  private void processEndElement(Element element, ParserState parserState) {
+    switch (element) {
+      case ENTRY:
+        processEntryEnd(parserState);
+        break;
+      case FORM:
+        processFormEnd(parserState);
+        break;
+      case ORTH:
+        processOrthEnd(parserState);
+        break;
+      case POS:
+        processPosEnd(parserState);
+        break;
+      case INFL_CODE:
+        processInflCodeEnd(parserState);
+        break;
+      case INFL_PAR:
+        processInflParEnd(parserState);
+        break;
+      case INFL_SEQ:
+        processInflSeqEnd(parserState);
+        break;
+      case SENSE_GRP:
+        processSenseGrpEnd(parserState);
+        break;
+      case SENSE:
+        processSenseEnd(parserState);
+        break;
+      case TRANS:
+        processTransEnd(parserState);
+        break;
+      case LBL:
+        processLblEnd(parserState);
+        break;
+      case EG:
+        processEgEnd(parserState);
+        break;
+      case Q:
+        processQEnd(parserState);
+        break;
+      default:
+        break;
     }
+    parserState.setPrevious(element);
+    parserState.getCharacters().setLength(0);
+  }
+
+  private void processEntryStart(ParserState parserState) {
     Entry entry = new Entry();
     entry.setId(reader.getAttributeValue(null, "id"));
     parserState.setEntry(entry);
-    parserState.setText(new StringBuilder());
-    parserState.setSenseGrpBuilder(new StringBuilder());
+    parserState.getText().setLength(0);
+    parserState.getSenseGrpBuffer().setLength(0);
   }
 
-  private void processFormGrpStart(String element, ParserState parserState) {
-    if (!FORM_GRP.equals(element)) {
-      return;
-    }
-    parserState.setFormBuffer(new StringBuilder());
+  private void processFormGrpStart(ParserState parserState) {
+    parserState.getFormBuffer().setLength(0);
   }
 
-  private void processFormStart(String element, ParserState parserState) {
-    if (!FORM.equals(element)) {
-      return;
-    }
-    parserState.setInflParBuffer(new StringBuilder());
+  private void processFormStart(ParserState parserState) {
+    parserState.getInflParBuffer().setLength(0);
     parserState.setPrimaryForm("yes".equals(reader.getAttributeValue(null, "primary")));
   }
 
-  private void processInflCodeStart(String element, ParserState parserState) {
-    if (!INFL_CODE.equals(element)) {
-      return;
-    }
+  private void processInflCodeStart(ParserState parserState) {
     if ("suff".equals(reader.getAttributeValue(null, "type"))) {
       parserState.setCollectText(true);
     }
   }
 
-  private void processInflParStart(String element, ParserState parserState) {
-    if (!INFL_PAR.equals(element)) {
-      return;
-    }
+  private void processInflParStart(ParserState parserState) {
     if (parserState.getInflParBuffer().length() > 0) {
       parserState.getInflParBuffer().append("; ");
     }
-    parserState.setInflSeqBuffer(new StringBuilder());
+    parserState.getInflSeqBuffer().setLength(0);
   }
 
-  private void processSenseGrpStart(String element, ParserState parserState) {
-    if (!SENSE_GRP.equals(element)) {
-      return;
-    }
-    parserState.setSenseBuffer(new StringBuilder());
+  private void processSenseGrpStart(ParserState parserState) {
+    parserState.getSenseBuffer().setLength(0);
     int senseGrpCount = parserState.getSenseGrpCount();
     if (senseGrpCount > 0) {
       if (senseGrpCount == 1) {
@@ -239,40 +267,30 @@ public class StaxParser {
       }
       parserState
           .getSenseGrpBuffer()
-          .append(" <b>" + RomanNumerals.roman(senseGrpCount + 1) + "</b> ");
+          .append(" <b>")
+          .append(RomanNumerals.roman(senseGrpCount + 1))
+          .append("</b> ");
     }
   }
 
-  private void processSenseStart(String element, ParserState parserState) {
-    if (!SENSE.equals(element)) {
-      return;
-    }
+  private void processSenseStart(ParserState parserState) {
     if (parserState.getSenseCount() > 0) {
       if (parserState.getSenseCount() == 1) {
         parserState.getSenseBuffer().insert(0, "<b>1</b> ");
       }
-      parserState.getSenseBuffer().append(" <b>" + (parserState.getSenseCount() + 1) + "</b> ");
+      parserState.getSenseBuffer()
+          .append(" <b>")
+          .append(parserState.getSenseCount() + 1)
+          .append("</b> ");
     }
   }
 
-  private void processEgStart(String element, ParserState parserState) {
-    if (!EG.equals(element)) {
-      return;
-    }
-    parserState.setEgBuffer(new StringBuilder());
+  private void processEgStart(ParserState parserState) {
+    parserState.getEgBuffer().setLength(0);
     parserState.setEg(true);
   }
 
-  private void processStart(String element, ParserState parserState) {
-    if (isTextNode(element)) {
-      parserState.setCollectText(true);
-    }
-  }
-
-  private void processEntryEnd(String element, ParserState parserState) {
-    if (!ENTRY.equals(element)) {
-      return;
-    }
+  private void processEntryEnd(ParserState parserState) {
     parserState
         .getText()
         .append(parserState.getFormBuffer())
@@ -282,10 +300,7 @@ public class StaxParser {
     parserState.setEntryComplete(true);
   }
 
-  private void processFormEnd(String element, ParserState parserState) {
-    if (!FORM.equals(element)) {
-      return;
-    }
+  private void processFormEnd(ParserState parserState) {
     if (parserState.getInflParBuffer().length() > 0) {
       parserState.getFormBuffer()
           .append("<br/><small>")
@@ -294,147 +309,100 @@ public class StaxParser {
     }
   }
 
-  private void processOrthEnd(String element, ParserState parserState) {
-    if (!ORTH.equals(element)) {
-      return;
-    }
-    parserState.getEntry().getRoots().add(parserState.getCharacters().toString());
+  private void processOrthEnd(ParserState parserState) {
+    String orth = parserState.getCharacters().toString();
+    parserState.getEntry().getRoots().add(orth);
     if (parserState.getEntry().getSort() == null) {
-      parserState.getEntry().setSort(parserState.getCharacters().toString());
+      parserState.getEntry().setSort(orth);
     }
     if (parserState.getFormBuffer().length() > 0) {
       parserState.getFormBuffer().append("<br/>");
     }
-    parserState.getFormBuffer().append("<b>" + parserState.getCharacters().toString() + "</b>");
+    parserState.getFormBuffer().append("<b>").append(orth).append("</b>");
     parserState.setCollectText(false);
   }
 
-  private void processPosEnd(String element, ParserState parserState) {
-    if (!POS.equals(element)) {
-      return;
-    }
+  private void processPosEnd(ParserState parserState) {
     if (parserState.isPrimaryForm()) {
-      parserState.getFormBuffer().append(" " + parserState.getCharacters().toString());
+      parserState.getFormBuffer().append(' ').append(parserState.getCharacters());
     }
     parserState.setCollectText(false);
   }
 
-  private void processInflCodeEnd(String element, ParserState parserState) {
-    if (!INFL_CODE.equals(element)) {
-      return;
-    }
+  private void processInflCodeEnd(ParserState parserState) {
     if (parserState.getCharacters().length() > 0) {
-      parserState.getFormBuffer().append(" " + parserState.getCharacters().toString());
+      parserState.getFormBuffer().append(' ').append(parserState.getCharacters());
     }
     parserState.setCollectText(false);
   }
 
-  private void processInflParEnd(String element, ParserState parserState) {
-    if (!INFL_PAR.equals(element)) {
-      return;
-    }
+  private void processInflParEnd(ParserState parserState) {
     parserState.getInflParBuffer().append(parserState.getInflSeqBuffer());
     parserState.setCollectText(false);
   }
 
-  private void processInflSeqEnd(String element, ParserState parserState) {
-    if (!INFL_SEQ.equals(element)) {
-      return;
-    }
+  private void processInflSeqEnd(ParserState parserState) {
     parserState.getEntry().getForms().add(parserState.getCharacters().toString());
     if (parserState.getInflSeqBuffer().length() > 0) {
       parserState.getInflSeqBuffer().append(", ");
     }
-    parserState.getInflSeqBuffer().append(parserState.getCharacters().toString());
+    parserState.getInflSeqBuffer().append(parserState.getCharacters());
     parserState.setCollectText(false);
   }
 
-  private void processSenseGrpEnd(String element, ParserState parserState) {
-    if (!SENSE_GRP.equals(element)) {
-      return;
-    }
+  private void processSenseGrpEnd(ParserState parserState) {
     parserState.getSenseGrpBuffer().append(parserState.getSenseBuffer());
     parserState.setSenseGrpCount(parserState.getSenseGrpCount() + 1);
     parserState.setSenseCount(0);
   }
 
-  private void processSenseEnd(String element, ParserState parserState) {
-    if (!SENSE.equals(element)) {
-      return;
-    }
+  private void processSenseEnd(ParserState parserState) {
     parserState.setSenseCount(parserState.getSenseCount() + 1);
   }
 
-  private void processTransEnd(String element, ParserState parserState) {
-    if (!TRANS.equals(element)) {
-      return;
-    }
+  private void processTransEnd(ParserState parserState) {
+    String trans = parserState.getCharacters().toString();
     if (parserState.isEg()) {
-      parserState.getEntry().getQuoteTrans().add(parserState.getCharacters().toString());
-      if (TRANS.equals(parserState.getPrevious())) {
+      parserState.getEntry().getQuoteTrans().add(trans);
+      if (parserState.getPrevious() == Element.TRANS) {
         parserState.getEgBuffer().append(", ");
-      } else if (LBL.equals(parserState.getPrevious())
-          || Q.equals(parserState.getPrevious())) {
+      } else if (parserState.getPrevious() == Element.LBL
+          || parserState.getPrevious() == Element.Q) {
         parserState.getEgBuffer().append(" ");
       }
-      parserState.getEgBuffer().append(parserState.getCharacters().toString());
+      parserState.getEgBuffer().append(trans);
     } else {
-      parserState.getEntry().getTrans().add(parserState.getCharacters().toString());
-      parserState.getSenseBuffer().append(getGlue(element, parserState.getPrevious()));
-      parserState.getSenseBuffer().append(parserState.getCharacters().toString());
+      parserState.getEntry().getTrans().add(trans);
+      parserState.getSenseBuffer().append(Element.glue(parserState.getPrevious(), Element.TRANS));
+      parserState.getSenseBuffer().append(trans);
     }
     parserState.setCollectText(false);
   }
 
-  private void processLblEnd(String element, ParserState parserState) {
-    if (!LBL.equals(element)) {
-      return;
-    }
+  private void processLblEnd(ParserState parserState) {
     if (parserState.getSenseBuffer().length() > 0) {
-      parserState.getSenseBuffer().append(getGlue(element, parserState.getPrevious()));
+      parserState.getSenseBuffer().append(Element.glue(parserState.getPrevious(), Element.LBL));
     }
-    parserState.getSenseBuffer().append("<i>" + parserState.getCharacters().toString() + "</i>");
+    parserState.getSenseBuffer().append("<i>").append(parserState.getCharacters()).append("</i>");
     parserState.setCollectText(false);
   }
 
-  private void processEgEnd(String element, ParserState parserState) {
-    if (!EG.equals(element)) {
-      return;
-    }
+  private void processEgEnd(ParserState parserState) {
     parserState.setEg(false);
     if (parserState.getSenseBuffer().length() > 0) {
-      parserState.getSenseBuffer().append(getGlue(element, parserState.getPrevious()));
+      parserState.getSenseBuffer().append(Element.glue(parserState.getPrevious(), Element.EG));
     }
     parserState.getSenseBuffer().append(parserState.getEgBuffer());
   }
 
-  private void processQEnd(String element, ParserState parserState) {
-    if (!Q.equals(element)) {
-      return;
-    }
-    parserState.getEntry().getQuote().add(parserState.getCharacters().toString());
+  private void processQEnd(ParserState parserState) {
+    String quote = parserState.getCharacters().toString();
+    parserState.getEntry().getQuote().add(quote);
     parserState.setCollectText(false);
     if (parserState.getEgBuffer().length() > 0) {
       parserState.getEgBuffer().append(", ");
     }
-    parserState.getEgBuffer().append("<b>" + parserState.getCharacters().toString() + "</b>");
-  }
-
-  private void processEnd(String element, ParserState parserState) {
-    parserState.setPrevious(element);
-    parserState.setCharacters(new StringBuilder());
-  }
-
-  private String getGlue(String element, String previous) {
-    String glue = glues.get(previous + "2" + element);
-    if (glue == null) {
-      glue = "";
-    }
-    return glue;
-  }
-
-  private boolean isTextNode(String elementName) {
-    return textNodes.contains(elementName);
+    parserState.getEgBuffer().append("<b>").append(quote).append("</b>");
   }
 
 }
@@ -1,10 +1,20 @@
 package net.hunnor.dict.lucene;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import javax.xml.stream.XMLStreamException;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.tools.ant.BuildException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -38,6 +48,129 @@ class AntTaskTest {
     assertEquals("spelling", task.getSpelling());
   }
 
+  @Test
+  void testWorkers() {
+    AntTask task = new AntTask();
+    task.setWorkers(4);
+    assertEquals(4, task.getWorkers());
+  }
+
+  @Test
+  void testQueueSize() {
+    AntTask task = new AntTask();
+    task.setQueueSize(16);
+    assertEquals(16, task.getQueueSize());
+  }
+
+  @Test
+  void testCompletion() {
+    AntTask task = new AntTask();
+    task.setCompletion(true);
+    assertTrue(task.isCompletion());
+  }
+
+  @Test
+  void testSuggestionDocuments() {
+    AntTask task = new AntTask();
+    assertTrue(task.isSuggestionDocuments());
+    task.setSuggestionDocuments(false);
+    assertFalse(task.isSuggestionDocuments());
+  }
+
+  @Test
+  void testCompactText() {
+    AntTask task = new AntTask();
+    assertFalse(task.isCompactText());
+    task.setCompactText(true);
+    assertTrue(task.isCompactText());
+  }
+
+  @Test
+  void testSortRanks() {
+    AntTask task = new AntTask();
+    assertFalse(task.isSortRanks());
+    task.setSortRanks(true);
+    assertTrue(task.isSortRanks());
+  }
+
+  @Test
+  void testHeadwordTable() {
+    AntTask task = new AntTask();
+    assertFalse(task.isHeadwordTable());
+    task.setHeadwordTable(true);
+    assertTrue(task.isHeadwordTable());
+  }
+
+  @Test
+  void testSpellingThreads() {
+    AntTask task = new AntTask();
+    task.setSpellingThreads(2);
+    assertEquals(2, task.getSpellingThreads());
+  }
+
+  @Test
+  void testParserThreads() {
+    AntTask task = new AntTask();
+    task.setParserThreads(4);
+    assertEquals(4, task.getParserThreads());
+  }
+
+  @Test
+  void testInput() {
+    AntTask task = new AntTask();
+    assertEquals("BUFFERED", task.getInput());
+    task.setInput("MAPPED");
+    assertEquals("MAPPED", task.getInput());
+  }
+
+  @Test
+  void testIncremental() {
+    AntTask task = new AntTask();
+    assertFalse(task.isIncremental());
+    task.setIncremental(true);
+    assertTrue(task.isIncremental());
+  }
+
+  @Test
+  void testProfile() {
+    AntTask task = new AntTask();
+    assertEquals("DEFAULT", task.getProfile());
+    task.setProfile("BULK");
+    assertEquals("BULK", task.getProfile());
+  }
+
+  @Test
+  void testCreate() {
+    AntTask task = new AntTask();
+    assertFalse(task.isCreate());
+    task.setCreate(true);
+    assertTrue(task.isCreate());
+  }
+
+  @Test
+  void testMaxSegments() {
+    AntTask task = new AntTask();
+    assertEquals(0, task.getMaxSegments());
+    task.setMaxSegments(1);
+    assertEquals(1, task.getMaxSegments());
+  }
+
+  @Test
+  void testMemoryBudget() {
+    AntTask task = new AntTask();
+    assertEquals(0, task.getMemoryBudget());
+    task.setMemoryBudget(512);
+    assertEquals(512, task.getMemoryBudget());
+  }
+
+  @Test
+  void testReport() {
+    AntTask task = new AntTask();
+    assertNull(task.getReport());
+    task.setReport("report.json");
+    assertEquals("report.json", task.getReport());
+  }
+
   @Test
   void testExecute(@TempDir File tempDir) throws IOException {
 
@@ -61,4 +194,102 @@ class AntTaskTest {
 
   }
 
+  @Test
+  void testExecuteReport(@TempDir File tempDir) throws IOException {
+
+    File xmlFile = new File("src/test/resources/xml/sample-entry-entry.xml");
+    File report = new File(tempDir, "report.json");
+
+    AntTask task = new AntTask();
+    task.setLanguage("HU");
+    task.setMain(new File(tempDir, "index").getAbsolutePath());
+    task.setSource(xmlFile.getAbsolutePath());
+    task.setSpelling(new File(tempDir, "spelling").getAbsolutePath());
+    task.setReport(report.getAbsolutePath());
+
+    task.execute();
+
+    String json = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+    assertTrue(json.contains("\"language\": \"HU\""));
+    assertTrue(json.contains("\"entries\": 2,"));
+    assertFalse(json.contains("\"spelling\": null"));
+
+  }
+
+  @Test
+  void testExecuteIncremental(@TempDir File tempDir) throws IOException {
+
+    File xmlFile = new File("src/test/resources/xml/sample-entry-entry.xml");
+    File indexDir = new File(tempDir, "index");
+
+    AntTask task = new AntTask();
+    task.setLanguage("HU");
+    task.setMain(indexDir.getAbsolutePath());
+    task.setSource(xmlFile.getAbsolutePath());
+    task.setSpelling(new File(tempDir, "spelling").getAbsolutePath());
+    task.setIncremental(true);
+
+    task.execute();
+    task.execute();
+
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      assertEquals(2, indexReader.numDocs());
+    }
+
+  }
+
+  @Test
+  void testExecuteIncrementalWithoutKeys(@TempDir File tempDir) throws IOException {
+
+    File xmlFile = new File("src/test/resources/xml/sample-entry-entry.xml");
+    File indexDir = new File(tempDir, "index");
+    File spellingDir = new File(tempDir, "spelling");
+
+    AntTask task = new AntTask();
+    task.setLanguage("HU");
+    task.setMain(indexDir.getAbsolutePath());
+    task.setSource(xmlFile.getAbsolutePath());
+    task.setSpelling(spellingDir.getAbsolutePath());
+    task.execute();
+    int documents;
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      documents = indexReader.numDocs();
+    }
+
+    task.setIncremental(true);
+    task.setSpelling(new File(tempDir, "spelling-incremental").getAbsolutePath());
+    BuildException ex = assertThrows(BuildException.class, task::execute);
+    assertTrue(ex.getCause() instanceof IOException);
+    // The spelling index is not built after the failure
+    assertFalse(new File(tempDir, "spelling-incremental").exists());
+
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      assertEquals(documents, indexReader.numDocs());
+    }
+
+  }
+
+  @Test
+  void testExecuteFileTooLarge(@TempDir File tempDir) throws IOException {
+
+    File xmlFile = new File(tempDir, "export.xml");
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(xmlFile, "rw")) {
+      // A sparse file, no disk space is used
+      randomAccessFile.setLength(Integer.MAX_VALUE + 1L);
+    }
+    File spellingDir = new File(tempDir, "spelling");
+
+    AntTask task = new AntTask();
+    task.setLanguage("HU");
+    task.setMain(new File(tempDir, "index").getAbsolutePath());
+    task.setSource(xmlFile.getAbsolutePath());
+    task.setSpelling(spellingDir.getAbsolutePath());
+    task.setParserThreads(2);
+
+    BuildException ex = assertThrows(BuildException.class, task::execute);
+    assertTrue(ex.getCause() instanceof XMLStreamException);
+    assertFalse(spellingDir.exists());
+
+  }
+
 }
@@ -0,0 +1,110 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import net.hunnor.dict.lucene.constants.Lucene;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BuildReportTest {
+
+  @Test
+  void testEmpty() {
+    BuildReport report = new BuildReport();
+    assertNull(report.getFile());
+    assertEquals(0, report.getEntries());
+    assertEquals(0, report.getEntriesPerSecond());
+    String json = report.toJson();
+    assertTrue(json.startsWith("{\n  \"file\": null,\n"));
+    assertTrue(json.contains("    \"parse\": {\"wallMillis\": 0, \"cpuMillis\": 0},\n"));
+    assertTrue(json.endsWith("  \"index\": null,\n  \"spelling\": null\n}\n"));
+  }
+
+  @Test
+  void testTimer() {
+    BuildReport report = new BuildReport();
+    BuildReport.Timer timer = BuildReport.start(report, false);
+    timer.lap(BuildPhase.PARSE);
+    timer.restart();
+    timer.lap(BuildPhase.WRITE);
+    report.add(BuildPhase.WRITE, 3_000_000, 2_000_000);
+    assertEquals(2, report.getCpuMillis(BuildPhase.WRITE));
+    assertTrue(report.getWallMillis(BuildPhase.WRITE) >= 3);
+    assertEquals(0, report.getWallMillis(BuildPhase.CLOSE));
+    BuildReport.start(null, true).lap(BuildPhase.CLOSE);
+  }
+
+  @Test
+  void testCounts(@TempDir File tempDir) throws IOException {
+    File file = new File("src/test/resources/xml/sample-entry-entry.xml");
+    BuildReport report = new BuildReport();
+    report.begin(file.getPath(), "HU");
+    report.entry(2);
+    report.entry(1);
+    report.flushed();
+    report.merged(5_000_000);
+    report.end();
+    assertEquals(file.getPath(), report.getFile());
+    assertEquals("HU", report.getLanguage());
+    assertEquals(2, report.getEntries());
+    assertEquals(3, report.getDocuments());
+    assertEquals(1, report.getFlushes());
+    assertEquals(1, report.getMerges());
+    assertEquals(5, report.getMergeMillis());
+    assertEquals(file.length(), report.getBytesRead());
+    assertEquals(file.length(), report.getUncompressedBytes());
+    assertTrue(report.getPeakHeapBytes() > 0);
+    File reportFile = new File(tempDir, "report.json");
+    report.write(reportFile);
+    assertEquals(report.toJson(),
+        new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8));
+    assertFalse(new File(tempDir, "report.json.tmp").exists());
+  }
+
+  @Test
+  void testString() {
+    assertEquals("null", BuildReport.string(null));
+    assertEquals("\"a\\\"b\\\\c\\n\\t\"", BuildReport.string("a\"b\\c\n\t"));
+  }
+
+  @Test
+  void testIndexStats(@TempDir File tempDir) throws IOException {
+    LuceneIndexer indexer = new LuceneIndexer();
+    indexer.setIndexDir(tempDir.getAbsolutePath());
+    indexer.openIndexWriter();
+    for (String id : new String[] {"1", "2"}) {
+      Entry entry = new Entry();
+      entry.setLang(Language.HU);
+      entry.setId(id);
+      entry.setRoots(new HashSet<>(Arrays.asList("alma", "fa" + id)));
+      entry.setForms(Collections.emptySet());
+      entry.setQuote(Collections.emptySet());
+      entry.setTrans(Collections.emptySet());
+      indexer.write(entry);
+    }
+    indexer.closeIndexWriter();
+    BuildReport.IndexStats stats = BuildReport.IndexStats.of(tempDir);
+    assertEquals(1, stats.getSegments());
+    assertTrue(stats.getFiles().containsKey("segments"));
+    assertEquals(stats.getBytes(),
+        stats.getFiles().values().stream().mapToLong(Long::longValue).sum());
+    assertEquals(3, stats.getTerms(Lucene.HU_ROOTS));
+    assertEquals(4, stats.getPostings(Lucene.HU_ROOTS));
+    assertTrue(stats.getFields().contains(Lucene.HU_ROOTS));
+    assertEquals(0, stats.getTerms("missing"));
+    assertEquals(0, stats.getPostings("missing"));
+  }
+
+}
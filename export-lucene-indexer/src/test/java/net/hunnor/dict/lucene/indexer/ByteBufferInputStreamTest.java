@@ -0,0 +1,31 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class ByteBufferInputStreamTest {
+
+  @Test
+  void testRead() {
+    ByteBufferInputStream stream =
+        new ByteBufferInputStream(ByteBuffer.wrap(new byte[] {1, (byte) 0xff, 3, 4, 5, 6}));
+    assertEquals(6, stream.available());
+    assertEquals(1, stream.read());
+    assertEquals(0xff, stream.read());
+    byte[] bytes = new byte[3];
+    assertEquals(0, stream.read(bytes, 0, 0));
+    assertEquals(2, stream.read(bytes, 1, 2));
+    assertArrayEquals(new byte[] {0, 3, 4}, bytes);
+    assertEquals(1, stream.skip(1));
+    assertEquals(1, stream.read(bytes, 0, 3));
+    assertEquals(6, bytes[0]);
+    assertEquals(0, stream.available());
+    assertEquals(-1, stream.read());
+    assertEquals(-1, stream.read(bytes, 0, 3));
+    assertEquals(0, stream.skip(5));
+  }
+
+}
@@ -0,0 +1,39 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChannelInputStreamTest {
+
+  @Test
+  void testRead(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "bytes");
+    Files.write(file.toPath(), new byte[] {1, (byte) 0xff, 3, 4, 5, 6});
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    ChannelInputStream stream = new ChannelInputStream(channel, 4);
+    assertEquals(0, stream.available());
+    assertEquals(1, stream.read());
+    assertEquals(0xff, stream.read());
+    assertEquals(2, stream.available());
+    byte[] bytes = new byte[3];
+    assertEquals(0, stream.read(bytes, 0, 0));
+    assertEquals(2, stream.read(bytes, 1, 3));
+    assertArrayEquals(new byte[] {0, 3, 4}, bytes);
+    assertEquals(2, stream.read(bytes, 0, 3));
+    assertArrayEquals(new byte[] {5, 6, 4}, bytes);
+    assertEquals(-1, stream.read());
+    assertEquals(-1, stream.read(bytes, 0, 3));
+    stream.close();
+    assertFalse(channel.isOpen());
+  }
+
+}
@@ -0,0 +1,43 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompressionTest {
+
+  @Test
+  void testOf() {
+    assertEquals(Compression.GZIP, Compression.of(new byte[] {0x1f, (byte) 0x8b, 8, 0}, 4));
+    assertEquals(Compression.GZIP, Compression.of(new byte[] {0x1f, (byte) 0x8b, 0, 0}, 2));
+    assertEquals(Compression.ZSTD,
+        Compression.of(new byte[] {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd}, 4));
+    assertEquals(Compression.NONE,
+        Compression.of(new byte[] {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd}, 3));
+    assertEquals(Compression.NONE, Compression.of(new byte[] {'<', '?', 'x', 'm'}, 4));
+    assertEquals(Compression.NONE, Compression.of(new byte[0], 0));
+  }
+
+  @Test
+  void testUncompressedSize(@TempDir File tempDir) throws IOException {
+    File sample = new File("src/test/resources/xml/sample-entry-entry.xml");
+    assertEquals(sample.length(), Compression.uncompressedSize(sample));
+    File file = new File(tempDir, "export.xml.gz");
+    try (OutputStream stream = new GZIPOutputStream(new FileOutputStream(file))) {
+      Files.copy(sample.toPath(), stream);
+    }
+    assertEquals(sample.length(), Compression.uncompressedSize(file));
+    assertEquals(0, Compression.uncompressedSize(new File(tempDir, "no-such-file.xml")));
+    File empty = new File(tempDir, "empty.xml");
+    Files.write(empty.toPath(), new byte[0]);
+    assertEquals(0, Compression.uncompressedSize(empty));
+  }
+
+}
@@ -0,0 +1,45 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ElementTest {
+
+  @Test
+  void testOf() {
+    assertSame(Element.ENTRY, Element.of(StaxParser.ENTRY));
+    assertSame(Element.INFL_SEQ, Element.of(new String(StaxParser.INFL_SEQ.toCharArray())));
+    assertSame(Element.TRANS, Element.of("trans"));
+    assertSame(Element.OTHER, Element.of("hnDict"));
+    assertSame(Element.OTHER, Element.of("Trans"));
+  }
+
+  @Test
+  void testGlue() {
+    assertEquals(", ", Element.glue(Element.TRANS, Element.TRANS));
+    assertEquals(", ", Element.glue(Element.TRANS, Element.LBL));
+    assertEquals("; ", Element.glue(Element.TRANS, Element.EG));
+    assertEquals(" ", Element.glue(Element.LBL, Element.LBL));
+    assertEquals(" ", Element.glue(Element.LBL, Element.EG));
+    assertEquals(" ", Element.glue(Element.LBL, Element.TRANS));
+    assertEquals("; ", Element.glue(Element.EG, Element.LBL));
+    assertEquals("; ", Element.glue(Element.EG, Element.EG));
+    assertEquals("; ", Element.glue(Element.EG, Element.TRANS));
+    assertEquals("", Element.glue(Element.SENSE, Element.TRANS));
+    assertEquals("", Element.glue(Element.OTHER, Element.LBL));
+    assertEquals("", Element.glue(null, Element.TRANS));
+  }
+
+  @Test
+  void testText() {
+    assertTrue(Element.ORTH.isText());
+    assertTrue(Element.Q.isText());
+    assertFalse(Element.INFL_CODE.isText());
+    assertFalse(Element.OTHER.isText());
+  }
+
+}
@@ -0,0 +1,47 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import org.junit.jupiter.api.Test;
+
+class EntryHashTest {
+
+  @Test
+  void testSameContent() {
+    Entry entry1 = entry("1", "alma", "körte");
+    Entry entry2 = entry("1", "körte", "alma");
+    entry2.setLang(Language.NO);
+    // The order of the roots and the language are not part of the hash
+    assertEquals(EntryHash.of(entry1), EntryHash.of(entry2));
+    assertEquals(16, EntryHash.of(entry1).length());
+  }
+
+  @Test
+  void testDifferentContent() {
+    Entry entry = entry("1", "alma", "körte");
+    String hash = EntryHash.of(entry);
+    assertNotEquals(hash, EntryHash.of(entry("2", "alma", "körte")));
+    assertNotEquals(hash, EntryHash.of(entry("1", "alma")));
+    assertNotEquals(hash, EntryHash.of(entry("1", "almakörte")));
+    assertNotEquals(hash, EntryHash.of(entry(null, "alma", "körte")));
+    entry.setText("text");
+    assertNotEquals(hash, EntryHash.of(entry));
+    Entry moved = entry("1", "alma", "körte");
+    moved.getForms().add("text");
+    assertNotEquals(EntryHash.of(entry), EntryHash.of(moved));
+  }
+
+  private static Entry entry(String id, String... roots) {
+    Entry entry = new Entry();
+    entry.setLang(Language.HU);
+    entry.setId(id);
+    entry.setRoots(new LinkedHashSet<>(Arrays.asList(roots)));
+    return entry;
+  }
+
+}
@@ -0,0 +1,140 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.Lock;
+import org.apache.lucene.store.LockObtainFailedException;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IndexCopyTest {
+
+  @Test
+  void testCopy(@TempDir File tempDir) throws IOException {
+    Files.write(new File(tempDir, "_9.fdt").toPath(), new byte[] {1});
+    Files.write(new File(tempDir, "completion.bin").toPath(), new byte[] {1});
+    Directory target = new NIOFSDirectory(tempDir);
+    Directory source = index(target, true, 3);
+    long bytes = 0;
+    for (String file : source.listAll()) {
+      bytes += source.fileLength(file);
+    }
+    assertEquals(bytes, IndexCopy.copy(source, target));
+    assertFalse(new File(tempDir, "_9.fdt").exists());
+    assertTrue(new File(tempDir, "completion.bin").exists());
+    assertEquals(3, documents(target));
+    // A created index continues the segment names of the index it replaces
+    source = index(target, true, 2);
+    for (String file : source.listAll()) {
+      assertFalse(file.startsWith("_") && new File(tempDir, file).exists(), file);
+    }
+    IndexCopy.copy(source, target);
+    assertEquals(2, documents(target));
+    // An appended index shares the files of the index, they are not copied again
+    source = index(target, false, 1);
+    assertTrue(IndexCopy.copy(source, target) < IndexCopy.size(tempDir));
+    assertEquals(3, documents(target));
+  }
+
+  @Test
+  void testFailure(@TempDir File tempDir) throws IOException {
+    Directory target = new NIOFSDirectory(tempDir);
+    IndexCopy.copy(index(target, true, 3), target);
+    Directory source = new RAMDirectory(index(target, true, 2)) {
+      @Override
+      public IndexInput openInput(String name) throws IOException {
+        if (!name.startsWith(IndexFileNames.SEGMENTS)) {
+          throw new IOException("Failure injected while copying " + name);
+        }
+        return super.openInput(name);
+      }
+    };
+    assertThrows(IOException.class, () -> IndexCopy.copy(source, target));
+    // The previous index is still complete
+    assertEquals(3, documents(target));
+    IndexCopy.copy(index(target, true, 2), target);
+    assertEquals(2, documents(target));
+  }
+
+  @Test
+  void testNotBuiltFromTarget(@TempDir File tempDir) throws IOException {
+    Directory target = new NIOFSDirectory(tempDir);
+    IndexCopy.copy(index(target, true, 3), target);
+    Directory source = index(new RAMDirectory(), true, 2);
+    assertThrows(IOException.class, () -> IndexCopy.copy(source, target));
+    assertEquals(3, documents(target));
+  }
+
+  @Test
+  void testLocked(@TempDir File tempDir) throws IOException {
+    Directory target = new NIOFSDirectory(tempDir);
+    Lock lock = target.makeLock(IndexWriter.WRITE_LOCK_NAME);
+    assertTrue(lock.obtain());
+    try {
+      Directory source = index(new RAMDirectory(), true, 1);
+      assertThrows(LockObtainFailedException.class, () -> IndexCopy.copy(source, target));
+    } finally {
+      lock.release();
+    }
+  }
+
+  @Test
+  void testSize(@TempDir File tempDir) throws IOException {
+    assertEquals(0, IndexCopy.size(new File(tempDir, "no-such-dir")));
+    Files.write(new File(tempDir, "a").toPath(), new byte[3]);
+    Files.write(new File(tempDir, "b").toPath(), new byte[4]);
+    assertEquals(7, IndexCopy.size(tempDir));
+  }
+
+  /**
+   * Build an index in memory for a directory, as the indexer does.
+   *
+   * @param target the directory of the index
+   * @param create true to create the index, false to append to the index of the directory
+   * @param documents the number of documents to add
+   * @return the directory of the index in memory
+   * @throws IOException if the index cannot be built
+   */
+  private static Directory index(Directory target, boolean create, int documents)
+      throws IOException {
+    RAMDirectory directory = IndexCopy.open(target, create);
+    IndexWriterConfig indexWriterConfig =
+        new IndexWriterConfig(Lucene.VERSION, PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    indexWriterConfig.setOpenMode(create ? OpenMode.CREATE : OpenMode.CREATE_OR_APPEND);
+    try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+      for (int i = 0; i < documents; i++) {
+        Document document = new Document();
+        document.add(new Field(Lucene.ID, String.valueOf(i), Field.Store.YES,
+            Field.Index.NOT_ANALYZED));
+        indexWriter.addDocument(document);
+      }
+    }
+    return directory;
+  }
+
+  private static int documents(Directory directory) throws IOException {
+    try (IndexReader indexReader = IndexReader.open(directory)) {
+      return indexReader.numDocs();
+    }
+  }
+
+}
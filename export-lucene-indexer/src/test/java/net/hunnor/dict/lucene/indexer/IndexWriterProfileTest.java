@@ -0,0 +1,45 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.junit.jupiter.api.Test;
+
+class IndexWriterProfileTest {
+
+  @Test
+  void testDefault() {
+    IndexWriterConfig indexWriterConfig = config();
+    IndexWriterProfile.DEFAULT.apply(indexWriterConfig);
+    assertEquals(IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB,
+        indexWriterConfig.getRAMBufferSizeMB());
+    assertTrue(((TieredMergePolicy) indexWriterConfig.getMergePolicy()).getUseCompoundFile());
+  }
+
+  @Test
+  void testBulk() {
+    IndexWriterConfig indexWriterConfig = config();
+    IndexWriterProfile.BULK.apply(indexWriterConfig);
+    assertEquals(IndexWriterProfile.BULK_RAM_BUFFER_MB, indexWriterConfig.getRAMBufferSizeMB());
+    TieredMergePolicy mergePolicy = (TieredMergePolicy) indexWriterConfig.getMergePolicy();
+    assertFalse(mergePolicy.getUseCompoundFile());
+    assertEquals(IndexWriterProfile.BULK_SEGMENTS_PER_TIER, mergePolicy.getSegmentsPerTier());
+    assertEquals(IndexWriterProfile.BULK_SEGMENTS_PER_TIER, mergePolicy.getMaxMergeAtOnce());
+    ConcurrentMergeScheduler mergeScheduler =
+        (ConcurrentMergeScheduler) indexWriterConfig.getMergeScheduler();
+    assertTrue(mergeScheduler.getMaxThreadCount() >= 1);
+    assertTrue(mergeScheduler.getMaxThreadCount() <= IndexWriterProfile.BULK_MERGE_THREADS);
+    assertEquals(mergeScheduler.getMaxThreadCount() + 2, mergeScheduler.getMaxMergeCount());
+  }
+
+  private static IndexWriterConfig config() {
+    return new IndexWriterConfig(Lucene.VERSION, PerFieldAnalyzer.getInstance(Lucene.VERSION));
+  }
+
+}
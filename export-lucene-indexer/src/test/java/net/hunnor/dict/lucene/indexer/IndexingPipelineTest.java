@@ -0,0 +1,74 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.time.Duration;
+import net.hunnor.dict.lucene.model.Entry;
+import org.junit.jupiter.api.Test;
+
+class IndexingPipelineTest {
+
+  @Test
+  void testInvalidArguments() {
+    LuceneIndexer indexer = new LuceneIndexer();
+    assertThrows(IllegalArgumentException.class, () -> {
+      new IndexingPipeline(indexer, 0, 1);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      new IndexingPipeline(indexer, 1, 0);
+    });
+  }
+
+  @Test
+  void testAllEntriesWritten() throws IOException {
+    LuceneIndexer indexer = mock(LuceneIndexer.class);
+    IndexingPipeline pipeline = new IndexingPipeline(indexer, 3, 2);
+    pipeline.start();
+    for (int i = 0; i < 100; i++) {
+      pipeline.put(new Entry());
+    }
+    pipeline.finish();
+    verify(indexer, times(100)).write(any(Entry.class));
+  }
+
+  @Test
+  void testWorkerFailure() throws IOException {
+    LuceneIndexer indexer = mock(LuceneIndexer.class);
+    doThrow(new IOException()).when(indexer).write(any(Entry.class));
+    IndexingPipeline pipeline = new IndexingPipeline(indexer, 2, 1);
+    pipeline.start();
+    assertThrows(IOException.class, () -> {
+      for (int i = 0; i < 100; i++) {
+        pipeline.put(new Entry());
+      }
+      pipeline.finish();
+    });
+    pipeline.abort();
+  }
+
+  @Test
+  void testWorkerError() throws IOException {
+    LuceneIndexer indexer = mock(LuceneIndexer.class);
+    doThrow(new StackOverflowError()).when(indexer).write(any(Entry.class));
+    IndexingPipeline pipeline = new IndexingPipeline(indexer, 1, 1);
+    pipeline.start();
+    // The only worker keeps draining the queue, so the parser does not block
+    assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+      assertThrows(StackOverflowError.class, () -> {
+        for (int i = 0; i < 100; i++) {
+          pipeline.put(new Entry());
+        }
+        pipeline.finish();
+      });
+    });
+    pipeline.abort();
+  }
+
+}
@@ -0,0 +1,83 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InputStrategyTest {
+
+  private static final File SAMPLE = new File("src/test/resources/xml/sample-entry-entry.xml");
+
+  @Test
+  void testOpen() throws IOException {
+    byte[] expected = Files.readAllBytes(SAMPLE.toPath());
+    for (InputStrategy inputStrategy : InputStrategy.values()) {
+      assertArrayEquals(expected, read(inputStrategy, SAMPLE), inputStrategy.name());
+    }
+  }
+
+  @Test
+  void testOpenGzip(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "export.xml.gz");
+    try (OutputStream stream = new GZIPOutputStream(new FileOutputStream(file))) {
+      Files.copy(SAMPLE.toPath(), stream);
+    }
+    byte[] expected = Files.readAllBytes(SAMPLE.toPath());
+    for (InputStrategy inputStrategy : InputStrategy.values()) {
+      assertArrayEquals(expected, read(inputStrategy, file), inputStrategy.name());
+    }
+  }
+
+  @Test
+  void testOpenShortFile(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "short.xml");
+    Files.write(file.toPath(), new byte[] {0x1f});
+    for (InputStrategy inputStrategy : InputStrategy.values()) {
+      assertArrayEquals(new byte[] {0x1f}, read(inputStrategy, file), inputStrategy.name());
+    }
+  }
+
+  @Test
+  void testOpenZstd(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "export.xml.zst");
+    Files.write(file.toPath(), new byte[] {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd, 0});
+    for (InputStrategy inputStrategy : InputStrategy.values()) {
+      assertThrows(IOException.class, () -> inputStrategy.open(file.getPath()));
+    }
+  }
+
+  @Test
+  void testOpenMissingFile() {
+    for (InputStrategy inputStrategy : InputStrategy.values()) {
+      assertThrows(IOException.class,
+          () -> inputStrategy.open("src/test/resources/xml/no-such-file.xml"));
+    }
+  }
+
+  private static byte[] read(InputStrategy inputStrategy, File file) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (InputStream stream = inputStrategy.open(file.getPath())) {
+      int first = stream.read();
+      if (first >= 0) {
+        bytes.write(first);
+      }
+      byte[] buffer = new byte[7];
+      int count;
+      while ((count = stream.read(buffer, 0, buffer.length)) >= 0) {
+        bytes.write(buffer, 0, count);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+}
@@ -1,6 +1,7 @@
 package net.hunnor.dict.lucene.indexer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -10,6 +11,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import net.hunnor.dict.lucene.model.Entry;
 import net.hunnor.dict.lucene.model.Language;
+import org.apache.lucene.index.IndexWriter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -29,6 +31,22 @@ class LuceneIndexerTest {
     indexer.closeSpellChecker();
   }
 
+  @Test
+  void memoryBudgetIncludesRamBuffer(@TempDir File tempDir) throws IOException {
+    LuceneIndexer indexer = new LuceneIndexer();
+    indexer.setIndexDir(tempDir.getAbsolutePath());
+    indexer.setMemoryBudget(40L << 20);
+    indexer.openIndexWriter();
+    // The 16 MB buffer of the default profile fits, the index is built in memory
+    assertFalse(new File(tempDir, IndexWriter.WRITE_LOCK_NAME).exists());
+    indexer.rollbackIndexWriter();
+    indexer.setIndexWriterProfile(IndexWriterProfile.BULK);
+    indexer.openIndexWriter();
+    // The 256 MB buffer does not fit, the index is built on the disk
+    assertTrue(new File(tempDir, IndexWriter.WRITE_LOCK_NAME).exists());
+    indexer.rollbackIndexWriter();
+  }
+
   @Test
   void writeEntryToClosedWriter() throws IOException {
     LuceneIndexer indexer = new LuceneIndexer();
@@ -0,0 +1,182 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.stream.XMLStreamException;
+import net.hunnor.dict.lucene.model.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelStaxParserTest {
+
+  @Test
+  void testInvalidThreads() {
+    assertThrows(IllegalArgumentException.class, () -> new ParallelStaxParser(0));
+    assertThrows(IllegalArgumentException.class, () -> new ParallelStaxParser(1, 0));
+  }
+
+  @Test
+  void testSamples() throws XMLStreamException {
+    File[] files = new File("src/test/resources/xml").listFiles(
+        (directory, name) -> name.startsWith("sample-") && name.endsWith(".xml"));
+    Arrays.sort(files);
+    for (File file : files) {
+      List<String> expected = entries(new StaxParser(), file);
+      assertEquals(expected, entries(new ParallelStaxParser(1, 1), file), file.getName());
+      assertEquals(expected, entries(new ParallelStaxParser(3, 64), file), file.getName());
+    }
+  }
+
+  @Test
+  void testChunks(@TempDir File tempDir) throws IOException, XMLStreamException {
+    StringBuilder xml = new StringBuilder();
+    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<hnDict>\n");
+    for (int i = 0; i < 300; i++) {
+      if (i % 7 == 0) {
+        xml.append(i > 0 ? "</entryGrp>\n" : "").append("<entryGrp head=\"").append(i)
+            .append("\">\n");
+      }
+      if (i % 11 == 0) {
+        xml.append("<!-- comment -->\n");
+      }
+      xml.append("<entry id=\"").append(i).append("\"><formGrp><form primary=\"yes\">")
+          .append("<orth n=\"0\">szó").append(i).append("</orth><pos>fn</pos></form>")
+          .append("</formGrp><senseGrp><sense><trans>ord").append(i)
+          .append("</trans></sense></senseGrp></entry>\n");
+    }
+    xml.append("</entryGrp>\n</hnDict>\n");
+    File file = new File(tempDir, "export.xml");
+    Files.write(file.toPath(), xml.toString().getBytes(StandardCharsets.UTF_8));
+
+    List<String> expected = entries(new StaxParser(), file);
+    assertEquals(300, expected.size());
+    for (int chunkSize : new int[] {1, 100, 1000, ParallelStaxParser.CHUNK_SIZE}) {
+      for (int threads : new int[] {1, 4}) {
+        assertEquals(expected, entries(new ParallelStaxParser(threads, chunkSize), file));
+      }
+    }
+  }
+
+  @Test
+  void testReopen() throws XMLStreamException {
+    File file = new File("src/test/resources/xml/sample-entry-entry.xml");
+    ParallelStaxParser parallelStaxParser = new ParallelStaxParser(2);
+    assertEquals(entries(parallelStaxParser, file), entries(parallelStaxParser, file));
+  }
+
+  @Test
+  void testFileNotFound() throws XMLStreamException {
+    ParallelStaxParser parallelStaxParser = new ParallelStaxParser(2);
+    parallelStaxParser.openFile("src/test/resources/xml/no-such-file.xml");
+    assertFalse(parallelStaxParser.hasNext());
+    assertNull(parallelStaxParser.next());
+    parallelStaxParser.closeFile();
+  }
+
+  @Test
+  void testFileTooLarge(@TempDir File tempDir) throws IOException, XMLStreamException {
+    File file = new File(tempDir, "export.xml");
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      // A sparse file, no disk space is used
+      randomAccessFile.setLength(Integer.MAX_VALUE + 1L);
+    }
+    ParallelStaxParser parallelStaxParser = new ParallelStaxParser(2);
+    parallelStaxParser.openFile(file.getAbsolutePath());
+    assertThrows(XMLStreamException.class, parallelStaxParser::hasNext);
+    assertThrows(XMLStreamException.class, parallelStaxParser::next);
+    parallelStaxParser.closeFile();
+    assertFalse(parallelStaxParser.hasNext());
+  }
+
+  @Test
+  void testParseError(@TempDir File tempDir) throws IOException, XMLStreamException {
+    File file = new File(tempDir, "export.xml");
+    Files.write(file.toPath(),
+        "<hnDict><entryGrp><entry id=\"1\"><formGrp></entry></entryGrp></hnDict>"
+            .getBytes(StandardCharsets.UTF_8));
+    ParallelStaxParser parallelStaxParser = new ParallelStaxParser(2);
+    parallelStaxParser.openFile(file.getAbsolutePath());
+    assertTrue(parallelStaxParser.hasNext());
+    assertThrows(XMLStreamException.class, parallelStaxParser::next);
+    parallelStaxParser.closeFile();
+  }
+
+  @Test
+  void testGzipFile(@TempDir File tempDir) throws IOException, XMLStreamException {
+    File sample = new File("src/test/resources/xml/sample-entry-entry.xml");
+    File file = new File(tempDir, "export.xml.gz");
+    try (OutputStream stream = new GZIPOutputStream(new FileOutputStream(file))) {
+      Files.copy(sample.toPath(), stream);
+    }
+    ParallelStaxParser parallelStaxParser = new ParallelStaxParser(2);
+    List<String> expected = entries(new StaxParser(), sample);
+    assertEquals(2, expected.size());
+    assertEquals(expected, entries(parallelStaxParser, file));
+    assertEquals(expected, entries(parallelStaxParser, sample));
+  }
+
+  @Test
+  void testBoundaries() {
+    ByteBuffer buffer = ByteBuffer.wrap("<entryGrp><entry id=\"1\"></entry><entry>"
+        .getBytes(StandardCharsets.US_ASCII));
+    assertEquals(10, ParallelStaxParser.nextEntry(buffer, 0));
+    assertEquals(32, ParallelStaxParser.nextEntry(buffer, 11));
+    assertEquals(-1, ParallelStaxParser.nextEntry(buffer, 33));
+    // The last entry is not closed
+    assertEquals(39, ParallelStaxParser.lastEntryEnd(buffer));
+    assertEquals(0, ParallelStaxParser.lastEntryEnd(ByteBuffer.wrap(new byte[3])));
+    buffer = ByteBuffer.wrap("<entry id=\"1\"></entry><entry id=\"/>\"/></entryGrp>"
+        .getBytes(StandardCharsets.US_ASCII));
+    assertEquals(22, ParallelStaxParser.nextEntry(buffer, 1));
+    assertEquals(38, ParallelStaxParser.lastEntryEnd(buffer));
+  }
+
+  @Test
+  void testEmptyLastEntry(@TempDir File tempDir) throws IOException, XMLStreamException {
+    File file = new File(tempDir, "export.xml");
+    Files.write(file.toPath(), ("<hnDict><entryGrp><entry id=\"1\"><formGrp><form>"
+        + "<orth n=\"0\">alma</orth></form></formGrp></entry>\n<entry id=\"2\"/>\n"
+        + "</entryGrp></hnDict>").getBytes(StandardCharsets.UTF_8));
+    List<String> expected = entries(new StaxParser(), file);
+    assertEquals(2, expected.size());
+    assertEquals(expected, entries(new ParallelStaxParser(1, 1), file));
+    assertEquals(expected, entries(new ParallelStaxParser(2), file));
+  }
+
+  private static List<String> entries(StaxParser staxParser, File file)
+      throws XMLStreamException {
+    List<String> entries = new ArrayList<>();
+    staxParser.openFile(file.getPath());
+    while (staxParser.hasNext()) {
+      Entry entry = staxParser.next();
+      if (entry != null) {
+        entries.add(String.join("|", entry.getId(), entry.getSort(),
+            new TreeSet<>(entry.getRoots()).toString(),
+            new TreeSet<>(entry.getForms()).toString(),
+            new TreeSet<>(entry.getTrans()).toString(),
+            new TreeSet<>(entry.getQuote()).toString(),
+            new TreeSet<>(entry.getQuoteTrans()).toString(), entry.getText()));
+      }
+    }
+    staxParser.closeFile();
+    return entries;
+  }
+
+}
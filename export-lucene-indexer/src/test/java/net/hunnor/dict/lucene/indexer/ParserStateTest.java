@@ -0,0 +1,52 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import net.hunnor.dict.lucene.model.Entry;
+import org.junit.jupiter.api.Test;
+
+class ParserStateTest {
+
+  @Test
+  void testReset() {
+    ParserState parserState = new ParserState();
+    final StringBuilder characters = parserState.getCharacters();
+    parserState.setPrevious(Element.TRANS);
+    parserState.setEntry(new Entry());
+    parserState.setEntryComplete(true);
+    parserState.setCollectText(true);
+    parserState.setPrimaryForm(true);
+    parserState.setEg(true);
+    parserState.setSenseCount(2);
+    parserState.setSenseGrpCount(3);
+    characters.append("characters");
+    parserState.getText().append("text");
+    parserState.getFormBuffer().append("form");
+    parserState.getInflParBuffer().append("inflPar");
+    parserState.getInflSeqBuffer().append("inflSeq");
+    parserState.getSenseGrpBuffer().append("senseGrp");
+    parserState.getSenseBuffer().append("sense");
+    parserState.getEgBuffer().append("eg");
+
+    parserState.reset();
+
+    assertNull(parserState.getPrevious());
+    assertNull(parserState.getEntry());
+    assertFalse(parserState.isEntryComplete());
+    assertFalse(parserState.isCollectText());
+    assertFalse(parserState.isPrimaryForm());
+    assertFalse(parserState.isEg());
+    assertEquals(0, parserState.getSenseCount());
+    assertEquals(0, parserState.getSenseGrpCount());
+    // The buffers are emptied and kept
+    assertSame(characters, parserState.getCharacters());
+    assertEquals("", String.join("", parserState.getCharacters(), parserState.getText(),
+        parserState.getFormBuffer(), parserState.getInflParBuffer(),
+        parserState.getInflSeqBuffer(), parserState.getSenseGrpBuffer(),
+        parserState.getSenseBuffer(), parserState.getEgBuffer()));
+  }
+
+}
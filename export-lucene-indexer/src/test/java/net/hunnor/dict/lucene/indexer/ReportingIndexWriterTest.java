@@ -0,0 +1,53 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SerialMergeScheduler;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportingIndexWriterTest {
+
+  @Test
+  void testFlushesAndMerges(@TempDir File tempDir) throws IOException {
+    BuildReport report = new BuildReport();
+    IndexWriterConfig indexWriterConfig =
+        new IndexWriterConfig(Lucene.VERSION, PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    indexWriterConfig.setMergeScheduler(new SerialMergeScheduler());
+    try (Directory directory = new NIOFSDirectory(tempDir);
+        ReportingIndexWriter indexWriter =
+            new ReportingIndexWriter(directory, indexWriterConfig, report)) {
+      for (int i = 0; i < 3; i++) {
+        indexWriter.addDocument(document(i));
+        indexWriter.commit();
+      }
+      indexWriter.commit();
+      assertEquals(3, report.getFlushes());
+      assertEquals(0, report.getMerges());
+      indexWriter.forceMerge(1);
+      assertEquals(1, report.getMerges());
+      indexWriter.addDocument(document(3));
+    }
+    assertEquals(4, report.getFlushes());
+    assertEquals(1, report.getMerges());
+    assertTrue(report.getMergeMillis() >= 0);
+  }
+
+  private static Document document(int id) {
+    Document document = new Document();
+    document.add(new Field(Lucene.ID, Integer.toString(id), Field.Store.YES,
+        Field.Index.NOT_ANALYZED));
+    return document;
+  }
+
+}
@@ -1,13 +1,42 @@
 package net.hunnor.dict.lucene.indexer;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
 import javax.xml.stream.XMLStreamException;
+import net.hunnor.dict.lucene.completion.CompletionReader;
+import net.hunnor.dict.lucene.completion.CompletionWriter;
+import net.hunnor.dict.lucene.constants.Lucene;
+import net.hunnor.dict.lucene.headword.HeadwordTableReader;
+import net.hunnor.dict.lucene.headword.HeadwordTableWriter;
+import net.hunnor.dict.lucene.model.Entry;
 import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.sort.SortRankReader;
+import net.hunnor.dict.lucene.sort.SortRankWriter;
+import net.hunnor.dict.lucene.text.CompactText;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.store.NIOFSDirectory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -24,6 +53,262 @@ class ServiceTest {
     service.indexSuggestions(indexDir.getAbsolutePath(), spellingDir.getAbsolutePath());
   }
 
+  @Test
+  void testSpellingThreads(@TempDir File tempDir) throws IOException {
+    Service service = new Service();
+    service.setSpellingThreads(2);
+    assertEquals(2, service.getSpellingThreads());
+    File file = new File("src/test/resources/xml/sample-form-form.xml");
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    File spellingDir = new File(tempDir, "spelling");
+    service.indexSuggestions(indexDir.getAbsolutePath(), spellingDir.getAbsolutePath());
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(spellingDir))) {
+      assertEquals(3, indexReader.numDocs());
+    }
+  }
+
+  @Test
+  void testCompletion(@TempDir File tempDir) throws IOException {
+    Service service = new Service();
+    assertFalse(service.isCompletion());
+    File file = new File("src/test/resources/xml/sample-form-form.xml");
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    File completionFile = new File(indexDir, CompletionWriter.FILE_NAME);
+    assertFalse(completionFile.exists());
+    service.setCompletion(true);
+    service.indexFile(file.getAbsolutePath(), Language.NO, indexDir.getAbsolutePath());
+    assertTrue(completionFile.isFile());
+    CompletionReader completionReader = CompletionReader.open(completionFile);
+    // The same roots were indexed for both languages, and are suggested once
+    assertEquals(6, completionReader.size());
+    assertEquals(3, completionReader.complete("orth", 10).size());
+  }
+
+  @Test
+  void testNoSuggestionDocuments(@TempDir File tempDir) throws IOException {
+    File file = new File("src/test/resources/xml/sample-form-form.xml");
+    File defaultDir = new File(tempDir, "default");
+    new Service().indexFile(file.getAbsolutePath(), Language.HU, defaultDir.getAbsolutePath());
+    Service service = new Service();
+    assertTrue(service.isSuggestionDocuments());
+    service.setSuggestionDocuments(false);
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    try (IndexReader defaultReader = IndexReader.open(new NIOFSDirectory(defaultDir));
+        IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      // One entry with three roots
+      assertEquals(4, defaultReader.numDocs());
+      assertEquals(1, indexReader.numDocs());
+    }
+    File completionFile = new File(indexDir, CompletionWriter.FILE_NAME);
+    assertEquals(3, CompletionReader.open(completionFile).size());
+  }
+
+  @Test
+  void testTextIndexed(@TempDir File tempDir) throws IOException {
+    File file = new File("src/test/resources/xml/sample-form-form.xml");
+    new Service().indexFile(file.getAbsolutePath(), Language.HU, tempDir.getAbsolutePath());
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(tempDir))) {
+      String text = indexReader.document(0).get(Lucene.TEXT);
+      assertNotNull(text);
+      // The default format of the text field is kept for the apps reading the index
+      assertEquals(1, indexReader.docFreq(new Term(Lucene.TEXT, text)));
+    }
+  }
+
+  @Test
+  void testCompactText(@TempDir File tempDir) throws IOException {
+    File file = new File("src/test/resources/xml/sample-form-form.xml");
+    File defaultDir = new File(tempDir, "default");
+    new Service().indexFile(file.getAbsolutePath(), Language.HU, defaultDir.getAbsolutePath());
+    Service service = new Service();
+    assertFalse(service.isCompactText());
+    service.setCompactText(true);
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    try (IndexReader defaultReader = IndexReader.open(new NIOFSDirectory(defaultDir));
+        IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      String text = defaultReader.document(0).get(Lucene.TEXT);
+      assertNotNull(text);
+      Document document = indexReader.document(0);
+      assertNull(document.get(Lucene.TEXT));
+      assertEquals(text, CompactText.decode(document.getBinaryValue(Lucene.TEXT_COMPACT)));
+    }
+  }
+
+  @Test
+  void testSortRanks(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "export.xml");
+    export(file, "1", "dal", "2", "csak", "3", "cukor");
+    Service service = new Service();
+    assertFalse(service.isSortRanks());
+    service.setSortRanks(true);
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    SortRankReader sortRanks = SortRankReader.open(new File(indexDir, SortRankWriter.FILE_NAME));
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      assertTrue(sortRanks.matches(indexReader));
+      String[] order = new String[3];
+      for (int i = 0; i < indexReader.maxDoc(); i++) {
+        String sort = indexReader.document(i).get(Lucene.SORT);
+        if (sort != null) {
+          order[sortRanks.rank(i)] = sort;
+        }
+      }
+      assertArrayEquals(new String[] {"cukor", "csak", "dal"}, order);
+    }
+  }
+
+  @Test
+  void testHeadwordTable(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "export.xml");
+    export(file, "1", "dal", "2", "csak", "3", "cukor");
+    Service service = new Service();
+    assertFalse(service.isHeadwordTable());
+    service.setHeadwordTable(true);
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    HeadwordTableReader headwords =
+        HeadwordTableReader.open(new File(indexDir, HeadwordTableWriter.FILE_NAME));
+    assertFalse(headwords.isRanked());
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      assertTrue(headwords.matches(indexReader));
+      int[] documents = headwords.documents(Language.HU, "cukor", 10);
+      assertEquals(1, documents.length);
+      assertEquals("cukor", indexReader.document(documents[0]).get(Lucene.SORT));
+    }
+    service.setSortRanks(true);
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    // Written after the sort ranks of the same version
+    assertTrue(HeadwordTableReader.open(new File(indexDir, HeadwordTableWriter.FILE_NAME))
+        .isRanked());
+  }
+
+  @Test
+  void testReport(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "export.xml");
+    export(file, "1", "dal", "2", "csak", "3", "cukor");
+    File reportFile = new File(tempDir, "report.json");
+    Service service = new Service();
+    assertNull(service.getReportFile());
+    service.setReportFile(reportFile);
+    service.setSortRanks(true);
+    service.setWorkers(2);
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    BuildReport report = service.getReport();
+    assertEquals(file.getAbsolutePath(), report.getFile());
+    assertEquals("HU", report.getLanguage());
+    assertEquals(3, report.getEntries());
+    assertEquals(6, report.getDocuments());
+    assertEquals(file.length(), report.getBytesRead());
+    assertEquals(file.length(), report.getUncompressedBytes());
+    assertTrue(report.getFlushes() > 0);
+    assertTrue(report.getEntriesPerSecond() > 0);
+    assertTrue(report.getPeakHeapBytes() > 0);
+    assertEquals(1, report.getIndex().getSegments());
+    assertEquals(3, report.getIndex().getTerms(Lucene.HU_ROOTS));
+    assertEquals(3, report.getIndex().getPostings(Lucene.SUGGESTION));
+    assertNull(report.getSpelling());
+    assertTrue(reportFile.isFile());
+    service.indexSuggestions(indexDir.getAbsolutePath(),
+        new File(tempDir, "spelling").getAbsolutePath());
+    assertSame(report, service.getReport());
+    assertTrue(report.getSpelling().getTerms("word") > 0);
+    String json = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+    assertTrue(json.contains("\"sortRanks\": {\"wallMillis\": "));
+    assertTrue(json.contains("\"word\": {\"terms\": 3, \"postings\": 3}"));
+    service.setReportFile(null);
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    assertNull(service.getReport());
+  }
+
+  @Test
+  void testIncremental(@TempDir File tempDir) throws IOException {
+    Service service = new Service();
+    assertFalse(service.isIncremental());
+    service.setIncremental(true);
+    File indexDir = new File(tempDir, "index");
+    File file = new File(tempDir, "export.xml");
+
+    export(file, "1", "alma", "2", "barack", "3", "citrom");
+    assertChanges(service, file, Language.HU, indexDir, 3, 0, 0, 0);
+    assertChanges(service, file, Language.NO, indexDir, 3, 0, 0, 0);
+    assertChanges(service, file, Language.HU, indexDir, 0, 0, 0, 3);
+
+    export(file, "1", "alma", "2", "banán", "4", "dinnye");
+    assertChanges(service, file, Language.HU, indexDir, 1, 1, 1, 1);
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      // Three entries with one root each for both languages
+      assertEquals(12, indexReader.numDocs());
+      assertEquals(0, count(indexReader, new Term(Lucene.HU_ROOTS, "barack")));
+      assertEquals(0, count(indexReader, new Term(Lucene.HU_ROOTS, "citrom")));
+      assertEquals(1, count(indexReader, new Term(Lucene.HU_ROOTS_LC, "banán")));
+      assertEquals(1, count(indexReader, new Term(Lucene.NO_ROOTS, "citrom")));
+      assertEquals(1, count(indexReader, new Term(Lucene.SUGGESTION, "citrom")));
+    }
+
+    service.setIncremental(false);
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    assertNull(service.getChanges());
+    assertNull(service.getFailure());
+  }
+
+  @Test
+  void testIncrementalWithoutKeys(@TempDir File tempDir) throws IOException {
+    File indexDir = new File(tempDir, "index");
+    File file = new File(tempDir, "export.xml");
+    export(file, "1", "alma", "2", "barack");
+    Service service = new Service();
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    service = new Service();
+    service.setIncremental(true);
+    // The entries of the other language do not block the run
+    assertChanges(service, file, Language.NO, indexDir, 2, 0, 0, 0);
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    assertNull(service.getChanges());
+    assertTrue(service.getFailure() instanceof IOException);
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      // The entries without a key are not duplicated
+      assertEquals(1, count(indexReader, new Term(Lucene.HU_ROOTS, "alma")));
+      assertEquals(8, indexReader.numDocs());
+    }
+  }
+
+  private static int count(IndexReader indexReader, Term term) throws IOException {
+    int count = 0;
+    try (TermDocs termDocs = indexReader.termDocs(term)) {
+      while (termDocs.next()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static void export(File file, String... entries) throws IOException {
+    StringBuilder xml = new StringBuilder();
+    xml.append("<hnDict xmlns=\"http://dict.hunnor.net\"><entryGrp head=\"A\">");
+    for (int i = 0; i < entries.length; i += 2) {
+      xml.append("<entry id=\"").append(entries[i]).append("\"><formGrp>")
+          .append("<form primary=\"yes\"><orth n=\"0\">").append(entries[i + 1])
+          .append("</orth></form></formGrp><senseGrp/></entry>");
+    }
+    xml.append("</entryGrp></hnDict>");
+    Files.write(file.toPath(), xml.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void assertChanges(Service service, File file, Language language,
+      File indexDir, int added, int updated, int deleted, int unchanged) {
+    service.indexFile(file.getAbsolutePath(), language, indexDir.getAbsolutePath());
+    IndexChanges changes = service.getChanges();
+    assertEquals(added, changes.getAdded());
+    assertEquals(updated, changes.getUpdated());
+    assertEquals(deleted, changes.getDeleted());
+    assertEquals(unchanged, changes.getUnchanged());
+  }
+
   @Test
   void testParserError(@TempDir File tempDir) throws XMLStreamException, IOException {
     StaxParser spyParser = spy(new StaxParser());
@@ -52,4 +337,171 @@ class ServiceTest {
     service.indexSuggestions(indexDir.getAbsolutePath(), spellingDir.getAbsolutePath());
   }
 
+  @Test
+  void testWriteError(@TempDir File tempDir) throws IOException {
+    File file = new File("src/test/resources/xml/sample-entry-entry.xml");
+    File indexDir = new File(tempDir, "index");
+    new Service().indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    int documents;
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      documents = indexReader.numDocs();
+    }
+    LuceneIndexer spyIndexer = spy(new LuceneIndexer());
+    doCallRealMethod().doThrow(new IOException()).when(spyIndexer).write(any(Entry.class));
+    Service service = new Service();
+    service.setIndexer(spyIndexer);
+    service.setMaxSegments(1);
+    service.indexFile(file.getAbsolutePath(), Language.NO, indexDir.getAbsolutePath());
+    verify(spyIndexer, never()).closeIndexWriter();
+    verify(spyIndexer).rollbackIndexWriter();
+    assertNotNull(service.getFailure());
+    // The first entry of the failed run is not committed, and the index is not locked
+    new Service().indexFile(file.getAbsolutePath(), Language.NO, indexDir.getAbsolutePath());
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      assertEquals(2 * documents, indexReader.numDocs());
+    }
+  }
+
+  @Test
+  void testPipelined(@TempDir File tempDir) throws IOException {
+    File file = new File("src/test/resources/xml/sample-entry-entry.xml");
+    assertTrue(file.isFile());
+    File serialDir = new File(tempDir, "serial");
+    new Service().indexFile(file.getAbsolutePath(), Language.HU, serialDir.getAbsolutePath());
+    Service service = new Service();
+    service.setWorkers(4);
+    service.setQueueSize(1);
+    assertEquals(4, service.getWorkers());
+    assertEquals(1, service.getQueueSize());
+    File pipelinedDir = new File(tempDir, "pipelined");
+    service.indexFile(file.getAbsolutePath(), Language.HU, pipelinedDir.getAbsolutePath());
+    try (IndexReader serial = IndexReader.open(new NIOFSDirectory(serialDir));
+        IndexReader pipelined = IndexReader.open(new NIOFSDirectory(pipelinedDir))) {
+      assertEquals(serial.numDocs(), pipelined.numDocs());
+    }
+  }
+
+  @Test
+  void testParserThreads(@TempDir File tempDir) throws IOException {
+    File file = new File("src/test/resources/xml/sample-entry-entry.xml");
+    Service service = new Service();
+    service.setParserThreads(2);
+    assertEquals(2, service.getParserThreads());
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      assertEquals(2, indexReader.numDocs());
+      assertEquals("1", indexReader.document(0).get(Lucene.ID));
+      assertEquals("2", indexReader.document(1).get(Lucene.ID));
+    }
+  }
+
+  @Test
+  void testInputStrategy(@TempDir File tempDir) throws IOException {
+    File file = new File(tempDir, "export.xml.gz");
+    try (OutputStream stream = new GZIPOutputStream(new FileOutputStream(file))) {
+      Files.copy(new File("src/test/resources/xml/sample-entry-entry.xml").toPath(), stream);
+    }
+    Service service = new Service();
+    assertEquals(InputStrategy.BUFFERED, service.getInputStrategy());
+    service.setInputStrategy(InputStrategy.CHANNEL);
+    assertEquals(InputStrategy.CHANNEL, service.getInputStrategy());
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      assertEquals(2, indexReader.numDocs());
+      assertEquals("1", indexReader.document(0).get(Lucene.ID));
+      assertEquals("2", indexReader.document(1).get(Lucene.ID));
+    }
+  }
+
+  @Test
+  void testBulkProfile(@TempDir File tempDir) throws IOException {
+    final File file = new File("src/test/resources/xml/sample-entry-entry.xml");
+    Service service = new Service();
+    assertEquals(IndexWriterProfile.DEFAULT, service.getIndexWriterProfile());
+    assertFalse(service.isCreate());
+    assertEquals(0, service.getMaxSegments());
+    service.setIndexWriterProfile(IndexWriterProfile.BULK);
+    service.setCreate(true);
+    service.setMaxSegments(1);
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      assertEquals(2, indexReader.numDocs());
+      assertEquals(1, indexReader.getSequentialSubReaders().length);
+    }
+    assertEquals(0, indexDir.listFiles((directory, name) -> name.endsWith(".cfs")).length);
+    service.setCreate(false);
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDir))) {
+      assertEquals(4, indexReader.numDocs());
+      assertEquals(1, indexReader.getSequentialSubReaders().length);
+    }
+  }
+
+  @Test
+  void testMemoryBudget(@TempDir File tempDir) throws IOException {
+    final File huFile = new File("src/test/resources/xml/sample-form-form.xml");
+    final File noFile = new File("src/test/resources/xml/sample-entry-entry.xml");
+    Service memoryService = new Service();
+    assertEquals(0, memoryService.getMemoryBudget());
+    memoryService.setMemoryBudget(64);
+    memoryService.setCompletion(true);
+    File memoryIndexDir = new File(tempDir, "memory-index");
+    File memorySpellingDir = new File(tempDir, "memory-spelling");
+    memoryService.indexFile(huFile.getAbsolutePath(), Language.HU,
+        memoryIndexDir.getAbsolutePath());
+    memoryService.indexFile(noFile.getAbsolutePath(), Language.NO,
+        memoryIndexDir.getAbsolutePath());
+    memoryService.indexSuggestions(memoryIndexDir.getAbsolutePath(),
+        memorySpellingDir.getAbsolutePath());
+
+    Service diskService = new Service();
+    File diskIndexDir = new File(tempDir, "disk-index");
+    File diskSpellingDir = new File(tempDir, "disk-spelling");
+    diskService.indexFile(huFile.getAbsolutePath(), Language.HU, diskIndexDir.getAbsolutePath());
+    diskService.indexFile(noFile.getAbsolutePath(), Language.NO, diskIndexDir.getAbsolutePath());
+    diskService.indexSuggestions(diskIndexDir.getAbsolutePath(),
+        diskSpellingDir.getAbsolutePath());
+
+    try (IndexReader memoryReader = IndexReader.open(new NIOFSDirectory(memoryIndexDir));
+        IndexReader diskReader = IndexReader.open(new NIOFSDirectory(diskIndexDir))) {
+      assertEquals(diskReader.numDocs(), memoryReader.numDocs());
+      // Merging is left to the merge policy, as on the disk
+      assertEquals(diskReader.getSequentialSubReaders().length,
+          memoryReader.getSequentialSubReaders().length);
+    }
+    try (IndexReader memoryReader = IndexReader.open(new NIOFSDirectory(memorySpellingDir));
+        IndexReader diskReader = IndexReader.open(new NIOFSDirectory(diskSpellingDir))) {
+      assertEquals(diskReader.numDocs(), memoryReader.numDocs());
+    }
+    assertTrue(new File(memoryIndexDir, CompletionWriter.FILE_NAME).isFile());
+
+    // A created index replaces the index of the directory
+    memoryService.setCreate(true);
+    memoryService.indexFile(huFile.getAbsolutePath(), Language.HU,
+        memoryIndexDir.getAbsolutePath());
+    diskService.setCreate(true);
+    diskService.indexFile(huFile.getAbsolutePath(), Language.HU, diskIndexDir.getAbsolutePath());
+    try (IndexReader memoryReader = IndexReader.open(new NIOFSDirectory(memoryIndexDir));
+        IndexReader diskReader = IndexReader.open(new NIOFSDirectory(diskIndexDir))) {
+      assertEquals(diskReader.numDocs(), memoryReader.numDocs());
+    }
+  }
+
+  @Test
+  void testPipelinedWriterError(@TempDir File tempDir) throws IOException {
+    LuceneIndexer spyIndexer = spy(new LuceneIndexer());
+    doThrow(new IOException()).when(spyIndexer).write(any(Entry.class));
+    Service service = new Service();
+    service.setIndexer(spyIndexer);
+    service.setWorkers(2);
+    File file = new File("src/test/resources/xml/sample-entry-entry.xml");
+    assertTrue(file.isFile());
+    File indexDir = new File(tempDir, "index");
+    service.indexFile(file.getAbsolutePath(), Language.HU, indexDir.getAbsolutePath());
+  }
+
 }
@@ -0,0 +1,105 @@
+package net.hunnor.dict.lucene.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.spell.SpellChecker;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpellingBuilderTest {
+
+  @Test
+  void testInvalidThreads() {
+    assertThrows(IllegalArgumentException.class, () -> new SpellingBuilder(0));
+  }
+
+  @Test
+  void testSameAsSequential(@TempDir File tempDir) throws IOException {
+
+    File indexDir = new File(tempDir, "index");
+    LuceneIndexer indexer = new LuceneIndexer();
+    indexer.setIndexDir(indexDir.getAbsolutePath());
+    indexer.openIndexWriter();
+    for (int i = 0; i < 50; i++) {
+      indexer.write(entry(Language.HU, i, "alma" + i, "körte" + i));
+      indexer.write(entry(Language.NO, i, "eple" + i, "alma" + (i * 2)));
+    }
+    indexer.closeIndexWriter();
+
+    List<String> sequential = spellingIndex(indexDir, new File(tempDir, "sequential"), 1);
+    List<String> parallel = spellingIndex(indexDir, new File(tempDir, "parallel"), 4);
+    // The Hungarian and Norwegian words, the shared ones only once
+    assertEquals(175, sequential.size());
+    assertEquals(sequential, parallel);
+
+    File spellingDir = new File(tempDir, "parallel");
+    indexer.setSpellingDir(spellingDir.getAbsolutePath());
+    indexer.setSpellingThreads(3);
+    assertEquals(3, indexer.getSpellingThreads());
+    indexer.openIndexReader();
+    indexer.openSpellChecker();
+    indexer.createSuggestions();
+    indexer.closeSpellChecker();
+    indexer.closeIndexReader();
+    // The words that are already in the spelling index are not added again
+    assertEquals(parallel, documents(spellingDir));
+
+    try (SpellChecker spellChecker = new SpellChecker(new NIOFSDirectory(spellingDir))) {
+      assertTrue(spellChecker.exist("körte7"));
+      assertEquals("alma17", spellChecker.suggestSimilar("almx17", 1)[0]);
+    }
+
+  }
+
+  private static List<String> spellingIndex(File indexDir, File spellingDir, int threads)
+      throws IOException {
+    LuceneIndexer indexer = new LuceneIndexer();
+    indexer.setIndexDir(indexDir.getAbsolutePath());
+    indexer.setSpellingDir(spellingDir.getAbsolutePath());
+    indexer.setSpellingThreads(threads);
+    indexer.openIndexReader();
+    indexer.openSpellChecker();
+    indexer.createSuggestions();
+    indexer.closeSpellChecker();
+    indexer.closeIndexReader();
+    return documents(spellingDir);
+  }
+
+  private static List<String> documents(File spellingDir) throws IOException {
+    List<String> documents = new ArrayList<>();
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(spellingDir))) {
+      for (int i = 0; i < indexReader.maxDoc(); i++) {
+        Document document = indexReader.document(i);
+        StringBuilder stringBuilder = new StringBuilder();
+        for (Fieldable field : document.getFields()) {
+          stringBuilder.append(field.name()).append('=').append(field.stringValue()).append(' ');
+        }
+        documents.add(stringBuilder.toString());
+      }
+    }
+    return documents;
+  }
+
+  private static Entry entry(Language language, int id, String... roots) {
+    Entry entry = new Entry();
+    entry.setLang(language);
+    entry.setId(String.valueOf(id));
+    entry.setRoots(new HashSet<>(Arrays.asList(roots)));
+    return entry;
+  }
+
+}
@@ -11,14 +11,24 @@ import static org.mockito.Mockito.spy;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import net.hunnor.dict.lucene.model.Entry;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class StaxParserTest {
 
@@ -70,6 +80,21 @@ class StaxParserTest {
     parser.closeFile();
   }
 
+  @Test
+  void testOpenAnotherFile() throws XMLStreamException {
+    StaxParser staxParser = new StaxParser();
+    staxParser.openFile("src/test/resources/xml/sample-entry-entry.xml");
+    while (staxParser.hasNext()) {
+      staxParser.next();
+    }
+    staxParser.closeFile();
+    assertFalse(staxParser.hasNext());
+    staxParser.openFile("src/test/resources/xml/sample-entry-entry.xml");
+    assertTrue(staxParser.hasNext());
+    assertEquals("1", staxParser.next().getId());
+    staxParser.closeFile();
+  }
+
   @Test
   void testEntryEntry() throws XMLStreamException {
     StaxParser staxParser = new StaxParser();
@@ -256,4 +281,80 @@ class StaxParserTest {
     assertEquals("<br/><i>lbl1</i>; <b>q1</b> trans1", entry.getText());
   }
 
+  @Test
+  void testSamples() throws IOException, XMLStreamException {
+    for (InputStrategy inputStrategy : InputStrategy.values()) {
+      // One parser for all files, the state of an entry must not leak into the next one
+      StaxParser staxParser = new StaxParser();
+      staxParser.setInputStrategy(inputStrategy);
+      assertEquals(expectedEntries(), entries(staxParser, samples()), inputStrategy.name());
+    }
+  }
+
+  @Test
+  void testGzipSamples(@TempDir File tempDir) throws IOException, XMLStreamException {
+    List<File> files = new ArrayList<>();
+    for (File sample : samples()) {
+      File file = new File(tempDir, sample.getName());
+      try (OutputStream stream = new GZIPOutputStream(new FileOutputStream(file))) {
+        Files.copy(sample.toPath(), stream);
+      }
+      files.add(file);
+    }
+    for (InputStrategy inputStrategy : InputStrategy.values()) {
+      StaxParser staxParser = new StaxParser();
+      staxParser.setInputStrategy(inputStrategy);
+      assertEquals(expectedEntries(), entries(staxParser, files), inputStrategy.name());
+    }
+  }
+
+  @Test
+  void testZstdFile(@TempDir File tempDir) throws IOException, XMLStreamException {
+    File file = new File(tempDir, "export.xml.zst");
+    Files.write(file.toPath(), new byte[] {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd, 0, 0});
+    StaxParser staxParser = new StaxParser();
+    staxParser.openFile(file.getPath());
+    assertFalse(staxParser.hasNext());
+  }
+
+  @Test
+  void testInputStrategy() {
+    StaxParser staxParser = new StaxParser();
+    assertEquals(InputStrategy.BUFFERED, staxParser.getInputStrategy());
+    staxParser.setInputStrategy(InputStrategy.MAPPED);
+    assertEquals(InputStrategy.MAPPED, staxParser.getInputStrategy());
+  }
+
+  private static List<File> samples() {
+    File[] files = new File("src/test/resources/xml").listFiles(
+        (directory, name) -> name.startsWith("sample-") && name.endsWith(".xml"));
+    Arrays.sort(files);
+    return Arrays.asList(files);
+  }
+
+  private static List<String> expectedEntries() throws IOException {
+    File expected = new File("src/test/resources/xml/expected-entries.txt");
+    return Files.readAllLines(expected.toPath(), StandardCharsets.UTF_8);
+  }
+
+  private static List<String> entries(StaxParser staxParser, List<File> files)
+      throws XMLStreamException {
+    List<String> lines = new ArrayList<>();
+    for (File file : files) {
+      lines.add("# " + file.getName());
+      staxParser.openFile(file.getPath());
+      while (staxParser.hasNext()) {
+        Entry entry = staxParser.next();
+        lines.add(entry == null ? "null" : String.join("|", entry.getId(), entry.getSort(),
+            new TreeSet<>(entry.getRoots()).toString(),
+            new TreeSet<>(entry.getForms()).toString(),
+            new TreeSet<>(entry.getTrans()).toString(),
+            new TreeSet<>(entry.getQuote()).toString(),
+            new TreeSet<>(entry.getQuoteTrans()).toString(), entry.getText()));
+      }
+      staxParser.closeFile();
+    }
+    return lines;
+  }
+
 }
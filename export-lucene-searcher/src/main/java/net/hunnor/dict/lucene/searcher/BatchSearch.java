@@ -0,0 +1,203 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopFieldCollector;
+
+/**
+ * Evaluates the fallback tiers of many term queries together.
+ *
+ * <p>A query matches the documents that have all of its tokens in one of the fields of a tier,
+ * as the queries of {@link LuceneSearcher} do. For each tier, the distinct terms of the queries
+ * that have no hits yet are looked up in term order in each segment, and the postings of each
+ * term are read once and shared by all the queries with that term. The matches of each query
+ * are collected in one pass per segment. The hits are the same as searching for the queries
+ * one by one.
+ */
+final class BatchSearch {
+
+  private static final int[] NO_DOCS = new int[0];
+
+  private static final int READ_SIZE = 64;
+
+  private BatchSearch() {
+  }
+
+  /**
+   * Search for the first tier with hits of each query.
+   *
+   * @param indexSearcher the searcher to read the postings with
+   * @param fields the fields of each tier, in the order of preference
+   * @param queries the tokens of each query, for each field of each tier
+   * @param sort the sort order of the hits
+   * @param max the maximum number of hits of a query
+   * @return the sorted hits of each query, empty if no tier has hits
+   * @throws IOException if there is a low-level IO error
+   */
+  static ScoreDoc[][] search(IndexSearcher indexSearcher, String[][] fields,
+      List<String[][][]> queries, Sort sort, int max) throws IOException {
+
+    int numHits = Math.min(max, Math.max(1, indexSearcher.maxDoc()));
+    ScoreDoc[][] results = new ScoreDoc[queries.size()][];
+    List<Integer> pending = new ArrayList<>();
+    for (int i = 0; i < queries.size(); i++) {
+      pending.add(i);
+    }
+
+    for (int tier = 0; tier < fields.length && !pending.isEmpty(); tier++) {
+      SortedSet<Term> terms = new TreeSet<>();
+      for (int query : pending) {
+        String[][] tokens = queries.get(query)[tier];
+        for (int field = 0; field < fields[tier].length; field++) {
+          for (String token : tokens[field]) {
+            terms.add(new Term(fields[tier][field], token));
+          }
+        }
+      }
+      TopFieldCollector[] collectors = new TopFieldCollector[pending.size()];
+      for (int i = 0; i < collectors.length; i++) {
+        collectors[i] = TopFieldCollector.create(sort, numHits, true, false, false, false);
+      }
+      int docBase = 0;
+      for (IndexReader subReader : indexSearcher.getSubReaders()) {
+        Map<Term, int[]> postings = postings(subReader, terms);
+        for (int i = 0; i < collectors.length; i++) {
+          int[] docs = matches(fields[tier], queries.get(pending.get(i))[tier], postings);
+          if (docs.length > 0) {
+            collectors[i].setNextReader(subReader, docBase);
+            for (int doc : docs) {
+              collectors[i].collect(doc);
+            }
+          }
+        }
+        docBase += subReader.maxDoc();
+      }
+      List<Integer> next = new ArrayList<>();
+      for (int i = 0; i < collectors.length; i++) {
+        if (collectors[i].getTotalHits() > 0) {
+          results[pending.get(i)] = collectors[i].topDocs().scoreDocs;
+        } else {
+          next.add(pending.get(i));
+        }
+      }
+      pending = next;
+    }
+
+    for (int query : pending) {
+      results[query] = new ScoreDoc[0];
+    }
+    return results;
+
+  }
+
+  /**
+   * The live documents of each term in a segment, read in term order.
+   */
+  private static Map<Term, int[]> postings(IndexReader reader, SortedSet<Term> terms)
+      throws IOException {
+    Map<Term, int[]> postings = new HashMap<>();
+    int[] docs = new int[READ_SIZE];
+    int[] freqs = new int[READ_SIZE];
+    TermDocs termDocs = reader.termDocs();
+    try {
+      for (Term term : terms) {
+        termDocs.seek(term);
+        int[] termPostings = NO_DOCS;
+        int size = 0;
+        int read;
+        while ((read = termDocs.read(docs, freqs)) > 0) {
+          if (size + read > termPostings.length) {
+            termPostings = Arrays.copyOf(termPostings, Math.max(READ_SIZE, (size + read) * 2));
+          }
+          System.arraycopy(docs, 0, termPostings, size, read);
+          size += read;
+        }
+        if (size > 0) {
+          postings.put(term, Arrays.copyOf(termPostings, size));
+        }
+      }
+    } finally {
+      termDocs.close();
+    }
+    return postings;
+  }
+
+  /**
+   * The documents with all tokens of a query in one of the fields, in document order.
+   */
+  private static int[] matches(String[] fields, String[][] tokens, Map<Term, int[]> postings) {
+    int[] matches = NO_DOCS;
+    for (int field = 0; field < fields.length; field++) {
+      if (tokens[field].length == 0) {
+        continue;
+      }
+      int[] fieldMatches = docs(postings, fields[field], tokens[field][0]);
+      for (int i = 1; i < tokens[field].length && fieldMatches.length > 0; i++) {
+        fieldMatches = intersection(fieldMatches, docs(postings, fields[field], tokens[field][i]));
+      }
+      matches = union(matches, fieldMatches);
+    }
+    return matches;
+  }
+
+  private static int[] docs(Map<Term, int[]> postings, String field, String token) {
+    int[] docs = postings.get(new Term(field, token));
+    return docs == null ? NO_DOCS : docs;
+  }
+
+  static int[] intersection(int[] first, int[] second) {
+    int[] result = new int[Math.min(first.length, second.length)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < first.length && j < second.length) {
+      if (first[i] < second[j]) {
+        i++;
+      } else if (first[i] > second[j]) {
+        j++;
+      } else {
+        result[size++] = first[i];
+        i++;
+        j++;
+      }
+    }
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+
+  static int[] union(int[] first, int[] second) {
+    if (first.length == 0) {
+      return second;
+    } else if (second.length == 0) {
+      return first;
+    }
+    int[] result = new int[first.length + second.length];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < first.length || j < second.length) {
+      if (j == second.length || i < first.length && first[i] < second[j]) {
+        result[size++] = first[i++];
+      } else if (i == first.length || second[j] < first[i]) {
+        result[size++] = second[j++];
+      } else {
+        result[size++] = first[i];
+        i++;
+        j++;
+      }
+    }
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+
+}
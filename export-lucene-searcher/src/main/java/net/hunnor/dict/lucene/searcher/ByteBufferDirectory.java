@@ -0,0 +1,168 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.lucene.index.IndexFileNameFilter;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.NoLockFactory;
+
+/**
+ * A read-only copy of an index directory in direct buffers, outside of the Java heap. The files
+ * of the last commit of the index are read when the directory is created, other files in the
+ * directory are not. Reads from the index are copies from native memory, without system calls.
+ * The index must not change while it is read. Changes made to the index later are not seen by
+ * the copy, {@link #isCurrent()} tells whether it is outdated.
+ */
+final class ByteBufferDirectory extends Directory {
+
+  private final File path;
+
+  private final Map<String, ByteBuffer> files = new HashMap<>();
+
+  private final Map<String, Long> modified = new HashMap<>();
+
+  private final long generation;
+
+  private final long sizeInBytes;
+
+  /**
+   * Read the files of the last commit of the index in a directory into memory.
+   *
+   * @param path the index directory
+   * @throws IOException if the directory has no index, or a file cannot be read
+   */
+  ByteBufferDirectory(File path) throws IOException {
+    this.path = path;
+    setLockFactory(NoLockFactory.getNoLockFactory());
+    if (!path.isDirectory()) {
+      throw new FileNotFoundException("Not a directory: " + path);
+    }
+    SegmentInfos segmentInfos = new SegmentInfos();
+    Collection<String> names;
+    try (Directory directory = new NIOFSDirectory(path)) {
+      segmentInfos.read(directory);
+      names = segmentInfos.files(directory, true);
+    }
+    long size = 0;
+    for (String name : names) {
+      File file = new File(path, name);
+      files.put(name, read(file));
+      modified.put(name, file.lastModified());
+      size += file.length();
+    }
+    generation = segmentInfos.getGeneration();
+    sizeInBytes = size;
+  }
+
+  private static ByteBuffer read(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("File too large to load: " + file);
+      }
+      ByteBuffer buffer = ByteBuffer.allocateDirect((int) channel.size());
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Read the whole file
+      }
+      if (buffer.hasRemaining()) {
+        throw new IOException("File truncated while loading: " + file);
+      }
+      buffer.flip();
+      return buffer.asReadOnlyBuffer();
+    }
+  }
+
+  /**
+   * Whether the index in the directory is still the one read into memory.
+   *
+   * @return false if a newer commit has been written to the directory
+   */
+  boolean isCurrent() {
+    String[] names = path.list(IndexFileNameFilter.getFilter());
+    return names != null && SegmentInfos.getLastCommitGeneration(names) == generation;
+  }
+
+  /**
+   * The size of the files read into memory.
+   *
+   * @return the size in bytes
+   */
+  long sizeInBytes() {
+    return sizeInBytes;
+  }
+
+  @Override
+  public String[] listAll() {
+    return files.keySet().toArray(new String[0]);
+  }
+
+  @Override
+  public boolean fileExists(String name) {
+    return files.containsKey(name);
+  }
+
+  @Deprecated
+  @Override
+  public long fileModified(String name) throws IOException {
+    Long time = modified.get(name);
+    if (time == null) {
+      throw new FileNotFoundException(name);
+    }
+    return time;
+  }
+
+  @Deprecated
+  @Override
+  public void touchFile(String name) {
+    throw new UnsupportedOperationException("Read-only directory");
+  }
+
+  @Override
+  public void deleteFile(String name) {
+    throw new UnsupportedOperationException("Read-only directory");
+  }
+
+  @Override
+  public long fileLength(String name) throws IOException {
+    return buffer(name).limit();
+  }
+
+  @Override
+  public IndexOutput createOutput(String name) {
+    throw new UnsupportedOperationException("Read-only directory");
+  }
+
+  @Override
+  public IndexInput openInput(String name) throws IOException {
+    return new ByteBufferIndexInput(name, buffer(name));
+  }
+
+  private ByteBuffer buffer(String name) throws FileNotFoundException {
+    ByteBuffer buffer = files.get(name);
+    if (buffer == null) {
+      throw new FileNotFoundException(name);
+    }
+    return buffer;
+  }
+
+  @Override
+  public void close() {
+    // The buffers are freed when the directory is no longer referenced
+  }
+
+  @Override
+  public String toString() {
+    return "ByteBufferDirectory@" + path;
+  }
+
+}
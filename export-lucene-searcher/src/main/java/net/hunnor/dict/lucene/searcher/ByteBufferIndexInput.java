@@ -0,0 +1,87 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import org.apache.lucene.store.IndexInput;
+
+/**
+ * Reads an index file from a buffer. Clones read the same buffer with their own position.
+ */
+final class ByteBufferIndexInput extends IndexInput {
+
+  private ByteBuffer buffer;
+
+  ByteBufferIndexInput(String name, ByteBuffer buffer) {
+    super("ByteBufferIndexInput(" + name + ")");
+    this.buffer = buffer.duplicate();
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    try {
+      return buffer.get();
+    } catch (BufferUnderflowException ex) {
+      throw new EOFException("Read past EOF: " + this);
+    }
+  }
+
+  @Override
+  public void readBytes(byte[] bytes, int offset, int length) throws IOException {
+    try {
+      buffer.get(bytes, offset, length);
+    } catch (BufferUnderflowException ex) {
+      throw new EOFException("Read past EOF: " + this);
+    }
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    try {
+      return buffer.getInt();
+    } catch (BufferUnderflowException ex) {
+      throw new EOFException("Read past EOF: " + this);
+    }
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    try {
+      return buffer.getLong();
+    } catch (BufferUnderflowException ex) {
+      throw new EOFException("Read past EOF: " + this);
+    }
+  }
+
+  @Override
+  public long getFilePointer() {
+    return buffer.position();
+  }
+
+  @Override
+  public void seek(long position) throws IOException {
+    if (position < 0 || position > buffer.limit()) {
+      throw new EOFException("Seek past EOF: " + this);
+    }
+    buffer.position((int) position);
+  }
+
+  @Override
+  public long length() {
+    return buffer.limit();
+  }
+
+  @Override
+  public void close() {
+    // The buffer belongs to the directory
+  }
+
+  @Override
+  public Object clone() {
+    ByteBufferIndexInput clone = (ByteBufferIndexInput) super.clone();
+    clone.buffer = buffer.duplicate();
+    return clone;
+  }
+
+}
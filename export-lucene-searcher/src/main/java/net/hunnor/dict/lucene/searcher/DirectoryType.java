@@ -0,0 +1,48 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+
+/**
+ * The ways {@link LuceneSearcher} reads the index and the spelling index.
+ */
+public enum DirectoryType {
+
+  /**
+   * Positional reads through a file channel, copied into a heap buffer for each block.
+   */
+  NIOFS {
+    @Override
+    Directory open(File directory) throws IOException {
+      return new NIOFSDirectory(directory);
+    }
+  },
+
+  /**
+   * The index files are mapped into memory, and read from the page cache without system calls.
+   */
+  MMAP {
+    @Override
+    Directory open(File directory) throws IOException {
+      return new MMapDirectory(directory);
+    }
+  },
+
+  /**
+   * The index files are read into direct buffers outside of the heap when the index is opened.
+   * For small indexes, memory use is the size of the index. The index is reread when it is
+   * reloaded after a change.
+   */
+  PRELOADED {
+    @Override
+    Directory open(File directory) throws IOException {
+      return new ByteBufferDirectory(directory);
+    }
+  };
+
+  abstract Directory open(File directory) throws IOException;
+
+}
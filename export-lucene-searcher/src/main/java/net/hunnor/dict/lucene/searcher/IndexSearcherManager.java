@@ -0,0 +1,122 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.store.Directory;
+
+/**
+ * Shares a reference-counted searcher between threads, and replaces it without interrupting the
+ * queries that are running.
+ *
+ * <p>Searches {@link #acquire()} the current searcher and {@link #release(Object)} it when they
+ * are done. A new searcher is opened when the index directory changes, or when a different
+ * directory is {@link #swap(Directory) swapped} in. Each new searcher is warmed up before it is
+ * published. The reader of the previous searcher is closed when the last query using it
+ * releases it.
+ */
+final class IndexSearcherManager extends ReferenceManager<IndexSearcher> {
+
+  /**
+   * Prepares a new searcher before it is used by queries.
+   */
+  interface Warmer {
+
+    void warm(IndexSearcher indexSearcher) throws IOException;
+
+  }
+
+  private final AtomicReference<IndexSearcher> pending = new AtomicReference<>();
+
+  private final Warmer warmer;
+
+  /**
+   * Open a searcher on a directory.
+   *
+   * @param directory the index directory
+   * @throws IOException if the index cannot be opened
+   */
+  IndexSearcherManager(Directory directory) throws IOException {
+    this(directory, indexSearcher -> { });
+  }
+
+  /**
+   * Open a searcher on a directory, and warm it up.
+   *
+   * @param directory the index directory
+   * @param warmer the warm-up of each new searcher
+   * @throws IOException if the index cannot be opened or warmed up
+   */
+  IndexSearcherManager(Directory directory, Warmer warmer) throws IOException {
+    this.warmer = warmer;
+    current = open(IndexReader.open(directory));
+  }
+
+  /**
+   * Replace the searcher with one on a different index directory. The new index is opened and
+   * warmed up by the calling thread, so that errors are thrown here, and queries keep using the
+   * current searcher until the new one is published.
+   *
+   * @param directory the new index directory
+   * @throws IOException if the new index cannot be opened
+   */
+  void swap(Directory directory) throws IOException {
+    IndexSearcher searcher = open(IndexReader.open(directory));
+    IndexSearcher previous = pending.getAndSet(searcher);
+    if (previous != null) {
+      // Replaced by this swap before it was published
+      previous.getIndexReader().decRef();
+    }
+    // Another thread may be refreshing, so try until the searcher has been taken
+    while (pending.get() == searcher) {
+      if (!maybeRefresh()) {
+        Thread.yield();
+      }
+    }
+  }
+
+  private IndexSearcher open(IndexReader reader) throws IOException {
+    IndexSearcher searcher = new IndexSearcher(reader);
+    boolean warm = false;
+    try {
+      warmer.warm(searcher);
+      warm = true;
+    } finally {
+      if (!warm) {
+        reader.decRef();
+      }
+    }
+    return searcher;
+  }
+
+  @Override
+  protected void decRef(IndexSearcher reference) throws IOException {
+    reference.getIndexReader().decRef();
+  }
+
+  @Override
+  protected IndexSearcher refreshIfNeeded(IndexSearcher referenceToRefresh) throws IOException {
+    IndexSearcher searcher = pending.getAndSet(null);
+    if (searcher == null) {
+      IndexReader reader = IndexReader.openIfChanged(referenceToRefresh.getIndexReader());
+      searcher = reader == null ? null : open(reader);
+    }
+    return searcher;
+  }
+
+  @Override
+  protected boolean tryIncRef(IndexSearcher reference) {
+    return reference.getIndexReader().tryIncRef();
+  }
+
+  @Override
+  protected void afterClose() throws IOException {
+    IndexSearcher searcher = pending.getAndSet(null);
+    if (searcher != null) {
+      searcher.getIndexReader().decRef();
+    }
+  }
+
+}
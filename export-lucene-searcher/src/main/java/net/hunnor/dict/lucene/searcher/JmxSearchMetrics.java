@@ -0,0 +1,156 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * Publishes a {@link SearchMetricsRegistry} as an MBean of the platform MBean server, so the
+ * metrics of a searcher can be read with JConsole or any JMX client. The attributes are read
+ * from the registry when they are requested.
+ */
+public class JmxSearchMetrics implements SearchMetricsMxBean {
+
+  public static final String DEFAULT_NAME = "net.hunnor.dict.lucene:type=SearchMetrics";
+
+  private static final String SPELL_CHECKER = "spellChecker";
+
+  private static final double NANOS_PER_MICRO = 1000.0;
+
+  private final SearchMetricsRegistry registry;
+
+  private final ObjectName objectName;
+
+  /**
+   * Create an MBean of a registry.
+   *
+   * @param registry the registry to publish
+   * @param name the object name of the MBean, {@link #DEFAULT_NAME} for one searcher
+   * @throws MalformedObjectNameException if the name is not an object name
+   */
+  public JmxSearchMetrics(SearchMetricsRegistry registry, String name)
+      throws MalformedObjectNameException {
+    this.registry = registry;
+    this.objectName = new ObjectName(name);
+  }
+
+  public ObjectName getObjectName() {
+    return objectName;
+  }
+
+  /**
+   * Register the MBean with the platform MBean server.
+   *
+   * @throws JMException if the MBean cannot be registered, for example if the name is taken
+   */
+  public void register() throws JMException {
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+  }
+
+  /**
+   * Remove the MBean from the platform MBean server.
+   *
+   * @throws JMException if the MBean is not registered
+   */
+  public void unregister() throws JMException {
+    ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+  }
+
+  @Override
+  public Map<String, Long> getCounts() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    histograms().forEach((name, histogram) -> counts.put(name, histogram.getCount()));
+    return counts;
+  }
+
+  @Override
+  public Map<String, Double> getMeanMicros() {
+    return micros(LatencyHistogram::getMean);
+  }
+
+  @Override
+  public Map<String, Double> getMedianMicros() {
+    return micros(histogram -> histogram.getValueAtPercentile(50));
+  }
+
+  @Override
+  public Map<String, Double> getP99Micros() {
+    return micros(histogram -> histogram.getValueAtPercentile(99));
+  }
+
+  @Override
+  public Map<String, Double> getMaxMicros() {
+    return micros(LatencyHistogram::getMax);
+  }
+
+  @Override
+  public Map<String, Long> getEmptyResults() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (SearchMethod method : SearchMethod.values()) {
+      counts.put(method.getKey(), registry.getEmptyResults(method));
+    }
+    return counts;
+  }
+
+  @Override
+  public Map<String, Long> getFallThroughs() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (SearchTier tier : SearchTier.values()) {
+      counts.put(tier.getKey(), registry.getFallThroughs(tier));
+    }
+    return counts;
+  }
+
+  @Override
+  public long getSpellCheckerCalls() {
+    return registry.getSpellCheckerLatencies().getCount();
+  }
+
+  @Override
+  public long getDocumentsLoaded() {
+    return registry.getDocumentsLoaded();
+  }
+
+  @Override
+  public long getBytesRead() {
+    return registry.getBytesRead();
+  }
+
+  @Override
+  public double percentileMicros(String histogram, double percentile) {
+    LatencyHistogram latencies = histograms().get(histogram);
+    if (latencies == null) {
+      throw new IllegalArgumentException("No such histogram: " + histogram);
+    }
+    return latencies.getValueAtPercentile(percentile) / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public void reset() {
+    registry.reset();
+  }
+
+  private Map<String, LatencyHistogram> histograms() {
+    Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    for (SearchMethod method : SearchMethod.values()) {
+      histograms.put(method.getKey(), registry.getLatencies(method));
+    }
+    for (SearchTier tier : SearchTier.values()) {
+      histograms.put(tier.getKey(), registry.getLatencies(tier));
+    }
+    histograms.put(SPELL_CHECKER, registry.getSpellCheckerLatencies());
+    return histograms;
+  }
+
+  private Map<String, Double> micros(ToDoubleFunction<LatencyHistogram> nanos) {
+    Map<String, Double> micros = new LinkedHashMap<>();
+    histograms().forEach((name, histogram) ->
+        micros.put(name, nanos.applyAsDouble(histogram) / NANOS_PER_MICRO));
+    return micros;
+  }
+
+}
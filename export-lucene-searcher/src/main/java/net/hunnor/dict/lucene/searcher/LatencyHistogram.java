@@ -0,0 +1,157 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A histogram of latencies with a fixed relative precision, in the manner of an HDR histogram.
+ *
+ * <p>Values below 32 have a bucket each. Above that, each power of two is split into 32
+ * buckets of the same width, so a value is counted in a bucket at most 1/32 wider than the
+ * value, about 3%, whether it is a microsecond or a minute. The buckets of all values of a
+ * long take a fixed 15 KB, recording is a few atomic increments without locks or allocation,
+ * and the histogram can be recorded into by many threads at once. A percentile is the highest
+ * value of its bucket, so it is never below the exact percentile, and never above the maximum.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  private final AtomicLong count = new AtomicLong();
+
+  private final AtomicLong total = new AtomicLong();
+
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Record a value.
+   *
+   * @param value the value, negative values are recorded as 0
+   */
+  public void record(long value) {
+    long recorded = Math.max(0, value);
+    counts.incrementAndGet(index(recorded));
+    count.incrementAndGet();
+    total.addAndGet(recorded);
+    max.accumulate(recorded);
+  }
+
+  /**
+   * The number of values recorded.
+   *
+   * @return the number of values
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * The highest value recorded.
+   *
+   * @return the highest value, 0 if no value was recorded
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * The mean of the values recorded.
+   *
+   * @return the mean, 0 if no value was recorded
+   */
+  public double getMean() {
+    long values = count.get();
+    return values == 0 ? 0 : (double) total.get() / values;
+  }
+
+  /**
+   * The value at a percentile of the values recorded.
+   *
+   * @param percentile the percentile, from 0 to 100
+   * @return the highest value of the bucket of the percentile, 0 if no value was recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile out of range: " + percentile);
+    }
+    long[] snapshot = new long[BUCKETS];
+    long values = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      values += snapshot[i];
+    }
+    if (values == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * values));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highest(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Remove all values. Values recorded by other threads meanwhile may be kept in part.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    count.set(0);
+    total.set(0);
+    max.reset();
+  }
+
+  /**
+   * The bucket of a value.
+   *
+   * @param value a value, not negative
+   * @return the index of the bucket
+   */
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return shift * SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  /**
+   * The lowest value of a bucket.
+   *
+   * @param index the index of the bucket
+   * @return the lowest value
+   */
+  static long lowest(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+    return (long) (SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+  }
+
+  /**
+   * The highest value of a bucket.
+   *
+   * @param index the index of the bucket
+   * @return the highest value
+   */
+  static long highest(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    return lowest(index) + (1L << (index - SUB_BUCKETS) / SUB_BUCKETS) - 1;
+  }
+
+}
@@ -0,0 +1,104 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.text.CompactText;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.IndexReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A search result that reads its text from the stored fields of the index when it is first
+ * requested. A compact text is decoded at the same time.
+ *
+ * <p>The entry holds a reference to the reader it was found in, so the reader stays open after
+ * the searcher closes or replaces it. The reference is released when the text is read or set,
+ * or when the entry is garbage collected without its text being read.
+ */
+final class LazyEntry extends Entry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LazyEntry.class);
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final Cleaner.Cleanable release;
+
+  private Fieldable textField;
+
+  /**
+   * Create an entry with a lazily loaded text field, and hold a reference to its reader.
+   *
+   * @param indexReader the reader the field was loaded from
+   * @param textField the lazily loaded text field
+   */
+  LazyEntry(IndexReader indexReader, Fieldable textField) {
+    indexReader.incRef();
+    this.textField = textField;
+    this.release = CLEANER.register(this, new Release(indexReader));
+  }
+
+  @Override
+  public synchronized String getText() {
+    if (textField != null) {
+      try {
+        super.setText(text(textField));
+      } finally {
+        textField = null;
+        release.clean();
+      }
+    }
+    return super.getText();
+  }
+
+  @Override
+  public synchronized void setText(String text) {
+    if (textField != null) {
+      textField = null;
+      release.clean();
+    }
+    super.setText(text);
+  }
+
+  /**
+   * The text of a stored text field, decoded if the field is a compact text.
+   *
+   * @param field the {@code text} or {@code text_compact} field, or null
+   * @return the HTML text, or null if there is no field
+   */
+  static String text(Fieldable field) {
+    if (field == null) {
+      return null;
+    }
+    if (field.isBinary()) {
+      return CompactText.decode(
+          field.getBinaryValue(), field.getBinaryOffset(), field.getBinaryLength());
+    }
+    return field.stringValue();
+  }
+
+  /**
+   * Releases the reader of an entry. It must not refer to the entry, or the entry would never
+   * become unreachable.
+   */
+  private static final class Release implements Runnable {
+
+    private final IndexReader indexReader;
+
+    Release(IndexReader indexReader) {
+      this.indexReader = indexReader;
+    }
+
+    @Override
+    public void run() {
+      try {
+        indexReader.decRef();
+      } catch (IOException ex) {
+        LOGGER.error(ex.getMessage(), ex);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,152 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import net.hunnor.dict.lucene.model.Entry;
+
+/**
+ * A result cache that evicts the least recently used results when it holds more than a number
+ * of queries, or more than an estimated number of bytes.
+ *
+ * <p>The size of the results is estimated from the length of the strings they hold, with a
+ * fixed overhead for each object. Results larger than the byte limit are not cached.
+ */
+public class LruResultCache implements ResultCache {
+
+  private static final int KEY_BYTES = 96;
+
+  private static final int ENTRY_BYTES = 64;
+
+  private static final int STRING_BYTES = 40;
+
+  private final int maxEntries;
+
+  private final long maxBytes;
+
+  private final LinkedHashMap<QueryKey, Cached> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long bytes;
+
+  private long hits;
+
+  private long misses;
+
+  private long evictions;
+
+  /**
+   * Create a cache.
+   *
+   * @param maxEntries the maximum number of cached queries
+   * @param maxBytes the maximum estimated size of the cached results
+   */
+  public LruResultCache(int maxEntries, long maxBytes) {
+    if (maxEntries < 1 || maxBytes < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  @Override
+  public synchronized List<?> get(QueryKey key) {
+    Cached cached = cache.get(key);
+    if (cached == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return cached.results;
+  }
+
+  @Override
+  public synchronized void put(QueryKey key, List<?> results) {
+    long size = bytes(key, results);
+    if (size > maxBytes) {
+      return;
+    }
+    Cached previous = cache.put(key, new Cached(results, size));
+    if (previous != null) {
+      bytes -= previous.bytes;
+    }
+    bytes += size;
+    Iterator<Cached> eldest = cache.values().iterator();
+    while (cache.size() > maxEntries || bytes > maxBytes) {
+      bytes -= eldest.next().bytes;
+      eldest.remove();
+      evictions++;
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    cache.clear();
+    bytes = 0;
+  }
+
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  public synchronized long getBytes() {
+    return bytes;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * The number of results removed to make room for others. Results removed by {@link #clear()}
+   * are not counted.
+   *
+   * @return the number of evicted results
+   */
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "LruResultCache[size=" + cache.size() + ", bytes=" + bytes + ", hits=" + hits
+        + ", misses=" + misses + ", evictions=" + evictions + "]";
+  }
+
+  /**
+   * The estimated size of the results of a query with their key.
+   */
+  static long bytes(QueryKey key, List<?> results) {
+    long size = KEY_BYTES + bytes(key.getQuery()) + ENTRY_BYTES;
+    for (Object result : results) {
+      if (result instanceof Entry) {
+        Entry entry = (Entry) result;
+        size += ENTRY_BYTES + bytes(entry.getId()) + bytes(entry.getText());
+      } else {
+        size += bytes(result == null ? null : result.toString());
+      }
+    }
+    return size;
+  }
+
+  private static long bytes(String string) {
+    return string == null ? 0 : STRING_BYTES + 2L * string.length();
+  }
+
+  private static final class Cached {
+
+    private final List<?> results;
+
+    private final long bytes;
+
+    private Cached(List<?> results, long bytes) {
+      this.results = results;
+      this.bytes = bytes;
+    }
+
+  }
+
+}
@@ -2,20 +2,47 @@ package net.hunnor.dict.lucene.searcher;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.completion.CompletionReader;
+import net.hunnor.dict.lucene.completion.CompletionWriter;
 import net.hunnor.dict.lucene.constants.Lucene;
+import net.hunnor.dict.lucene.headword.HeadwordTableReader;
+import net.hunnor.dict.lucene.headword.HeadwordTableWriter;
 import net.hunnor.dict.lucene.model.Entry;
 import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.sort.SortRankReader;
+import net.hunnor.dict.lucene.sort.SortRankWriter;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.FieldSelectorResult;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.document.MapFieldSelector;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
@@ -30,18 +57,95 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.search.spell.SpellChecker;
-import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Searches the dictionary index.
+ *
+ * <p>The searcher can be used by many threads at once. Each query holds a reference to the
+ * index it started on, so opening a new index or spelling index while queries are running is
+ * safe, and running queries finish on the previous one.
+ */
 public class LuceneSearcher {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(LuceneSearcher.class);
+
   private static LuceneSearcher instance = new LuceneSearcher();
 
-  private IndexReader indexReader;
+  private static final FieldSelector SUGGESTION_FIELDS = new MapFieldSelector(Lucene.SUGGESTION);
+
+  private static final FieldSelector ENTRY_FIELDS =
+      new MapFieldSelector(Lucene.ID, Lucene.LANG, Lucene.TEXT, Lucene.TEXT_COMPACT);
+
+  private static final FieldSelector LAZY_ENTRY_FIELDS = lazyEntryFields();
+
+  private static final Sort ENTRY_ORDER = new Sort(new SortField(Lucene.SORT, SortField.STRING));
+
+  private static final int WARM_UP_RESULTS = 20;
+
+  // One field for each analyzer of the queries of a search, and of suggestions
+  private static final String[] KEY_FIELDS = {Lucene.HU_ROOTS, Lucene.NO_TRANS, Lucene.HU_TRANS};
+
+  private static final String[] HU_KEY_FIELDS = {Lucene.HU_ROOTS, Lucene.NO_TRANS};
+
+  private static final String[] NO_KEY_FIELDS = {Lucene.NO_ROOTS, Lucene.HU_TRANS};
+
+  private static final String[] SUGGESTION_KEY_FIELDS = {Lucene.SUGGESTION};
+
+  private static final String[][] HU_TIER_FIELDS = {{Lucene.HU_ROOTS}, {Lucene.HU_FORMS},
+      {Lucene.NO_TRANS, Lucene.HU_QUOTE, Lucene.NO_QUOTETRANS}};
+
+  private static final String[][] NO_TIER_FIELDS = {{Lucene.NO_ROOTS}, {Lucene.NO_FORMS},
+      {Lucene.HU_TRANS, Lucene.NO_QUOTE, Lucene.HU_QUOTETRANS}};
+
+  private static final SearchTier[] TIERS =
+      {SearchTier.ROOTS, SearchTier.FORMS, SearchTier.FULL_TEXT};
+
+  private static final int BATCH_CHUNK = 256;
+
+  private static final String INDEX_NOT_OPEN = "Index not open";
+
+  private static final String SPELL_CHECKER_NOT_OPEN = "Spell checker not open";
+
+  private volatile IndexSearcherManager searcherManager;
+
+  private volatile SpellChecker spellChecker;
+
+  private Directory spellingIndex;
+
+  private volatile File indexDirectory;
+
+  private volatile CompletionReader completionReader;
 
-  private SpellChecker spellChecker;
+  private volatile SortRankReader sortRanks;
+
+  private volatile HeadwordTableReader headwordTable;
 
   private Analyzer analyzer = PerFieldAnalyzer.getInstance(Lucene.VERSION);
 
+  private volatile boolean singlePass;
+
+  private volatile boolean lazyText;
+
+  private volatile DirectoryType directoryType = DirectoryType.NIOFS;
+
+  private volatile ByteBufferDirectory preloadedDirectory;
+
+  private volatile Set<WarmUpStep> warmUp = EnumSet.noneOf(WarmUpStep.class);
+
+  private volatile File warmUpQueries;
+
+  private volatile Map<WarmUpStep, Long> warmUpTimes = Collections.emptyMap();
+
+  private volatile ResultCache resultCache;
+
+  private volatile SearchMetrics searchMetrics;
+
+  private final AtomicLong generation = new AtomicLong();
+
   /**
    * Get the single instance of the class.
    * @return the single instance of the class
@@ -51,74 +155,330 @@ public class LuceneSearcher {
   }
 
   public boolean isOpen() {
-    return indexReader != null;
+    return searcherManager != null;
+  }
+
+  public boolean isCompletionOpen() {
+    return completionReader != null;
+  }
+
+  public boolean isHeadwordTableOpen() {
+    return headwordTable != null;
   }
 
   public boolean isSpellCheckerOpen() {
     return spellChecker != null;
   }
 
-  public void open(File indexDirectory) throws IOException {
-    indexReader = IndexReader.open(new NIOFSDirectory(indexDirectory));
+  public boolean isSinglePass() {
+    return singlePass;
+  }
+
+  /**
+   * Evaluate the roots, forms and full text queries of a search in a single pass, instead of
+   * running them one after the other until one of them has results. The results are the same.
+   * @param singlePass true to search all tiers in a single pass
+   */
+  public void setSinglePass(boolean singlePass) {
+    this.singlePass = singlePass;
+  }
+
+  public boolean isLazyText() {
+    return lazyText;
+  }
+
+  /**
+   * Load the text of the entries returned by searches when it is first read, instead of with
+   * the other fields. Each entry keeps the index reader it was found in open until its text is
+   * read, or until the entry is garbage collected, so an index that is closed or replaced stays
+   * open while such entries are referenced. The text is loaded with the other fields while a
+   * result cache is set, see {@link #setResultCache(ResultCache)}.
+   * @param lazyText true to load the text of the entries lazily
+   */
+  public void setLazyText(boolean lazyText) {
+    this.lazyText = lazyText;
+  }
+
+  public DirectoryType getDirectoryType() {
+    return directoryType;
+  }
+
+  /**
+   * Read the index and the spelling index with a directory implementation. The type is used by
+   * the next {@link #open(File)} and {@link #openSpellChecker(File)}.
+   * @param directoryType the directory type
+   */
+  public void setDirectoryType(DirectoryType directoryType) {
+    this.directoryType = directoryType;
+  }
+
+  public Set<WarmUpStep> getWarmUp() {
+    return Collections.unmodifiableSet(warmUp);
+  }
+
+  /**
+   * Warm up each new searcher with these steps before queries use it, when the index is opened
+   * and when it is reopened. The steps run in the order of {@link WarmUpStep}, on the thread
+   * opening the index, and {@link #isOpen()} is false until the first searcher is warmed up.
+   * @param warmUp the warm-up steps, empty for no warm-up
+   */
+  public void setWarmUp(Set<WarmUpStep> warmUp) {
+    Set<WarmUpStep> steps = EnumSet.noneOf(WarmUpStep.class);
+    steps.addAll(warmUp);
+    this.warmUp = steps;
+  }
+
+  public File getWarmUpQueries() {
+    return warmUpQueries;
   }
 
   /**
-   * Open a spell checker if the directory exists.
+   * The queries run by the {@link WarmUpStep#QUERIES} step: a UTF-8 text file with one query
+   * per line. Empty lines and lines starting with {@code #} are skipped. The file is read at
+   * each warm-up.
+   * @param warmUpQueries the query file, or null to run no queries
+   */
+  public void setWarmUpQueries(File warmUpQueries) {
+    this.warmUpQueries = warmUpQueries;
+  }
+
+  /**
+   * The time each step of the last warm-up took.
+   * @return the milliseconds of each step that ran, in the order of the steps
+   */
+  public Map<WarmUpStep, Long> getWarmUpTimes() {
+    return warmUpTimes;
+  }
+
+  public ResultCache getResultCache() {
+    return resultCache;
+  }
+
+  /**
+   * Cache the results of {@link #search(String, int)}, {@link #search(String, Language, int)},
+   * {@link #suggestions(String, int)} and {@link #spellingSuggestions(String, int)}. The
+   * queries are normalized by the analyzers of the fields they search, so queries with the same
+   * tokens share their results. Queries for the spell checker are not analyzed. The cache is
+   * cleared when the index or the spelling index is opened, reloaded or closed, and results read
+   * from the previous index are not returned after that. The cache wins over
+   * {@link #setLazyText(boolean)}: while it is set, the text of the entries is loaded with the
+   * other fields, so the cached copies hold the text and no index reader.
+   * @param resultCache the cache, or null to cache no results
+   */
+  public void setResultCache(ResultCache resultCache) {
+    this.resultCache = resultCache;
+  }
+
+  public SearchMetrics getSearchMetrics() {
+    return searchMetrics;
+  }
+
+  /**
+   * Report the latency of each query method and each tier of a search, the tiers without
+   * results, the calls of the spell checker, and the documents loaded to a listener, for
+   * example a {@link SearchMetricsRegistry}. Without a listener the searcher does not read the
+   * clock or count anything.
+   * @param searchMetrics the listener, or null to report nothing
+   */
+  public void setSearchMetrics(SearchMetrics searchMetrics) {
+    this.searchMetrics = searchMetrics;
+  }
+
+  /**
+   * Open the index, and a searcher that is shared by all queries until the index is closed.
+   * If an index is already open, the new one replaces it atomically: queries that are running
+   * finish on the previous index, which is closed after the last of them. If the directory has
+   * a completion file, suggestions are answered from it. If it has a sort rank file of the same
+   * version of the index, results are sorted by the ranks of the file instead of the terms of
+   * the sort field. If it has a headword table of the same version of the index, the entries
+   * with a root that is the only token of a query are read from the table instead of searching
+   * the roots fields. The new searcher is warmed up before it is used.
+   * @param indexDirectory the index directory
+   * @throws IOException if the directory cannot be opened
+   */
+  public synchronized void open(File indexDirectory) throws IOException {
+    Directory directory = directoryType.open(indexDirectory);
+    if (searcherManager == null) {
+      searcherManager = new IndexSearcherManager(directory, this::warmUp);
+    } else {
+      searcherManager.swap(directory);
+    }
+    preloadedDirectory = directory instanceof ByteBufferDirectory
+        ? (ByteBufferDirectory) directory : null;
+    this.indexDirectory = indexDirectory;
+    completionReader = openCompletion(indexDirectory);
+    sortRanks = openSortRanks(indexDirectory);
+    headwordTable = openHeadwordTable(indexDirectory);
+    invalidate();
+  }
+
+  /**
+   * Reopen the index if its directory has changed since it was opened, for example after
+   * entries were added to it. Running queries finish on the previous version of the index. A
+   * preloaded index is read into memory again if a newer commit was written to its directory.
+   * @return false if the index was not open, or another thread was reloading it at the time
+   * @throws IOException if the index cannot be reopened
+   */
+  public boolean reload() throws IOException {
+    ByteBufferDirectory preloaded = preloadedDirectory;
+    if (preloaded != null) {
+      return preloaded.isCurrent() || reloadPreloaded(preloaded);
+    }
+    IndexSearcherManager manager = searcherManager;
+    if (manager == null) {
+      return false;
+    }
+    try {
+      IndexSearcher before = current(manager);
+      if (manager.maybeRefresh()) {
+        completionReader = openCompletion(indexDirectory);
+        sortRanks = openSortRanks(indexDirectory);
+        headwordTable = openHeadwordTable(indexDirectory);
+        if (current(manager) != before) {
+          invalidate();
+        }
+        return true;
+      }
+    } catch (AlreadyClosedException ex) {
+      // Closed by another thread while reloading
+    }
+    return false;
+  }
+
+  /**
+   * Acquire the searcher of a manager read from {@link #searcherManager}, which is null or closed
+   * if the index was closed before or while the query started.
+   */
+  private static IndexSearcher acquire(IndexSearcherManager manager) throws IOException {
+    try {
+      if (manager != null) {
+        return manager.acquire();
+      }
+    } catch (AlreadyClosedException ex) {
+      throw new IOException(INDEX_NOT_OPEN, ex);
+    }
+    throw new IOException(INDEX_NOT_OPEN);
+  }
+
+  private static IndexSearcher current(IndexSearcherManager manager) throws IOException {
+    IndexSearcher indexSearcher = manager.acquire();
+    manager.release(indexSearcher);
+    return indexSearcher;
+  }
+
+  private synchronized boolean reloadPreloaded(ByteBufferDirectory preloaded)
+      throws IOException {
+    if (preloadedDirectory != preloaded || searcherManager == null) {
+      // Reopened or closed by another thread
+      return false;
+    }
+    ByteBufferDirectory directory = new ByteBufferDirectory(indexDirectory);
+    searcherManager.swap(directory);
+    preloadedDirectory = directory;
+    completionReader = openCompletion(indexDirectory);
+    sortRanks = openSortRanks(indexDirectory);
+    headwordTable = openHeadwordTable(indexDirectory);
+    invalidate();
+    return true;
+  }
+
+  /**
+   * Open a spell checker if the directory exists. If a spell checker is already open, the new
+   * spelling index replaces its index atomically, and the previous spelling directory is closed.
    * @param spellingDirectory the spell checker directory
    * @throws IOException if the directory cannot be opened
    */
-  public void openSpellChecker(File spellingDirectory) throws IOException {
+  public synchronized void openSpellChecker(File spellingDirectory) throws IOException {
     if (spellingDirectory.canRead()) {
       // The searcher module should only use an existing spelling index
       File[] files = spellingDirectory.listFiles();
       if (files != null && files.length > 0) {
-        spellChecker = new SpellChecker(new NIOFSDirectory(spellingDirectory));
+        Directory directory = directoryType.open(spellingDirectory);
+        if (spellChecker == null) {
+          spellChecker = new SpellChecker(directory);
+        } else {
+          spellChecker.setSpellIndex(directory);
+        }
+        // Closing a directory does not affect the inputs of running suggestions
+        Directory previous = spellingIndex;
+        spellingIndex = directory;
+        if (previous != null) {
+          previous.close();
+        }
+        invalidate();
       }
     }
   }
 
   /**
-   * Close the index reader.
+   * Close the index. Queries that are running finish before the index reader is closed, queries
+   * that start after it throw an {@link IOException}.
    * @throws IOException if there is a low-level IO error
    */
-  public void close() throws IOException {
-    if (indexReader != null) {
-      indexReader.close();
-      indexReader = null;
+  public synchronized void close() throws IOException {
+    if (searcherManager != null) {
+      searcherManager.close();
+      searcherManager = null;
+      preloadedDirectory = null;
+      indexDirectory = null;
+      completionReader = null;
+      sortRanks = null;
+      headwordTable = null;
+      invalidate();
     }
   }
 
   /**
-   * Close the spell checker.
+   * Close the spell checker and its directory. Spelling suggestions that start after it throw an
+   * {@link IOException}.
    * @throws IOException if there is a low-level IO error
    */
-  public void closeSpellChecker() throws IOException {
+  public synchronized void closeSpellChecker() throws IOException {
     if (spellChecker != null) {
       spellChecker.close();
       spellChecker = null;
+      spellingIndex.close();
+      spellingIndex = null;
+      invalidate();
     }
   }
 
   /**
-   * Suggest terms from the index.
+   * Suggest terms from the completion file of the index if it was written from the index being
+   * searched, otherwise from the suggestion field of the index.
    * @param userQuery the user query to return suggestions for
    * @param max the maximum number of suggestions to return
    * @return a set of matching terms
    * @throws IOException if there is a low-level IO error
    */
   public List<String> suggestions(String userQuery, int max) throws IOException {
+    return measured(SearchMethod.SUGGESTIONS, () -> cached(QueryKey.Type.SUGGESTIONS,
+        userQuery, null, max, () -> indexSuggestions(userQuery, max), UnaryOperator.identity()));
+  }
+
+  private List<String> indexSuggestions(String userQuery, int max) throws IOException {
+    CompletionReader completion = completionReader;
+    if (completion != null) {
+      IndexSearcherManager manager = searcherManager;
+      IndexSearcher indexSearcher = acquire(manager);
+      try {
+        if (completion.matches(indexSearcher.getIndexReader())) {
+          return completion.complete(userQuery, max);
+        }
+      } finally {
+        manager.release(indexSearcher);
+      }
+    }
     Query query = createQueryFromFields(userQuery, new String[] {Lucene.SUGGESTION}, true);
     SortField sortField = new SortField(Lucene.SUGGESTION, SortField.STRING);
     Sort sort = new Sort(sortField);
-    List<Document> documents = docsFromQuery(query, sort, max);
-    List<String> suggestions = new ArrayList<>();
+    List<Document> documents =
+        docsFromQuery(query, sort, max, SUGGESTION_FIELDS, (indexReader, loaded) -> loaded);
+    Set<String> suggestions = new LinkedHashSet<>();
     for (Document document : documents) {
-      String suggestion = document.get(Lucene.SUGGESTION);
-      if (!suggestions.contains(suggestion)) {
-        suggestions.add(suggestion);
-      }
+      suggestions.add(document.get(Lucene.SUGGESTION));
     }
-    return suggestions;
+    return new ArrayList<>(suggestions);
   }
 
   /**
@@ -129,8 +489,19 @@ public class LuceneSearcher {
    * @throws IOException if there is a low-level IO error
    */
   public List<String> spellingSuggestions(String userQuery, int max) throws IOException {
+    return measured(SearchMethod.SPELLING_SUGGESTIONS,
+        () -> cached(QueryKey.Type.SPELLING_SUGGESTIONS, userQuery, null, max,
+            () -> spellCheckerSuggestions(userQuery, max), UnaryOperator.identity()));
+  }
+
+  private List<String> spellCheckerSuggestions(String userQuery, int max) throws IOException {
     List<String> results = new ArrayList<>();
+    SearchMetrics metrics = searchMetrics;
+    long start = metrics == null ? 0 : System.nanoTime();
     String[] suggestions = executeSuggestion(userQuery, max);
+    if (metrics != null) {
+      metrics.spellChecked(System.nanoTime() - start);
+    }
     results.addAll(Arrays.asList(suggestions));
     return results;
   }
@@ -143,24 +514,8 @@ public class LuceneSearcher {
    * @throws IOException if there is a low-level IO error
    */
   public List<Entry> search(String userQuery, int max) throws IOException {
-    Query query = createRootsQuery(userQuery);
-    SortField sortField = new SortField(Lucene.SORT, SortField.STRING);
-    Sort sort = new Sort(sortField);
-    List<Document> documents = docsFromQuery(query, sort, max);
-    if (documents.isEmpty()) {
-      query = createFormsQuery(userQuery);
-      documents = docsFromQuery(query, sort, max);
-      if (documents.isEmpty()) {
-        query = createFullTextQuery(userQuery);
-        documents = docsFromQuery(query, sort, max);
-      }
-    }
-    List<Entry> entryList = new ArrayList<>();
-    for (Document document : documents) {
-      Entry entry = documentToEntry(document);
-      entryList.add(entry);
-    }
-    return entryList;
+    return measured(SearchMethod.SEARCH, () -> cached(QueryKey.Type.SEARCH, userQuery, null,
+        max, () -> searchIndex(userQuery, max), LuceneSearcher::copy));
   }
 
   /**
@@ -172,24 +527,356 @@ public class LuceneSearcher {
    * @throws IOException if there is a low-level IO error
    */
   public List<Entry> search(String userQuery, Language language, int max) throws IOException {
-    Query query = createRootsQuery(userQuery, language);
-    SortField sortField = new SortField(Lucene.SORT, SortField.STRING);
-    Sort sort = new Sort(sortField);
-    List<Document> documents = docsFromQuery(query, sort, max);
-    if (documents.isEmpty()) {
-      query = createFormsQuery(userQuery, language);
-      documents = docsFromQuery(query, sort, max);
-      if (documents.isEmpty()) {
-        query = createFullTextQuery(userQuery, language);
-        documents = docsFromQuery(query, sort, max);
+    return measured(SearchMethod.SEARCH, () -> cached(QueryKey.Type.SEARCH, userQuery, language,
+        max, () -> searchIndex(userQuery, language, max), LuceneSearcher::copy));
+  }
+
+  /**
+   * Search the index for the entries matching each of many query strings, with the same
+   * results as {@link #search(String, Language, int)} for each of them. Each distinct query is
+   * analyzed once, queries with the same tokens are searched once, and the tiers of all queries
+   * are evaluated together on the same version of the index. The result cache is not used.
+   * @param userQueries the strings to search for
+   * @param language the source language
+   * @param max the maximum number of results to return for each string
+   * @return the matching entries of each string, in the order of the strings
+   * @throws IOException if there is a low-level IO error
+   */
+  public List<List<Entry>> searchBatch(List<String> userQueries, Language language, int max)
+      throws IOException {
+    return searchBatch(userQueries, language, max, null);
+  }
+
+  /**
+   * Search the index for the entries matching each of many query strings, as
+   * {@link #searchBatch(List, Language, int)}, with the distinct queries split into chunks that
+   * are searched by the tasks of an executor.
+   * @param userQueries the strings to search for
+   * @param language the source language
+   * @param max the maximum number of results to return for each string
+   * @param executorService the executor of the chunks, or null to search on the calling thread
+   * @return the matching entries of each string, in the order of the strings
+   * @throws IOException if there is a low-level IO error, or the thread is interrupted
+   */
+  public List<List<Entry>> searchBatch(List<String> userQueries, Language language, int max,
+      ExecutorService executorService) throws IOException {
+    SearchMetrics metrics = searchMetrics;
+    if (metrics == null) {
+      return searchBatchIndex(userQueries, language, max, executorService);
+    }
+    long start = System.nanoTime();
+    List<List<Entry>> entries = searchBatchIndex(userQueries, language, max, executorService);
+    int results = 0;
+    for (List<Entry> queryEntries : entries) {
+      results += queryEntries.size();
+    }
+    metrics.searched(SearchMethod.SEARCH_BATCH, System.nanoTime() - start, results);
+    return entries;
+  }
+
+  private List<List<Entry>> searchBatchIndex(List<String> userQueries, Language language,
+      int max, ExecutorService executorService) throws IOException {
+    String[][] fields = Language.HU.equals(language) ? HU_TIER_FIELDS : NO_TIER_FIELDS;
+    Map<String, Integer> strings = new HashMap<>();
+    Map<String, Integer> keys = new LinkedHashMap<>();
+    List<String[][][]> queries = new ArrayList<>();
+    int[] positions = new int[userQueries.size()];
+    for (int i = 0; i < positions.length; i++) {
+      Integer query = strings.get(userQueries.get(i));
+      if (query == null) {
+        String[][][] tokens = batchTokens(userQueries.get(i), fields);
+        query = keys.putIfAbsent(Arrays.deepToString(tokens), queries.size());
+        if (query == null) {
+          query = queries.size();
+          queries.add(tokens);
+        }
+        strings.put(userQueries.get(i), query);
       }
+      positions[i] = query;
     }
-    List<Entry> entryList = new ArrayList<>();
-    for (Document document : documents) {
-      Entry entry = documentToEntry(document);
-      entryList.add(entry);
+    List<List<Entry>> results = new ArrayList<>(Collections.nCopies(queries.size(), null));
+    IndexSearcherManager manager = searcherManager;
+    IndexSearcher indexSearcher = acquire(manager);
+    try {
+      Sort sort = sort(indexSearcher, ENTRY_ORDER);
+      if (executorService == null || queries.size() <= BATCH_CHUNK) {
+        searchChunk(indexSearcher, fields, queries, 0, queries.size(), sort, max, results);
+      } else {
+        searchChunks(indexSearcher, fields, queries, sort, max, results, executorService);
+      }
+    } finally {
+      manager.release(indexSearcher);
+    }
+    List<List<Entry>> entries = new ArrayList<>(positions.length);
+    boolean[] returned = new boolean[queries.size()];
+    for (int query : positions) {
+      // Repeated queries get their own copies of the results
+      entries.add(returned[query] ? copy(results.get(query), LuceneSearcher::copy)
+          : results.get(query));
+      returned[query] = true;
+    }
+    return entries;
+  }
+
+  private String[][][] batchTokens(String userQuery, String[][] fields) throws IOException {
+    String[][][] tokens = new String[fields.length][][];
+    for (int tier = 0; tier < fields.length; tier++) {
+      tokens[tier] = new String[fields[tier].length][];
+      for (int field = 0; field < fields[tier].length; field++) {
+        tokens[tier][field] = extractTokens(userQuery, fields[tier][field]).toArray(new String[0]);
+      }
+    }
+    return tokens;
+  }
+
+  private void searchChunks(IndexSearcher indexSearcher, String[][] fields,
+      List<String[][][]> queries, Sort sort, int max, List<List<Entry>> results,
+      ExecutorService executorService) throws IOException {
+    List<Future<?>> futures = new ArrayList<>();
+    for (int from = 0; from < queries.size(); from += BATCH_CHUNK) {
+      int start = from;
+      int end = Math.min(from + BATCH_CHUNK, queries.size());
+      futures.add(executorService.submit(() -> {
+        searchChunk(indexSearcher, fields, queries, start, end, sort, max, results);
+        return null;
+      }));
+    }
+    // Wait for all chunks, the searcher is released when they are done
+    Throwable failure = null;
+    boolean interrupted = false;
+    for (Future<?> future : futures) {
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException ex) {
+          interrupted = true;
+        } catch (ExecutionException ex) {
+          failure = failure == null ? ex.getCause() : failure;
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    } else if (failure != null) {
+      throw new IOException(failure);
+    }
+  }
+
+  private void searchChunk(IndexSearcher indexSearcher, String[][] fields,
+      List<String[][][]> queries, int from, int to, Sort sort, int max,
+      List<List<Entry>> results) throws IOException {
+    ScoreDoc[][] hits =
+        BatchSearch.search(indexSearcher, fields, queries.subList(from, to), sort, max);
+    FieldSelector fieldSelector = entryFields();
+    for (int i = 0; i < hits.length; i++) {
+      List<Document> documents = new ArrayList<>(hits[i].length);
+      for (ScoreDoc scoreDoc : hits[i]) {
+        documents.add(extractDocument(indexSearcher, scoreDoc, fieldSelector));
+      }
+      loaded(searchMetrics, documents);
+      List<Entry> entries = docsToEntries(indexSearcher.getIndexReader(), documents);
+      synchronized (results) {
+        results.set(from + i, entries);
+      }
+    }
+  }
+
+  private List<Entry> searchIndex(String userQuery, int max) throws IOException {
+    TieredSearch.Tier[] tiers = new TieredSearch.Tier[] {() -> createRootsQuery(userQuery),
+        () -> createFormsQuery(userQuery), () -> createFullTextQuery(userQuery)};
+    return searchTiers(userQuery, null, tiers, max);
+  }
+
+  private List<Entry> searchIndex(String userQuery, Language language, int max)
+      throws IOException {
+    TieredSearch.Tier[] tiers = new TieredSearch.Tier[] {
+        () -> createRootsQuery(userQuery, language),
+        () -> createFormsQuery(userQuery, language),
+        () -> createFullTextQuery(userQuery, language)};
+    return searchTiers(userQuery, language, tiers, max);
+  }
+
+  /**
+   * The results of the first tier of a search with results. The headword table answers the
+   * roots tier if it can, and the roots tier is not searched again if it has no results.
+   */
+  private List<Entry> searchTiers(String userQuery, Language language,
+      TieredSearch.Tier[] tiers, int max) throws IOException {
+    Sort sort = ENTRY_ORDER;
+    SearchMetrics metrics = searchMetrics;
+    long start = metrics == null ? 0 : System.nanoTime();
+    List<Entry> entries = docsFromHeadwords(userQuery, language, max);
+    int first = 0;
+    if (entries != null) {
+      if (metrics != null) {
+        metrics.tierSearched(SearchTier.HEADWORD_TABLE, System.nanoTime() - start,
+            entries.size());
+      }
+      if (!entries.isEmpty()) {
+        return entries;
+      }
+      if (metrics != null) {
+        metrics.fellThrough(SearchTier.HEADWORD_TABLE);
+      }
+      first = 1;
+    }
+    if (singlePass) {
+      return docsFromTiers(tiers, first, sort, max, metrics);
+    }
+    for (int tier = first; ; tier++) {
+      start = metrics == null ? 0 : System.nanoTime();
+      entries = docsFromQuery(tiers[tier].query(), sort, max, entryFields(),
+          this::docsToEntries);
+      if (metrics != null) {
+        metrics.tierSearched(TIERS[tier], System.nanoTime() - start, entries.size());
+      }
+      if (!entries.isEmpty() || tier == tiers.length - 1) {
+        return entries;
+      }
+      if (metrics != null) {
+        metrics.fellThrough(TIERS[tier]);
+      }
+    }
+  }
+
+  /**
+   * The roots tier of a query from the headword table. The table is only used for a query of
+   * one token, if it was written from the index of the searcher, and in the same entry order as
+   * a search on the searcher, which may be different while the index is reopened.
+   *
+   * @return the entries of the roots tier, or null if the tier must be searched
+   */
+  private List<Entry> docsFromHeadwords(String userQuery, Language language, int max)
+      throws IOException {
+    HeadwordTableReader table = headwordTable;
+    if (table == null) {
+      return null;
+    }
+    String token = null;
+    for (Language rootsLanguage : Language.values()) {
+      if (language != null && !language.equals(rootsLanguage)) {
+        continue;
+      }
+      String field = Language.HU.equals(rootsLanguage) ? Lucene.HU_ROOTS : Lucene.NO_ROOTS;
+      List<String> tokens = extractTokens(userQuery, field);
+      if (tokens.size() != 1 || (token != null && !token.equals(tokens.get(0)))) {
+        return null;
+      }
+      token = tokens.get(0);
+    }
+    List<Document> results = new ArrayList<>();
+    List<Entry> entries;
+    FieldSelector fieldSelector = entryFields();
+    IndexSearcherManager manager = searcherManager;
+    IndexSearcher indexSearcher = acquire(manager);
+    try {
+      IndexReader indexReader = indexSearcher.getIndexReader();
+      SortRankReader ranks = sortRanks;
+      boolean ranked = ranks != null && ranks.matches(indexReader);
+      if (!table.matches(indexReader) || table.isRanked() != ranked) {
+        return null;
+      }
+      int[] documents = language == null
+          ? table.documents(token, max) : table.documents(language, token, max);
+      for (int document : documents) {
+        results.add(indexSearcher.doc(document, fieldSelector));
+      }
+      entries = docsToEntries(indexReader, results);
+    } finally {
+      manager.release(indexSearcher);
+    }
+    loaded(searchMetrics, results);
+    return entries;
+  }
+
+  /**
+   * The results of a query method, reported to the search metrics if there are any.
+   */
+  private <T> List<T> measured(SearchMethod method, Lookup<T> lookup) throws IOException {
+    SearchMetrics metrics = searchMetrics;
+    if (metrics == null) {
+      return lookup.run();
+    }
+    long start = System.nanoTime();
+    List<T> results = lookup.run();
+    metrics.searched(method, System.nanoTime() - start, results.size());
+    return results;
+  }
+
+  /**
+   * The results of a query from the result cache, or from the lookup. The cache holds copies
+   * of the results, and the cached results are copied for each caller, who may modify them.
+   * The generation is read before the lookup, so results read from an index that is replaced
+   * meanwhile are cached under the generation of that index, and never returned.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> List<T> cached(QueryKey.Type type, String userQuery, Language language, int max,
+      Lookup<T> lookup, UnaryOperator<T> copy) throws IOException {
+    ResultCache cache = resultCache;
+    if (cache == null) {
+      return lookup.run();
+    }
+    QueryKey key = new QueryKey(type, normalize(type, userQuery, language), language, max,
+        generation.get());
+    List<?> cached = cache.get(key);
+    if (cached != null) {
+      return copy((List<T>) cached, copy);
+    }
+    List<T> results = lookup.run();
+    cache.put(key, Collections.unmodifiableList(copy(results, copy)));
+    return results;
+  }
+
+  private static <T> List<T> copy(List<T> results, UnaryOperator<T> copy) {
+    List<T> copies = new ArrayList<>(results.size());
+    for (T result : results) {
+      copies.add(copy.apply(result));
+    }
+    return copies;
+  }
+
+  private static Entry copy(Entry entry) {
+    Entry copy = new Entry();
+    copy.setId(entry.getId());
+    copy.setLang(entry.getLang());
+    copy.setText(entry.getText());
+    return copy;
+  }
+
+  private String normalize(QueryKey.Type type, String userQuery, Language language)
+      throws IOException {
+    String[] fields;
+    if (type == QueryKey.Type.SPELLING_SUGGESTIONS) {
+      return userQuery;
+    } else if (type == QueryKey.Type.SUGGESTIONS) {
+      fields = SUGGESTION_KEY_FIELDS;
+    } else if (language == null) {
+      fields = KEY_FIELDS;
+    } else {
+      fields = Language.HU.equals(language) ? HU_KEY_FIELDS : NO_KEY_FIELDS;
+    }
+    StringBuilder normalized = new StringBuilder();
+    for (String field : fields) {
+      for (String token : extractTokens(userQuery, field)) {
+        normalized.append(token).append(' ');
+      }
+      normalized.append('\u0000');
+    }
+    return normalized.toString();
+  }
+
+  private void invalidate() {
+    generation.incrementAndGet();
+    ResultCache cache = resultCache;
+    if (cache != null) {
+      cache.clear();
     }
-    return entryList;
   }
 
   private Query createRootsQuery(String userQuery) throws IOException {
@@ -263,36 +950,259 @@ public class LuceneSearcher {
   private List<String> extractTokens(String query, String field) throws IOException {
     List<String> tokens = new ArrayList<>();
     Reader reader = new StringReader(query);
-    TokenStream tokenStream = analyzer.tokenStream(field, reader);
+    // The analyzers keep one token stream per thread, which is reset for each query
+    TokenStream tokenStream = analyzer.reusableTokenStream(field, reader);
     CharTermAttribute attribute = tokenStream.getAttribute(CharTermAttribute.class);
+    tokenStream.reset();
     while (tokenStream.incrementToken()) {
       tokens.add(attribute.toString());
     }
+    tokenStream.end();
+    tokenStream.close();
     return tokens;
   }
 
-  private List<Document> docsFromQuery(Query query, Sort sort, int max) throws IOException {
+  private <T> List<T> docsFromQuery(Query query, Sort sort, int max,
+      FieldSelector fieldSelector, Conversion<T> conversion) throws IOException {
     List<Document> results = new ArrayList<>();
-    IndexSearcher indexSearcher = new IndexSearcher(indexReader);
-    TopDocs topDocs = executeSearch(indexSearcher, query, max, sort);
-    ScoreDoc[] scoreDocs = topDocs.scoreDocs;
-    for (ScoreDoc scoreDoc: scoreDocs) {
-      Document document = extractDocument(scoreDoc);
-      results.add(document);
+    List<T> converted;
+    IndexSearcherManager manager = searcherManager;
+    IndexSearcher indexSearcher = acquire(manager);
+    try {
+      TopDocs topDocs = executeSearch(indexSearcher, query, max, sort(indexSearcher, sort));
+      ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+      for (ScoreDoc scoreDoc: scoreDocs) {
+        Document document = extractDocument(indexSearcher, scoreDoc, fieldSelector);
+        results.add(document);
+      }
+      converted = conversion.convert(indexSearcher.getIndexReader(), results);
+    } finally {
+      manager.release(indexSearcher);
     }
-    return results;
+    loaded(searchMetrics, results);
+    return converted;
   }
 
-  private Entry documentToEntry(Document document) {
-    Entry entry = new Entry();
+  /**
+   * The results of the first tier with results, from the first tier on, in a single pass. The
+   * whole pass is reported as the time of the tier with the results.
+   */
+  private List<Entry> docsFromTiers(TieredSearch.Tier[] tiers, int first, Sort sort, int max,
+      SearchMetrics metrics) throws IOException {
+    long start = metrics == null ? 0 : System.nanoTime();
+    List<Document> results = new ArrayList<>();
+    List<Entry> entries;
+    FieldSelector fieldSelector = entryFields();
+    IndexSearcherManager manager = searcherManager;
+    IndexSearcher indexSearcher = acquire(manager);
+    TieredSearch.Result result;
+    try {
+      result = TieredSearch.search(indexSearcher, Arrays.copyOfRange(tiers, first, tiers.length),
+          sort(indexSearcher, sort), max);
+      for (ScoreDoc scoreDoc : result.getScoreDocs()) {
+        Document document = extractDocument(indexSearcher, scoreDoc, fieldSelector);
+        results.add(document);
+      }
+      entries = docsToEntries(indexSearcher.getIndexReader(), results);
+    } finally {
+      manager.release(indexSearcher);
+    }
+    if (metrics != null) {
+      loaded(metrics, results);
+      int tier = result.getTier() == TieredSearch.NO_TIER
+          ? tiers.length - 1 : first + result.getTier();
+      for (int i = first; i < tier; i++) {
+        metrics.fellThrough(TIERS[i]);
+      }
+      metrics.tierSearched(TIERS[tier], System.nanoTime() - start, results.size());
+    }
+    return entries;
+  }
+
+  private static void loaded(SearchMetrics metrics, List<Document> documents) {
+    if (metrics != null && !documents.isEmpty()) {
+      long bytes = 0;
+      for (Document document : documents) {
+        bytes += storedBytes(document);
+      }
+      metrics.documentsLoaded(documents.size(), bytes);
+    }
+  }
+
+  /**
+   * The size of the stored values of a document, as read from the index: the UTF-8 length of
+   * the strings, and the length of the binary values. Fields that are loaded lazily have not
+   * been read yet.
+   */
+  static long storedBytes(Document document) {
+    long bytes = 0;
+    for (Fieldable field : document.getFields()) {
+      if (field.isLazy()) {
+        continue;
+      }
+      if (field.isBinary()) {
+        bytes += field.getBinaryLength();
+      } else if (field.stringValue() != null) {
+        bytes += utf8Length(field.stringValue());
+      }
+    }
+    return bytes;
+  }
+
+  private static long utf8Length(String value) {
+    long length = value.length();
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= 0x800 && !Character.isSurrogate(c)) {
+        length += 2;
+      } else if (c >= 0x80) {
+        // A surrogate pair is four bytes
+        length++;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * The sort of a query on a searcher. The entry order is by the ranks of the sort rank file if
+   * it was written from the index of the searcher, which may be older or newer than the file
+   * while the index is reopened.
+   */
+  private Sort sort(IndexSearcher indexSearcher, Sort sort) {
+    SortRankReader ranks = sortRanks;
+    if (sort == ENTRY_ORDER && ranks != null && ranks.matches(indexSearcher.getIndexReader())) {
+      return new Sort(new SortField(Lucene.SORT, new SortRankComparatorSource(ranks)));
+    }
+    return sort;
+  }
+
+  private void warmUp(IndexSearcher indexSearcher) throws IOException {
+    Map<WarmUpStep, Long> times = new EnumMap<>(WarmUpStep.class);
+    for (WarmUpStep step : warmUp) {
+      long start = System.nanoTime();
+      step.warm(this, indexSearcher);
+      long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      times.put(step, time);
+      LOGGER.info("Warm-up step {}: {} ms", step, time);
+    }
+    warmUpTimes = Collections.unmodifiableMap(times);
+  }
+
+  /**
+   * Run the queries of the warm-up query file on a searcher, through the roots, forms and full
+   * text queries of both languages, and read the stored fields of the results. The results are
+   * not sorted, the sort is warmed up by {@link WarmUpStep#FIELD_CACHES}.
+   */
+  void warmQueries(IndexSearcher indexSearcher) throws IOException {
+    File file = warmUpQueries;
+    if (file == null) {
+      return;
+    }
+    FieldSelector fieldSelector = entryFields();
+    for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+      String userQuery = line.trim();
+      if (userQuery.isEmpty() || userQuery.startsWith("#")) {
+        continue;
+      }
+      for (Language language : Language.values()) {
+        Query[] queries = new Query[] {createRootsQuery(userQuery, language),
+            createFormsQuery(userQuery, language), createFullTextQuery(userQuery, language)};
+        for (Query query : queries) {
+          for (ScoreDoc scoreDoc : indexSearcher.search(query, WARM_UP_RESULTS).scoreDocs) {
+            extractDocument(indexSearcher, scoreDoc, fieldSelector);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The entries of documents, converted while the searcher they were loaded from is acquired.
+   * Entries with a lazily loaded text keep the reader open until the text is read.
+   */
+  private List<Entry> docsToEntries(IndexReader indexReader, List<Document> documents) {
+    List<Entry> entryList = new ArrayList<>();
+    for (Document document : documents) {
+      Entry entry = documentToEntry(indexReader, document);
+      entryList.add(entry);
+    }
+    return entryList;
+  }
+
+  private Entry documentToEntry(IndexReader indexReader, Document document) {
+    Fieldable text = document.getFieldable(Lucene.TEXT);
+    if (text == null) {
+      text = document.getFieldable(Lucene.TEXT_COMPACT);
+    }
+    Entry entry;
+    if (text != null && text.isLazy()) {
+      entry = new LazyEntry(indexReader, text);
+    } else {
+      entry = new Entry();
+      entry.setText(LazyEntry.text(text));
+    }
     entry.setId(document.get(Lucene.ID));
     entry.setLang(Language.valueOf(document.get(Lucene.LANG).toUpperCase(Locale.getDefault())));
-    entry.setText(document.get(Lucene.TEXT));
     return entry;
   }
 
+  private static CompletionReader openCompletion(File indexDirectory) throws IOException {
+    File file = new File(indexDirectory, CompletionWriter.FILE_NAME);
+    return file.isFile() ? CompletionReader.open(file) : null;
+  }
+
+  private static SortRankReader openSortRanks(File indexDirectory) throws IOException {
+    File file = new File(indexDirectory, SortRankWriter.FILE_NAME);
+    return file.isFile() ? SortRankReader.open(file) : null;
+  }
+
+  private static HeadwordTableReader openHeadwordTable(File indexDirectory) throws IOException {
+    File file = new File(indexDirectory, HeadwordTableWriter.FILE_NAME);
+    return file.isFile() ? HeadwordTableReader.open(file) : null;
+  }
+
+  private FieldSelector entryFields() {
+    // Cached copies of lazy entries would load their text after the searcher is released
+    return lazyText && resultCache == null ? LAZY_ENTRY_FIELDS : ENTRY_FIELDS;
+  }
+
+  private static FieldSelector lazyEntryFields() {
+    Map<String, FieldSelectorResult> fields = new HashMap<>();
+    fields.put(Lucene.ID, FieldSelectorResult.LOAD);
+    fields.put(Lucene.LANG, FieldSelectorResult.LOAD);
+    fields.put(Lucene.TEXT, FieldSelectorResult.LAZY_LOAD);
+    fields.put(Lucene.TEXT_COMPACT, FieldSelectorResult.LAZY_LOAD);
+    return new MapFieldSelector(fields);
+  }
+
   private String[] executeSuggestion(String query, int maxSuggestions) throws IOException {
-    return spellChecker.suggestSimilar(query, maxSuggestions);
+    SpellChecker checker = spellChecker;
+    try {
+      if (checker != null) {
+        return checker.suggestSimilar(query, maxSuggestions);
+      }
+    } catch (AlreadyClosedException ex) {
+      throw new IOException(SPELL_CHECKER_NOT_OPEN, ex);
+    }
+    throw new IOException(SPELL_CHECKER_NOT_OPEN);
+  }
+
+  /**
+   * Converts the documents loaded by a query while its searcher is acquired.
+   */
+  private interface Conversion<T> {
+
+    List<T> convert(IndexReader indexReader, List<Document> documents);
+
+  }
+
+  /**
+   * Reads the results of a query that are not cached.
+   */
+  private interface Lookup<T> {
+
+    List<T> run() throws IOException;
+
   }
 
   private TopDocs executeSearch(IndexSearcher indexSearcher, Query query,
@@ -300,8 +1210,10 @@ public class LuceneSearcher {
     return indexSearcher.search(query, maxSuggestions, sort);
   }
 
-  private Document extractDocument(ScoreDoc scoreDoc) throws IOException {
-    return indexReader.document(scoreDoc.doc);
+  private Document extractDocument(IndexSearcher indexSearcher, ScoreDoc scoreDoc,
+      FieldSelector fieldSelector) throws IOException {
+    // Only the fields of the result model are read from the stored fields
+    return indexSearcher.doc(scoreDoc.doc, fieldSelector);
   }
 
 }
@@ -0,0 +1,93 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.util.Objects;
+import net.hunnor.dict.lucene.model.Language;
+
+/**
+ * Identifies the results of a {@link LuceneSearcher} query in a {@link ResultCache}.
+ *
+ * <p>The query is normalized by the analyzers of the fields it searches, so that queries that
+ * only differ in case or accents are the same key if the fields fold them. The generation is
+ * the version of the index, the completion file and the spelling index the results were read
+ * from.
+ */
+public final class QueryKey {
+
+  /**
+   * The methods of the searcher with cached results.
+   */
+  public enum Type {
+
+    SEARCH,
+
+    SUGGESTIONS,
+
+    SPELLING_SUGGESTIONS
+
+  }
+
+  private final Type type;
+
+  private final String query;
+
+  private final Language language;
+
+  private final int max;
+
+  private final long generation;
+
+  private final int hashCode;
+
+  QueryKey(Type type, String query, Language language, int max, long generation) {
+    this.type = type;
+    this.query = query;
+    this.language = language;
+    this.max = max;
+    this.generation = generation;
+    this.hashCode = Objects.hash(type, query, language, max, generation);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getQuery() {
+    return query;
+  }
+
+  public Language getLanguage() {
+    return language;
+  }
+
+  public int getMax() {
+    return max;
+  }
+
+  public long getGeneration() {
+    return generation;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof QueryKey)) {
+      return false;
+    }
+    QueryKey other = (QueryKey) obj;
+    return type == other.type && max == other.max && generation == other.generation
+        && language == other.language && query.equals(other.query);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return type + "(" + query + ", " + language + ", " + max + ")@" + generation;
+  }
+
+}
@@ -0,0 +1,36 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.util.List;
+
+/**
+ * Caches the results of {@link LuceneSearcher} queries.
+ *
+ * <p>The searcher stores copies of its results, and copies the cached results again before it
+ * returns them, so implementations only hold the lists. The keys of a previous index never
+ * match again after the index is opened or reloaded, and the searcher {@link #clear() clears}
+ * the cache at that point. Implementations are used by many threads at once.
+ */
+public interface ResultCache {
+
+  /**
+   * The cached results of a query.
+   *
+   * @param key the query
+   * @return the results, or null if they are not cached
+   */
+  List<?> get(QueryKey key);
+
+  /**
+   * Cache the results of a query.
+   *
+   * @param key the query
+   * @param results the results, which are not modified afterwards
+   */
+  void put(QueryKey key, List<?> results);
+
+  /**
+   * Remove all cached results.
+   */
+  void clear();
+
+}
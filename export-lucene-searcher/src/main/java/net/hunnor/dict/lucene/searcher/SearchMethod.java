@@ -0,0 +1,44 @@
+package net.hunnor.dict.lucene.searcher;
+
+/**
+ * The query methods of {@link LuceneSearcher} reported to {@link SearchMetrics}.
+ */
+public enum SearchMethod {
+
+  /**
+   * {@link LuceneSearcher#search(String, int)} and
+   * {@link LuceneSearcher#search(String, net.hunnor.dict.lucene.model.Language, int)}.
+   */
+  SEARCH("search"),
+
+  /**
+   * The {@code searchBatch} methods, one call for each batch.
+   */
+  SEARCH_BATCH("searchBatch"),
+
+  /**
+   * {@link LuceneSearcher#suggestions(String, int)}.
+   */
+  SUGGESTIONS("suggestions"),
+
+  /**
+   * {@link LuceneSearcher#spellingSuggestions(String, int)}.
+   */
+  SPELLING_SUGGESTIONS("spellingSuggestions");
+
+  private final String key;
+
+  SearchMethod(String key) {
+    this.key = key;
+  }
+
+  /**
+   * The name of the method in metrics.
+   *
+   * @return the name
+   */
+  public String getKey() {
+    return key;
+  }
+
+}
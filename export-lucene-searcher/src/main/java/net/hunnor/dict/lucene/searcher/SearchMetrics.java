@@ -0,0 +1,61 @@
+package net.hunnor.dict.lucene.searcher;
+
+/**
+ * Receives the metrics of the queries of a {@link LuceneSearcher}.
+ *
+ * <p>The searcher calls the listener on the query threads, so implementations are used by many
+ * threads at once, must be quick, and must not throw. Each method does nothing by default, so
+ * a listener only implements the events it needs. {@link SearchMetricsRegistry} collects all of
+ * them into latency histograms and counters. Times are in nanoseconds.
+ */
+public interface SearchMetrics {
+
+  /**
+   * A query method returned.
+   *
+   * @param method the method
+   * @param nanos the time of the call, including the result cache
+   * @param results the number of results returned
+   */
+  default void searched(SearchMethod method, long nanos, int results) {
+  }
+
+  /**
+   * A tier of a search was evaluated. The time includes loading the stored fields of the
+   * results. When the tiers are evaluated in a single pass, only the tier with the results is
+   * reported, or the last tier if no tier has results, with the time of the whole pass.
+   *
+   * @param tier the tier
+   * @param nanos the time of the tier
+   * @param results the number of results of the tier
+   */
+  default void tierSearched(SearchTier tier, long nanos, int results) {
+  }
+
+  /**
+   * A tier of a search had no results, and the search continued with the next tier.
+   *
+   * @param tier the tier without results
+   */
+  default void fellThrough(SearchTier tier) {
+  }
+
+  /**
+   * The spell checker was asked for suggestions, on a miss of the result cache.
+   *
+   * @param nanos the time of the spell checker
+   */
+  default void spellChecked(long nanos) {
+  }
+
+  /**
+   * Documents were loaded from the stored fields of the index.
+   *
+   * @param documents the number of documents
+   * @param bytes the UTF-8 size of the string values and the size of the binary values loaded,
+   *     fields loaded lazily are not included
+   */
+  default void documentsLoaded(int documents, long bytes) {
+  }
+
+}
@@ -0,0 +1,67 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.util.Map;
+import javax.management.MXBean;
+
+/**
+ * The management interface of the search metrics published by {@link JmxSearchMetrics}.
+ *
+ * <p>The histograms are named by the keys of the {@link SearchMethod methods} and the
+ * {@link SearchTier tiers}, and {@code spellChecker} for the spell checker. Latencies are in
+ * microseconds. The interface is an MXBean by its annotation, so the attributes are open types
+ * any JMX client can read without the classes of the searcher.
+ */
+@MXBean
+public interface SearchMetricsMxBean {
+
+  /**
+   * The number of values in each histogram: the calls of each method, the searches each tier
+   * was evaluated for, and the calls of the spell checker.
+   *
+   * @return the counts by histogram
+   */
+  Map<String, Long> getCounts();
+
+  Map<String, Double> getMeanMicros();
+
+  Map<String, Double> getMedianMicros();
+
+  Map<String, Double> getP99Micros();
+
+  Map<String, Double> getMaxMicros();
+
+  /**
+   * The number of calls of each method that returned no results.
+   *
+   * @return the counts by method
+   */
+  Map<String, Long> getEmptyResults();
+
+  /**
+   * The number of searches that continued after each tier without results.
+   *
+   * @return the counts by tier
+   */
+  Map<String, Long> getFallThroughs();
+
+  long getSpellCheckerCalls();
+
+  long getDocumentsLoaded();
+
+  long getBytesRead();
+
+  /**
+   * The latency at a percentile of a histogram.
+   *
+   * @param histogram the name of the histogram
+   * @param percentile the percentile, from 0 to 100
+   * @return the latency in microseconds
+   */
+  double percentileMicros(String histogram, double percentile);
+
+  /**
+   * Clear all histograms and counters.
+   */
+  void reset();
+
+}
@@ -0,0 +1,152 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects the metrics of a searcher into a latency histogram for each method and each tier,
+ * and counters of calls without results, tier fall-throughs, spell checker calls, documents
+ * loaded and the bytes of their stored fields read.
+ *
+ * <p>Recording takes no locks and allocates nothing, so one registry can be shared by all the
+ * query threads, and by more than one searcher. {@link JmxSearchMetrics} publishes a registry
+ * as an MBean.
+ */
+public class SearchMetricsRegistry implements SearchMetrics {
+
+  private final Map<SearchMethod, LatencyHistogram> methods = new EnumMap<>(SearchMethod.class);
+
+  private final Map<SearchTier, LatencyHistogram> tiers = new EnumMap<>(SearchTier.class);
+
+  private final LatencyHistogram spellChecker = new LatencyHistogram();
+
+  private final AtomicLongArray emptyResults = new AtomicLongArray(SearchMethod.values().length);
+
+  private final AtomicLongArray fallThroughs = new AtomicLongArray(SearchTier.values().length);
+
+  private final AtomicLong documentsLoaded = new AtomicLong();
+
+  private final AtomicLong bytesRead = new AtomicLong();
+
+  /**
+   * Create a registry with empty histograms and counters.
+   */
+  public SearchMetricsRegistry() {
+    for (SearchMethod method : SearchMethod.values()) {
+      methods.put(method, new LatencyHistogram());
+    }
+    for (SearchTier tier : SearchTier.values()) {
+      tiers.put(tier, new LatencyHistogram());
+    }
+  }
+
+  @Override
+  public void searched(SearchMethod method, long nanos, int results) {
+    methods.get(method).record(nanos);
+    if (results == 0) {
+      emptyResults.incrementAndGet(method.ordinal());
+    }
+  }
+
+  @Override
+  public void tierSearched(SearchTier tier, long nanos, int results) {
+    tiers.get(tier).record(nanos);
+  }
+
+  @Override
+  public void fellThrough(SearchTier tier) {
+    fallThroughs.incrementAndGet(tier.ordinal());
+  }
+
+  @Override
+  public void spellChecked(long nanos) {
+    spellChecker.record(nanos);
+  }
+
+  @Override
+  public void documentsLoaded(int documents, long bytes) {
+    documentsLoaded.addAndGet(documents);
+    bytesRead.addAndGet(bytes);
+  }
+
+  /**
+   * The latencies of the calls of a method.
+   *
+   * @param method the method
+   * @return the histogram of the latencies in nanoseconds
+   */
+  public LatencyHistogram getLatencies(SearchMethod method) {
+    return methods.get(method);
+  }
+
+  /**
+   * The latencies of a tier, and the number of searches it was evaluated for.
+   *
+   * @param tier the tier
+   * @return the histogram of the latencies in nanoseconds
+   */
+  public LatencyHistogram getLatencies(SearchTier tier) {
+    return tiers.get(tier);
+  }
+
+  /**
+   * The latencies of the spell checker, and the number of times it was called.
+   *
+   * @return the histogram of the latencies in nanoseconds
+   */
+  public LatencyHistogram getSpellCheckerLatencies() {
+    return spellChecker;
+  }
+
+  /**
+   * The number of calls of a method that returned no results.
+   *
+   * @param method the method
+   * @return the number of calls
+   */
+  public long getEmptyResults(SearchMethod method) {
+    return emptyResults.get(method.ordinal());
+  }
+
+  /**
+   * The number of searches that continued with the next tier after a tier without results.
+   *
+   * @param tier the tier without results
+   * @return the number of searches
+   */
+  public long getFallThroughs(SearchTier tier) {
+    return fallThroughs.get(tier.ordinal());
+  }
+
+  public long getDocumentsLoaded() {
+    return documentsLoaded.get();
+  }
+
+  public long getBytesRead() {
+    return bytesRead.get();
+  }
+
+  /**
+   * Clear all histograms and counters.
+   */
+  public void reset() {
+    for (LatencyHistogram histogram : methods.values()) {
+      histogram.reset();
+    }
+    for (LatencyHistogram histogram : tiers.values()) {
+      histogram.reset();
+    }
+    spellChecker.reset();
+    for (int i = 0; i < emptyResults.length(); i++) {
+      emptyResults.set(i, 0);
+    }
+    for (int i = 0; i < fallThroughs.length(); i++) {
+      fallThroughs.set(i, 0);
+    }
+    documentsLoaded.set(0);
+    bytesRead.set(0);
+  }
+
+}
@@ -0,0 +1,45 @@
+package net.hunnor.dict.lucene.searcher;
+
+/**
+ * The fallback tiers of a search by {@link LuceneSearcher}, in the order they are tried. A
+ * search returns the results of the first tier with results.
+ */
+public enum SearchTier {
+
+  /**
+   * The roots tier read from the headword table of the index, for a query of one word. If it
+   * has no results, the roots tier is not searched again, the forms tier is next.
+   */
+  HEADWORD_TABLE("headwordTable"),
+
+  /**
+   * The roots of the entries.
+   */
+  ROOTS("roots"),
+
+  /**
+   * The inflected forms of the entries.
+   */
+  FORMS("forms"),
+
+  /**
+   * The translations and quotes of the entries.
+   */
+  FULL_TEXT("fullText");
+
+  private final String key;
+
+  SearchTier(String key) {
+    this.key = key;
+  }
+
+  /**
+   * The name of the tier in metrics.
+   *
+   * @return the name
+   */
+  public String getKey() {
+    return key;
+  }
+
+}
@@ -0,0 +1,76 @@
+package net.hunnor.dict.lucene.searcher;
+
+import net.hunnor.dict.lucene.sort.SortRankReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.FieldComparator;
+import org.apache.lucene.search.FieldComparatorSource;
+
+/**
+ * Sorts documents by the ranks of a sort rank file, instead of the terms of the sort field. The
+ * ranks are read from the file by document number, nothing is loaded into the field cache. The
+ * file must match the index that is searched.
+ */
+final class SortRankComparatorSource extends FieldComparatorSource {
+
+  private static final long serialVersionUID = 1L;
+
+  private final SortRankReader sortRanks;
+
+  SortRankComparatorSource(SortRankReader sortRanks) {
+    this.sortRanks = sortRanks;
+  }
+
+  @Override
+  public FieldComparator<Integer> newComparator(String fieldname, int numHits, int sortPos,
+      boolean reversed) {
+    return new RankComparator(sortRanks, numHits);
+  }
+
+  private static final class RankComparator extends FieldComparator<Integer> {
+
+    private final SortRankReader sortRanks;
+
+    private final int[] values;
+
+    private int docBase;
+
+    private int bottom;
+
+    private RankComparator(SortRankReader sortRanks, int numHits) {
+      this.sortRanks = sortRanks;
+      this.values = new int[numHits];
+    }
+
+    @Override
+    public int compare(int slot1, int slot2) {
+      return Integer.compare(values[slot1], values[slot2]);
+    }
+
+    @Override
+    public void setBottom(int slot) {
+      bottom = values[slot];
+    }
+
+    @Override
+    public int compareBottom(int doc) {
+      return Integer.compare(bottom, sortRanks.rank(docBase + doc));
+    }
+
+    @Override
+    public void copy(int slot, int doc) {
+      values[slot] = sortRanks.rank(docBase + doc);
+    }
+
+    @Override
+    public void setNextReader(IndexReader reader, int docBase) {
+      this.docBase = docBase;
+    }
+
+    @Override
+    public Integer value(int slot) {
+      return values[slot];
+    }
+
+  }
+
+}
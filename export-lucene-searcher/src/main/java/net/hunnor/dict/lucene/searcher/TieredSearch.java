@@ -0,0 +1,146 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.io.IOException;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.Weight;
+
+/**
+ * Evaluates a list of fallback queries in a single pass over the postings.
+ *
+ * <p>The scorers of all tiers are advanced together, and every matching document is collected
+ * for each tier it matches. As soon as a tier has a hit, the tiers after it can no longer be
+ * the result, so their scorers are dropped. Queries are only created when their tier is still
+ * a candidate, so a hit on the first tier costs no more than searching for the first query.
+ * The hits are the same as running the queries one after the other, and returning the first
+ * non-empty result.
+ */
+final class TieredSearch {
+
+  static final int NO_TIER = -1;
+
+  private TieredSearch() {
+  }
+
+  /**
+   * Search for the first tier with hits.
+   *
+   * @param indexSearcher the searcher to run the queries with
+   * @param tiers the suppliers of the queries in the order of preference
+   * @param sort the sort order of the hits
+   * @param max the maximum number of hits to return
+   * @return the index of the first tier with hits, and its sorted hits
+   * @throws IOException if there is a low-level IO error
+   */
+  static Result search(IndexSearcher indexSearcher, Tier[] tiers, Sort sort, int max)
+      throws IOException {
+
+    int limit = Math.max(1, indexSearcher.maxDoc());
+    int numHits = Math.min(max, limit);
+
+    Weight[] weights = new Weight[tiers.length];
+    TopFieldCollector[] collectors = new TopFieldCollector[tiers.length];
+
+    int best = tiers.length;
+    Scorer[] scorers = new Scorer[tiers.length];
+    int[] docs = new int[tiers.length];
+    int docBase = 0;
+    for (IndexReader subReader : indexSearcher.getSubReaders()) {
+      int candidates = Math.min(best + 1, tiers.length);
+      int active = 0;
+      for (int i = 0; i < candidates; i++) {
+        if (weights[i] == null) {
+          weights[i] = indexSearcher.createNormalizedWeight(tiers[i].query());
+          collectors[i] = TopFieldCollector.create(sort, numHits, true, false, false, true);
+        }
+        scorers[i] = weights[i].scorer(subReader, true, false);
+        docs[i] = DocIdSetIterator.NO_MORE_DOCS;
+        if (scorers[i] != null) {
+          collectors[i].setNextReader(subReader, docBase);
+          collectors[i].setScorer(scorers[i]);
+          docs[i] = scorers[i].nextDoc();
+          active = i + 1;
+        }
+        if (docs[i] != DocIdSetIterator.NO_MORE_DOCS) {
+          // This tier has a hit in the segment, the tiers after it are not needed
+          candidates = i + 1;
+        }
+      }
+      best = collectSegment(collectors, scorers, docs, active, best);
+      docBase += subReader.maxDoc();
+    }
+
+    if (best == tiers.length) {
+      return new Result(NO_TIER, new ScoreDoc[0]);
+    }
+    return new Result(best, collectors[best].topDocs().scoreDocs);
+
+  }
+
+  private static int collectSegment(TopFieldCollector[] collectors, Scorer[] scorers,
+      int[] docs, int active, int best) throws IOException {
+    int tiers = active;
+    int result = best;
+    while (tiers > 0) {
+      int doc = DocIdSetIterator.NO_MORE_DOCS;
+      for (int i = 0; i < tiers; i++) {
+        doc = Math.min(doc, docs[i]);
+      }
+      if (doc == DocIdSetIterator.NO_MORE_DOCS) {
+        break;
+      }
+      for (int i = 0; i < tiers; i++) {
+        if (docs[i] == doc) {
+          collectors[i].collect(doc);
+          docs[i] = scorers[i].nextDoc();
+          if (i < result) {
+            result = i;
+          }
+        }
+      }
+      // Tiers after the first one with a hit cannot be the result any more
+      tiers = Math.min(tiers, result + 1);
+    }
+    return result;
+  }
+
+  /**
+   * Creates the query of a tier when it is needed.
+   */
+  interface Tier {
+
+    Query query() throws IOException;
+
+  }
+
+  /**
+   * The hits of the first tier with results.
+   */
+  static final class Result {
+
+    private final int tier;
+
+    private final ScoreDoc[] scoreDocs;
+
+    Result(int tier, ScoreDoc[] scoreDocs) {
+      this.tier = tier;
+      this.scoreDocs = scoreDocs;
+    }
+
+    int getTier() {
+      return tier;
+    }
+
+    ScoreDoc[] getScoreDocs() {
+      return scoreDocs;
+    }
+
+  }
+
+}
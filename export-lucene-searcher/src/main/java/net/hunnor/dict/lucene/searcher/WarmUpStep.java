@@ -0,0 +1,81 @@
+package net.hunnor.dict.lucene.searcher;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermEnum;
+import org.apache.lucene.search.FieldCache;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.util.ReaderUtil;
+
+/**
+ * The steps of the warm-up of a new searcher by {@link LuceneSearcher}, run before the searcher
+ * is used by queries.
+ */
+public enum WarmUpStep {
+
+  /**
+   * Load the terms of the sort and suggestion fields into the field cache, as the first query
+   * sorted by each field would. Queries do not sort by the sort field if the index has a sort
+   * rank file, or by the suggestion field if it has a completion file, and the cache is not
+   * needed then.
+   */
+  FIELD_CACHES {
+    @Override
+    void warm(LuceneSearcher searcher, IndexSearcher indexSearcher) throws IOException {
+      for (IndexReader reader : segments(indexSearcher)) {
+        FieldCache.DEFAULT.getStringIndex(reader, Lucene.SORT);
+        FieldCache.DEFAULT.getStringIndex(reader, Lucene.SUGGESTION);
+      }
+    }
+  },
+
+  /**
+   * Read the terms of all the fields that are searched, so that the term dictionaries are in
+   * the page cache.
+   */
+  TERM_DICTIONARIES {
+    @Override
+    void warm(LuceneSearcher searcher, IndexSearcher indexSearcher) throws IOException {
+      for (IndexReader reader : segments(indexSearcher)) {
+        for (String field : QUERY_FIELDS) {
+          TermEnum termEnum = reader.terms(new Term(field, ""));
+          try {
+            Term term = termEnum.term();
+            while (term != null && field.equals(term.field())) {
+              term = termEnum.next() ? termEnum.term() : null;
+            }
+          } finally {
+            termEnum.close();
+          }
+        }
+      }
+    }
+  },
+
+  /**
+   * Run the queries of the warm-up query file, one query per line, in both languages.
+   */
+  QUERIES {
+    @Override
+    void warm(LuceneSearcher searcher, IndexSearcher indexSearcher) throws IOException {
+      searcher.warmQueries(indexSearcher);
+    }
+  };
+
+  private static final String[] QUERY_FIELDS = {Lucene.HU_ROOTS, Lucene.NO_ROOTS,
+      Lucene.HU_FORMS, Lucene.NO_FORMS, Lucene.HU_TRANS, Lucene.NO_TRANS, Lucene.HU_QUOTE,
+      Lucene.NO_QUOTE, Lucene.HU_QUOTETRANS, Lucene.NO_QUOTETRANS, Lucene.SUGGESTION};
+
+  abstract void warm(LuceneSearcher searcher, IndexSearcher indexSearcher) throws IOException;
+
+  private static List<IndexReader> segments(IndexSearcher indexSearcher) {
+    List<IndexReader> segments = new ArrayList<>();
+    ReaderUtil.gatherSubReaders(segments, indexSearcher.getIndexReader());
+    return segments;
+  }
+
+}
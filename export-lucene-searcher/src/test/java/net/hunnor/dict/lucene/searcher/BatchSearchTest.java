@@ -0,0 +1,123 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.analysis.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.Test;
+
+class BatchSearchTest {
+
+  private static final String[][] FIELDS = {{"roots"}, {"trans", "quote"}};
+
+  private static final Sort SORT = new Sort(new SortField(Lucene.SORT, SortField.STRING));
+
+  @Test
+  void testIntersection() {
+    assertArrayEquals(new int[] {2, 5}, BatchSearch.intersection(
+        new int[] {1, 2, 5, 7}, new int[] {0, 2, 3, 5, 8}));
+    assertArrayEquals(new int[0], BatchSearch.intersection(new int[] {1}, new int[] {2}));
+  }
+
+  @Test
+  void testUnion() {
+    assertArrayEquals(new int[] {0, 1, 2, 3, 5, 7, 8}, BatchSearch.union(
+        new int[] {1, 2, 5, 7}, new int[] {0, 2, 3, 5, 8}));
+    assertArrayEquals(new int[] {1}, BatchSearch.union(new int[0], new int[] {1}));
+    assertArrayEquals(new int[] {1}, BatchSearch.union(new int[] {1}, new int[0]));
+  }
+
+  @Test
+  void testSameAsTiers() throws IOException {
+    RAMDirectory directory = new RAMDirectory();
+    IndexWriterConfig config = new IndexWriterConfig(Lucene.VERSION,
+        new WhitespaceAnalyzer(Lucene.VERSION));
+    config.setMergePolicy(NoMergePolicy.NO_COMPOUND_FILES);
+    try (IndexWriter writer = new IndexWriter(directory, config)) {
+      writer.addDocument(document("d1", "e", "a", "x y", "q"));
+      writer.addDocument(document("d2", "d", "a b", "y", ""));
+      writer.commit();
+      writer.addDocument(document("d3", "c", "b", "x", "x y"));
+      writer.addDocument(document("d4", "b", "c", "z", "y"));
+      writer.commit();
+      writer.addDocument(document("d5", "a", "a", "x y z", "x"));
+      writer.deleteDocuments(new Term("id", "d4"));
+    }
+    String[][] queries = {{"a"}, {"b"}, {"a", "b"}, {"c"}, {"x"}, {"x", "y"}, {"y"}, {"z"},
+        {"q", "x"}, {"none"}, {}};
+    try (IndexReader reader = IndexReader.open(directory)) {
+      IndexSearcher indexSearcher = new IndexSearcher(reader);
+      assertEquals(3, indexSearcher.getSubReaders().length);
+      List<String[][][]> batch = new ArrayList<>();
+      for (String[] tokens : queries) {
+        batch.add(new String[][][] {{tokens}, {tokens, tokens}});
+      }
+      for (int max : new int[] {1, 2, 10}) {
+        ScoreDoc[][] results = BatchSearch.search(indexSearcher, FIELDS, batch, SORT, max);
+        assertEquals(queries.length, results.length);
+        for (int i = 0; i < queries.length; i++) {
+          TieredSearch.Tier[] tiers = new TieredSearch.Tier[FIELDS.length];
+          for (int tier = 0; tier < FIELDS.length; tier++) {
+            Query query = query(FIELDS[tier], queries[i]);
+            tiers[tier] = () -> query;
+          }
+          ScoreDoc[] expected =
+              TieredSearch.search(indexSearcher, tiers, SORT, max).getScoreDocs();
+          assertArrayEquals(docs(expected), docs(results[i]), String.join(" ", queries[i]));
+        }
+      }
+    }
+  }
+
+  private static Document document(String id, String sort, String roots, String trans,
+      String quote) {
+    Document document = new Document();
+    document.add(new Field("id", id, Field.Store.YES, Field.Index.NOT_ANALYZED));
+    document.add(new Field(Lucene.SORT, sort, Field.Store.NO, Field.Index.NOT_ANALYZED));
+    document.add(new Field("roots", roots, Field.Store.NO, Field.Index.ANALYZED));
+    document.add(new Field("trans", trans, Field.Store.NO, Field.Index.ANALYZED));
+    document.add(new Field("quote", quote, Field.Store.NO, Field.Index.ANALYZED));
+    return document;
+  }
+
+  private static Query query(String[] fields, String[] tokens) {
+    BooleanQuery query = new BooleanQuery();
+    for (String field : fields) {
+      BooleanQuery fieldQuery = new BooleanQuery();
+      for (String token : tokens) {
+        fieldQuery.add(new TermQuery(new Term(field, token)), Occur.MUST);
+      }
+      query.add(fieldQuery, Occur.SHOULD);
+    }
+    return query;
+  }
+
+  private static int[] docs(ScoreDoc[] scoreDocs) {
+    int[] docs = new int[scoreDocs.length];
+    for (int i = 0; i < scoreDocs.length; i++) {
+      docs[i] = scoreDocs[i].doc;
+    }
+    return docs;
+  }
+
+}
@@ -0,0 +1,128 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ByteBufferDirectoryTest {
+
+  @Test
+  void testIndex() throws IOException {
+    File index = new File(getClass().getResource("/3_6_2/lucene-index").getFile());
+    ByteBufferDirectory directory = new ByteBufferDirectory(index);
+    NIOFSDirectory fileDirectory = new NIOFSDirectory(index);
+    String[] files = directory.listAll();
+    Arrays.sort(files);
+    // The files of the last commit, without the generation file
+    String[] expected = Arrays.stream(fileDirectory.listAll())
+        .filter(file -> !IndexFileNames.SEGMENTS_GEN.equals(file)).sorted().toArray(String[]::new);
+    assertArrayEquals(expected, files);
+    long size = 0;
+    for (String file : files) {
+      assertTrue(directory.fileExists(file));
+      assertEquals(fileDirectory.fileLength(file), directory.fileLength(file));
+      assertEquals(fileDirectory.fileModified(file), directory.fileModified(file));
+      size += directory.fileLength(file);
+    }
+    assertEquals(size, directory.sizeInBytes());
+    assertTrue(directory.isCurrent());
+    try (IndexReader fileReader = IndexReader.open(fileDirectory);
+        IndexReader reader = IndexReader.open(directory)) {
+      assertEquals(fileReader.numDocs(), reader.numDocs());
+      for (int i = 0; i < reader.maxDoc(); i++) {
+        assertEquals(fileReader.document(i).toString(), reader.document(i).toString());
+      }
+    }
+  }
+
+  @Test
+  void testCommitFiles(@TempDir File tempDir) throws IOException {
+    copyIndex(tempDir);
+    Files.write(new File(tempDir, "_9.fdt").toPath(), new byte[] {1});
+    Files.write(new File(tempDir, "other.txt").toPath(), new byte[] {1});
+    ByteBufferDirectory directory = new ByteBufferDirectory(tempDir);
+    assertFalse(directory.fileExists("_9.fdt"));
+    assertFalse(directory.fileExists("other.txt"));
+    assertTrue(directory.fileExists("segments_2"));
+  }
+
+  @Test
+  void testInput() throws IOException {
+    IndexInput input = new ByteBufferIndexInput("_0.fdt",
+        ByteBuffer.wrap(new byte[] {1, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 3, 4, 5}));
+    assertEquals(15, input.length());
+    assertEquals(1, input.readByte());
+    assertEquals(2, input.readInt());
+    IndexInput clone = (IndexInput) input.clone();
+    assertEquals(3, input.readLong());
+    assertEquals(13, input.getFilePointer());
+    assertEquals(5, clone.getFilePointer());
+    byte[] bytes = new byte[2];
+    input.readBytes(bytes, 0, 2);
+    assertArrayEquals(new byte[] {4, 5}, bytes);
+    assertThrows(EOFException.class, input::readByte);
+    assertThrows(EOFException.class, () -> input.readBytes(bytes, 0, 1));
+    assertThrows(EOFException.class, input::readInt);
+    assertThrows(EOFException.class, input::readLong);
+    assertThrows(EOFException.class, () -> input.seek(16));
+    input.seek(0);
+    assertEquals(1, input.readByte());
+    input.close();
+    assertEquals(0, clone.readByte());
+  }
+
+  @Test
+  void testReadOnly() throws IOException {
+    ByteBufferDirectory directory = new ByteBufferDirectory(
+        new File(getClass().getResource("/3_6_2/lucene-index").getFile()));
+    assertFalse(directory.fileExists("_9.fdt"));
+    assertThrows(FileNotFoundException.class, () -> directory.openInput("_9.fdt"));
+    assertThrows(FileNotFoundException.class, () -> directory.fileLength("_9.fdt"));
+    assertThrows(FileNotFoundException.class, () -> directory.fileModified("_9.fdt"));
+    assertThrows(UnsupportedOperationException.class, () -> directory.createOutput("_0.fdt"));
+    assertThrows(UnsupportedOperationException.class, () -> directory.deleteFile("_0.fdt"));
+    assertThrows(UnsupportedOperationException.class, () -> directory.touchFile("_0.fdt"));
+    directory.close();
+  }
+
+  @Test
+  void testCurrent(@TempDir File tempDir) throws IOException {
+    copyIndex(tempDir);
+    ByteBufferDirectory directory = new ByteBufferDirectory(tempDir);
+    assertTrue(directory.isCurrent());
+    Files.write(new File(tempDir, "segments_3").toPath(), new byte[] {1});
+    assertFalse(directory.isCurrent());
+    assertTrue(directory.toString().contains(tempDir.getPath()));
+  }
+
+  @Test
+  void testNotDirectory(@TempDir File tempDir) {
+    assertThrows(FileNotFoundException.class,
+        () -> new ByteBufferDirectory(new File(tempDir, "no-such-dir")));
+    assertThrows(FileNotFoundException.class, () -> new ByteBufferDirectory(tempDir));
+  }
+
+  private void copyIndex(File directory) throws IOException {
+    File index = new File(getClass().getResource("/3_6_2/lucene-index").getFile());
+    for (File file : index.listFiles()) {
+      Files.copy(file.toPath(), new File(directory, file.getName()).toPath());
+    }
+  }
+
+}
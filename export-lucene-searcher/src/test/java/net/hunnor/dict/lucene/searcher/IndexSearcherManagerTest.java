@@ -0,0 +1,136 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.analysis.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.Test;
+
+class IndexSearcherManagerTest {
+
+  @Test
+  void testSwap() throws IOException {
+    RAMDirectory first = directory("a");
+    RAMDirectory second = directory("b");
+    IndexSearcherManager manager = new IndexSearcherManager(first);
+    IndexSearcher old = manager.acquire();
+    final IndexReader oldReader = old.getIndexReader();
+    manager.swap(second);
+    // A query that started before the swap still runs on the previous index
+    assertEquals(1, hits(old, "a"));
+    IndexSearcher current = manager.acquire();
+    assertNotSame(old, current);
+    assertEquals(0, hits(current, "a"));
+    assertEquals(1, hits(current, "b"));
+    manager.release(current);
+    assertTrue(oldReader.getRefCount() > 0);
+    manager.release(old);
+    assertEquals(0, oldReader.getRefCount());
+    manager.close();
+    assertEquals(0, current.getIndexReader().getRefCount());
+  }
+
+  @Test
+  void testRefresh() throws IOException {
+    RAMDirectory directory = directory("a");
+    IndexSearcherManager manager = new IndexSearcherManager(directory);
+    IndexSearcher before = manager.acquire();
+    manager.release(before);
+    assertTrue(manager.maybeRefresh());
+    IndexSearcher unchanged = manager.acquire();
+    assertSame(before, unchanged);
+    manager.release(unchanged);
+    IndexWriterConfig config = new IndexWriterConfig(Lucene.VERSION, new KeywordAnalyzer());
+    try (IndexWriter writer = new IndexWriter(directory, config)) {
+      writer.addDocument(document("b"));
+    }
+    assertTrue(manager.maybeRefresh());
+    IndexSearcher after = manager.acquire();
+    assertEquals(1, hits(after, "b"));
+    manager.release(after);
+    manager.close();
+    assertThrows(AlreadyClosedException.class, manager::acquire);
+  }
+
+  @Test
+  void testWarmer() throws IOException {
+    List<IndexSearcher> warmed = new ArrayList<>();
+    RAMDirectory directory = directory("a");
+    IndexSearcherManager manager = new IndexSearcherManager(directory, warmed::add);
+    IndexSearcher first = manager.acquire();
+    assertEquals(List.of(first), warmed);
+    manager.release(first);
+    IndexWriterConfig config = new IndexWriterConfig(Lucene.VERSION, new KeywordAnalyzer());
+    try (IndexWriter writer = new IndexWriter(directory, config)) {
+      writer.addDocument(document("b"));
+    }
+    assertTrue(manager.maybeRefresh());
+    IndexSearcher refreshed = manager.acquire();
+    assertEquals(List.of(first, refreshed), warmed);
+    manager.release(refreshed);
+    manager.swap(directory("c"));
+    IndexSearcher swapped = manager.acquire();
+    assertEquals(List.of(first, refreshed, swapped), warmed);
+    manager.release(swapped);
+    manager.close();
+  }
+
+  @Test
+  void testWarmerFails() throws IOException {
+    List<IndexSearcher> warmed = new ArrayList<>();
+    IndexSearcherManager manager = new IndexSearcherManager(directory("a"), searcher -> {
+      warmed.add(searcher);
+      if (warmed.size() > 1) {
+        throw new IOException();
+      }
+    });
+    assertThrows(IOException.class, () -> manager.swap(directory("b")));
+    // The searcher that failed to warm up is closed, and the current one is still used
+    assertEquals(0, warmed.get(1).getIndexReader().getRefCount());
+    IndexSearcher current = manager.acquire();
+    assertSame(warmed.get(0), current);
+    assertEquals(1, hits(current, "a"));
+    manager.release(current);
+    manager.close();
+    assertThrows(IOException.class, () -> new IndexSearcherManager(directory("a"), searcher -> {
+      throw new IOException();
+    }));
+  }
+
+  private static RAMDirectory directory(String term) throws IOException {
+    RAMDirectory directory = new RAMDirectory();
+    IndexWriterConfig config = new IndexWriterConfig(Lucene.VERSION, new KeywordAnalyzer());
+    try (IndexWriter writer = new IndexWriter(directory, config)) {
+      writer.addDocument(document(term));
+    }
+    return directory;
+  }
+
+  private static Document document(String term) {
+    Document document = new Document();
+    document.add(new Field("term", term, Field.Store.YES, Field.Index.NOT_ANALYZED));
+    return document;
+  }
+
+  private static int hits(IndexSearcher searcher, String term) throws IOException {
+    return searcher.search(new TermQuery(new Term("term", term)), 10).totalHits;
+  }
+
+}
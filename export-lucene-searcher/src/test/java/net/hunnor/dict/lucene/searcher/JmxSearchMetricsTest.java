@@ -0,0 +1,70 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import org.junit.jupiter.api.Test;
+
+class JmxSearchMetricsTest {
+
+  @Test
+  void testAttributes() throws JMException {
+    SearchMetricsRegistry registry = new SearchMetricsRegistry();
+    registry.searched(SearchMethod.SEARCH, 3000, 0);
+    registry.tierSearched(SearchTier.FULL_TEXT, 2000, 0);
+    registry.fellThrough(SearchTier.FORMS);
+    registry.spellChecked(1000);
+    registry.documentsLoaded(2, 100);
+    JmxSearchMetrics jmx = new JmxSearchMetrics(registry, JmxSearchMetrics.DEFAULT_NAME);
+    assertEquals(1L, jmx.getCounts().get("search"));
+    assertEquals(0L, jmx.getCounts().get("suggestions"));
+    assertEquals(1L, jmx.getCounts().get("fullText"));
+    assertEquals(1L, jmx.getCounts().get("spellChecker"));
+    assertEquals(3.0, jmx.getMeanMicros().get("search"));
+    assertEquals(3.0, jmx.getMedianMicros().get("search"));
+    assertEquals(3.0, jmx.getP99Micros().get("search"));
+    assertEquals(3.0, jmx.getMaxMicros().get("search"));
+    assertEquals(2.0, jmx.percentileMicros("fullText", 50));
+    assertThrows(IllegalArgumentException.class, () -> jmx.percentileMicros("missing", 50));
+    assertEquals(1L, jmx.getEmptyResults().get("search"));
+    assertEquals(1L, jmx.getFallThroughs().get("forms"));
+    assertEquals(0L, jmx.getFallThroughs().get("roots"));
+    assertEquals(1, jmx.getSpellCheckerCalls());
+    assertEquals(2, jmx.getDocumentsLoaded());
+    assertEquals(100, jmx.getBytesRead());
+    jmx.reset();
+    assertEquals(0, jmx.getDocumentsLoaded());
+  }
+
+  @Test
+  void testRegister() throws JMException {
+    SearchMetricsRegistry registry = new SearchMetricsRegistry();
+    registry.documentsLoaded(5, 500);
+    JmxSearchMetrics jmx =
+        new JmxSearchMetrics(registry, "net.hunnor.dict.lucene:type=SearchMetrics,name=test");
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = jmx.getObjectName();
+    jmx.register();
+    try {
+      assertTrue(server.isRegistered(name));
+      assertEquals(5L, server.getAttribute(name, "DocumentsLoaded"));
+      TabularData counts = (TabularData) server.getAttribute(name, "Counts");
+      CompositeData search = counts.get(new Object[] {"search"});
+      assertEquals(0L, search.get("value"));
+      server.invoke(name, "reset", new Object[0], new String[0]);
+      assertEquals(0L, server.getAttribute(name, "BytesRead"));
+    } finally {
+      jmx.unregister();
+    }
+    assertFalse(server.isRegistered(name));
+  }
+
+}
@@ -0,0 +1,77 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getMean());
+    assertEquals(0, histogram.getValueAtPercentile(50));
+  }
+
+  @Test
+  void testSmallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10; i++) {
+      histogram.record(i);
+    }
+    histogram.record(-5);
+    assertEquals(11, histogram.getCount());
+    assertEquals(10, histogram.getMax());
+    assertEquals(5, histogram.getMean());
+    assertEquals(0, histogram.getValueAtPercentile(0));
+    assertEquals(5, histogram.getValueAtPercentile(50));
+    assertEquals(10, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  void testRelativePrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 100_000; value++) {
+      histogram.record(value * 1000);
+    }
+    for (double percentile : new double[] {10, 50, 90, 99, 99.9}) {
+      long exact = Math.round(percentile * 1000) * 1000;
+      long value = histogram.getValueAtPercentile(percentile);
+      assertTrue(value >= exact, Double.toString(percentile));
+      assertTrue(value <= exact + exact / 32, Double.toString(percentile));
+    }
+    assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+    assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+  }
+
+  @Test
+  void testBuckets() {
+    long[] values = {0, 31, 32, 33, 63, 64, 65, 1000, 123_456_789, Long.MAX_VALUE};
+    for (long value : values) {
+      int index = LatencyHistogram.index(value);
+      assertTrue(LatencyHistogram.lowest(index) <= value, Long.toString(value));
+      assertTrue(LatencyHistogram.highest(index) >= value, Long.toString(value));
+      if (value < Long.MAX_VALUE) {
+        // The buckets are adjacent
+        assertEquals(index + 1, LatencyHistogram.index(LatencyHistogram.highest(index) + 1));
+      } else {
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highest(index));
+      }
+    }
+  }
+
+  @Test
+  void testReset() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1_000_000);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+}
@@ -0,0 +1,97 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.analysis.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldSelectorResult;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.Test;
+
+class LazyEntryTest {
+
+  private static final String TEXT = "<b>aaaaaa</b> bbbbbb";
+
+  @Test
+  void testReaderHeldUntilTextRead() throws IOException {
+    IndexReader indexReader = IndexReader.open(index());
+    final LazyEntry entry = new LazyEntry(indexReader, lazyText(indexReader));
+    assertEquals(2, indexReader.getRefCount());
+    // The searcher closes the reader, the entry keeps it open
+    indexReader.decRef();
+    assertEquals(1, indexReader.getRefCount());
+    assertEquals(TEXT, entry.getText());
+    assertEquals(0, indexReader.getRefCount());
+    assertEquals(TEXT, entry.getText());
+  }
+
+  @Test
+  void testReaderReleasedBySetText() throws IOException {
+    IndexReader indexReader = IndexReader.open(index());
+    LazyEntry entry = new LazyEntry(indexReader, lazyText(indexReader));
+    entry.setText("text");
+    assertEquals(1, indexReader.getRefCount());
+    assertEquals("text", entry.getText());
+    entry.setText("other");
+    assertEquals(1, indexReader.getRefCount());
+    indexReader.close();
+  }
+
+  @Test
+  void testConcurrentReads() throws IOException, InterruptedException, ExecutionException {
+    IndexReader indexReader = IndexReader.open(index());
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      for (int i = 0; i < 100; i++) {
+        LazyEntry entry = new LazyEntry(indexReader, lazyText(indexReader));
+        List<Future<String>> texts = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+          texts.add(executorService.submit(entry::getText));
+        }
+        for (Future<String> text : texts) {
+          assertEquals(TEXT, text.get());
+        }
+        assertEquals(1, indexReader.getRefCount());
+      }
+    } finally {
+      executorService.shutdown();
+    }
+    indexReader.close();
+  }
+
+  private static RAMDirectory index() throws IOException {
+    RAMDirectory directory = new RAMDirectory();
+    IndexWriterConfig config = new IndexWriterConfig(Lucene.VERSION,
+        new WhitespaceAnalyzer(Lucene.VERSION));
+    try (IndexWriter writer = new IndexWriter(directory, config)) {
+      Document document = new Document();
+      document.add(new Field(Lucene.TEXT, TEXT, Field.Store.YES, Field.Index.NO));
+      writer.addDocument(document);
+    }
+    return directory;
+  }
+
+  private static Fieldable lazyText(IndexReader indexReader) throws IOException {
+    Document document = indexReader.document(0,
+        field -> Lucene.TEXT.equals(field) ? FieldSelectorResult.LAZY_LOAD
+            : FieldSelectorResult.NO_LOAD);
+    Fieldable field = document.getFieldable(Lucene.TEXT);
+    assertTrue(field.isLazy());
+    return field;
+  }
+
+}
@@ -0,0 +1,108 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import net.hunnor.dict.lucene.model.Entry;
+import net.hunnor.dict.lucene.model.Language;
+import org.junit.jupiter.api.Test;
+
+class LruResultCacheTest {
+
+  @Test
+  void testInvalidLimits() {
+    assertThrows(IllegalArgumentException.class, () -> new LruResultCache(0, 1000));
+    assertThrows(IllegalArgumentException.class, () -> new LruResultCache(10, 0));
+  }
+
+  @Test
+  void testGetPut() {
+    LruResultCache cache = new LruResultCache(10, 100000);
+    List<String> results = List.of("a", "b");
+    assertNull(cache.get(key("a")));
+    cache.put(key("a"), results);
+    assertSame(results, cache.get(key("a")));
+    assertNull(cache.get(key("a", 2)));
+    assertEquals(1, cache.size());
+    assertEquals(LruResultCache.bytes(key("a"), results), cache.getBytes());
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  @Test
+  void testEvictLeastRecentlyUsed() {
+    LruResultCache cache = new LruResultCache(2, 100000);
+    cache.put(key("a"), List.of("a"));
+    cache.put(key("b"), List.of("b"));
+    cache.get(key("a"));
+    cache.put(key("c"), List.of("c"));
+    assertEquals(2, cache.size());
+    assertNull(cache.get(key("b")));
+    assertEquals(List.of("a"), cache.get(key("a")));
+    assertEquals(List.of("c"), cache.get(key("c")));
+    assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  void testEvictBytes() {
+    List<String> results = List.of("aaaaaa", "bbbbbb");
+    long bytes = LruResultCache.bytes(key("a"), results);
+    LruResultCache cache = new LruResultCache(100, bytes * 2);
+    cache.put(key("a"), results);
+    cache.put(key("b"), results);
+    cache.put(key("c"), results);
+    assertEquals(2, cache.size());
+    assertEquals(bytes * 2, cache.getBytes());
+    assertNull(cache.get(key("a")));
+    assertEquals(1, cache.getEvictions());
+    // Results larger than the whole cache are not cached
+    cache.put(key("d"), List.of(new String(new char[(int) bytes])));
+    assertNull(cache.get(key("d")));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void testReplace() {
+    LruResultCache cache = new LruResultCache(10, 100000);
+    cache.put(key("a"), List.of("a"));
+    cache.put(key("a"), List.of("a", "b"));
+    assertEquals(1, cache.size());
+    assertEquals(LruResultCache.bytes(key("a"), List.of("a", "b")), cache.getBytes());
+  }
+
+  @Test
+  void testClear() {
+    LruResultCache cache = new LruResultCache(10, 100000);
+    cache.put(key("a"), List.of("a"));
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getBytes());
+    assertNull(cache.get(key("a")));
+    assertEquals(0, cache.getEvictions());
+  }
+
+  @Test
+  void testEntryBytes() {
+    Entry entry = new Entry();
+    entry.setId("HU1");
+    entry.setText("<b>aaaaaa</b>");
+    Entry longer = new Entry();
+    longer.setId("HU1");
+    longer.setText("<b>aaaaaa</b> bbbbbb");
+    assertEquals(14, LruResultCache.bytes(key("a"), List.of(longer))
+        - LruResultCache.bytes(key("a"), List.of(entry)));
+  }
+
+  private static QueryKey key(String query) {
+    return key(query, 1);
+  }
+
+  private static QueryKey key(String query, long generation) {
+    return new QueryKey(QueryKey.Type.SEARCH, query, Language.HU, 10, generation);
+  }
+
+}
@@ -3,13 +3,39 @@ package net.hunnor.dict.lucene.searcher;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.hunnor.dict.lucene.analyzer.PerFieldAnalyzer;
+import net.hunnor.dict.lucene.completion.CompletionWriter;
+import net.hunnor.dict.lucene.constants.Lucene;
+import net.hunnor.dict.lucene.headword.HeadwordTableWriter;
 import net.hunnor.dict.lucene.model.Entry;
 import net.hunnor.dict.lucene.model.Language;
+import net.hunnor.dict.lucene.sort.SortRankReader;
+import net.hunnor.dict.lucene.sort.SortRankWriter;
+import net.hunnor.dict.lucene.text.CompactText;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.NIOFSDirectory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,6 +61,9 @@ class LuceneSearcherTest {
 
   @AfterEach
   void tearDown() throws IOException {
+    searcher.setSinglePass(false);
+    searcher.setLazyText(false);
+    searcher.setDirectoryType(DirectoryType.NIOFS);
     searcher.close();
     searcher.closeSpellChecker();
   }
@@ -55,6 +84,24 @@ class LuceneSearcherTest {
     assertFalse(searcher.isSpellCheckerOpen());
   }
 
+  @Test
+  void testQueriesAfterClose() throws IOException {
+    searcher.close();
+    assertThrows(IOException.class, () -> searcher.search("aa", 10));
+    assertThrows(IOException.class, () -> searcher.suggestions("aa", 10));
+    assertFalse(searcher.reload());
+    searcher.closeSpellChecker();
+    assertThrows(IOException.class, () -> searcher.spellingSuggestions("aa", 10));
+  }
+
+  @Test
+  void testReopenSpellChecker() throws IOException {
+    List<String> suggestions = searcher.spellingSuggestions("aabaaa", 5);
+    searcher.openSpellChecker(new File(
+        getClass().getResource("/3_6_2/lucene-spellchecker-index").getFile()));
+    assertEquals(suggestions, searcher.spellingSuggestions("aabaaa", 5));
+  }
+
   @Test
   void testOpen() throws IOException {
     assertTrue(searcher.isOpen());
@@ -119,6 +166,91 @@ class LuceneSearcherTest {
     assertEquals("aaaaaa", suggestions.get(0));
   }
 
+  @Test
+  void testSuggestionsFromCompletion(@TempDir File tempDir) throws IOException {
+    File index = new File(getClass().getResource("/3_6_2/lucene-index").getFile());
+    File copy = new File(tempDir, "index");
+    assertTrue(copy.mkdir());
+    for (File file : index.listFiles()) {
+      Files.copy(file.toPath(), new File(copy, file.getName()).toPath());
+    }
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(copy))) {
+      CompletionWriter.write(indexReader, new File(copy, CompletionWriter.FILE_NAME));
+    }
+    assertFalse(searcher.isCompletionOpen());
+    String[] queries = {"aaa", "aaaaab", "t", "ttttö", "b", "x", ""};
+    int[] maxes = {1, 2, 3, 100};
+    List<List<String>> expected = new ArrayList<>();
+    for (String query : queries) {
+      for (int max : maxes) {
+        expected.add(searcher.suggestions(query, max));
+      }
+    }
+    assertEquals(List.of("aaaaaa", "aaaaab", "aaaaac"), searcher.suggestions("aaa", 100));
+    searcher.open(copy);
+    assertTrue(searcher.isCompletionOpen());
+    for (int i = 0; i < queries.length; i++) {
+      for (int j = 0; j < maxes.length; j++) {
+        assertEquals(expected.get(i * maxes.length + j),
+            searcher.suggestions(queries[i], maxes[j]), queries[i] + " " + maxes[j]);
+      }
+    }
+    searcher.close();
+    assertFalse(searcher.isCompletionOpen());
+  }
+
+  @Test
+  void testCompletionOrder(@TempDir File tempDir) throws IOException {
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter =
+        new IndexWriter(new NIOFSDirectory(tempDir), indexWriterConfig)) {
+      for (String suggestion : new String[] {
+          "ház", "kis ház", "haza", "ház", "alma zebra", "zebra", "Hål", "alma"}) {
+        indexWriter.addDocument(suggestionDocument(suggestion));
+      }
+    }
+    searcher.open(tempDir);
+    String[] queries = {"ha", "h", "a", "z", "ha ki", "alma z"};
+    List<List<String>> expected = new ArrayList<>();
+    for (String query : queries) {
+      for (int max = 1; max <= 9; max++) {
+        expected.add(searcher.suggestions(query, max));
+      }
+    }
+    // Sorted by the last term of each suggestion, duplicates count towards the maximum
+    assertEquals(List.of("Hål", "ház"), searcher.suggestions("ha", 3));
+    assertEquals(List.of("Hål", "ház", "haza", "kis ház"), searcher.suggestions("ha", 9));
+    assertEquals(List.of("alma", "alma zebra"), searcher.suggestions("a", 9));
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(tempDir))) {
+      CompletionWriter.write(indexReader, new File(tempDir, CompletionWriter.FILE_NAME));
+    }
+    searcher.open(tempDir);
+    assertTrue(searcher.isCompletionOpen());
+    for (int i = 0; i < queries.length; i++) {
+      for (int max = 1; max <= 9; max++) {
+        assertEquals(expected.get(i * 9 + max - 1), searcher.suggestions(queries[i], max),
+            queries[i] + " " + max);
+      }
+    }
+    indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter =
+        new IndexWriter(new NIOFSDirectory(tempDir), indexWriterConfig)) {
+      indexWriter.addDocument(suggestionDocument("hab"));
+    }
+    assertTrue(searcher.reload());
+    // The completion file of the previous version is not used
+    assertEquals(List.of("hab", "Hål"), searcher.suggestions("ha", 2));
+  }
+
+  private static Document suggestionDocument(String suggestion) {
+    Document document = new Document();
+    document.add(
+        new Field(Lucene.SUGGESTION, suggestion, Field.Store.YES, Field.Index.ANALYZED));
+    return document;
+  }
+
   @Test
   void testSearchForRoots() throws IOException {
     List<Entry> results = searcher.search("aaaaaa", 100);
@@ -192,4 +324,537 @@ class LuceneSearcherTest {
     assertTrue(suggestions.contains("ttttø"));
   }
 
+  @Test
+  void testRepeatedSearch() throws IOException {
+    List<String> first = ids(searcher.search("tttto", Language.HU, 100));
+    assertEquals(2, first.size());
+    assertEquals(1, searcher.search("cccccc", Language.NO, 100).size());
+    assertEquals(first, ids(searcher.search("tttto", Language.HU, 100)));
+    searcher.close();
+    searcher.open(new File(
+        getClass().getResource("/3_6_2/lucene-index").getFile()));
+    assertEquals(first, ids(searcher.search("tttto", Language.HU, 100)));
+  }
+
+  @Test
+  void testLazyText() throws IOException {
+    List<Entry> eager = searcher.search("cccccc", 100);
+    searcher.setLazyText(true);
+    assertTrue(searcher.isLazyText());
+    List<Entry> lazy = searcher.search("cccccc", 100);
+    assertEquals(2, lazy.size());
+    for (int i = 0; i < lazy.size(); i++) {
+      assertTrue(lazy.get(i) instanceof LazyEntry);
+      assertEquals(eager.get(i).getId(), lazy.get(i).getId());
+      assertEquals(eager.get(i).getLang(), lazy.get(i).getLang());
+      assertNotNull(eager.get(i).getText());
+      assertEquals(eager.get(i).getText(), lazy.get(i).getText());
+    }
+    lazy.get(0).setText("text");
+    assertEquals("text", lazy.get(0).getText());
+  }
+
+  @Test
+  void testLazyTextAfterClose() throws IOException {
+    List<Entry> eager = searcher.search("cccccc", 100);
+    searcher.setLazyText(true);
+    List<Entry> lazy = searcher.search("cccccc", 100);
+    searcher.close();
+    for (int i = 0; i < lazy.size(); i++) {
+      assertEquals(eager.get(i).getText(), lazy.get(i).getText());
+    }
+  }
+
+  @Test
+  void testCompactText(@TempDir File tempDir) throws IOException {
+    String text = "<b>aaaaaa</b> fn<br/><b>1</b> bbbbbb; <i>cccccc</i> <b>2</b> dddddd";
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter =
+        new IndexWriter(new NIOFSDirectory(tempDir), indexWriterConfig)) {
+      Document document = new Document();
+      document.add(new Field(Lucene.ID, "1", Field.Store.YES, Field.Index.NOT_ANALYZED));
+      document.add(new Field(Lucene.LANG, "hu", Field.Store.YES, Field.Index.NOT_ANALYZED));
+      document.add(new Field(Lucene.HU_ROOTS, "aaaaaa", Field.Store.YES, Field.Index.ANALYZED));
+      document.add(new Field(Lucene.SORT, "aaaaaa", Field.Store.NO, Field.Index.NOT_ANALYZED));
+      document.add(new Field(Lucene.TEXT_COMPACT, CompactText.encode(text)));
+      indexWriter.addDocument(document);
+    }
+    searcher.open(tempDir);
+    for (boolean lazyText : new boolean[] {false, true}) {
+      searcher.setLazyText(lazyText);
+      List<Entry> entries = searcher.search("aaaaaa", Language.HU, 10);
+      assertEquals(1, entries.size());
+      assertEquals(text, entries.get(0).getText());
+    }
+  }
+
+  @Test
+  void testSortRanks(@TempDir File tempDir) throws IOException {
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter =
+        new IndexWriter(new NIOFSDirectory(tempDir), indexWriterConfig)) {
+      for (String sort : new String[] {"dal", "csak", "cukor"}) {
+        indexWriter.addDocument(sortDocument(sort));
+      }
+    }
+    searcher.open(tempDir);
+    // The terms of the sort field are in code point order
+    assertEquals(List.of("HUcsak", "HUcukor", "HUdal"), ids(searcher.search("aaaaaa", 10)));
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(tempDir))) {
+      SortRankWriter.write(indexReader, new File(tempDir, SortRankWriter.FILE_NAME));
+    }
+    searcher.open(tempDir);
+    // The ranks are in Hungarian alphabetical order
+    assertEquals(List.of("HUcukor", "HUcsak", "HUdal"), ids(searcher.search("aaaaaa", 10)));
+    searcher.setSinglePass(true);
+    assertEquals(List.of("HUcukor", "HUcsak", "HUdal"),
+        ids(searcher.search("aaaaaa", Language.HU, 10)));
+    indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter =
+        new IndexWriter(new NIOFSDirectory(tempDir), indexWriterConfig)) {
+      indexWriter.addDocument(sortDocument("b"));
+    }
+    assertTrue(searcher.reload());
+    // The ranks of the previous version are not used
+    assertEquals(List.of("HUb", "HUcsak", "HUcukor", "HUdal"), ids(searcher.search("aaaaaa", 10)));
+  }
+
+  @Test
+  void testHeadwordTable(@TempDir File tempDir) throws IOException {
+    File index = new File(getClass().getResource("/3_6_2/lucene-index").getFile());
+    for (File file : index.listFiles()) {
+      Files.copy(file.toPath(), new File(tempDir, file.getName()).toPath());
+    }
+    String[] queries = {"aaaaaa", "aaaaab", "bbbbbb", "cccccc", "ffffff", "tttto", "ttttó",
+        "aaaaaa aaaaab", ""};
+    searcher.open(tempDir);
+    final List<List<String>> expected = searchAll(queries);
+    writeHeadwordTable(tempDir, false);
+    searcher.open(tempDir);
+    assertTrue(searcher.isHeadwordTableOpen());
+    assertEquals(expected, searchAll(queries));
+    searcher.setSinglePass(true);
+    assertEquals(expected, searchAll(queries));
+    searcher.close();
+    assertFalse(searcher.isHeadwordTableOpen());
+  }
+
+  @Test
+  void testHeadwordTableOrder(@TempDir File tempDir) throws IOException {
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter =
+        new IndexWriter(new NIOFSDirectory(tempDir), indexWriterConfig)) {
+      for (String sort : new String[] {"dal", "csak", "cukor"}) {
+        indexWriter.addDocument(sortDocument(sort));
+      }
+    }
+    writeHeadwordTable(tempDir, false);
+    searcher.open(tempDir);
+    assertEquals(List.of("HUcsak", "HUcukor", "HUdal"), ids(searcher.search("aaaaaa", 10)));
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(tempDir))) {
+      SortRankWriter.write(indexReader, new File(tempDir, SortRankWriter.FILE_NAME));
+    }
+    searcher.open(tempDir);
+    // The table is in the order of the terms, so the ranks are used by searching the index
+    assertEquals(List.of("HUcukor", "HUcsak", "HUdal"), ids(searcher.search("aaaaaa", 10)));
+    writeHeadwordTable(tempDir, true);
+    searcher.open(tempDir);
+    assertEquals(List.of("HUcukor", "HUcsak", "HUdal"),
+        ids(searcher.search("aaaaaa", Language.HU, 10)));
+    indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter =
+        new IndexWriter(new NIOFSDirectory(tempDir), indexWriterConfig)) {
+      indexWriter.addDocument(sortDocument("b"));
+    }
+    assertTrue(searcher.reload());
+    // The table of the previous version is not used
+    assertEquals(List.of("HUb", "HUcsak", "HUcukor", "HUdal"),
+        ids(searcher.search("aaaaaa", Language.HU, 10)));
+  }
+
+  private List<List<String>> searchAll(String[] queries) throws IOException {
+    List<List<String>> results = new ArrayList<>();
+    for (String query : queries) {
+      results.add(ids(searcher.search(query, 100)));
+      results.add(ids(searcher.search(query, Language.HU, 100)));
+      results.add(ids(searcher.search(query, Language.NO, 1)));
+    }
+    return results;
+  }
+
+  private static void writeHeadwordTable(File indexDirectory, boolean ranked)
+      throws IOException {
+    try (IndexReader indexReader = IndexReader.open(new NIOFSDirectory(indexDirectory))) {
+      SortRankReader sortRanks = ranked
+          ? SortRankReader.open(new File(indexDirectory, SortRankWriter.FILE_NAME)) : null;
+      HeadwordTableWriter.write(indexReader, sortRanks,
+          new File(indexDirectory, HeadwordTableWriter.FILE_NAME));
+    }
+  }
+
+  private static Document sortDocument(String sort) {
+    Document document = new Document();
+    document.add(new Field(Lucene.ID, sort, Field.Store.YES, Field.Index.NOT_ANALYZED));
+    document.add(new Field(Lucene.LANG, "hu", Field.Store.YES, Field.Index.NOT_ANALYZED));
+    document.add(new Field(Lucene.HU_ROOTS, "aaaaaa", Field.Store.YES, Field.Index.ANALYZED));
+    document.add(new Field(Lucene.SORT, sort, Field.Store.YES, Field.Index.ANALYZED));
+    return document;
+  }
+
+  @Test
+  void testWarmUp(@TempDir File tempDir) throws IOException {
+    File index = new File(getClass().getResource("/3_6_2/lucene-index").getFile());
+    File queries = new File(tempDir, "queries.txt");
+    Files.write(queries.toPath(), List.of("# Warm-up queries", "aaaaaa", "", "cccccc"));
+    List<String> expected = results();
+    try {
+      searcher.setWarmUp(EnumSet.allOf(WarmUpStep.class));
+      searcher.setWarmUpQueries(queries);
+      assertEquals(EnumSet.allOf(WarmUpStep.class), searcher.getWarmUp());
+      assertEquals(queries, searcher.getWarmUpQueries());
+      searcher.close();
+      searcher.open(index);
+      assertEquals(EnumSet.allOf(WarmUpStep.class), searcher.getWarmUpTimes().keySet());
+      assertEquals(expected, results());
+      searcher.setWarmUp(EnumSet.of(WarmUpStep.TERM_DICTIONARIES));
+      assertTrue(searcher.reload());
+      searcher.open(index);
+      assertEquals(Set.of(WarmUpStep.TERM_DICTIONARIES), searcher.getWarmUpTimes().keySet());
+      searcher.setWarmUp(EnumSet.of(WarmUpStep.QUERIES));
+      searcher.setWarmUpQueries(new File(tempDir, "missing.txt"));
+      searcher.close();
+      assertThrows(IOException.class, () -> searcher.open(index));
+      assertFalse(searcher.isOpen());
+    } finally {
+      searcher.setWarmUp(Set.of());
+      searcher.setWarmUpQueries(null);
+    }
+  }
+
+  @Test
+  void testResultCache() throws IOException {
+    List<Entry> expected = searcher.search("aaaaaa", Language.HU, 100);
+    LruResultCache cache = new LruResultCache(100, 1 << 20);
+    searcher.setResultCache(cache);
+    try {
+      assertSame(cache, searcher.getResultCache());
+      List<Entry> first = searcher.search("aaaaaa", Language.HU, 100);
+      // The case of the query is folded by all analyzers
+      final List<Entry> second = searcher.search("AAAAAA", Language.HU, 100);
+      assertEquals(1, cache.getHits());
+      assertEquals(1, cache.getMisses());
+      assertEquals(ids(expected), ids(first));
+      assertEquals(ids(expected), ids(second));
+      assertEquals(expected.get(0).getText(), second.get(0).getText());
+      // Each caller gets its own copy of the results
+      second.get(0).setText("text");
+      assertEquals(expected.get(0).getText(),
+          searcher.search("aaaaaa", Language.HU, 100).get(0).getText());
+      searcher.search("aaaaaa", Language.NO, 100);
+      searcher.search("aaaaaa", 100);
+      searcher.search("aaaaaa", Language.HU, 10);
+      assertEquals(4, cache.getMisses());
+      List<String> suggestions = searcher.suggestions("aa", 10);
+      assertEquals(3, suggestions.size());
+      assertEquals(suggestions, searcher.suggestions("ÁA", 10));
+      List<String> spelling = searcher.spellingSuggestions("aabaaa", 5);
+      assertEquals(spelling, searcher.spellingSuggestions("aabaaa", 5));
+      assertEquals(4, cache.getHits());
+      assertEquals(6, cache.size());
+      searcher.open(new File(getClass().getResource("/3_6_2/lucene-index").getFile()));
+      assertEquals(0, cache.size());
+      assertEquals(ids(expected), ids(searcher.search("aaaaaa", Language.HU, 100)));
+      assertEquals(4, cache.getHits());
+      assertTrue(searcher.reload());
+      // The index has not changed
+      assertEquals(1, cache.size());
+    } finally {
+      searcher.setResultCache(null);
+    }
+  }
+
+  @Test
+  void testResultCacheWithLazyText() throws IOException {
+    List<Entry> expected = searcher.search("cccccc", 100);
+    searcher.setLazyText(true);
+    searcher.setResultCache(new LruResultCache(100, 1 << 20));
+    try {
+      // The cache wins, the entries are loaded eagerly
+      for (List<Entry> entries : Arrays.asList(searcher.search("cccccc", 100),
+          searcher.search("cccccc", 100))) {
+        assertEquals(ids(expected), ids(entries));
+        for (int i = 0; i < entries.size(); i++) {
+          assertFalse(entries.get(i) instanceof LazyEntry);
+          assertEquals(expected.get(i).getText(), entries.get(i).getText());
+        }
+      }
+    } finally {
+      searcher.setResultCache(null);
+      searcher.setLazyText(false);
+    }
+  }
+
+  @Test
+  void testSearchMetrics() throws IOException {
+    SearchMetricsRegistry metrics = new SearchMetricsRegistry();
+    searcher.setSearchMetrics(metrics);
+    try {
+      assertSame(metrics, searcher.getSearchMetrics());
+      String[] queries = {"aaaaaa", "bbbbbb", "cccccc", "ffffff"};
+      for (String query : queries) {
+        searcher.search(query, Language.HU, 100);
+      }
+      assertEquals(4, metrics.getLatencies(SearchMethod.SEARCH).getCount());
+      assertEquals(1, metrics.getEmptyResults(SearchMethod.SEARCH));
+      assertEquals(4, metrics.getLatencies(SearchTier.ROOTS).getCount());
+      assertEquals(3, metrics.getLatencies(SearchTier.FORMS).getCount());
+      assertEquals(2, metrics.getLatencies(SearchTier.FULL_TEXT).getCount());
+      assertEquals(3, metrics.getFallThroughs(SearchTier.ROOTS));
+      assertEquals(2, metrics.getFallThroughs(SearchTier.FORMS));
+      assertEquals(0, metrics.getFallThroughs(SearchTier.FULL_TEXT));
+      assertEquals(3, metrics.getDocumentsLoaded());
+      assertTrue(metrics.getBytesRead() > 0);
+      metrics.reset();
+      searcher.setSinglePass(true);
+      for (String query : queries) {
+        searcher.search(query, 100);
+      }
+      // A single pass is reported as the tier with the results
+      assertEquals(1, metrics.getLatencies(SearchTier.ROOTS).getCount());
+      assertEquals(1, metrics.getLatencies(SearchTier.FORMS).getCount());
+      assertEquals(2, metrics.getLatencies(SearchTier.FULL_TEXT).getCount());
+      assertEquals(3, metrics.getFallThroughs(SearchTier.ROOTS));
+      assertEquals(2, metrics.getFallThroughs(SearchTier.FORMS));
+      assertEquals(5, metrics.getDocumentsLoaded());
+      searcher.setSinglePass(false);
+      metrics.reset();
+      assertEquals(3, searcher.suggestions("aaa", 20).size());
+      assertEquals(1, metrics.getLatencies(SearchMethod.SUGGESTIONS).getCount());
+      assertTrue(metrics.getDocumentsLoaded() >= 3);
+      searcher.spellingSuggestions("aabaaa", 5);
+      assertEquals(1, metrics.getLatencies(SearchMethod.SPELLING_SUGGESTIONS).getCount());
+      assertEquals(1, metrics.getSpellCheckerLatencies().getCount());
+      searcher.searchBatch(List.of("aaaaaa", "ffffff"), Language.HU, 100);
+      assertEquals(1, metrics.getLatencies(SearchMethod.SEARCH_BATCH).getCount());
+      assertEquals(0, metrics.getEmptyResults(SearchMethod.SEARCH_BATCH));
+      assertEquals(0, metrics.getLatencies(SearchTier.ROOTS).getCount());
+    } finally {
+      searcher.setSearchMetrics(null);
+    }
+  }
+
+  @Test
+  void testSearchMetricsHeadwordTable(@TempDir File tempDir) throws IOException {
+    File index = new File(getClass().getResource("/3_6_2/lucene-index").getFile());
+    for (File file : index.listFiles()) {
+      Files.copy(file.toPath(), new File(tempDir, file.getName()).toPath());
+    }
+    writeHeadwordTable(tempDir, false);
+    searcher.open(tempDir);
+    SearchMetricsRegistry metrics = new SearchMetricsRegistry();
+    searcher.setSearchMetrics(metrics);
+    try {
+      assertEquals(1, searcher.search("aaaaaa", Language.HU, 100).size());
+      assertEquals(1, searcher.search("bbbbbb", Language.HU, 100).size());
+      searcher.search("aaaaaa bbbbbb", Language.HU, 100);
+      assertEquals(2, metrics.getLatencies(SearchTier.HEADWORD_TABLE).getCount());
+      assertEquals(1, metrics.getFallThroughs(SearchTier.HEADWORD_TABLE));
+      // The roots tier is only searched for the query the table cannot answer
+      assertEquals(1, metrics.getLatencies(SearchTier.ROOTS).getCount());
+    } finally {
+      searcher.setSearchMetrics(null);
+    }
+  }
+
+  @Test
+  void testStoredBytes() {
+    Document document = new Document();
+    document.add(new Field(Lucene.ID, "aé€😀", Field.Store.YES,
+        Field.Index.NO));
+    document.add(new Field(Lucene.TEXT_COMPACT, new byte[] {1, 2, 3}));
+    assertEquals(1 + 2 + 3 + 4 + 3, LuceneSearcher.storedBytes(document));
+  }
+
+  @Test
+  void testSearchBatch() throws IOException {
+    List<String> queries = new ArrayList<>(List.of("aaaaaa", "AAAAAA", "bbbbbb", "cccccc",
+        "ffffff", "tttto", "ttttó", "ttttő", "ttttø", "aaaaab", "", "aaaaaa bbbbbb", "aaaaaa"));
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      for (Language language : Language.values()) {
+        List<List<String>> expected = new ArrayList<>();
+        for (String query : queries) {
+          expected.add(texts(searcher.search(query, language, 100)));
+        }
+        List<List<Entry>> results = searcher.searchBatch(queries, language, 100);
+        assertEquals(expected, batchTexts(results), language.name());
+        // Repeated queries get their own results
+        assertNotSame(results.get(0), results.get(queries.size() - 1));
+        assertEquals(expected, batchTexts(searcher.searchBatch(queries, language, 100,
+            executorService)), language.name());
+      }
+      List<String> many = new ArrayList<>(queries);
+      for (int i = 0; i < 600; i++) {
+        many.add("w" + i);
+      }
+      many.add("aaaaaa");
+      List<List<Entry>> results = searcher.searchBatch(many, Language.HU, 100, executorService);
+      assertEquals(many.size(), results.size());
+      assertEquals(texts(searcher.search("aaaaaa", Language.HU, 100)),
+          texts(results.get(many.size() - 1)));
+      assertTrue(results.get(many.size() - 2).isEmpty());
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  private static List<String> texts(List<Entry> entries) {
+    List<String> texts = new ArrayList<>();
+    for (Entry entry : entries) {
+      texts.add(entry.getLang() + entry.getId() + "|" + entry.getText());
+    }
+    return texts;
+  }
+
+  private static List<List<String>> batchTexts(List<List<Entry>> results) {
+    List<List<String>> texts = new ArrayList<>();
+    for (List<Entry> entries : results) {
+      texts.add(texts(entries));
+    }
+    return texts;
+  }
+
+  @Test
+  void testReload() throws IOException {
+    assertTrue(searcher.reload());
+    assertEquals(1, searcher.search("aaaaaa", Language.HU, 100).size());
+    searcher.close();
+    assertFalse(searcher.reload());
+  }
+
+  @Test
+  void testDirectoryTypes() throws IOException {
+    File index = new File(getClass().getResource("/3_6_2/lucene-index").getFile());
+    File spelling = new File(
+        getClass().getResource("/3_6_2/lucene-spellchecker-index").getFile());
+    assertEquals(DirectoryType.NIOFS, searcher.getDirectoryType());
+    List<String> expected = results();
+    for (DirectoryType directoryType : DirectoryType.values()) {
+      searcher.setDirectoryType(directoryType);
+      assertEquals(directoryType, searcher.getDirectoryType());
+      searcher.open(index);
+      searcher.openSpellChecker(spelling);
+      assertEquals(expected, results(), directoryType.name());
+    }
+  }
+
+  private List<String> results() throws IOException {
+    List<String> results = new ArrayList<>();
+    for (String query : new String[] {"aaaaaa", "cccccc", "bbbbbb", "nosuchword"}) {
+      for (Entry entry : searcher.search(query, 100)) {
+        results.add(entry.getId() + "|" + entry.getText());
+      }
+    }
+    results.addAll(searcher.spellingSuggestions("aabaaa", 5));
+    results.addAll(searcher.suggestions("aa", 10));
+    return results;
+  }
+
+  @Test
+  void testReloadPreloaded(@TempDir File tempDir) throws IOException {
+    File index = new File(getClass().getResource("/3_6_2/lucene-index").getFile());
+    File copy = new File(tempDir, "index");
+    assertTrue(copy.mkdir());
+    for (File file : index.listFiles()) {
+      Files.copy(file.toPath(), new File(copy, file.getName()).toPath());
+    }
+    searcher.setDirectoryType(DirectoryType.PRELOADED);
+    searcher.open(copy);
+    assertTrue(searcher.reload());
+    assertEquals(1, searcher.search("aaaaaa", Language.HU, 100).size());
+    IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Lucene.VERSION,
+        PerFieldAnalyzer.getInstance(Lucene.VERSION));
+    try (IndexWriter indexWriter =
+        new IndexWriter(new NIOFSDirectory(copy), indexWriterConfig)) {
+      Document document = new Document();
+      document.add(new Field(Lucene.ID, "HU_new", Field.Store.YES, Field.Index.NOT_ANALYZED));
+      document.add(new Field(Lucene.LANG, "hu", Field.Store.YES, Field.Index.NOT_ANALYZED));
+      document.add(new Field(Lucene.HU_ROOTS, "aaaaaa", Field.Store.YES, Field.Index.ANALYZED));
+      document.add(new Field(Lucene.SORT, "aaaaaa", Field.Store.NO, Field.Index.NOT_ANALYZED));
+      indexWriter.addDocument(document);
+    }
+    assertEquals(1, searcher.search("aaaaaa", Language.HU, 100).size());
+    assertTrue(searcher.reload());
+    assertEquals(2, searcher.search("aaaaaa", Language.HU, 100).size());
+    searcher.close();
+    assertFalse(searcher.reload());
+  }
+
+  @Test
+  void testReopenWhileSearching() throws IOException, InterruptedException,
+      ExecutionException {
+    File index = new File(getClass().getResource("/3_6_2/lucene-index").getFile());
+    File spelling = new File(
+        getClass().getResource("/3_6_2/lucene-spellchecker-index").getFile());
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executorService.submit(() -> {
+          int queries = 0;
+          while (running.get() || queries == 0) {
+            assertEquals(1, searcher.search("aaaaaa", Language.HU, 100).size());
+            assertEquals(2, searcher.search("cccccc", 100).size());
+            assertEquals(3, searcher.spellingSuggestions("aabaaa", 5).size());
+            queries++;
+          }
+          return queries;
+        }));
+      }
+      for (int i = 0; i < 20; i++) {
+        searcher.open(index);
+        searcher.openSpellChecker(spelling);
+      }
+      running.set(false);
+      for (Future<Integer> future : futures) {
+        assertTrue(future.get() > 0);
+      }
+    } finally {
+      running.set(false);
+      executorService.shutdown();
+    }
+    assertTrue(searcher.isOpen());
+    assertTrue(searcher.isSpellCheckerOpen());
+  }
+
+  @Test
+  void testSinglePassSameAsCascade() throws IOException {
+    String[] queries = {"aaaaaa", "aaaaab", "bbbbbb", "cccccc", "ffffff", "tttto", "ttttø", ""};
+    for (String query : queries) {
+      final List<String> cascade = ids(searcher.search(query, 100));
+      final List<String> cascadeHu = ids(searcher.search(query, Language.HU, 100));
+      final List<String> cascadeNo = ids(searcher.search(query, Language.NO, 1));
+      searcher.setSinglePass(true);
+      assertTrue(searcher.isSinglePass());
+      assertEquals(cascade, ids(searcher.search(query, 100)));
+      assertEquals(cascadeHu, ids(searcher.search(query, Language.HU, 100)));
+      assertEquals(cascadeNo, ids(searcher.search(query, Language.NO, 1)));
+      searcher.setSinglePass(false);
+    }
+  }
+
+  private static List<String> ids(List<Entry> entries) {
+    List<String> ids = new ArrayList<>();
+    for (Entry entry : entries) {
+      ids.add(entry.getLang() + entry.getId());
+    }
+    return ids;
+  }
+
 }
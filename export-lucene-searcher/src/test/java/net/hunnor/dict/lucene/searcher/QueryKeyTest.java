@@ -0,0 +1,38 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import net.hunnor.dict.lucene.model.Language;
+import org.junit.jupiter.api.Test;
+
+class QueryKeyTest {
+
+  @Test
+  void testEquals() {
+    QueryKey key = new QueryKey(QueryKey.Type.SEARCH, "lo", Language.HU, 10, 1);
+    assertEquals(key, key);
+    assertEquals(key, new QueryKey(QueryKey.Type.SEARCH, "lo", Language.HU, 10, 1));
+    assertEquals(key.hashCode(),
+        new QueryKey(QueryKey.Type.SEARCH, "lo", Language.HU, 10, 1).hashCode());
+    assertNotEquals(key, new QueryKey(QueryKey.Type.SUGGESTIONS, "lo", Language.HU, 10, 1));
+    assertNotEquals(key, new QueryKey(QueryKey.Type.SEARCH, "la", Language.HU, 10, 1));
+    assertNotEquals(key, new QueryKey(QueryKey.Type.SEARCH, "lo", Language.NO, 10, 1));
+    assertNotEquals(key, new QueryKey(QueryKey.Type.SEARCH, "lo", null, 10, 1));
+    assertNotEquals(key, new QueryKey(QueryKey.Type.SEARCH, "lo", Language.HU, 20, 1));
+    assertNotEquals(key, new QueryKey(QueryKey.Type.SEARCH, "lo", Language.HU, 10, 2));
+    assertNotEquals(key, "lo");
+  }
+
+  @Test
+  void testGetters() {
+    QueryKey key = new QueryKey(QueryKey.Type.SUGGESTIONS, "lo", null, 10, 3);
+    assertEquals(QueryKey.Type.SUGGESTIONS, key.getType());
+    assertEquals("lo", key.getQuery());
+    assertEquals(null, key.getLanguage());
+    assertEquals(10, key.getMax());
+    assertEquals(3, key.getGeneration());
+    assertEquals("SUGGESTIONS(lo, null, 10)@3", key.toString());
+  }
+
+}
@@ -0,0 +1,52 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SearchMetricsRegistryTest {
+
+  @Test
+  void testRecord() {
+    SearchMetricsRegistry registry = new SearchMetricsRegistry();
+    registry.searched(SearchMethod.SEARCH, 2000, 3);
+    registry.searched(SearchMethod.SEARCH, 4000, 0);
+    registry.tierSearched(SearchTier.ROOTS, 1000, 0);
+    registry.fellThrough(SearchTier.ROOTS);
+    registry.tierSearched(SearchTier.FORMS, 1500, 3);
+    registry.spellChecked(500);
+    registry.documentsLoaded(3, 300);
+    registry.documentsLoaded(1, 50);
+    assertEquals(2, registry.getLatencies(SearchMethod.SEARCH).getCount());
+    assertEquals(4000, registry.getLatencies(SearchMethod.SEARCH).getMax());
+    assertEquals(0, registry.getLatencies(SearchMethod.SUGGESTIONS).getCount());
+    assertEquals(1, registry.getEmptyResults(SearchMethod.SEARCH));
+    assertEquals(1, registry.getLatencies(SearchTier.ROOTS).getCount());
+    assertEquals(1, registry.getLatencies(SearchTier.FORMS).getCount());
+    assertEquals(1, registry.getFallThroughs(SearchTier.ROOTS));
+    assertEquals(0, registry.getFallThroughs(SearchTier.FORMS));
+    assertEquals(1, registry.getSpellCheckerLatencies().getCount());
+    assertEquals(4, registry.getDocumentsLoaded());
+    assertEquals(350, registry.getBytesRead());
+    registry.reset();
+    assertEquals(0, registry.getLatencies(SearchMethod.SEARCH).getCount());
+    assertEquals(0, registry.getEmptyResults(SearchMethod.SEARCH));
+    assertEquals(0, registry.getLatencies(SearchTier.ROOTS).getCount());
+    assertEquals(0, registry.getFallThroughs(SearchTier.ROOTS));
+    assertEquals(0, registry.getSpellCheckerLatencies().getCount());
+    assertEquals(0, registry.getDocumentsLoaded());
+    assertEquals(0, registry.getBytesRead());
+  }
+
+  @Test
+  void testDefaultMethodsDoNothing() {
+    SearchMetrics metrics = new SearchMetrics() {
+    };
+    metrics.searched(SearchMethod.SEARCH, 1, 1);
+    metrics.tierSearched(SearchTier.ROOTS, 1, 1);
+    metrics.fellThrough(SearchTier.ROOTS);
+    metrics.spellChecked(1);
+    metrics.documentsLoaded(1, 1);
+  }
+
+}
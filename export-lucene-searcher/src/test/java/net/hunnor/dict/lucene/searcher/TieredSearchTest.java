@@ -0,0 +1,69 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.analysis.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.Test;
+
+class TieredSearchTest {
+
+  private static final Sort SORT = new Sort(new SortField("sort", SortField.STRING));
+
+  @Test
+  void testFirstTierWithHitsAcrossSegments() throws IOException {
+    RAMDirectory directory = new RAMDirectory();
+    IndexWriterConfig config = new IndexWriterConfig(Lucene.VERSION, new KeywordAnalyzer());
+    try (IndexWriter writer = new IndexWriter(directory, config)) {
+      // One segment per commit: tier 2 hits first, tier 1 only in the last segment
+      writer.addDocument(document("c", "x", "2"));
+      writer.commit();
+      writer.addDocument(document("b", "x", "2"));
+      writer.addDocument(document("a", "y", "1"));
+      writer.commit();
+      writer.addDocument(document("d", "x", "1"));
+      writer.addDocument(document("e", "x", "1"));
+    }
+    try (IndexReader reader = IndexReader.open(directory);
+        IndexSearcher searcher = new IndexSearcher(reader)) {
+      TieredSearch.Tier[] tiers = {tier("z"), tier("x"), tier("y")};
+      TieredSearch.Result result = TieredSearch.search(searcher, tiers, SORT, 10);
+      assertEquals(1, result.getTier());
+      assertEquals(4, result.getScoreDocs().length);
+      assertEquals(3, TieredSearch.search(searcher, tiers, SORT, 3).getScoreDocs().length);
+      tiers = new TieredSearch.Tier[] {tier("z"), tier("w")};
+      result = TieredSearch.search(searcher, tiers, SORT, 10);
+      assertEquals(TieredSearch.NO_TIER, result.getTier());
+      assertEquals(0, result.getScoreDocs().length);
+      tiers = new TieredSearch.Tier[] {tier("y"), tier("x")};
+      result = TieredSearch.search(searcher, tiers, SORT, 10);
+      assertEquals(0, result.getTier());
+      assertEquals(1, result.getScoreDocs().length);
+    }
+  }
+
+  private static Document document(String sort, String term, String other) {
+    Document document = new Document();
+    document.add(new Field("sort", sort, Field.Store.YES, Field.Index.NOT_ANALYZED));
+    document.add(new Field("term", term, Field.Store.NO, Field.Index.NOT_ANALYZED));
+    document.add(new Field("other", other, Field.Store.NO, Field.Index.NOT_ANALYZED));
+    return document;
+  }
+
+  private static TieredSearch.Tier tier(String term) {
+    return () -> new TermQuery(new Term("term", term));
+  }
+
+}
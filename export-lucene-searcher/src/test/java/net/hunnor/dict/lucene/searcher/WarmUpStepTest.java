@@ -0,0 +1,86 @@
+package net.hunnor.dict.lucene.searcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.hunnor.dict.lucene.constants.Lucene;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.FieldCache;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WarmUpStepTest {
+
+  private IndexReader indexReader;
+
+  private IndexSearcher indexSearcher;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    indexReader = IndexReader.open(new NIOFSDirectory(
+        new File(getClass().getResource("/3_6_2/lucene-index").getFile())));
+    indexSearcher = new IndexSearcher(indexReader);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    FieldCache.DEFAULT.purge(indexReader);
+    indexReader.close();
+  }
+
+  @Test
+  void testFieldCaches() throws IOException {
+    assertTrue(cachedFields().isEmpty());
+    WarmUpStep.FIELD_CACHES.warm(LuceneSearcher.getInstance(), indexSearcher);
+    assertEquals(Set.of(Lucene.SORT, Lucene.SUGGESTION), cachedFields());
+  }
+
+  @Test
+  void testTermDictionaries() throws IOException {
+    WarmUpStep.TERM_DICTIONARIES.warm(LuceneSearcher.getInstance(), indexSearcher);
+    assertTrue(cachedFields().isEmpty());
+  }
+
+  @Test
+  void testQueries(@TempDir File tempDir) throws IOException {
+    LuceneSearcher searcher = LuceneSearcher.getInstance();
+    // Without a query file there is nothing to run
+    WarmUpStep.QUERIES.warm(searcher, indexSearcher);
+    File queries = new File(tempDir, "queries.txt");
+    Files.write(queries.toPath(), List.of("aaaaaa", "nosuchword"));
+    searcher.setWarmUpQueries(queries);
+    try {
+      WarmUpStep.QUERIES.warm(searcher, indexSearcher);
+      // The results are not sorted, so the sort field is not cached
+      assertTrue(cachedFields().isEmpty());
+    } finally {
+      searcher.setWarmUpQueries(null);
+    }
+  }
+
+  private Set<String> cachedFields() {
+    Set<Object> readers = new HashSet<>();
+    readers.add(indexReader.getCoreCacheKey());
+    for (IndexReader segment : indexReader.getSequentialSubReaders()) {
+      readers.add(segment.getCoreCacheKey());
+    }
+    Set<String> fields = new HashSet<>();
+    for (FieldCache.CacheEntry entry : FieldCache.DEFAULT.getCacheEntries()) {
+      if (readers.contains(entry.getReaderKey())) {
+        fields.add(entry.getFieldName());
+      }
+    }
+    return fields;
+  }
+
+}